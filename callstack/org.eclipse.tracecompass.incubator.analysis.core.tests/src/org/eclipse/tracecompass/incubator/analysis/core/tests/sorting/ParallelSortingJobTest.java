@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.analysis.core.tests.sorting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.sorting.ParallelSortingJob;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.sorting.ParallelSortingJob.EventsOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the external sort of the {@link ParallelSortingJob}
+ */
+public class ParallelSortingJobTest {
+
+    private static final byte[] TS_KEY = "\"ts\":".getBytes(StandardCharsets.UTF_8);
+
+    private File fInput;
+    private File fOutput;
+
+    /**
+     * Create the temporary files
+     *
+     * @throws IOException
+     *             Exceptions creating the files
+     */
+    @Before
+    public void before() throws IOException {
+        fInput = File.createTempFile("unsorted", ".json");
+        fOutput = File.createTempFile("sorted", ".json");
+    }
+
+    /**
+     * Delete the temporary files
+     */
+    @After
+    public void after() {
+        fInput.delete();
+        fOutput.delete();
+    }
+
+    /**
+     * Sort a small trace in one chunk, with events that contain brackets in
+     * strings and nested objects
+     *
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    @Test
+    public void testSingleChunk() throws IOException {
+        List<String> events = Arrays.asList(
+                "{\"ts\":3,\"name\":\"c\"}",
+                "{\"ts\":1.5,\"name\":\"a}]\\\"\",\"args\":{\"x\":[1,{\"y\":2}]}}",
+                "{\"ts\":\"2\",\"name\":\"b\"}",
+                "{\"ts\":1.25,\"name\":\"first\"}");
+        writeTrace("{\"traceEvents\":[" + String.join(",", events) + "],\"otherData\":[]}");
+
+        IStatus status = ParallelSortingJob.sort(fInput, fOutput, TS_KEY, 1, 1024 * 1024, new NullProgressMonitor());
+        assertTrue(status.isOK());
+        assertEquals(Arrays.asList(events.get(3), events.get(1), events.get(2), events.get(0)), readEvents());
+    }
+
+    /**
+     * Sort a larger trace with chunks small enough to have many sorted runs to
+     * merge, the order of events with the same timestamp must be kept
+     *
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    @Test
+    public void testManyChunks() throws IOException {
+        Random random = new Random(42);
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            events.add("{\"name\":\"event" + i + "\",\"ts\":" + random.nextInt(100) + "." + random.nextInt(10) + "}");
+        }
+        writeTrace("[" + String.join(",\n", events) + "]");
+
+        IStatus status = ParallelSortingJob.sort(fInput, fOutput, TS_KEY, 1, 4096, new NullProgressMonitor());
+        assertTrue(status.isOK());
+
+        List<String> expected = new ArrayList<>(events);
+        expected.sort((e1, e2) -> Double.compare(getTs(e1), getTs(e2)));
+        assertEquals(expected, readEvents());
+    }
+
+    /**
+     * Sort a trace where the events are larger than the chunk size
+     *
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    @Test
+    public void testLargeEvents() throws IOException {
+        char[] padding = new char[200];
+        Arrays.fill(padding, 'x');
+        List<String> events = new ArrayList<>();
+        for (int i = 10; i > 0; i--) {
+            events.add("{\"ts\":" + i + ",\"args\":\"" + new String(padding) + "\"}");
+        }
+        writeTrace("[" + String.join(",", events) + "]");
+
+        IStatus status = ParallelSortingJob.sort(fInput, fOutput, TS_KEY, 1, 64, new NullProgressMonitor());
+        assertTrue(status.isOK());
+
+        List<String> expected = new ArrayList<>(events);
+        expected.sort((e1, e2) -> Double.compare(getTs(e1), getTs(e2)));
+        assertEquals(expected, readEvents());
+    }
+
+    /**
+     * Test the order check on sorted, nearly sorted and unsorted traces
+     *
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    @Test
+    public void testCheckOrder() throws IOException {
+        writeTrace("{\"traceEvents\":[{\"ts\":1},{\"name\":\"metadata\"},{\"ts\":1.5},{\"ts\":\"2\"},{\"ts\":10}]}");
+        assertEquals(EventsOrder.SORTED, ParallelSortingJob.checkOrder(fInput, TS_KEY, 1, 2, new NullProgressMonitor()));
+
+        // Each event is at most 2 events away from its place
+        writeTrace("[{\"ts\":2},{\"ts\":3},{\"ts\":1},{\"ts\":5},{\"ts\":4}]");
+        assertEquals(EventsOrder.NEARLY_SORTED, ParallelSortingJob.checkOrder(fInput, TS_KEY, 1, 2, new NullProgressMonitor()));
+
+        writeTrace("[{\"ts\":2},{\"ts\":3},{\"ts\":4},{\"ts\":1}]");
+        assertEquals(EventsOrder.UNSORTED, ParallelSortingJob.checkOrder(fInput, TS_KEY, 1, 2, new NullProgressMonitor()));
+    }
+
+    /**
+     * Sort a nearly sorted trace in one pass
+     *
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    @Test
+    public void testSortWindow() throws IOException {
+        List<String> events = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            // Swap events by pairs, and add events with the same timestamp
+            int ts = (i % 2 == 0) ? i + 1 : i - 1;
+            events.add("{\"name\":\"event" + i + "\",\"ts\":" + ts + "}");
+            events.add("{\"name\":\"same" + i + "\",\"ts\":" + ts + "}");
+        }
+        writeTrace("[" + String.join(",", events) + "]");
+        assertEquals(EventsOrder.NEARLY_SORTED, ParallelSortingJob.checkOrder(fInput, TS_KEY, 1, 8, new NullProgressMonitor()));
+
+        IStatus status = ParallelSortingJob.sortWindow(fInput, fOutput, TS_KEY, 1, 8, new NullProgressMonitor());
+        assertTrue(status.isOK());
+
+        List<String> expected = new ArrayList<>(events);
+        expected.sort((e1, e2) -> Double.compare(getTs(e1), getTs(e2)));
+        assertEquals(expected, readEvents());
+    }
+
+    /**
+     * Test that a sort cancelled while writing does not leave a partial output
+     * file, which would be taken for the sorted trace
+     *
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    @Test
+    public void testCancel() throws IOException {
+        List<String> events = new ArrayList<>();
+        for (int i = 1000; i > 0; i--) {
+            events.add("{\"name\":\"event" + i + "\",\"ts\":" + i + "}");
+        }
+        writeTrace("[" + String.join(",", events) + "]");
+        assertTrue(fOutput.delete());
+        File tmpOutput = new File(fOutput.getPath() + ".tmp");
+
+        // Cancel once the sorted events are being written
+        NullProgressMonitor monitor = new NullProgressMonitor() {
+            @Override
+            public boolean isCanceled() {
+                return tmpOutput.exists();
+            }
+        };
+        IStatus status = ParallelSortingJob.sort(fInput, fOutput, TS_KEY, 1, 4096, monitor);
+        assertEquals(IStatus.CANCEL, status.getSeverity());
+        assertFalse(fOutput.exists());
+        assertFalse(tmpOutput.exists());
+
+        status = ParallelSortingJob.sortWindow(fInput, fOutput, TS_KEY, 1, 8, monitor);
+        assertEquals(IStatus.CANCEL, status.getSeverity());
+        assertFalse(fOutput.exists());
+        assertFalse(tmpOutput.exists());
+
+        // A completed sort replaces the output file
+        status = ParallelSortingJob.sortWindow(fInput, fOutput, TS_KEY, 1, 8, new NullProgressMonitor());
+        assertTrue(status.isOK());
+        assertFalse(tmpOutput.exists());
+        assertEquals(events.size(), readEvents().size());
+    }
+
+    private void writeTrace(String content) throws IOException {
+        Files.write(fInput.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> readEvents() throws IOException {
+        List<String> lines = Files.readAllLines(fOutput.toPath(), StandardCharsets.UTF_8);
+        assertEquals("[", lines.get(0));
+        assertEquals("]", lines.get(lines.size() - 1));
+        List<String> events = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size() - 1)) {
+            events.add(line.endsWith(",") ? line.substring(0, line.length() - 1) : line);
+        }
+        return events;
+    }
+
+    private static double getTs(String event) {
+        int start = event.indexOf("\"ts\":") + 5;
+        int end = event.indexOf('}', start);
+        int comma = event.indexOf(',', start);
+        if (comma >= 0 && comma < end) {
+            end = comma;
+        }
+        return Double.parseDouble(event.substring(start, end));
+    }
+}
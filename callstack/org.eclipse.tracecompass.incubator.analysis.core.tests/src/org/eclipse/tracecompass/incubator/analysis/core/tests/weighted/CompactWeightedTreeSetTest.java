@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.analysis.core.tests.weighted;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.tests.stubs.weighted.SimpleTree;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.CompactWeightedTreeSet;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Test the {@link CompactWeightedTreeSet} class
+ */
+@NonNullByDefault
+public class CompactWeightedTreeSetTest {
+
+    private static final String OBJ1 = "obj1";
+    private static final String OBJ2 = "obj2";
+    private static final String OBJ3 = "obj3";
+    private static final String OBJ4 = "obj4";
+
+    /**
+     * Test adding trees to elements, with their children
+     */
+    @Test
+    public void testAddingTrees() {
+        String element1 = "element1";
+        String element2 = "element2";
+
+        CompactWeightedTreeSet<String, String> treeSet = new CompactWeightedTreeSet<>();
+        assertTrue(treeSet.getElements().isEmpty());
+        assertTrue(treeSet.getTreesFor(element1).isEmpty());
+
+        // Add a tree with children
+        WeightedTree<String> wt = new WeightedTree<>(OBJ1, 10);
+        WeightedTree<String> child = new WeightedTree<>(OBJ2, 6);
+        child.addChild(new WeightedTree<>(OBJ3, 2));
+        wt.addChild(child);
+        wt.addChild(new WeightedTree<>(OBJ3, 3));
+        treeSet.addWeightedTree(element1, wt);
+        assertEquals(ImmutableList.of(element1), ImmutableList.copyOf(treeSet.getElements()));
+        assertEquals(4, treeSet.getNbTrees());
+
+        Collection<WeightedTree<String>> trees = treeSet.getTreesFor(element1);
+        assertEquals(1, trees.size());
+        WeightedTree<String> tree = trees.iterator().next();
+        assertEquals(OBJ1, tree.getObject());
+        assertEquals(10, tree.getWeight());
+        assertEquals(3, tree.getMaxDepth());
+        assertEquals(2, tree.getChildren().size());
+        WeightedTree<String> childTree = getChild(tree.getChildren(), OBJ2);
+        assertEquals(6, childTree.getWeight());
+        assertEquals(2, getChild(childTree.getChildren(), OBJ3).getWeight());
+        assertEquals(3, getChild(tree.getChildren(), OBJ3).getWeight());
+
+        // Add a tree for the same object, it should be merged
+        wt = new WeightedTree<>(OBJ1, 5);
+        wt.addChild(new WeightedTree<>(OBJ2, 4));
+        wt.addChild(new WeightedTree<>(OBJ4, 1));
+        treeSet.addWeightedTree(element1, wt);
+        assertEquals(5, treeSet.getNbTrees());
+        trees = treeSet.getTreesFor(element1);
+        assertEquals(1, trees.size());
+        tree = trees.iterator().next();
+        assertEquals(15, tree.getWeight());
+        assertEquals(3, tree.getChildren().size());
+        assertEquals(10, getChild(tree.getChildren(), OBJ2).getWeight());
+        assertEquals(1, getChild(tree.getChildren(), OBJ4).getWeight());
+
+        // The trees of another element are separate
+        treeSet.addWeightedTree(element2, new WeightedTree<>(OBJ1, 3));
+        assertEquals(2, treeSet.getElements().size());
+        assertEquals(3, treeSet.getTreesFor(element2).iterator().next().getWeight());
+        assertEquals(15, treeSet.getTreesFor(element1).iterator().next().getWeight());
+    }
+
+    /**
+     * Test adding trees to {@link SimpleTree} elements, the root element of the
+     * hierarchy should be the element of the set
+     */
+    @Test
+    public void testAddingTreeData() {
+        SimpleTree element1 = new SimpleTree("element1");
+        SimpleTree element2 = new SimpleTree("element2");
+        element1.addChild(element2);
+
+        CompactWeightedTreeSet<String, SimpleTree> treeSet = new CompactWeightedTreeSet<>();
+        treeSet.addWeightedTree(element2, new WeightedTree<>(OBJ1, 10));
+        assertEquals(ImmutableList.of(element1), ImmutableList.copyOf(treeSet.getElements()));
+        assertEquals(1, treeSet.getTreesFor(element2).size());
+        assertTrue(treeSet.getTreesFor(element1).isEmpty());
+    }
+
+    /**
+     * Test adding paths of objects to the set
+     */
+    @Test
+    public void testAddingPaths() {
+        String element = "element";
+        CompactWeightedTreeSet<String, String> treeSet = new CompactWeightedTreeSet<>();
+        treeSet.addPath(element, ImmutableList.of(OBJ1, OBJ2, OBJ3), 1);
+        treeSet.addPath(element, ImmutableList.of(OBJ1, OBJ2, OBJ4), 2);
+        treeSet.addPath(element, ImmutableList.of(OBJ1, OBJ3), 3);
+        treeSet.addPath(element, ImmutableList.of(OBJ2), 4);
+        assertEquals(6, treeSet.getNbTrees());
+
+        Collection<WeightedTree<String>> trees = treeSet.getTreesFor(element);
+        assertEquals(2, trees.size());
+        WeightedTree<String> tree = getChild(trees, OBJ1);
+        assertEquals(6, tree.getWeight());
+        assertEquals(3, tree.getMaxDepth());
+        WeightedTree<String> child = getChild(tree.getChildren(), OBJ2);
+        assertEquals(3, child.getWeight());
+        assertEquals(1, getChild(child.getChildren(), OBJ3).getWeight());
+        assertEquals(2, getChild(child.getChildren(), OBJ4).getWeight());
+        assertEquals(3, getChild(tree.getChildren(), OBJ3).getWeight());
+        tree = getChild(trees, OBJ2);
+        assertEquals(4, tree.getWeight());
+        assertEquals(1, tree.getMaxDepth());
+    }
+
+    /**
+     * Test that the trees returned by the set behave like weighted trees
+     */
+    @Test
+    public void testTreeFacades() {
+        String element = "element";
+        CompactWeightedTreeSet<String, String> treeSet = new CompactWeightedTreeSet<>();
+        treeSet.addPath(element, ImmutableList.of(OBJ1, OBJ2), 5);
+        WeightedTree<String> tree = treeSet.getTreesFor(element).iterator().next();
+        assertEquals(tree, treeSet.getTreesFor(element).iterator().next());
+
+        // Merge a tree in the facade, the set is modified
+        WeightedTree<String> other = new WeightedTree<>(OBJ1, 2);
+        other.addChild(new WeightedTree<>(OBJ3, 2));
+        tree.merge(other);
+        tree.addChild(new WeightedTree<>(OBJ2, 1));
+        tree.addToWeight(1);
+        tree = treeSet.getTreesFor(element).iterator().next();
+        assertEquals(8, tree.getWeight());
+        assertEquals(6, getChild(tree.getChildren(), OBJ2).getWeight());
+        assertEquals(2, getChild(tree.getChildren(), OBJ3).getWeight());
+
+        // A copy is a weighted tree that is not part of the set
+        WeightedTree<String> copy = tree.copyOf();
+        copy.addToWeight(10);
+        assertEquals(18, copy.getWeight());
+        assertEquals(8, tree.getWeight());
+        assertEquals(2, copy.getChildren().size());
+        assertEquals(6, getChild(copy.getChildren(), OBJ2).getWeight());
+
+        // Merge the facade in a weighted tree
+        WeightedTree<String> wt = new WeightedTree<>(OBJ1, 1);
+        wt.merge(tree);
+        assertEquals(9, wt.getWeight());
+        assertEquals(2, wt.getChildren().size());
+        assertEquals(2, getChild(wt.getChildren(), OBJ3).getWeight());
+        assertEquals(8, tree.getWeight());
+    }
+
+    /**
+     * Test a wide tree, whose children are looked up by object
+     */
+    @Test
+    public void testWideTree() {
+        String element = "element";
+        int nbChildren = 10000;
+        CompactWeightedTreeSet<String, String> treeSet = new CompactWeightedTreeSet<>();
+        for (int i = 0; i < nbChildren * 2; i++) {
+            treeSet.addPath(element, ImmutableList.of(OBJ1, String.valueOf(i % nbChildren)), i);
+        }
+        assertEquals(nbChildren + 1, treeSet.getNbTrees());
+        WeightedTree<String> tree = treeSet.getTreesFor(element).iterator().next();
+        List<WeightedTree<String>> children = ImmutableList.copyOf(tree.getChildren());
+        assertEquals(nbChildren, children.size());
+        long total = 0;
+        for (WeightedTree<String> child : children) {
+            int value = Integer.parseInt(child.getObject());
+            assertEquals(2 * value + nbChildren, child.getWeight());
+            total += child.getWeight();
+        }
+        assertEquals(total, tree.getWeight());
+    }
+
+    private static WeightedTree<String> getChild(Collection<WeightedTree<String>> trees, String object) {
+        @Nullable WeightedTree<String> found = null;
+        for (WeightedTree<String> tree : trees) {
+            if (tree.getObject().equals(object)) {
+                found = tree;
+            }
+        }
+        assertNotNull("Tree for " + object, found);
+        return found;
+    }
+}
@@ -19,6 +19,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -135,6 +136,86 @@ public class WeightedTreeUtilsTest {
 
     }
 
+    /**
+     * Test the {@link WeightedTreeUtils#diffTrees(Collection, Collection)}
+     * method with wide trees, whose subtrees are differentiated in parallel
+     */
+    @Test
+    public void testDiffWideTree() {
+        int nbChildren = 2000;
+        int nbNewChildren = 100;
+        WeightedTree<Integer> root1 = new WeightedTree<>(0);
+        WeightedTree<Integer> root2 = new WeightedTree<>(0);
+        for (int i = 1; i <= nbChildren + nbNewChildren; i++) {
+            WeightedTree<Integer> child2 = new WeightedTree<>(i, 2 * i);
+            child2.addChild(new WeightedTree<>(-i, 2 * i));
+            root2.addChild(child2);
+            if (i <= nbChildren) {
+                WeightedTree<Integer> child1 = new WeightedTree<>(i, i);
+                child1.addChild(new WeightedTree<>(-i, i));
+                root1.addChild(child1);
+            }
+        }
+
+        Collection<DifferentialWeightedTree<Integer>> diffTrees = WeightedTreeUtils.diffTrees(Collections.singletonList(root1), Collections.singletonList(root2));
+        assertEquals(1, diffTrees.size());
+        DifferentialWeightedTree<Integer> diffRoot = diffTrees.iterator().next();
+        Collection<WeightedTree<Integer>> children = diffRoot.getChildren();
+        assertEquals(nbChildren + nbNewChildren, children.size());
+        for (WeightedTree<Integer> child : children) {
+            int value = child.getObject();
+            double expectedDiff = value <= nbChildren ? 1.0 : Double.NaN;
+            assertEquals("Base weight of " + value, 2 * value, child.getWeight());
+            assertEquals("Differential value of " + value, expectedDiff, ((DifferentialWeightedTree<Integer>) child).getDifference(), 0.001);
+            assertEquals(1, child.getChildren().size());
+            DifferentialWeightedTree<Integer> grandChild = (DifferentialWeightedTree<Integer>) child.getChildren().iterator().next();
+            assertEquals(-value, (int) grandChild.getObject());
+            assertEquals("Differential value of " + -value, expectedDiff, grandChild.getDifference(), 0.001);
+        }
+    }
+
+    /**
+     * Test the
+     * {@link WeightedTreeUtils#diffTopTrees(Collection, Collection, int)}
+     * method with simple trees
+     */
+    @Test
+    public void testDiffTopTrees() {
+        List<WeightedTree<Integer>> tree1 = fTree1;
+        List<WeightedTree<Integer>> tree2 = fTree2;
+        assertNotNull(tree1);
+        assertNotNull(tree2);
+
+        assertTrue(WeightedTreeUtils.diffTopTrees(tree1, tree2, 0).isEmpty());
+
+        // The root 2 has the largest change
+        Collection<DifferentialWeightedTree<Integer>> diffTrees = WeightedTreeUtils.diffTopTrees(tree1, tree2, 1);
+        assertEquals("Size of differential tree", 1, diffTrees.size());
+        assertTrue(getAndVerifyTree(diffTrees, VALUE2, 20, 1.0).isEmpty());
+
+        // The 4 largest changes are all in the root 2
+        diffTrees = WeightedTreeUtils.diffTopTrees(tree1, tree2, 4);
+        assertEquals("Size of differential tree", 1, diffTrees.size());
+        Collection<DifferentialWeightedTree<Integer>> nextTree = getAndVerifyTree(diffTrees, VALUE2, 20, 1.0);
+        assertEquals("Size of differential tree level 2", 2, nextTree.size());
+        getAndVerifyTree(nextTree, VALUE4, 10, 1.0);
+        nextTree = getAndVerifyTree(nextTree, VALUE5, 10, 1.0);
+        assertEquals("Size of diferential tree level 3", 1, nextTree.size());
+        getAndVerifyTree(nextTree, VALUE3, 5, Double.NaN);
+
+        // The next change is the child 2 of the root 1, with its parent
+        diffTrees = WeightedTreeUtils.diffTopTrees(tree1, tree2, 5);
+        assertEquals("Size of differential tree", 2, diffTrees.size());
+        nextTree = getAndVerifyTree(diffTrees, VALUE1, 10, 0);
+        assertEquals("Size of differential tree level 2", 1, nextTree.size());
+        assertTrue(getAndVerifyTree(nextTree, VALUE2, 3, -0.25).isEmpty());
+        nextTree = getAndVerifyTree(diffTrees, VALUE2, 20, 1.0);
+        assertEquals("Size of differential tree level 2", 2, nextTree.size());
+
+        // All the changes give the full differential tree
+        verifyDiffTrees12(WeightedTreeUtils.diffTopTrees(tree1, tree2, 100));
+    }
+
     /**
      * Test the
      * {@link WeightedTreeUtils#diffTreeSets(IWeightedTreeProvider, IWeightedTreeSet, IWeightedTreeSet)}
@@ -0,0 +1,387 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.analysis.core.weighted.tree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A weighted tree set that keeps the nodes of its trees in parallel primitive
+ * arrays instead of {@link WeightedTree} objects. For each node, it keeps the
+ * index of its parent, of its first child and of its next sibling, the ID of
+ * its object, interned in a table, and its weight. The children of a node are
+ * indexed by object in an open addressing hash table.
+ *
+ * The {@link WeightedTree} objects returned by this set are facades on the
+ * nodes, created when requested. Modifying them, by adding weight, children or
+ * merging other trees, modifies this set.
+ *
+ * Only the objects and the weights of the trees are kept, so this set is meant
+ * for large trees that have no statistics or extra data, like the aggregated
+ * stack traces of a sampled profile.
+ *
+ * @param <N>
+ *            The type of objects represented by each node in the tree
+ * @param <E>
+ *            The type of elements used to group the trees. If this type extends
+ *            {@link ITree}, then the elements and their associated weighted
+ *            trees will be grouped in a hierarchical style
+ */
+public class CompactWeightedTreeSet<@NonNull N, E> implements IWeightedTreeSet<N, E, WeightedTree<N>> {
+
+    private static final int NO_NODE = -1;
+    private static final int NO_OBJECT = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Set<E> fRootElements = new HashSet<>();
+    /* The node of each element, whose children are the trees of the element */
+    private final Map<Object, Integer> fElementNodes = new HashMap<>();
+    private final List<N> fObjects = new ArrayList<>();
+    private final Map<N, Integer> fObjectIds = new HashMap<>();
+    private final ChildIndex fChildIndex = new ChildIndex();
+
+    private int fSize = 0;
+    private int[] fParents = new int[INITIAL_CAPACITY];
+    private int[] fFirstChildren = new int[INITIAL_CAPACITY];
+    private int[] fNextSiblings = new int[INITIAL_CAPACITY];
+    private int[] fObjectIndexes = new int[INITIAL_CAPACITY];
+    private long[] fWeights = new long[INITIAL_CAPACITY];
+
+    @Override
+    public Collection<E> getElements() {
+        return fRootElements;
+    }
+
+    @Override
+    public Collection<WeightedTree<N>> getTreesFor(Object element) {
+        Integer node = fElementNodes.get(element);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        return getChildren(node);
+    }
+
+    /**
+     * Add a weighted tree for an element in this set. If a tree for the same
+     * object already exists, their data will be merged. The tree is copied in
+     * this set and is not modified.
+     *
+     * @param dstGroup
+     *            The group to which to add this tree
+     * @param tree
+     *            The weighted tree to add to this set
+     */
+    public void addWeightedTree(E dstGroup, WeightedTree<N> tree) {
+        mergeTree(getElementNode(dstGroup), tree);
+    }
+
+    /**
+     * Add weight to the trees along a path from a root tree of an element,
+     * creating the trees that do not exist. This is equivalent to adding a
+     * tree with a single branch where each tree has the weight, without
+     * creating the tree.
+     *
+     * @param dstGroup
+     *            The group to which to add the path
+     * @param path
+     *            The objects of the trees on the path, starting with the root
+     * @param weight
+     *            The weight to add to each tree of the path
+     */
+    public void addPath(E dstGroup, List<N> path, long weight) {
+        int node = getElementNode(dstGroup);
+        for (N object : path) {
+            node = getOrAddChild(node, object);
+            fWeights[node] += weight;
+        }
+    }
+
+    /**
+     * Get the number of trees in this set, including all their descendants
+     *
+     * @return The number of trees
+     */
+    public int getNbTrees() {
+        return fSize - fElementNodes.size();
+    }
+
+    private int getElementNode(E dstGroup) {
+        // Make sure the root element is present
+        E root = dstGroup;
+        if (dstGroup instanceof ITree) {
+            ITree parent = ((ITree) dstGroup).getParent();
+            while (parent != null) {
+                root = (E) parent;
+                parent = parent.getParent();
+            }
+        }
+        fRootElements.add(root);
+
+        Integer node = fElementNodes.get(dstGroup);
+        if (node == null) {
+            node = addNode(NO_NODE, NO_OBJECT);
+            fElementNodes.put(dstGroup, node);
+        }
+        return node;
+    }
+
+    private int addNode(int parent, int objectId) {
+        int node = fSize;
+        if (node == fWeights.length) {
+            int capacity = node * 2;
+            fParents = Arrays.copyOf(fParents, capacity);
+            fFirstChildren = Arrays.copyOf(fFirstChildren, capacity);
+            fNextSiblings = Arrays.copyOf(fNextSiblings, capacity);
+            fObjectIndexes = Arrays.copyOf(fObjectIndexes, capacity);
+            fWeights = Arrays.copyOf(fWeights, capacity);
+        }
+        fSize++;
+        fParents[node] = parent;
+        fFirstChildren[node] = NO_NODE;
+        fObjectIndexes[node] = objectId;
+        fWeights[node] = 0;
+        if (parent == NO_NODE) {
+            fNextSiblings[node] = NO_NODE;
+        } else {
+            fNextSiblings[node] = fFirstChildren[parent];
+            fFirstChildren[parent] = node;
+            fChildIndex.put(parent, objectId, node);
+        }
+        return node;
+    }
+
+    private int getOrAddChild(int parent, N object) {
+        Integer objectId = fObjectIds.get(object);
+        if (objectId == null) {
+            objectId = fObjects.size();
+            fObjects.add(object);
+            fObjectIds.put(object, objectId);
+        } else {
+            int child = fChildIndex.get(parent, objectId);
+            if (child != NO_NODE) {
+                return child;
+            }
+        }
+        return addNode(parent, objectId);
+    }
+
+    /** Merge a tree and its children in the children of a node */
+    private void mergeTree(int parent, WeightedTree<N> tree) {
+        Deque<Integer> parents = new ArrayDeque<>();
+        Deque<WeightedTree<N>> trees = new ArrayDeque<>();
+        parents.push(parent);
+        trees.push(tree);
+        while (!trees.isEmpty()) {
+            int parentNode = parents.pop();
+            WeightedTree<N> current = trees.pop();
+            int node = getOrAddChild(parentNode, current.getObject());
+            fWeights[node] += current.getWeight();
+            for (WeightedTree<N> child : current.getChildren()) {
+                parents.push(node);
+                trees.push(child);
+            }
+        }
+    }
+
+    private List<WeightedTree<N>> getChildren(int node) {
+        List<WeightedTree<N>> children = new ArrayList<>();
+        for (int child = fFirstChildren[node]; child != NO_NODE; child = fNextSiblings[child]) {
+            children.add(new CompactTree(child));
+        }
+        return children;
+    }
+
+    private int getMaxDepth(int node) {
+        // Iterate over the descendants with the depth of each
+        int maxDepth = 0;
+        Deque<int[]> toVisit = new ArrayDeque<>();
+        toVisit.push(new int[] { node, 1 });
+        while (!toVisit.isEmpty()) {
+            int[] current = toVisit.pop();
+            maxDepth = Math.max(maxDepth, current[1]);
+            for (int child = fFirstChildren[current[0]]; child != NO_NODE; child = fNextSiblings[child]) {
+                toVisit.push(new int[] { child, current[1] + 1 });
+            }
+        }
+        return maxDepth;
+    }
+
+    private WeightedTree<N> copyOf(int node) {
+        WeightedTree<N> copy = new WeightedTree<>(fObjects.get(fObjectIndexes[node]), fWeights[node]);
+        for (int child = fFirstChildren[node]; child != NO_NODE; child = fNextSiblings[child]) {
+            copy.addChild(copyOf(child));
+        }
+        return copy;
+    }
+
+    /**
+     * A weighted tree facade on a node of this set
+     */
+    private class CompactTree extends WeightedTree<N> {
+
+        private final int fNode;
+
+        public CompactTree(int node) {
+            super(fObjects.get(fObjectIndexes[node]));
+            fNode = node;
+        }
+
+        @Override
+        public long getWeight() {
+            return fWeights[fNode];
+        }
+
+        @Override
+        public void addToWeight(long weight) {
+            fWeights[fNode] += weight;
+        }
+
+        @Override
+        public Collection<WeightedTree<N>> getChildren() {
+            return CompactWeightedTreeSet.this.getChildren(fNode);
+        }
+
+        @Override
+        public void addChild(WeightedTree<N> child) {
+            mergeTree(fNode, child);
+        }
+
+        @Override
+        protected @Nullable WeightedTree<N> getParent() {
+            int parent = fParents[fNode];
+            // The parent of root trees is the node of their element
+            if (parent == NO_NODE || fParents[parent] == NO_NODE) {
+                return null;
+            }
+            return new CompactTree(parent);
+        }
+
+        @Override
+        protected void mergeData(WeightedTree<N> other) {
+            fWeights[fNode] += other.getWeight();
+        }
+
+        @Override
+        protected void mergeChildren(WeightedTree<N> other) {
+            for (WeightedTree<N> child : other.getChildren()) {
+                mergeTree(fNode, child);
+            }
+        }
+
+        @Override
+        public int getMaxDepth() {
+            return CompactWeightedTreeSet.this.getMaxDepth(fNode);
+        }
+
+        @Override
+        public WeightedTree<N> copyOf() {
+            return CompactWeightedTreeSet.this.copyOf(fNode);
+        }
+
+        @Override
+        public int hashCode() {
+            return fNode;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof CompactWeightedTreeSet.CompactTree)) {
+                return false;
+            }
+            CompactWeightedTreeSet<?, ?>.CompactTree other = (CompactWeightedTreeSet<?, ?>.CompactTree) obj;
+            return fNode == other.fNode && getSet() == other.getSet();
+        }
+
+        private CompactWeightedTreeSet<N, E> getSet() {
+            return CompactWeightedTreeSet.this;
+        }
+    }
+
+    /**
+     * An open addressing hash table of the children of the nodes, indexed by
+     * the parent node and the object ID
+     */
+    private static class ChildIndex {
+        private long[] fKeys = new long[INITIAL_CAPACITY];
+        private int[] fValues = new int[INITIAL_CAPACITY];
+        private int fCount = 0;
+
+        public ChildIndex() {
+            Arrays.fill(fValues, NO_NODE);
+        }
+
+        private static long key(int parent, int objectId) {
+            return ((long) parent << 32) | (objectId & 0xffffffffL);
+        }
+
+        private static int slot(long key, int mask) {
+            // Fibonacci hashing, to spread the consecutive keys
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        public int get(int parent, int objectId) {
+            long key = key(parent, objectId);
+            int mask = fKeys.length - 1;
+            for (int slot = slot(key, mask); fValues[slot] != NO_NODE; slot = (slot + 1) & mask) {
+                if (fKeys[slot] == key) {
+                    return fValues[slot];
+                }
+            }
+            return NO_NODE;
+        }
+
+        public void put(int parent, int objectId, int node) {
+            // Keep the load factor under 0.5
+            if (fCount * 2 >= fKeys.length) {
+                resize();
+            }
+            insert(key(parent, objectId), node);
+            fCount++;
+        }
+
+        private void insert(long key, int node) {
+            int mask = fKeys.length - 1;
+            int slot = slot(key, mask);
+            while (fValues[slot] != NO_NODE) {
+                slot = (slot + 1) & mask;
+            }
+            fKeys[slot] = key;
+            fValues[slot] = node;
+        }
+
+        private void resize() {
+            long[] keys = fKeys;
+            int[] values = fValues;
+            fKeys = new long[keys.length * 2];
+            fValues = new int[values.length * 2];
+            Arrays.fill(fValues, NO_NODE);
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != NO_NODE) {
+                    insert(keys[i], values[i]);
+                }
+            }
+        }
+    }
+}
@@ -76,11 +76,11 @@ public class WeightedTree<@NonNull T> implements Comparable<WeightedTree<T>> {
      */
     protected WeightedTree(WeightedTree<T> copy) {
         fObject = copy.fObject;
-        for (WeightedTree<T> entry : copy.fChildren.values()) {
+        for (WeightedTree<T> entry : copy.getChildren()) {
             fChildren.put(entry.getObject(), entry.copyOf());
         }
-        fParent = copy.fParent;
-        fWeight = copy.fWeight;
+        fParent = copy.getParent();
+        fWeight = copy.getWeight();
     }
 
     /**
@@ -189,7 +189,7 @@ public class WeightedTree<@NonNull T> implements Comparable<WeightedTree<T>> {
         if (!other.getObject().equals(getObject())) {
             throw new IllegalArgumentException("AggregatedStackTraces: trying to merge stack traces of different symbols"); //$NON-NLS-1$
         }
-        fWeight += other.fWeight;
+        fWeight += other.getWeight();
         mergeData(other);
         mergeChildren(other);
     }
@@ -221,13 +221,15 @@ public class WeightedTree<@NonNull T> implements Comparable<WeightedTree<T>> {
     }
 
     /**
-     * Merge the children trees
+     * Merge the children trees. It is called by {@link #merge(WeightedTree)}
+     * after {@link #mergeData(WeightedTree)}, and can be overridden by trees
+     * that do not keep their children in this class.
      *
      * @param other
      *            The tree to merge to this one
      */
-    private void mergeChildren(WeightedTree<T> other) {
-        for (WeightedTree<T> otherChildSite : other.fChildren.values()) {
+    protected void mergeChildren(WeightedTree<T> other) {
+        for (WeightedTree<T> otherChildSite : other.getChildren()) {
             T childObject = otherChildSite.getObject();
             WeightedTree<T> childSite = fChildren.get(childObject);
             if (childSite == null) {
@@ -276,12 +278,12 @@ public class WeightedTree<@NonNull T> implements Comparable<WeightedTree<T>> {
 
     @Override
     public String toString() {
-        return "[" + fObject + "]: " + fWeight; //$NON-NLS-1$ //$NON-NLS-2$
+        return "[" + fObject + "]: " + getWeight(); //$NON-NLS-1$ //$NON-NLS-2$
     }
 
     @Override
     public int compareTo(WeightedTree<@NonNull T> o) {
-        return Long.compare(fWeight, o.fWeight);
+        return Long.compare(getWeight(), o.getWeight());
     }
 
 }
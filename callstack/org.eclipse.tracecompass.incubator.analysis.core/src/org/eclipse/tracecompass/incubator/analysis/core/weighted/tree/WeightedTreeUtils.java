@@ -11,10 +11,19 @@
 
 package org.eclipse.tracecompass.incubator.analysis.core.weighted.tree;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -41,6 +50,10 @@ public final class WeightedTreeUtils {
      * differently than in tree1. The base weight come from the second tree and
      * the differential value will show the difference with the first tree.
      *
+     * The siblings of the first tree are indexed by object to find the
+     * equivalent trees, and the subtrees of the first levels are
+     * differentiated in parallel.
+     *
      * @param <T>
      *            The type of element in the tree
      * @param first
@@ -50,21 +63,139 @@ public final class WeightedTreeUtils {
      * @return The differential weighted tree
      */
     public static <@NonNull T> Collection<DifferentialWeightedTree<T>> diffTrees(Collection<WeightedTree<T>> first, Collection<WeightedTree<T>> second) {
-        List<DifferentialWeightedTree<T>> diffTrees = new ArrayList<>();
+        return Objects.requireNonNull(new DiffTask<>(first, second, 0).invoke());
+    }
+
+    /**
+     * Does the differential between 2 weighted trees like
+     * {@link #diffTrees(Collection, Collection)}, but keeps only the
+     * <code>n</code> trees whose weight changed the most, with their parents.
+     * The trees are compared as they are traversed, so only the kept trees are
+     * created. The weight of a tree that does not exist in the first tree
+     * changes by its whole weight.
+     *
+     * @param <T>
+     *            The type of element in the tree
+     * @param first
+     *            The tree that will be differentiated.
+     * @param second
+     *            The tree to use as the base
+     * @param n
+     *            The maximum number of changes to keep
+     * @return The differential weighted trees containing the top changes
+     */
+    public static <@NonNull T> Collection<DifferentialWeightedTree<T>> diffTopTrees(Collection<WeightedTree<T>> first, Collection<WeightedTree<T>> second, int n) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        // The smallest of the top changes is at the head of the queue
+        PriorityQueue<TreeChange<T>> topChanges = new PriorityQueue<>(n, Comparator.comparingLong((TreeChange<T> change) -> change.fChange));
+        Deque<TreeChange<T>> toVisit = new ArrayDeque<>();
+        addChanges(null, indexByObject(first), second, toVisit);
+        while (!toVisit.isEmpty()) {
+            TreeChange<T> change = toVisit.pop();
+            if (topChanges.size() < n) {
+                topChanges.add(change);
+            } else if (change.fChange > Objects.requireNonNull(topChanges.peek()).fChange) {
+                topChanges.poll();
+                topChanges.add(change);
+            }
+            @Nullable WeightedTree<T> other = change.fOther;
+            addChanges(change, other == null ? Collections.emptyMap() : indexByObject(other.getChildren()), change.fBase.getChildren(), toVisit);
+        }
+
+        // Create the differential trees of the top changes and their parents
+        Map<TreeChange<T>, DifferentialWeightedTree<T>> diffTrees = new IdentityHashMap<>();
+        List<DifferentialWeightedTree<T>> roots = new ArrayList<>();
+        for (TreeChange<T> change : topChanges) {
+            @Nullable TreeChange<T> current = change;
+            @Nullable DifferentialWeightedTree<T> child = null;
+            while (current != null) {
+                @Nullable DifferentialWeightedTree<T> diffTree = diffTrees.get(current);
+                boolean exists = diffTree != null;
+                if (diffTree == null) {
+                    diffTree = createDiffTree(current.fBase, current.fOther);
+                    diffTrees.put(current, diffTree);
+                    if (current.fParent == null) {
+                        roots.add(diffTree);
+                    }
+                }
+                if (child != null) {
+                    diffTree.addChild(child);
+                }
+                if (exists) {
+                    break;
+                }
+                child = diffTree;
+                current = current.fParent;
+            }
+        }
+        return roots;
+    }
+
+    private static <@NonNull T> void addChanges(@Nullable TreeChange<T> parent, Map<T, WeightedTree<T>> first, Collection<WeightedTree<T>> second, Deque<TreeChange<T>> toVisit) {
         for (WeightedTree<T> base : second) {
-            T object = base.getObject();
-            // Find the equivalent tree in the first collection
-            WeightedTree<T> other = findObject(first, object);
-            double diffWeight = other == null ? Double.NaN : (double) (base.getWeight() - other.getWeight()) / other.getWeight();
-            DifferentialWeightedTree<@NonNull T> diffTree = new DifferentialWeightedTree<>(base, object, base.getWeight(), diffWeight);
-            diffTrees.add(diffTree);
+            toVisit.push(new TreeChange<>(parent, base, first.get(base.getObject())));
+        }
+    }
+
+    /** A tree of the base, with its equivalent tree and its parent change */
+    private static class TreeChange<@NonNull T> {
+        private final @Nullable TreeChange<T> fParent;
+        private final WeightedTree<T> fBase;
+        private final @Nullable WeightedTree<T> fOther;
+        private final long fChange;
+
+        public TreeChange(@Nullable TreeChange<T> parent, WeightedTree<T> base, @Nullable WeightedTree<T> other) {
+            fParent = parent;
+            fBase = base;
+            fOther = other;
+            fChange = Math.abs(base.getWeight() - (other == null ? 0 : other.getWeight()));
+        }
+    }
+
+    /** Differentiates trees, forking a task per subtree at the first levels */
+    private static class DiffTask<@NonNull T> extends RecursiveTask<List<DifferentialWeightedTree<T>>> {
+        private static final long serialVersionUID = -3795325404785384542L;
+
+        /* The subtrees deeper than this are differentiated sequentially */
+        private static final int MAX_PARALLEL_DEPTH = 3;
+
+        private final transient Collection<WeightedTree<T>> fFirst;
+        private final transient Collection<WeightedTree<T>> fSecond;
+        private final int fDepth;
 
+        public DiffTask(Collection<WeightedTree<T>> first, Collection<WeightedTree<T>> second, int depth) {
+            fFirst = first;
+            fSecond = second;
+            fDepth = depth;
+        }
+
+        @Override
+        protected List<DifferentialWeightedTree<T>> compute() {
+            Map<T, WeightedTree<T>> firstTrees = indexByObject(fFirst);
+            List<DifferentialWeightedTree<T>> diffTrees = new ArrayList<>(fSecond.size());
+            List<DiffTask<T>> tasks = new ArrayList<>();
+            for (WeightedTree<T> base : fSecond) {
+                // Find the equivalent tree in the first collection
+                @Nullable WeightedTree<T> other = firstTrees.get(base.getObject());
+                diffTrees.add(createDiffTree(base, other));
+                Collection<WeightedTree<T>> otherChildren = other == null ? Collections.emptyList() : other.getChildren();
+                tasks.add(new DiffTask<>(otherChildren, base.getChildren(), fDepth + 1));
+            }
             // Make the differential of the children
-            for (DifferentialWeightedTree<T> childTree : diffTrees(other == null ? Collections.emptyList() : other.getChildren(), base.getChildren())) {
-                diffTree.addChild(childTree);
+            if (fDepth < MAX_PARALLEL_DEPTH && tasks.size() > 1) {
+                invokeAll(tasks);
+                for (int i = 0; i < tasks.size(); i++) {
+                    addChildren(diffTrees.get(i), tasks.get(i).join());
+                }
+            } else {
+                for (int i = 0; i < tasks.size(); i++) {
+                    addChildren(diffTrees.get(i), tasks.get(i).compute());
+                }
             }
+            return diffTrees;
         }
-        return diffTrees;
     }
 
     /**
@@ -191,13 +322,24 @@ public final class WeightedTreeUtils {
         return pairedElements;
     }
 
-    private static @Nullable <@NonNull T> WeightedTree<T> findObject(Collection<WeightedTree<T>> tree, @NonNull T object) {
-        for (WeightedTree<T> other : tree) {
-            if (other.getObject().equals(object)) {
-                return other;
-            }
+    private static <@NonNull T> Map<T, WeightedTree<T>> indexByObject(Collection<WeightedTree<T>> trees) {
+        Map<T, WeightedTree<T>> index = new HashMap<>();
+        for (WeightedTree<T> tree : trees) {
+            // Keep the first tree of an object, like a sequential search
+            index.putIfAbsent(tree.getObject(), tree);
+        }
+        return index;
+    }
+
+    private static <@NonNull T> DifferentialWeightedTree<T> createDiffTree(WeightedTree<T> base, @Nullable WeightedTree<T> other) {
+        double diffWeight = other == null ? Double.NaN : (double) (base.getWeight() - other.getWeight()) / other.getWeight();
+        return new DifferentialWeightedTree<>(base, base.getObject(), base.getWeight(), diffWeight);
+    }
+
+    private static <@NonNull T> void addChildren(DifferentialWeightedTree<T> diffTree, Collection<DifferentialWeightedTree<T>> children) {
+        for (DifferentialWeightedTree<T> child : children) {
+            diffTree.addChild(child);
         }
-        return null;
     }
 
 }
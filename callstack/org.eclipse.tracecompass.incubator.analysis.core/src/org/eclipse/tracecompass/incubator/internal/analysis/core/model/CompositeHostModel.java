@@ -59,10 +59,16 @@ import com.google.common.collect.Multimap;
 public class CompositeHostModel implements IHostModel {
 
     private final Multimap<ITmfTrace, Object> fTraceObjectMap = HashMultimap.create();
-    private final Set<ICpuTimeProvider> fCpuTimeProviders = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<ICpuTimeProvider, Boolean>()));
-    private final Set<IThreadOnCpuProvider> fThreadOnCpuProviders = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<IThreadOnCpuProvider, Boolean>()));
-    private final Set<ISamplingDataProvider> fSamplingDataProviders = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<ISamplingDataProvider, Boolean>()));
-    private final Set<KernelAnalysisModule> fKernelModules = NonNullUtils.checkNotNull(Collections.newSetFromMap(new WeakHashMap<KernelAnalysisModule, Boolean>()));
+    /*
+     * The model is queried concurrently, by the call graph of the leaf
+     * elements for instance, and even the reads of a weak hash map modify it
+     * to expunge the stale entries. The sets are synchronized and iterated
+     * over a copy, so that the providers are not queried under the lock.
+     */
+    private final Set<ICpuTimeProvider> fCpuTimeProviders = createProviderSet();
+    private final Set<IThreadOnCpuProvider> fThreadOnCpuProviders = createProviderSet();
+    private final Set<ISamplingDataProvider> fSamplingDataProviders = createProviderSet();
+    private final Set<KernelAnalysisModule> fKernelModules = createProviderSet();
     private final String fHostId;
 
     /**
@@ -76,9 +82,19 @@ public class CompositeHostModel implements IHostModel {
         TmfSignalManager.register(this);
     }
 
+    private static <T> Set<T> createProviderSet() {
+        return NonNullUtils.checkNotNull(Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<T, Boolean>())));
+    }
+
+    private static <T> List<T> snapshot(Set<T> providers) {
+        synchronized (providers) {
+            return new ArrayList<>(providers);
+        }
+    }
+
     @Override
     public int getThreadOnCpu(int cpu, long t, boolean block) {
-        for (IThreadOnCpuProvider provider : fThreadOnCpuProviders) {
+        for (IThreadOnCpuProvider provider : snapshot(fThreadOnCpuProviders)) {
             Integer tid = provider.getThreadOnCpuAtTime(cpu, t, block);
             if (tid != null && tid != IHostModel.UNKNOWN_TID) {
                 return tid;
@@ -89,7 +105,7 @@ public class CompositeHostModel implements IHostModel {
 
     @Override
     public long getCpuTime(int tid, long start, long end) {
-        for (ICpuTimeProvider provider : fCpuTimeProviders) {
+        for (ICpuTimeProvider provider : snapshot(fCpuTimeProviders)) {
             long cpuTime = provider.getCpuTime(tid, start, end);
             if (cpuTime != IHostModel.TIME_UNKNOWN) {
                 return cpuTime;
@@ -100,7 +116,7 @@ public class CompositeHostModel implements IHostModel {
 
     @Override
     public Collection<AggregatedCallSite> getSamplingData(int tid, long start, long end) {
-        for (ISamplingDataProvider provider : fSamplingDataProviders) {
+        for (ISamplingDataProvider provider : snapshot(fSamplingDataProviders)) {
             Collection<AggregatedCallSite> samples = provider.getSamplingData(tid, start, end);
             if (!samples.isEmpty()) {
                 return samples;
@@ -111,7 +127,7 @@ public class CompositeHostModel implements IHostModel {
 
     @Override
     public int getProcessId(int tid, long t) {
-        Integer pid = fKernelModules.stream()
+        Integer pid = snapshot(fKernelModules).stream()
                 .map(module -> KernelThreadInformationProvider.getProcessId(module, tid, t))
                 .filter(Objects::nonNull)
                 .findFirst().orElse(null);
@@ -120,7 +136,7 @@ public class CompositeHostModel implements IHostModel {
 
     @Override
     public @Nullable String getExecName(int tid, long t) {
-        return fKernelModules.stream()
+        return snapshot(fKernelModules).stream()
                 .map(module -> KernelThreadInformationProvider.getExecutableName(module, tid))
                 .filter(Objects::nonNull)
                 .findFirst().orElse(null);
@@ -337,16 +353,16 @@ public class CompositeHostModel implements IHostModel {
         if (requiredData.contains(ModelDataType.PID) || requiredData.contains(ModelDataType.EXEC_NAME) ||
                 requiredData.contains(ModelDataType.KERNEL_STATES)) {
             // Add the kernel modules
-            list.addAll(fKernelModules);
+            list.addAll(snapshot(fKernelModules));
         }
         if (requiredData.contains(ModelDataType.TID)) {
-            list.addAll(getModulesFrom(fThreadOnCpuProviders));
+            list.addAll(getModulesFrom(snapshot(fThreadOnCpuProviders)));
         }
         if (requiredData.contains(ModelDataType.CPU_TIME)) {
-            list.addAll(getModulesFrom(fCpuTimeProviders));
+            list.addAll(getModulesFrom(snapshot(fCpuTimeProviders)));
         }
         if (requiredData.contains(ModelDataType.SAMPLING_DATA)) {
-            list.addAll(getModulesFrom(fSamplingDataProviders));
+            list.addAll(getModulesFrom(snapshot(fSamplingDataProviders)));
         }
         return list;
     }
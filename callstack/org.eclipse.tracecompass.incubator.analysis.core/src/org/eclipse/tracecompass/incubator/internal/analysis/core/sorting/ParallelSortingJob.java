@@ -0,0 +1,958 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.analysis.core.sorting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.Activator;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+
+/**
+ * Job that sorts a JSON trace, made of an array of events objects, by the
+ * value of a timestamp key. It is a replacement for the jsontrace SortingJob
+ * that uses all the cores of the machine and a bounded amount of memory:
+ *
+ * <ol>
+ * <li>The events array is split into chunks of bytes that end at event
+ * boundaries,</li>
+ * <li>each chunk is sorted in a thread pool and written to a temporary run
+ * file, with the timestamps already decoded,</li>
+ * <li>the run files are k-way merged into the sorted trace file in the
+ * supplementary directory.</li>
+ * </ol>
+ *
+ * The sort is stable: events with the same timestamp are kept in the order of
+ * the original file. The sorted file is an array of events, one per line.
+ */
+public abstract class ParallelSortingJob extends Job {
+
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    /* Number of digits kept for the fraction of a timestamp */
+    private static final int FRACTION_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[FRACTION_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final byte[] ARRAY_START = "[\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+    private static final byte[] SEPARATOR = ",\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+    private static final byte[] ARRAY_END = "\n]\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+
+    private final ITmfTrace fTrace;
+    private final String fPath;
+    private final byte[] fTsKey;
+    private final int fBracketsToSkip;
+
+    /**
+     * Constructor
+     *
+     * @param trace
+     *            the trace to be sort
+     * @param path
+     *            the path to the trace file
+     * @param tsKey
+     *            the timestamp key, e.g. "ts":
+     * @param bracketsToSkip
+     *            the number of opening brackets to skip before the array of
+     *            events
+     */
+    public ParallelSortingJob(ITmfTrace trace, String path, String tsKey, int bracketsToSkip) {
+        super(String.valueOf(Messages.ParallelSortingJob_description));
+        fTrace = trace;
+        fPath = path;
+        fTsKey = tsKey.getBytes(StandardCharsets.UTF_8);
+        fBracketsToSkip = bracketsToSkip;
+    }
+
+    /**
+     * Getter for the trace path
+     *
+     * @return the path
+     */
+    public String getPath() {
+        return fPath;
+    }
+
+    @Override
+    protected IStatus run(@Nullable IProgressMonitor monitor) {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
+        String dir = TmfTraceManager.getSupplementaryFileDir(fTrace);
+        File output = new File(dir + new File(fTrace.getPath()).getName());
+        try {
+            IStatus status = sortEvents(new File(fPath), output, subMonitor.split(1));
+            if (!status.isOK()) {
+                return status;
+            }
+            processMetadata(fTrace, dir);
+        } catch (IOException e) {
+            Activator.getInstance().logError("Error sorting trace " + fPath, e); //$NON-NLS-1$
+            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Error sorting trace " + fPath, e); //$NON-NLS-1$
+        }
+        subMonitor.worked(1);
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Sort the events of the trace into the output file. The default
+     * implementation does a parallel external sort, sub-classes can override
+     * this method to avoid sorting when possible, in which case the sorted
+     * file does not have to be the output file.
+     *
+     * @param input
+     *            The trace file
+     * @param output
+     *            The sorted file to write
+     * @param monitor
+     *            The progress monitor
+     * @return The status of the sort
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    protected IStatus sortEvents(File input, File output, IProgressMonitor monitor) throws IOException {
+        return sort(input, output, fTsKey, fBracketsToSkip, getChunkSize(), monitor);
+    }
+
+    /**
+     * Process the metadata of the trace, after it has been sorted
+     *
+     * @param trace
+     *            the trace being sorted
+     * @param dir
+     *            the supplementary directory of the trace
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    protected abstract void processMetadata(ITmfTrace trace, String dir) throws IOException;
+
+    /**
+     * Get the size of the chunks to sort in memory, such that all the chunks
+     * being sorted at the same time fit in a fraction of the heap.
+     *
+     * @return The chunk size in bytes
+     */
+    private static int getChunkSize() {
+        int nbChunks = Runtime.getRuntime().availableProcessors() + 1;
+        // Keep room for the sort keys and the rest of the application
+        long budget = Runtime.getRuntime().maxMemory() / 4;
+        return (int) Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, budget / nbChunks));
+    }
+
+    // ------------------------------------------------------------------------
+    // Sorting
+    // ------------------------------------------------------------------------
+
+    /**
+     * Sort a JSON events file by the value of a timestamp key
+     *
+     * @param input
+     *            The file to sort
+     * @param output
+     *            The sorted file to write
+     * @param tsKey
+     *            The timestamp key, including the quotes and colon
+     * @param bracketsToSkip
+     *            The number of opening brackets to skip before the array of
+     *            events
+     * @param chunkSize
+     *            The size in bytes of the chunks sorted in memory
+     * @param monitor
+     *            The progress monitor
+     * @return The status of the sort
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    public static IStatus sort(File input, File output, byte[] tsKey, int bracketsToSkip, int chunkSize, IProgressMonitor monitor) throws IOException {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
+        File tempDir = Files.createTempDirectory(Objects.requireNonNull(output.getAbsoluteFile().getParentFile()).toPath(), "sort").toFile(); //$NON-NLS-1$
+        List<File> runs = new ArrayList<>();
+        File tmpOutput = getTempFile(output);
+        try {
+            IStatus status = sortChunks(input, tempDir, tsKey, bracketsToSkip, chunkSize, runs, subMonitor.split(1));
+            if (!status.isOK()) {
+                return status;
+            }
+            status = mergeRuns(runs, tmpOutput, input.length(), subMonitor.split(1));
+            if (status.isOK()) {
+                moveToOutput(tmpOutput, output);
+            }
+            return status;
+        } finally {
+            // Do not leave a partial file if the sort is cancelled or fails
+            Files.deleteIfExists(tmpOutput.toPath());
+            for (File run : runs) {
+                Files.deleteIfExists(run.toPath());
+            }
+            Files.deleteIfExists(tempDir.toPath());
+        }
+    }
+
+    /**
+     * Split the events array in chunks, sort each chunk in a thread pool and
+     * write it to a run file.
+     */
+    private static IStatus sortChunks(File input, File tempDir, byte[] tsKey, int bracketsToSkip, int chunkSize, List<File> runs, IProgressMonitor monitor) throws IOException {
+        long fileSize = input.length();
+        SubMonitor subMonitor = SubMonitor.convert(monitor, String.valueOf(Messages.ParallelSortingJob_sorting), (int) (fileSize / chunkSize) + 1);
+        int nbThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        // Limit the number of chunks in memory at once
+        Semaphore inFlight = new Semaphore(nbThreads + 1);
+        List<Future<File>> futures = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+            long position = findEventsStart(channel, bracketsToSkip);
+            if (position < 0) {
+                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Missing symbol \'[\' or \']\'"); //$NON-NLS-1$
+            }
+            byte[] buffer = new byte[chunkSize];
+            int filled = 0;
+            boolean endOfEvents = false;
+            while (!endOfEvents) {
+                if (subMonitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled), position);
+                if (read > 0) {
+                    position += read;
+                    filled += read;
+                }
+                long boundary = findLastBoundary(buffer, filled);
+                int cut = (int) boundary;
+                endOfEvents = read <= 0 || boundary > Integer.MAX_VALUE;
+                if (cut == 0 && !endOfEvents) {
+                    // An event is larger than the chunk, make room for it
+                    if (filled == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    continue;
+                }
+                if (endOfEvents) {
+                    cut = (int) (boundary & Integer.MAX_VALUE);
+                }
+                byte[] chunk = buffer;
+                int chunkLength = cut;
+                File run = new File(tempDir, "run" + runs.size()); //$NON-NLS-1$
+                runs.add(run);
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        sortChunk(chunk, chunkLength, tsKey, run);
+                        return run;
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+
+                // Carry the incomplete event over to a new buffer
+                byte[] next = new byte[Math.max(chunkSize, filled - cut + READ_BUFFER_SIZE)];
+                System.arraycopy(buffer, cut, next, 0, filled - cut);
+                buffer = next;
+                filled -= cut;
+                subMonitor.worked(1);
+            }
+            for (Future<File> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Status.CANCEL_STATUS;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Wait for the running chunks to be written, so that the run files can be
+     * deleted
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Find the position of the events array, after the required number of
+     * opening brackets
+     */
+    private static long findEventsStart(FileChannel channel, int bracketsToSkip) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long position = 0;
+        int nbBrackets = 0;
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position++;
+                if (buffer.get() == '[') {
+                    nbBrackets++;
+                    if (nbBrackets == bracketsToSkip) {
+                        return position;
+                    }
+                }
+            }
+            buffer.clear();
+        }
+        return -1;
+    }
+
+    /**
+     * Find the end of the last complete event in the buffer. The buffer always
+     * starts outside of an event.
+     *
+     * @return The position after the last complete event. If the end of the
+     *         events array is in the buffer, the returned value is the
+     *         position of the closing bracket, with the bit 31 set.
+     */
+    private static long findLastBoundary(byte[] buffer, int length) {
+        int boundary = 0;
+        int depth = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (inQuotes) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inQuotes = false;
+                }
+                continue;
+            }
+            switch (b) {
+            case '"':
+                inQuotes = true;
+                break;
+            case '{':
+            case '[':
+                depth++;
+                break;
+            case '}':
+                depth--;
+                if (depth == 0) {
+                    boundary = i + 1;
+                }
+                break;
+            case ']':
+                if (depth == 0) {
+                    // End of the events array
+                    return (1L << 31) | i;
+                }
+                depth--;
+                break;
+            default:
+                break;
+            }
+        }
+        return boundary;
+    }
+
+    /**
+     * Sort the events of one chunk and write them to a run file. Each record
+     * of a run file is the timestamp, followed by the length and the bytes of
+     * the event.
+     */
+    private static void sortChunk(byte[] chunk, int length, byte[] tsKey, File run) throws IOException {
+        List<SortEntry> entries = new ArrayList<>();
+        int i = 0;
+        while (i < length) {
+            if (chunk[i] != '{') {
+                i++;
+                continue;
+            }
+            int end = findEventEnd(chunk, i, length);
+            if (end < 0) {
+                // Truncated last event
+                end = length;
+            }
+            entries.add(new SortEntry(chunk, i, end, tsKey));
+            i = end;
+        }
+        // Stable sort, equal timestamps stay in the file order
+        entries.sort(SortEntry.COMPARATOR);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), READ_BUFFER_SIZE))) {
+            for (SortEntry entry : entries) {
+                out.writeLong(entry.fWhole);
+                out.writeLong(entry.fFraction);
+                out.writeInt(entry.fEnd - entry.fStart);
+                out.write(chunk, entry.fStart, entry.fEnd - entry.fStart);
+            }
+        }
+    }
+
+    /**
+     * Find the end of the event starting at the given position
+     *
+     * @return The position after the event, or -1 if the event is not
+     *         complete
+     */
+    private static int findEventEnd(byte[] chunk, int start, int length) {
+        int depth = 0;
+        boolean inQuotes = false;
+        for (int i = start; i < length; i++) {
+            byte b = chunk[i];
+            if (inQuotes) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inQuotes = false;
+                }
+            } else if (b == '"') {
+                inQuotes = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Merge the sorted run files into the output file. Runs are in file order,
+     * so ties are broken by run index to keep the sort stable.
+     */
+    private static IStatus mergeRuns(List<File> runs, File output, long inputSize, IProgressMonitor monitor) throws IOException {
+        int progressUnit = (int) Math.max(1, inputSize / 1000);
+        SubMonitor subMonitor = SubMonitor.convert(monitor, String.valueOf(Messages.ParallelSortingJob_merging), (int) (inputSize / progressUnit) + 1);
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()), RunReader.COMPARATOR);
+        List<RunReader> readers = new ArrayList<>();
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output), READ_BUFFER_SIZE)) {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(runs.get(i), i);
+                readers.add(reader);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            out.write(ARRAY_START);
+            boolean first = true;
+            long written = 0;
+            while (!queue.isEmpty()) {
+                RunReader reader = Objects.requireNonNull(queue.poll());
+                if (!first) {
+                    out.write(SEPARATOR);
+                }
+                first = false;
+                out.write(reader.fEvent, 0, reader.fLength);
+                written += reader.fLength;
+                if (written >= progressUnit) {
+                    subMonitor.worked((int) (written / progressUnit));
+                    written %= progressUnit;
+                    if (subMonitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                }
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            out.write(ARRAY_END);
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
+    // ------------------------------------------------------------------------
+    // Already ordered traces
+    // ------------------------------------------------------------------------
+
+    /**
+     * The order of the events of a trace
+     */
+    public enum EventsOrder {
+        /** All events are ordered by timestamp */
+        SORTED,
+        /**
+         * Events are out of order only within a window, they can be sorted in
+         * one pass by {@link ParallelSortingJob#sortWindow}
+         */
+        NEARLY_SORTED,
+        /** Events need a full sort */
+        UNSORTED
+    }
+
+    /**
+     * Check whether the events of a file are already sorted by timestamp. The
+     * check simulates the sort of {@link #sortWindow} on the timestamps only
+     * and stops at the first event that cannot be sorted within the window, so
+     * unsorted traces are usually detected after reading only the beginning of
+     * the file. Events without the timestamp key are ignored.
+     *
+     * @param input
+     *            The file to check
+     * @param tsKey
+     *            The timestamp key, including the quotes and colon
+     * @param bracketsToSkip
+     *            The number of opening brackets to skip before the array of
+     *            events
+     * @param window
+     *            The number of events that can be buffered to sort nearly
+     *            sorted events
+     * @param monitor
+     *            The progress monitor
+     * @return The order of the events, or <code>null</code> if the check was
+     *         cancelled
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    public static @Nullable EventsOrder checkOrder(File input, byte[] tsKey, int bracketsToSkip, int window, IProgressMonitor monitor) throws IOException {
+        long fileSize = input.length();
+        int progressUnit = (int) Math.max(1, fileSize / 1000);
+        SubMonitor subMonitor = SubMonitor.convert(monitor, (int) (fileSize / progressUnit) + 1);
+        /*
+         * While the events are sorted, the window is a ring buffer of the
+         * latest timestamps. At the first event out of order, it becomes a
+         * priority queue, like the buffer of the window sort.
+         */
+        Timestamp[] ring = new Timestamp[window];
+        int ringSize = 0;
+        int ringIndex = 0;
+        @Nullable PriorityQueue<Timestamp> pending = null;
+        @Nullable Timestamp latest = null;
+        @Nullable Timestamp last = null;
+        long progress = 0;
+        try (EventReader reader = new EventReader(input, bracketsToSkip)) {
+            while (reader.next()) {
+                long[] ts = parseTimestamp(reader.fBuffer, reader.fEventStart, reader.fEventEnd, tsKey);
+                if (ts[0] == Long.MIN_VALUE) {
+                    continue;
+                }
+                Timestamp timestamp = new Timestamp(ts[0], ts[1]);
+                if (last != null && timestamp.compareTo(last) < 0) {
+                    // Earlier than an event that already went out of the window
+                    return EventsOrder.UNSORTED;
+                }
+                if (pending == null && latest != null && timestamp.compareTo(latest) < 0) {
+                    pending = new PriorityQueue<>(Arrays.asList(ring).subList(0, ringSize));
+                }
+                if (pending == null) {
+                    if (ringSize == window) {
+                        last = ring[ringIndex];
+                    } else {
+                        ringSize++;
+                    }
+                    ring[ringIndex] = timestamp;
+                    ringIndex = (ringIndex + 1) % window;
+                    latest = timestamp;
+                } else {
+                    pending.add(timestamp);
+                    if (pending.size() > window) {
+                        last = pending.poll();
+                    }
+                }
+                long position = reader.getPosition();
+                if (position - progress >= progressUnit) {
+                    subMonitor.worked((int) ((position - progress) / progressUnit));
+                    progress = position - (position - progress) % progressUnit;
+                    if (subMonitor.isCanceled()) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return pending == null ? EventsOrder.SORTED : EventsOrder.NEARLY_SORTED;
+    }
+
+    /**
+     * Sort a file whose events are out of order only within a window of
+     * events, as reported by {@link #checkOrder}. The file is read once and the
+     * events are sorted through a buffer of the size of the window. Events
+     * without the timestamp key are written as they are read.
+     *
+     * @param input
+     *            The file to sort
+     * @param output
+     *            The sorted file to write
+     * @param tsKey
+     *            The timestamp key, including the quotes and colon
+     * @param bracketsToSkip
+     *            The number of opening brackets to skip before the array of
+     *            events
+     * @param window
+     *            The number of events to buffer
+     * @param monitor
+     *            The progress monitor
+     * @return The status of the sort
+     * @throws IOException
+     *             Exceptions reading or writing the files
+     */
+    public static IStatus sortWindow(File input, File output, byte[] tsKey, int bracketsToSkip, int window, IProgressMonitor monitor) throws IOException {
+        File tmpOutput = getTempFile(output);
+        try {
+            IStatus status = writeWindow(input, tmpOutput, tsKey, bracketsToSkip, window, monitor);
+            if (status.isOK()) {
+                moveToOutput(tmpOutput, output);
+            }
+            return status;
+        } finally {
+            // Do not leave a partial file if the sort is cancelled or fails
+            Files.deleteIfExists(tmpOutput.toPath());
+        }
+    }
+
+    private static IStatus writeWindow(File input, File output, byte[] tsKey, int bracketsToSkip, int window, IProgressMonitor monitor) throws IOException {
+        long fileSize = input.length();
+        int progressUnit = (int) Math.max(1, fileSize / 1000);
+        SubMonitor subMonitor = SubMonitor.convert(monitor, String.valueOf(Messages.ParallelSortingJob_sorting), (int) (fileSize / progressUnit) + 1);
+        PriorityQueue<WindowEntry> pending = new PriorityQueue<>();
+        long rank = 0;
+        long progress = 0;
+        try (EventReader reader = new EventReader(input, bracketsToSkip);
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(output), READ_BUFFER_SIZE)) {
+            out.write(ARRAY_START);
+            boolean first = true;
+            while (reader.next()) {
+                long[] ts = parseTimestamp(reader.fBuffer, reader.fEventStart, reader.fEventEnd, tsKey);
+                WindowEntry entry = new WindowEntry(ts[0], ts[1], rank++, Arrays.copyOfRange(reader.fBuffer, reader.fEventStart, reader.fEventEnd));
+                if (ts[0] == Long.MIN_VALUE) {
+                    // No timestamp to sort, do not let it take a place in the window
+                    first = writeEvent(out, entry, first);
+                    continue;
+                }
+                pending.add(entry);
+                if (pending.size() > window) {
+                    first = writeEvent(out, Objects.requireNonNull(pending.poll()), first);
+                }
+                long position = reader.getPosition();
+                if (position - progress >= progressUnit) {
+                    subMonitor.worked((int) ((position - progress) / progressUnit));
+                    progress = position - (position - progress) % progressUnit;
+                    if (subMonitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                }
+            }
+            while (!pending.isEmpty()) {
+                first = writeEvent(out, Objects.requireNonNull(pending.poll()), first);
+            }
+            out.write(ARRAY_END);
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Get the file to write before moving it to the output file, so that the
+     * output file only ever exists complete
+     */
+    private static File getTempFile(File output) {
+        return new File(output.getPath() + ".tmp"); //$NON-NLS-1$
+    }
+
+    private static void moveToOutput(File tmpOutput, File output) throws IOException {
+        Files.move(tmpOutput.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean writeEvent(OutputStream out, WindowEntry entry, boolean first) throws IOException {
+        if (!first) {
+            out.write(SEPARATOR);
+        }
+        out.write(entry.fEvent);
+        return false;
+    }
+
+    /**
+     * Parse the timestamp following the key, as a whole part and a fraction
+     * with {@link #FRACTION_DIGITS} digits. Events without the key are sorted
+     * first.
+     */
+    private static long[] parseTimestamp(byte[] chunk, int start, int end, byte[] tsKey) {
+        int i = indexOf(chunk, start, end, tsKey);
+        if (i < 0) {
+            return new long[] { Long.MIN_VALUE, 0 };
+        }
+        i += tsKey.length;
+        while (i < end && (chunk[i] == ' ' || chunk[i] == '"' || chunk[i] == '\t' || chunk[i] == '\n' || chunk[i] == '\r')) {
+            i++;
+        }
+        boolean negative = false;
+        if (i < end && chunk[i] == '-') {
+            negative = true;
+            i++;
+        }
+        long whole = 0;
+        while (i < end && chunk[i] >= '0' && chunk[i] <= '9') {
+            whole = whole * 10 + (chunk[i] - '0');
+            i++;
+        }
+        long fraction = 0;
+        if (i < end && chunk[i] == '.') {
+            i++;
+            int nbDigits = 0;
+            while (i < end && chunk[i] >= '0' && chunk[i] <= '9') {
+                if (nbDigits < FRACTION_DIGITS) {
+                    fraction = fraction * 10 + (chunk[i] - '0');
+                    nbDigits++;
+                }
+                i++;
+            }
+            fraction *= POWERS_OF_TEN[FRACTION_DIGITS - nbDigits];
+        }
+        return negative ? new long[] { -whole - (fraction > 0 ? 1 : 0), fraction > 0 ? POWERS_OF_TEN[FRACTION_DIGITS] - fraction : 0 } : new long[] { whole, fraction };
+    }
+
+    private static int indexOf(byte[] array, int start, int end, byte[] key) {
+        int last = end - key.length;
+        outer: for (int i = start; i <= last; i++) {
+            for (int j = 0; j < key.length; j++) {
+                if (array[i + j] != key[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int compare(long whole1, long fraction1, long whole2, long fraction2) {
+        int cmp = Long.compare(whole1, whole2);
+        return cmp != 0 ? cmp : Long.compare(fraction1, fraction2);
+    }
+
+    /**
+     * An event of a chunk, with its decoded timestamp
+     */
+    private static final class SortEntry {
+        static final Comparator<SortEntry> COMPARATOR = (e1, e2) -> compare(e1.fWhole, e1.fFraction, e2.fWhole, e2.fFraction);
+
+        final int fStart;
+        final int fEnd;
+        final long fWhole;
+        final long fFraction;
+
+        SortEntry(byte[] chunk, int start, int end, byte[] tsKey) {
+            fStart = start;
+            fEnd = end;
+            long[] ts = parseTimestamp(chunk, start, end, tsKey);
+            fWhole = ts[0];
+            fFraction = ts[1];
+        }
+    }
+
+    /**
+     * Reader of the records of a run file
+     */
+    private static final class RunReader implements AutoCloseable {
+        static final Comparator<RunReader> COMPARATOR = (r1, r2) -> {
+            int cmp = compare(r1.fWhole, r1.fFraction, r2.fWhole, r2.fFraction);
+            return cmp != 0 ? cmp : Integer.compare(r1.fIndex, r2.fIndex);
+        };
+
+        private final DataInputStream fInput;
+        final int fIndex;
+        long fWhole;
+        long fFraction;
+        byte[] fEvent = new byte[1024];
+        int fLength;
+
+        RunReader(File run, int index) throws IOException {
+            fInput = new DataInputStream(new BufferedInputStream(new FileInputStream(run), READ_BUFFER_SIZE));
+            fIndex = index;
+        }
+
+        boolean next() throws IOException {
+            try {
+                fWhole = fInput.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            fFraction = fInput.readLong();
+            fLength = fInput.readInt();
+            if (fEvent.length < fLength) {
+                fEvent = new byte[Math.max(fLength, fEvent.length * 2)];
+            }
+            fInput.readFully(fEvent, 0, fLength);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            fInput.close();
+        }
+    }
+
+    /**
+     * A decoded timestamp
+     */
+    private static class Timestamp implements Comparable<Timestamp> {
+        final long fWhole;
+        final long fFraction;
+
+        Timestamp(long whole, long fraction) {
+            fWhole = whole;
+            fFraction = fraction;
+        }
+
+        @Override
+        public int compareTo(Timestamp other) {
+            return compare(fWhole, fFraction, other.fWhole, other.fFraction);
+        }
+    }
+
+    /**
+     * An event buffered by the window sort, ordered by timestamp then by rank
+     * in the file
+     */
+    private static final class WindowEntry extends Timestamp {
+        final long fRank;
+        final byte[] fEvent;
+
+        WindowEntry(long whole, long fraction, long rank, byte[] event) {
+            super(whole, fraction);
+            fRank = rank;
+            fEvent = event;
+        }
+
+        @Override
+        public int compareTo(Timestamp other) {
+            int cmp = super.compareTo(other);
+            if (cmp == 0 && other instanceof WindowEntry) {
+                return Long.compare(fRank, ((WindowEntry) other).fRank);
+            }
+            return cmp;
+        }
+    }
+
+    /**
+     * Sequential reader of the events of a file
+     */
+    private static final class EventReader implements AutoCloseable {
+        private final FileChannel fChannel;
+        private long fPosition;
+        private boolean fEnd;
+        byte[] fBuffer = new byte[READ_BUFFER_SIZE];
+        private int fStart = 0;
+        private int fLimit = 0;
+        int fEventStart;
+        int fEventEnd;
+
+        EventReader(File input, int bracketsToSkip) throws IOException {
+            fChannel = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+            fPosition = findEventsStart(fChannel, bracketsToSkip);
+            fEnd = fPosition < 0;
+        }
+
+        /**
+         * Read the next event, available between fEventStart and fEventEnd in
+         * fBuffer
+         *
+         * @return Whether there is an event
+         */
+        boolean next() throws IOException {
+            while (!fEnd) {
+                while (fStart < fLimit && fBuffer[fStart] != '{') {
+                    if (fBuffer[fStart] == ']') {
+                        // End of the events array
+                        fEnd = true;
+                        return false;
+                    }
+                    fStart++;
+                }
+                int end = fStart < fLimit ? findEventEnd(fBuffer, fStart, fLimit) : -1;
+                if (end >= 0) {
+                    fEventStart = fStart;
+                    fEventEnd = end;
+                    fStart = end;
+                    return true;
+                }
+                fEnd = !fill();
+            }
+            return false;
+        }
+
+        /**
+         * Get the position in the file after the last event read
+         *
+         * @return The position in bytes
+         */
+        long getPosition() {
+            return fPosition - (fLimit - fStart);
+        }
+
+        private boolean fill() throws IOException {
+            int remaining = fLimit - fStart;
+            if (remaining == fBuffer.length) {
+                fBuffer = Arrays.copyOf(fBuffer, fBuffer.length * 2);
+            } else {
+                System.arraycopy(fBuffer, fStart, fBuffer, 0, remaining);
+            }
+            fStart = 0;
+            fLimit = remaining;
+            int read = fChannel.read(ByteBuffer.wrap(fBuffer, fLimit, fBuffer.length - fLimit), fPosition);
+            if (read <= 0) {
+                return false;
+            }
+            fPosition += read;
+            fLimit += read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            fChannel.close();
+        }
+    }
+
+}
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.callstack.core.tests.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.os.linux.core.model.ProcessStatus;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.ProcessStatusInterval;
+import org.eclipse.tracecompass.incubator.analysis.core.model.IHostModel;
+import org.eclipse.tracecompass.incubator.analysis.core.model.ModelManager;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.AllGroupDescriptor;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+import org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph.AggregatedStackTraces;
+import org.eclipse.tracecompass.incubator.callstack.core.symbol.CallStackSymbolFactory;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.callgraph.CallGraphFile;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.AbstractCalledFunction;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.AggregatedCalledFunction;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.AggregatedThreadStatus;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.CalledFunctionFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link CallGraphFile}, that saves the call graphs
+ */
+public class CallGraphFileTest {
+
+    private static final String[] FUNCTIONS = { "main", "foo", "bar", "quux" };
+    private static final String IDENTITY = "test.callstack";
+
+    private final Map<List<String>, ICallStackElement> fElements = new HashMap<>();
+    private @Nullable Path fFile;
+
+    private ICallStackElement createElement(String name, @Nullable ICallStackElement parent) {
+        CallStackElement element = new CallStackElement(name, AllGroupDescriptor.getInstance(), null, parent);
+        if (parent != null) {
+            parent.addChild(element);
+        }
+        fElements.put(CallGraphFile.getPath(element), element);
+        return element;
+    }
+
+    private @Nullable ICallStackElement resolve(List<String> path) {
+        return fElements.get(path);
+    }
+
+    private Path getFile() {
+        Path file = fFile;
+        if (file == null) {
+            throw new IllegalStateException();
+        }
+        return file;
+    }
+
+    /**
+     * Create the file
+     *
+     * @throws IOException
+     *             Exception creating the file
+     */
+    @Before
+    public void createFile() throws IOException {
+        fFile = Files.createTempFile("test", CallGraphFile.EXTENSION);
+    }
+
+    /**
+     * Delete the file
+     *
+     * @throws IOException
+     *             Exception deleting the file
+     */
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(getFile());
+    }
+
+    private static Map<String, Long> flatten(CallGraph callGraph) {
+        Map<String, Long> weights = new HashMap<>();
+        for (ICallStackElement element : callGraph.getElements()) {
+            flatten(callGraph, element, weights);
+        }
+        return weights;
+    }
+
+    private static void flatten(CallGraph callGraph, ICallStackElement element, Map<String, Long> weights) {
+        for (AggregatedCallSite callsite : callGraph.getCallingContextTree(element)) {
+            flatten(CallGraphFile.getPath(element).toString(), callsite, weights);
+        }
+        for (ICallStackElement child : element.getChildrenElements()) {
+            flatten(callGraph, child, weights);
+        }
+    }
+
+    private static void flatten(String prefix, AggregatedCallSite callsite, Map<String, Long> weights) {
+        String path = prefix + '/' + callsite.getObject();
+        weights.merge(path, callsite.getWeight(), Long::sum);
+        for (AggregatedCallSite callee : callsite.getCallees()) {
+            flatten(path, callee, weights);
+        }
+    }
+
+    /**
+     * Test saving and reading the call graph of stack trace samples, with
+     * string and address symbols
+     *
+     * @throws IOException
+     *             Exception reading or writing the file
+     */
+    @Test
+    public void testSampledCallGraph() throws IOException {
+        ICallStackElement process1 = createElement("1", null);
+        ICallStackElement process2 = createElement("2", null);
+        ICallStackElement[] threads = {
+                createElement("10", process1),
+                createElement("11", process1),
+                createElement("20", process2)
+        };
+        CallGraph callGraph = new CallGraph();
+        Random random = new Random(4521);
+        for (int i = 0; i < 500; i++) {
+            ICallStackElement element = threads[random.nextInt(threads.length)];
+            int depth = 1 + random.nextInt(5);
+            AggregatedCallSite callsite = null;
+            for (int j = 0; j < depth; j++) {
+                Object symbol = random.nextBoolean() ? FUNCTIONS[random.nextInt(FUNCTIONS.length)] : Long.valueOf(0x400000L + random.nextInt(10));
+                AggregatedCallSite parent = new AggregatedStackTraces(CallStackSymbolFactory.createSymbol(symbol, element, i));
+                if (callsite != null) {
+                    parent.addChild(callsite);
+                }
+                callsite = parent;
+            }
+            if (callsite != null) {
+                callGraph.addAggregatedCallSite(element, callsite);
+            }
+        }
+
+        CallGraphFile.write(callGraph, getFile(), IDENTITY, this::resolve);
+        CallGraph read = CallGraphFile.read(getFile(), IDENTITY, this::resolve);
+        assertEquals(callGraph.getElements(), read.getElements());
+        assertEquals(flatten(callGraph), flatten(read));
+        for (ICallStackElement element : threads) {
+            Collection<AggregatedCallSite> expected = callGraph.getCallingContextTree(element);
+            Collection<AggregatedCallSite> actual = read.getCallingContextTree(element);
+            assertEquals(expected.size(), actual.size());
+            for (AggregatedCallSite callsite : actual) {
+                assertTrue(callsite instanceof AggregatedStackTraces);
+                // The symbols are equal to the original ones
+                assertTrue(expected.stream().anyMatch(c -> c.getObject().equals(callsite.getObject())));
+            }
+        }
+    }
+
+    /**
+     * Test saving and reading the call graph of instrumented function calls,
+     * with their statistics
+     *
+     * @throws IOException
+     *             Exception reading or writing the file
+     */
+    @Test
+    public void testInstrumentedCallGraph() throws IOException {
+        ICallStackElement thread = createElement("42", createElement("process", null));
+        IHostModel model = ModelManager.getModelFor("");
+
+        AbstractCalledFunction mainCall = CalledFunctionFactory.create(0L, 100L, "main", 1, 42, null, model);
+        AggregatedCalledFunction main = new AggregatedCalledFunction(CallStackSymbolFactory.createSymbol("main", thread, 0));
+        long[][] fooCalls = { { 5, 10 }, { 20, 35 }, { 40, 80 } };
+        for (long[] fooTimes : fooCalls) {
+            AbstractCalledFunction fooCall = CalledFunctionFactory.create(fooTimes[0], fooTimes[1], "foo", 1, 42, mainCall, model);
+            AggregatedCalledFunction foo = new AggregatedCalledFunction(CallStackSymbolFactory.createSymbol("foo", thread, 0));
+            AbstractCalledFunction barCall = CalledFunctionFactory.create(fooTimes[0] + 1, fooTimes[0] + 3, "bar", 1, 42, fooCall, model);
+            foo.addChild(barCall, new AggregatedCalledFunction(CallStackSymbolFactory.createSymbol("bar", thread, 0)));
+            main.addChild(fooCall, foo);
+        }
+        main.addFunctionCall(mainCall);
+        main.addKernelStatus(new ProcessStatusInterval(0, 60, ProcessStatus.RUN));
+        main.addKernelStatus(new ProcessStatusInterval(60, 100, ProcessStatus.WAIT_BLOCKED));
+        CallGraph callGraph = new CallGraph();
+        callGraph.addAggregatedCallSite(thread, main);
+
+        CallGraphFile.write(callGraph, getFile(), IDENTITY, this::resolve);
+        CallGraph read = CallGraphFile.read(getFile(), IDENTITY, this::resolve);
+        Collection<AggregatedCallSite> trees = read.getCallingContextTree(thread);
+        assertEquals(1, trees.size());
+        AggregatedCalledFunction readMain = (AggregatedCalledFunction) trees.iterator().next();
+        assertFunctionEquals(main, readMain);
+        AggregatedCalledFunction foo = (AggregatedCalledFunction) main.getCallees().iterator().next();
+        AggregatedCalledFunction readFoo = (AggregatedCalledFunction) readMain.getCallees().iterator().next();
+        assertEquals(3, readFoo.getNbCalls());
+        assertFunctionEquals(foo, readFoo);
+        assertFunctionEquals((AggregatedCalledFunction) foo.getCallees().iterator().next(), (AggregatedCalledFunction) readFoo.getCallees().iterator().next());
+
+        // The statistics read can be merged with the ones computed
+        AggregatedCalledFunction merged = readFoo.copyOf();
+        merged.merge(foo);
+        assertEquals(6, merged.getNbCalls());
+        assertEquals(foo.getDuration() * 2, merged.getDuration());
+        IStatistics<?> statistics = merged.getFunctionStatistics().getDurationStatistics();
+        assertEquals(5, statistics.getMin());
+        assertEquals(40, statistics.getMax());
+        assertEquals(foo.getFunctionStatistics().getDurationStatistics().getMean(), statistics.getMean(), 0.0001);
+    }
+
+    private static void assertFunctionEquals(AggregatedCalledFunction expected, AggregatedCalledFunction actual) {
+        assertEquals(expected.getObject(), actual.getObject());
+        assertEquals(expected.getDuration(), actual.getDuration());
+        assertEquals(expected.getSelfTime(), actual.getSelfTime());
+        assertEquals(expected.getCpuTime(), actual.getCpuTime());
+        assertEquals(expected.getProcessId(), actual.getProcessId());
+        assertEquals(expected.getNbCalls(), actual.getNbCalls());
+        assertStatisticsEquals(expected.getFunctionStatistics().getDurationStatistics(), actual.getFunctionStatistics().getDurationStatistics());
+        assertStatisticsEquals(expected.getFunctionStatistics().getSelfTimeStatistics(), actual.getFunctionStatistics().getSelfTimeStatistics());
+        assertStatisticsEquals(expected.getFunctionStatistics().getCpuTimesStatistics(), actual.getFunctionStatistics().getCpuTimesStatistics());
+        Map<ProcessStatus, Long> expectedStatuses = new HashMap<>();
+        for (WeightedTree<?> status : expected.getExtraDataTrees(0)) {
+            expectedStatuses.put(((AggregatedThreadStatus) status).getProcessStatus(), status.getWeight());
+        }
+        Map<ProcessStatus, Long> actualStatuses = new HashMap<>();
+        for (WeightedTree<?> status : actual.getExtraDataTrees(0)) {
+            actualStatuses.put(((AggregatedThreadStatus) status).getProcessStatus(), status.getWeight());
+        }
+        assertEquals(expectedStatuses, actualStatuses);
+        assertEquals(expected.getCallees().size(), actual.getCallees().size());
+    }
+
+    private static void assertStatisticsEquals(IStatistics<?> expected, IStatistics<?> actual) {
+        assertEquals(expected.getNbElements(), actual.getNbElements());
+        if (expected.getNbElements() == 0) {
+            return;
+        }
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.getTotal(), actual.getTotal());
+        assertEquals(expected.getMean(), actual.getMean(), 0.0001);
+        assertEquals(expected.getStdDev(), actual.getStdDev(), 0.0001);
+    }
+
+    /**
+     * Test that a call graph whose elements are not found is not read or
+     * written
+     *
+     * @throws IOException
+     *             Exception reading or writing the file
+     */
+    @Test
+    public void testUnknownElement() throws IOException {
+        ICallStackElement thread = createElement("10", createElement("1", null));
+        CallGraph callGraph = new CallGraph();
+        callGraph.addAggregatedCallSite(thread, new AggregatedStackTraces(CallStackSymbolFactory.createSymbol("main", thread, 0)));
+        try {
+            CallGraphFile.write(callGraph, getFile(), IDENTITY, path -> null);
+            fail("The element should not be found");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+
+        CallGraphFile.write(callGraph, getFile(), IDENTITY, this::resolve);
+        try {
+            CallGraphFile.read(getFile(), IDENTITY, path -> null);
+            fail("The element should not be found");
+        } catch (IOException e) {
+            // Expected
+        }
+        // The file is deleted when loaded for an analysis, to be computed again
+        assertEquals(null, CallGraphFile.load(getFile(), IDENTITY, path -> null));
+        assertFalse(Files.exists(getFile()));
+    }
+
+    /**
+     * Test that a call graph file written by another analysis is not read,
+     * even if the elements of the analyses have the same names
+     *
+     * @throws IOException
+     *             Exception reading or writing the file
+     */
+    @Test
+    public void testOtherAnalysis() throws IOException {
+        ICallStackElement thread = createElement("10", createElement("1", null));
+        CallGraph callGraph = new CallGraph();
+        callGraph.addAggregatedCallSite(thread, new AggregatedStackTraces(CallStackSymbolFactory.createSymbol("main", thread, 0)));
+        CallGraphFile.write(callGraph, getFile(), IDENTITY, this::resolve);
+        assertEquals(1, CallGraphFile.read(getFile(), IDENTITY, this::resolve).getCallingContextTree(thread).size());
+        try {
+            CallGraphFile.read(getFile(), "other.callstack", this::resolve);
+            fail("The file should not be read by another analysis");
+        } catch (IOException e) {
+            // Expected
+        }
+        assertEquals(null, CallGraphFile.load(getFile(), "other.callstack", this::resolve));
+        assertFalse(Files.exists(getFile()));
+    }
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.callstack.core.tests.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.flamegraph.FlameGraphLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Test the {@link FlameGraphLayout} of weighted trees
+ */
+public class FlameGraphLayoutTest {
+
+    private static final Comparator<WeightedTree<String>> COMPARATOR = Comparator.comparing(WeightedTree<String>::getWeight).thenComparing(WeightedTree::getObject);
+
+    private FlameGraphLayout<String> fLayout;
+
+    /**
+     * A weighted tree with extra data trees for the first data set
+     */
+    private static class ExtraDataTree extends WeightedTree<String> {
+        private final List<WeightedTree<String>> fExtraTrees;
+
+        public ExtraDataTree(String object, long weight, List<WeightedTree<String>> extraTrees) {
+            super(object, weight);
+            fExtraTrees = extraTrees;
+        }
+
+        @Override
+        public Collection<WeightedTree<String>> getExtraDataTrees(int index) {
+            return index == 0 ? fExtraTrees : Collections.emptyList();
+        }
+    }
+
+    /**
+     * Create the layout of the following trees, where the siblings are placed
+     * by increasing weight:
+     *
+     * <pre>
+     * time    0     6  9   13 16
+     * depth 0 [  e  ][      a  ]
+     * depth 1 [  f  ][c ][ b ]
+     * depth 2            [d]
+     * </pre>
+     */
+    @Before
+    public void setUp() {
+        WeightedTree<String> a = new WeightedTree<>("a", 10);
+        WeightedTree<String> b = new WeightedTree<>("b", 4);
+        b.addChild(new WeightedTree<>("d", 2));
+        a.addChild(b);
+        a.addChild(new WeightedTree<>("c", 3));
+        WeightedTree<String> e = new WeightedTree<>("e", 6);
+        e.addChild(new WeightedTree<>("f", 6));
+        fLayout = FlameGraphLayout.create(ImmutableList.of(a, e), COMPARATOR, 0);
+    }
+
+    /**
+     * Test the placement of the nodes
+     */
+    @Test
+    public void testLayout() {
+        FlameGraphLayout<String> layout = fLayout;
+        assertEquals(3, layout.getNbDepths());
+        assertEquals(16, layout.getEndTime());
+        assertEquals(-1, layout.getExtraDataRow(0));
+
+        assertNodeAt("e", layout, 0, 0);
+        assertNodeAt("e", layout, 0, 5);
+        assertNodeAt("a", layout, 0, 6);
+        assertNodeAt("a", layout, 0, 15);
+        assertNull(layout.getNodeAt(0, 16));
+        assertNodeAt("f", layout, 1, 3);
+        assertNodeAt("c", layout, 1, 8);
+        assertNodeAt("b", layout, 1, 9);
+        assertNull(layout.getNodeAt(1, 13));
+        assertNull(layout.getNodeAt(2, 0));
+        assertNodeAt("d", layout, 2, 10);
+        assertNull(layout.getNodeAt(2, 11));
+        assertNull(layout.getNodeAt(3, 0));
+    }
+
+    /**
+     * Test getting the states of rows at full resolution
+     */
+    @Test
+    public void testStates() {
+        FlameGraphLayout<String> layout = fLayout;
+        assertEquals(ImmutableList.of("0,6,e", "6,10,a"), getStates(layout, 0, 0, 15, 0));
+        assertEquals(ImmutableList.of("0,6,f", "6,3,c", "9,4,b", "13,3,-"), getStates(layout, 1, 0, 15, 0));
+        assertEquals(ImmutableList.of("0,9,-", "9,2,d", "11,5,-"), getStates(layout, 2, 0, 15, 0));
+
+        // Sub-ranges of the rows
+        assertEquals(ImmutableList.of("6,3,c", "9,4,b"), getStates(layout, 1, 7, 10, 1));
+        assertEquals(ImmutableList.of("11,5,-"), getStates(layout, 2, 12, 15, 1));
+        assertEquals(ImmutableList.of("9,2,d"), getStates(layout, 2, 10, 10, 0));
+        assertEquals(ImmutableList.of("0,9,-"), getStates(layout, 2, 8, 8, 0));
+        assertEquals(Collections.emptyList(), getStates(layout, 1, 16, 20, 0));
+    }
+
+    /**
+     * Test that the states smaller than the resolution are merged
+     */
+    @Test
+    public void testMergedStates() {
+        FlameGraphLayout<String> layout = fLayout;
+        // c and b are merged in a state with the style of b, the empty state
+        // at the end is alone so it is not merged
+        assertEquals(ImmutableList.of("0,6,f", "6,7,b*", "13,3,-"), getStates(layout, 1, 0, 15, 5));
+        assertEquals(ImmutableList.of("0,9,-", "9,7,d*"), getStates(layout, 2, 0, 15, 9));
+        assertEquals(ImmutableList.of("0,16,f*"), getStates(layout, 1, 0, 15, 20));
+    }
+
+    /**
+     * Test the rows of the extra data trees, placed from the start of their
+     * node
+     */
+    @Test
+    public void testExtraData() {
+        WeightedTree<String> x = new ExtraDataTree("x", 10, ImmutableList.of(new WeightedTree<>("s1", 4), new WeightedTree<>("s2", 6)));
+        // The extra data of y overlaps the one of its caller and is not shown
+        x.addChild(new ExtraDataTree("y", 5, ImmutableList.of(new WeightedTree<>("s3", 5))));
+        WeightedTree<String> z = new ExtraDataTree("z", 12, ImmutableList.of(new WeightedTree<>("s4", 2)));
+        FlameGraphLayout<String> layout = FlameGraphLayout.create(ImmutableList.of(x, z), COMPARATOR, 2);
+
+        assertEquals(2, layout.getNbDepths());
+        assertEquals(22, layout.getEndTime());
+        int row = layout.getExtraDataRow(0);
+        assertEquals(2, row);
+        assertEquals(-1, layout.getExtraDataRow(1));
+        assertEquals(ImmutableList.of("0,4,s1", "4,6,s2", "10,2,s4", "12,10,-"), getStates(layout, row, 0, 21, 0));
+        assertNodeAt("s2", layout, row, 7);
+        assertNull(layout.getNodeAt(row, 12));
+    }
+
+    private static void assertNodeAt(String expected, FlameGraphLayout<String> layout, int row, long time) {
+        WeightedTree<@NonNull String> node = layout.getNodeAt(row, time);
+        assertEquals("Node at " + time + " in row " + row, expected, node == null ? null : node.getObject());
+    }
+
+    /**
+     * Get the states of a row as strings of the start, duration and node, with
+     * a star for merged states
+     */
+    private static List<String> getStates(FlameGraphLayout<String> layout, int row, long start, long end, long resolution) {
+        List<String> states = new ArrayList<>();
+        layout.getStates(row, start, end, resolution, (stateStart, duration, node, merged) -> states.add(stateStart + "," + duration + ',' + (node == null ? "-" : node.getObject()) + (merged ? "*" : "")));
+        return states;
+    }
+}
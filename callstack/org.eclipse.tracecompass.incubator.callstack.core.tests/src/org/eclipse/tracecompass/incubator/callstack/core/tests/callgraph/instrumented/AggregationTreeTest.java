@@ -25,6 +25,7 @@ import java.util.Objects;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
 import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
 import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
 import org.eclipse.tracecompass.incubator.callstack.core.callgraph.ICallGraphProvider;
@@ -70,6 +71,7 @@ public class AggregationTreeTest {
     private static final String QUARK_3 = "3";
     private static final Integer SMALL_AMOUNT_OF_SEGMENT = 3;
     private static final int LARGE_AMOUNT_OF_SEGMENTS = 1000;
+    private static final int NB_THREADS = 200;
 
     private static @NonNull ITmfStateSystemBuilder createFixture() {
         IStateHistoryBackend backend;
@@ -667,6 +669,52 @@ public class AggregationTreeTest {
         assertEquals("Test third function's number of calls", 1, function4.getNbCalls());
     }
 
+    /**
+     * Test that the call graph of many threads is the same whether the threads
+     * are aggregated sequentially or in parallel. Each thread i has one call to
+     * function 1, from 0 to 10(i+1), that calls function 2 from 0 to 5(i+1).
+     */
+    @Test
+    public void parallelTest() {
+        ITmfStateSystemBuilder fixture = createFixture();
+        for (int i = 0; i < NB_THREADS; i++) {
+            int threadQuark = fixture.getQuarkAbsoluteAndAdd(CallGraphAnalysisStub.PROCESS_PATH, String.valueOf(i));
+            int parentQuark = fixture.getQuarkRelativeAndAdd(threadQuark, CallGraphAnalysisStub.CALLSTACK_PATH);
+            fixture.pushAttribute(0, 1L, parentQuark);
+            fixture.pushAttribute(0, 2L, parentQuark);
+            fixture.popAttribute(5L * (i + 1), parentQuark);
+            fixture.popAttribute(10L * (i + 1), parentQuark);
+        }
+        fixture.closeHistory(10L * NB_THREADS + 1);
+
+        String @NonNull [] tp = { "*" };
+        String @NonNull [] pp = { CallGraphAnalysisStub.PROCESS_PATH };
+        for (int parallelism : new int[] { 1, 4 }) {
+            CallGraphAnalysisStub cga = new CallGraphAnalysisStub(fixture, ImmutableList.of(pp, tp));
+            try {
+                cga.setParallelism(parallelism);
+                assertTrue(cga.iterate());
+                List<ICallStackElement> threads = getLeafElements(cga);
+                assertEquals("Number of thread nodes Found", NB_THREADS, threads.size());
+                CallGraph cg = cga.getCallGraph();
+                for (ICallStackElement thread : threads) {
+                    long duration = 10L * (Integer.parseInt(thread.getName()) + 1);
+                    Collection<AggregatedCallSite> roots = cg.getCallingContextTree(thread);
+                    assertEquals("Number of root functions", 1, roots.size());
+                    AggregatedCalledFunction function = (AggregatedCalledFunction) roots.iterator().next();
+                    assertEquals("Root duration", duration, function.getDuration());
+                    assertEquals("Root self time", duration / 2, function.getSelfTime());
+                    assertEquals("Number of callees", 1, function.getCallees().size());
+                    AggregatedCalledFunction callee = (AggregatedCalledFunction) function.getCallees().iterator().next();
+                    assertEquals("Callee duration", duration / 2, callee.getDuration());
+                    assertEquals("Callee number of calls", 1, callee.getNbCalls());
+                }
+            } finally {
+                cga.dispose();
+            }
+        }
+    }
+
     /**
      * Gets the call graph analysis
      * @return the call graph analysis
@@ -14,9 +14,11 @@ package org.eclipse.tracecompass.incubator.callstack.core.tests.flamechart;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -24,6 +26,7 @@ import java.util.List;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.os.linux.core.model.HostThread;
 import org.eclipse.tracecompass.incubator.analysis.core.model.IHostModel;
 import org.eclipse.tracecompass.incubator.analysis.core.model.ModelManager;
@@ -335,4 +338,54 @@ public class CallStackTest extends CallStackTestBase {
         assertNull(function);
 
     }
+
+    /**
+     * Test the depth-first iteration over the callstack with
+     * {@link CallStack#iterateOverCallStack(long, long, IHostModel, java.util.function.Consumer, IProgressMonitor)}
+     */
+    @Test
+    public void testIterateOverCallStack() {
+        CallStack element = getElementToTest();
+        IHostModel model = ModelManager.getModelFor("");
+
+        /**
+         * <pre>Function calls for this element:
+         * (1, 20)
+         *   (2, 6), (9, 13), (15, 19)
+         *             (10, 11)
+         * </pre>
+         */
+        List<ICalledFunction> functions = new ArrayList<>();
+        element.iterateOverCallStack(START_TIME, END_TIME, model, functions::add, MONITOR);
+        // The callees are received before their caller
+        assertEquals(5, functions.size());
+        ICalledFunction root = functions.get(4);
+        assertFunction(1, 20, "op5", null, root);
+        assertFunction(2, 6, "op2", root, functions.get(0));
+        assertFunction(10, 11, "op3", functions.get(2), functions.get(1));
+        assertFunction(9, 13, "op2", root, functions.get(2));
+        assertFunction(15, 19, "op2", root, functions.get(3));
+        assertEquals(19 - 4 - 4 - 4, root.getSelfTime());
+
+        // The functions are truncated to the range
+        functions.clear();
+        element.iterateOverCallStack(10, 12, model, functions::add, MONITOR);
+        assertEquals(3, functions.size());
+        root = functions.get(2);
+        assertFunction(10, 12, "op5", null, root);
+        assertFunction(10, 12, "op2", root, functions.get(1));
+        assertFunction(10, 11, "op3", functions.get(1), functions.get(0));
+
+        // A range before the first function
+        functions.clear();
+        element.iterateOverCallStack(0, 0, model, functions::add, MONITOR);
+        assertTrue(functions.isEmpty());
+    }
+
+    private static void assertFunction(long start, long end, String symbol, @Nullable ICalledFunction parent, ICalledFunction function) {
+        assertEquals(start, function.getStart());
+        assertEquals(end, function.getEnd());
+        assertEquals(symbol, function.getSymbol());
+        assertSame(parent, function.getParent());
+    }
 }
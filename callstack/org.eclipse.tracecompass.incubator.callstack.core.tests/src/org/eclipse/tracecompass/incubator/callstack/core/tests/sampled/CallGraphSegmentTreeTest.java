@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.callstack.core.tests.sampled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.AllGroupDescriptor;
+import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+import org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph.AggregatedStackTraces;
+import org.eclipse.tracecompass.incubator.callstack.core.symbol.CallStackSymbolFactory;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.sampled.callgraph.CallGraphSegmentTree;
+import org.junit.Test;
+
+/**
+ * Test the {@link CallGraphSegmentTree} of sampled call graphs
+ */
+public class CallGraphSegmentTreeTest {
+
+    private static final String[] FUNCTIONS = { "main", "foo", "bar", "quux" };
+
+    private static final ICallStackElement ELEMENT_1 = new CallStackElement("one", AllGroupDescriptor.getInstance());
+    private static final ICallStackElement ELEMENT_2 = new CallStackElement("two", AllGroupDescriptor.getInstance());
+
+    private static class Sample {
+        private final long fTimestamp;
+        private final ICallStackElement fElement;
+        private final String[] fStack;
+
+        public Sample(long timestamp, ICallStackElement element, String[] stack) {
+            fTimestamp = timestamp;
+            fElement = element;
+            fStack = stack;
+        }
+
+        public AggregatedCallSite getCallSite() {
+            AggregatedCallSite callsite = new AggregatedStackTraces(CallStackSymbolFactory.createSymbol(fStack[fStack.length - 1], fElement, fTimestamp));
+            for (int i = fStack.length - 2; i >= 0; i--) {
+                AggregatedCallSite parent = new AggregatedStackTraces(CallStackSymbolFactory.createSymbol(fStack[i], fElement, fTimestamp));
+                parent.addChild(callsite);
+                callsite = parent;
+            }
+            return callsite;
+        }
+    }
+
+    private static List<Sample> generateSamples() {
+        Random random = new Random(5623);
+        List<Sample> samples = new ArrayList<>();
+        long ts = 0;
+        for (int i = 0; i < 200; i++) {
+            // Many samples share a timestamp
+            ts += random.nextInt(3);
+            String[] stack = new String[1 + random.nextInt(3)];
+            for (int j = 0; j < stack.length; j++) {
+                stack[j] = FUNCTIONS[random.nextInt(FUNCTIONS.length)];
+            }
+            samples.add(new Sample(ts, random.nextBoolean() ? ELEMENT_1 : ELEMENT_2, stack));
+        }
+        return samples;
+    }
+
+    private static Map<String, Long> flatten(CallGraph callGraph) {
+        Map<String, Long> weights = new HashMap<>();
+        for (ICallStackElement element : callGraph.getElements()) {
+            for (AggregatedCallSite callsite : callGraph.getCallingContextTree(element)) {
+                flatten(element.getName(), callsite, weights);
+            }
+        }
+        return weights;
+    }
+
+    private static void flatten(String prefix, AggregatedCallSite callsite, Map<String, Long> weights) {
+        String path = prefix + '/' + callsite.getObject().resolve(Collections.emptySet());
+        weights.merge(path, callsite.getWeight(), Long::sum);
+        for (AggregatedCallSite callee : callsite.getCallees()) {
+            flatten(path, callee, weights);
+        }
+    }
+
+    /**
+     * Test that the aggregation of any sequence of buckets is the same as the
+     * aggregation of the samples in their time range
+     */
+    @Test
+    public void testRanges() {
+        List<Sample> samples = generateSamples();
+        CallGraphSegmentTree.Builder builder = new CallGraphSegmentTree.Builder(7);
+        for (Sample sample : samples) {
+            builder.addSample(sample.fTimestamp, sample.fElement, sample.getCallSite());
+        }
+        CallGraphSegmentTree segmentTree = builder.build();
+        int nbBuckets = segmentTree.getNbBuckets();
+        assertTrue(nbBuckets > 10);
+
+        for (int bucket = 1; bucket < nbBuckets; bucket++) {
+            // Buckets do not split a timestamp
+            assertTrue(segmentTree.getEnd(bucket - 1) < segmentTree.getStart(bucket));
+        }
+        for (int first = 0; first < nbBuckets; first++) {
+            for (int last = first; last < nbBuckets; last++) {
+                CallGraph expected = new CallGraph();
+                for (Sample sample : samples) {
+                    if (sample.fTimestamp >= segmentTree.getStart(first) && sample.fTimestamp <= segmentTree.getEnd(last)) {
+                        expected.addAggregatedCallSite(sample.fElement, sample.getCallSite());
+                    }
+                }
+                CallGraph actual = new CallGraph();
+                segmentTree.addTo(actual, first, last);
+                assertEquals("Buckets " + first + " to " + last, flatten(expected), flatten(actual));
+            }
+        }
+
+        // The trees are copied, the segment tree is not modified by the call graph
+        CallGraph full = new CallGraph();
+        segmentTree.addTo(full, 0, nbBuckets - 1);
+        segmentTree.addTo(full, 0, nbBuckets - 1);
+        CallGraph again = new CallGraph();
+        segmentTree.addTo(again, 0, nbBuckets - 1);
+        Map<String, Long> weights = flatten(again);
+        Map<String, Long> doubled = flatten(full);
+        for (Map.Entry<String, Long> entry : weights.entrySet()) {
+            assertEquals(Long.valueOf(entry.getValue() * 2), doubled.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * Test the lookup of the buckets of a time range
+     */
+    @Test
+    public void testBucketLookup() {
+        CallGraphSegmentTree.Builder builder = new CallGraphSegmentTree.Builder(2);
+        long[] timestamps = { 10, 10, 10, 20, 30, 40, 40, 50 };
+        for (long ts : timestamps) {
+            builder.addSample(ts, ELEMENT_1, new Sample(ts, ELEMENT_1, new String[] { "main" }).getCallSite());
+        }
+        CallGraphSegmentTree segmentTree = builder.build();
+        // Buckets: [10, 10], [20, 30], [40, 40], [50, 50]
+        assertEquals(4, segmentTree.getNbBuckets());
+        assertEquals(10, segmentTree.getEnd(0));
+        assertEquals(20, segmentTree.getStart(1));
+        assertEquals(30, segmentTree.getEnd(1));
+
+        assertEquals(0, segmentTree.getFirstBucketAfter(0));
+        assertEquals(1, segmentTree.getFirstBucketAfter(11));
+        assertEquals(1, segmentTree.getFirstBucketAfter(20));
+        assertEquals(4, segmentTree.getFirstBucketAfter(51));
+        assertEquals(-1, segmentTree.getLastBucketBefore(9));
+        assertEquals(0, segmentTree.getLastBucketBefore(29));
+        assertEquals(1, segmentTree.getLastBucketBefore(30));
+        assertEquals(3, segmentTree.getLastBucketBefore(100));
+
+        CallGraph callGraph = new CallGraph();
+        segmentTree.addTo(callGraph, 1, 2);
+        assertEquals(Collections.singletonMap("one/main", 4L), flatten(callGraph));
+    }
+
+    /**
+     * Test that a sample older than the previous one is added to the current
+     * bucket, whose range is widened, without overlapping the previous buckets
+     */
+    @Test
+    public void testOutOfOrderSample() {
+        CallGraphSegmentTree.Builder builder = new CallGraphSegmentTree.Builder(2);
+        long[] timestamps = { 10, 20, 30, 25, 40, 50, 35, 60 };
+        for (long ts : timestamps) {
+            builder.addSample(ts, ELEMENT_1, new Sample(ts, ELEMENT_1, new String[] { "main" }).getCallSite());
+        }
+        CallGraphSegmentTree segmentTree = builder.build();
+        // Buckets: [10, 20], [25, 30], [35, 50], [60, 60]
+        assertEquals(4, segmentTree.getNbBuckets());
+        assertEquals(25, segmentTree.getStart(1));
+        assertEquals(30, segmentTree.getEnd(1));
+        assertEquals(35, segmentTree.getStart(2));
+        assertEquals(50, segmentTree.getEnd(2));
+
+        CallGraph callGraph = new CallGraph();
+        segmentTree.addTo(callGraph, 2, 2);
+        assertEquals(Collections.singletonMap("one/main", 3L), flatten(callGraph));
+
+        // A sample older than the previous buckets merges them back
+        builder = new CallGraphSegmentTree.Builder(2);
+        for (long ts : timestamps) {
+            builder.addSample(ts, ELEMENT_1, new Sample(ts, ELEMENT_1, new String[] { "main" }).getCallSite());
+        }
+        builder.addSample(22, ELEMENT_1, new Sample(22, ELEMENT_1, new String[] { "main" }).getCallSite());
+        segmentTree = builder.build();
+        // Buckets: [10, 20], [22, 60]
+        assertEquals(2, segmentTree.getNbBuckets());
+        assertEquals(20, segmentTree.getEnd(0));
+        assertEquals(22, segmentTree.getStart(1));
+        assertEquals(60, segmentTree.getEnd(1));
+
+        callGraph = new CallGraph();
+        segmentTree.addTo(callGraph, 1, 1);
+        assertEquals(Collections.singletonMap("one/main", 7L), flatten(callGraph));
+        callGraph = new CallGraph();
+        segmentTree.addTo(callGraph, 0, 1);
+        assertEquals(Collections.singletonMap("one/main", 9L), flatten(callGraph));
+    }
+}
@@ -14,11 +14,15 @@ package org.eclipse.tracecompass.incubator.callstack.core.flamechart;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.os.linux.core.model.HostThread;
 import org.eclipse.tracecompass.incubator.analysis.core.concepts.ProcessStatusInterval;
@@ -301,7 +305,84 @@ public class CallStack {
      *            The consumer to consume the function calls
      */
     public void iterateOverCallStack(long startTime, long endTime, Consumer<ICalledFunction> consumer) {
-        // TODO Do we need this? If so, implement me!
+        iterateOverCallStack(startTime, endTime, ModelManager.getModelFor(getHostId(startTime)), consumer, new NullProgressMonitor());
+    }
+
+    /**
+     * Iterate over the callstack in a depth-first manner. The intervals of all
+     * the depths are read with a single 2D query and sorted, then the call
+     * tree is rebuilt with a stack of the functions currently open. Each
+     * function is given to the consumer after all its callees, with its
+     * parent set. As with
+     * {@link #getNextFunction(long, int, ICalledFunction, IHostModel, long, long)},
+     * the functions are truncated to the time range and to their parent, and
+     * the functions without a caller at the previous depth are ignored.
+     *
+     * @param startTime
+     *            The start time of the iteration
+     * @param endTime
+     *            The end time of the iteration
+     * @param model
+     *            The operating system model to retrieve extra information
+     * @param consumer
+     *            The consumer to consume the function calls
+     * @param monitor
+     *            The progress monitor, the iteration stops when it is canceled
+     */
+    public void iterateOverCallStack(long startTime, long endTime, IHostModel model, Consumer<ICalledFunction> consumer, IProgressMonitor monitor) {
+        long start = Math.max(fStateSystem.getStartTime(), startTime);
+        long end = Math.min(fStateSystem.getCurrentEndTime(), endTime);
+        if (start > end || fQuarks.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> depths = new HashMap<>();
+        for (int i = 0; i < fQuarks.size(); i++) {
+            depths.put(fQuarks.get(i), i + 1);
+        }
+        List<ITmfStateInterval> intervals = new ArrayList<>();
+        try {
+            for (ITmfStateInterval interval : fStateSystem.query2D(depths.keySet(), start, end)) {
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                if (!interval.getStateValue().isNull()) {
+                    intervals.add(interval);
+                }
+            }
+        } catch (IndexOutOfBoundsException | TimeRangeException | StateSystemDisposedException e) {
+            return;
+        }
+        // A caller starts before or with its callees and is at a lower depth
+        intervals.sort(Comparator.comparingLong(ITmfStateInterval::getStartTime)
+                .thenComparingInt(interval -> Objects.requireNonNull(depths.get(interval.getAttribute()))));
+
+        // The function open at each depth, the last one is the deepest
+        List<ICalledFunction> stack = new ArrayList<>();
+        for (ITmfStateInterval interval : intervals) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            int depth = Objects.requireNonNull(depths.get(interval.getAttribute()));
+            // Close the functions at this depth or deeper, and the ones that ended
+            while (!stack.isEmpty() && (stack.size() >= depth || stack.get(stack.size() - 1).getEnd() <= interval.getStartTime())) {
+                consumer.accept(stack.remove(stack.size() - 1));
+            }
+            if (stack.size() != depth - 1) {
+                // No caller at the previous depth
+                continue;
+            }
+            @Nullable ICalledFunction parent = stack.isEmpty() ? null : stack.get(stack.size() - 1);
+            long rangeStart = parent == null ? start : Math.max(parent.getStart(), start);
+            long rangeEnd = parent == null ? endTime : Math.min(parent.getEnd(), endTime);
+            if (interval.getEndTime() < rangeStart || interval.getStartTime() >= rangeEnd) {
+                continue;
+            }
+            stack.add(CalledFunctionFactory.create(Math.max(rangeStart, interval.getStartTime()), Math.min(rangeEnd, interval.getEndTime() + 1), interval.getValue(),
+                    getSymbolKeyAt(interval.getStartTime()), getThreadId(interval.getStartTime()), parent, model));
+        }
+        while (!stack.isEmpty()) {
+            consumer.accept(stack.remove(stack.size() - 1));
+        }
     }
 
     /**
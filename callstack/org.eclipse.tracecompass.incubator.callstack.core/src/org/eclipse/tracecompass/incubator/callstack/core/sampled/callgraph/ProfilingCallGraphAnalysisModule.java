@@ -11,8 +11,11 @@
 
 package org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -27,7 +30,9 @@ import org.eclipse.tracecompass.incubator.callstack.core.callgraph.ICallGraphPro
 import org.eclipse.tracecompass.incubator.callstack.core.flamechart.IEventCallStackProvider;
 import org.eclipse.tracecompass.incubator.callstack.core.symbol.CallStackSymbolFactory;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.callgraph.CallGraphFile;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.Messages;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.sampled.callgraph.CallGraphSegmentTree;
 import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
@@ -38,7 +43,9 @@ import org.eclipse.tracecompass.tmf.core.symbols.ISymbolProvider;
 import org.eclipse.tracecompass.tmf.core.symbols.SymbolProviderManager;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.experiment.TmfExperiment;
 import org.eclipse.tracecompass.tmf.core.util.Pair;
 
@@ -55,6 +62,7 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
     private final Set<ICallStackElement> fRootElements = new HashSet<>();
 
     private @Nullable CallGraph fFullRangeCallGraph;
+    private @Nullable CallGraphSegmentTree fSegmentTree;
     private @Nullable Collection<ISymbolProvider> fSymbolProviders = null;
 
     /**
@@ -78,8 +86,29 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
 
     @Override
     public CallGraph getCallGraph(ITmfTimestamp start, ITmfTimestamp end) {
-        CallGraph cg = executeForRange(new TmfTimeRange(start, end));
-        if (cg == null) {
+        CallGraph cg = new CallGraph();
+        CallGraphSegmentTree segmentTree = fSegmentTree;
+        if (segmentTree == null) {
+            return executeForRange(new TmfTimeRange(start, end), cg) ? cg : CallGraph.EMPTY_GRAPH;
+        }
+        /*
+         * Merge the aggregated buckets that are completely in the range, only
+         * the samples at the edges of the range are read from the trace
+         */
+        long startTime = start.toNanos();
+        long endTime = end.toNanos();
+        int first = segmentTree.getFirstBucketAfter(startTime);
+        int last = segmentTree.getLastBucketBefore(endTime);
+        if (first > last) {
+            return executeForRange(new TmfTimeRange(start, end), cg) ? cg : CallGraph.EMPTY_GRAPH;
+        }
+        segmentTree.addTo(cg, first, last);
+        if (startTime < segmentTree.getStart(first)
+                && !executeForRange(new TmfTimeRange(start, TmfTimestamp.fromNanos(segmentTree.getStart(first) - 1)), cg)) {
+            return CallGraph.EMPTY_GRAPH;
+        }
+        if (endTime > segmentTree.getEnd(last)
+                && !executeForRange(new TmfTimeRange(TmfTimestamp.fromNanos(segmentTree.getEnd(last) + 1), end), cg)) {
             return CallGraph.EMPTY_GRAPH;
         }
         return cg;
@@ -165,15 +194,65 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
 
     @Override
     protected boolean executeAnalysis(@NonNull IProgressMonitor monitor) throws TmfAnalysisException {
-        CallGraph callgraph = executeForRange(TmfTimeRange.ETERNITY);
-        if (callgraph == null) {
+        Path file = getCallGraphFile();
+        if (file != null) {
+            /*
+             * The call graph saved by a previous execution, the range call
+             * graphs will be read from the trace as there is no segment tree
+             */
+            CallGraph callgraph = CallGraphFile.load(file, getId(), this::restoreElement);
+            if (callgraph != null) {
+                fFullRangeCallGraph = callgraph;
+                return true;
+            }
+        }
+        /*
+         * The full range pass aggregates the samples per bucket, the full range
+         * call graph is the aggregation of all the buckets
+         */
+        CallGraphSegmentTree.Builder builder = new CallGraphSegmentTree.Builder(CallGraphSegmentTree.DEFAULT_BUCKET_SIZE);
+        if (!executeRequest(TmfTimeRange.ETERNITY, builder::addSample)) {
             return false;
         }
+        CallGraphSegmentTree segmentTree = builder.build();
+        CallGraph callgraph = new CallGraph();
+        segmentTree.addTo(callgraph, 0, segmentTree.getNbBuckets() - 1);
+        fSegmentTree = segmentTree;
         fFullRangeCallGraph = callgraph;
+        if (file != null) {
+            CallGraphFile.save(callgraph, file, getId(), this::restoreElement);
+        }
         return true;
     }
 
-    private @Nullable CallGraph executeForRange(TmfTimeRange range) {
+    private @Nullable Path getCallGraphFile() {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return null;
+        }
+        return Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), getId() + CallGraphFile.EXTENSION);
+    }
+
+    /**
+     * Get the element of a call graph saved by a previous execution of this
+     * analysis, from the names of the elements. Classes that can recreate
+     * their elements should override this method, the call graph is computed
+     * again otherwise.
+     *
+     * @param path
+     *            The names of the elements, from the root element to the
+     *            element to get
+     * @return The element, or <code>null</code> if it cannot be recreated
+     */
+    protected @Nullable ICallStackElement restoreElement(List<String> path) {
+        return null;
+    }
+
+    private boolean executeForRange(TmfTimeRange range, CallGraph callGraph) {
+        return executeRequest(range, (ts, element, callsite) -> callGraph.addAggregatedCallSite(element, callsite));
+    }
+
+    private boolean executeRequest(TmfTimeRange range, ISampleConsumer consumer) {
         ITmfTrace trace = getTrace();
         if (trace == null) {
             throw new NullPointerException("Trace has not been set, yet the analysis is being run!"); //$NON-NLS-1$
@@ -185,20 +264,16 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
         }
 
         try {
-            CallGraph callGraph = new CallGraph();
-            request = new ProfilingEventRequest(trace, callGraph, range);
+            request = new ProfilingEventRequest(trace, consumer, range);
             fRequest = request;
             trace.sendRequest(request);
 
             request.waitForCompletion();
-            if (!request.isCompleted()) {
-                return null;
-            }
-            return callGraph;
+            return request.isCompleted() && !request.isCancelled();
         } catch (InterruptedException e) {
             Activator.getInstance().logError("Request interrupted", e); //$NON-NLS-1$
         }
-        return null;
+        return false;
     }
 
     @Override
@@ -209,29 +284,34 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
         }
     }
 
+    @FunctionalInterface
+    private interface ISampleConsumer {
+        void accept(long timestamp, ICallStackElement element, AggregatedCallSite callsite);
+    }
+
     private class ProfilingEventRequest extends TmfEventRequest {
 
         private final ITmfTrace fTrace;
-        private final CallGraph fCallGraph;
+        private final ISampleConsumer fConsumer;
 
         /**
          * Constructor
          *
          * @param trace
          *            The trace
-         * @param callgraph
-         *            The callgraph to fill
+         * @param consumer
+         *            The consumer of the stack traces of the samples
          * @param range
          *            The time range of this request
          */
-        public ProfilingEventRequest(ITmfTrace trace, CallGraph callgraph, TmfTimeRange range) {
+        public ProfilingEventRequest(ITmfTrace trace, ISampleConsumer consumer, TmfTimeRange range) {
             super(TmfEvent.class,
                     range,
                     0,
                     ITmfEventRequest.ALL_DATA,
                     ITmfEventRequest.ExecutionType.BACKGROUND);
             fTrace = trace;
-            fCallGraph = callgraph;
+            fConsumer = consumer;
         }
 
         @Override
@@ -257,7 +337,7 @@ public abstract class ProfilingCallGraphAnalysisModule extends TmfAbstractAnalys
             if (perfCallSite == null) {
                 return;
             }
-            fCallGraph.addAggregatedCallSite(perfCallSite.getFirst(), perfCallSite.getSecond());
+            fConsumer.accept(event.getTimestamp().toNanos(), perfCallSite.getFirst(), perfCallSite.getSecond());
         }
     }
 
@@ -0,0 +1,684 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.callstack.core.callgraph;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.os.linux.core.model.ProcessStatus;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.ICallStackSymbol;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+import org.eclipse.tracecompass.incubator.callstack.core.instrumented.ICalledFunction;
+import org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph.AggregatedStackTraces;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.AggregatedCalledFunction;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.AggregatedCalledFunctionStatistics;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.AggregatedThreadStatus;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph.SummaryStatistics;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.symbol.ResolvableSymbol;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.symbol.StringSymbol;
+
+/**
+ * Binary file of a computed call graph, saved in the supplementary files of a
+ * trace so the call graph does not need to be computed again when the trace
+ * is reopened.
+ *
+ * The file starts with a header, with the identity of the analysis that wrote
+ * it, so a file is only read by that analysis. It is followed by the table of
+ * strings, the table
+ * of symbols and the index of the elements, which give for each element the
+ * names of the elements from its root and the position of its calling context
+ * trees. The trees follow, in pre-order, with the number of children after the
+ * data of each node. All integers are variable length and the signed ones are
+ * zigzag encoded, so the small values of most nodes take only a few bytes.
+ *
+ * When read, the file is mapped in memory and only the header and the tables
+ * are decoded. The trees of an element are decoded the first time they are
+ * requested.
+ */
+public final class CallGraphFile {
+
+    /**
+     * The extension of the call graph files
+     */
+    public static final String EXTENSION = ".callgraph"; //$NON-NLS-1$
+
+    private static final int MAGIC = 0x54434347;
+    private static final int VERSION = 2;
+
+    private static final byte SYMBOL_STRING = 0;
+    private static final byte SYMBOL_RESOLVABLE = 1;
+
+    private static final byte NODE_CALL_SITE = 0;
+    private static final byte NODE_STACK_TRACES = 1;
+    private static final byte NODE_CALLED_FUNCTION = 2;
+
+    private CallGraphFile() {
+        // Do nothing
+    }
+
+    // ------------------------------------------------------------------------
+    // Convenience methods for the analyses
+    // ------------------------------------------------------------------------
+
+    /**
+     * Load a call graph file, if it exists. If the file cannot be read or if
+     * its elements are not found anymore, it is deleted, so the call graph is
+     * computed and saved again.
+     *
+     * @param file
+     *            The path of the file
+     * @param identity
+     *            The identity of the analysis reading the file, the file is
+     *            not valid if it was written by another analysis
+     * @param resolver
+     *            The function to get the element from the names of the
+     *            elements from its root. It returns <code>null</code> if the
+     *            element does not exist.
+     * @return The call graph, or <code>null</code> if there is no valid file
+     */
+    public static @Nullable CallGraph load(Path file, String identity, Function<List<String>, @Nullable ICallStackElement> resolver) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return read(file, identity, resolver);
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("The call graph file cannot be read, it will be computed again: " + file, e); //$NON-NLS-1$
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e1) {
+                Activator.getInstance().logWarning("Error deleting the call graph file " + file, e1); //$NON-NLS-1$
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Save a call graph to a file, logging the errors. Nothing is saved if
+     * the call graph contains data that cannot be written.
+     *
+     * @param callGraph
+     *            The call graph to save
+     * @param file
+     *            The path of the file
+     * @param identity
+     *            The identity of the analysis saving the call graph
+     * @param resolver
+     *            The function that will get the elements when the file is
+     *            read
+     */
+    public static void save(CallGraph callGraph, Path file, String identity, Function<List<String>, @Nullable ICallStackElement> resolver) {
+        try {
+            write(callGraph, file, identity, resolver);
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Error saving the call graph to " + file, e); //$NON-NLS-1$
+        } catch (IllegalArgumentException e) {
+            // Not an error, these call graphs are just not persisted
+            Activator.getInstance().logInfo("The call graph cannot be saved: " + e.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Writing
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write a call graph to a file. The file is written to a temporary file
+     * first, so a partial file is never left at the path.
+     *
+     * @param callGraph
+     *            The call graph to write
+     * @param file
+     *            The path of the file, it is replaced if it exists
+     * @param identity
+     *            The identity of the analysis writing the call graph, that is
+     *            checked when the file is read
+     * @param resolver
+     *            The function that will get the elements when the file is
+     *            read, to make sure they can be found from their names
+     * @throws IOException
+     *             If the file cannot be written
+     * @throws IllegalArgumentException
+     *             If the call graph contains elements that would not be
+     *             found, or symbols or callsites that cannot be written
+     */
+    public static void write(CallGraph callGraph, Path file, String identity, Function<List<String>, @Nullable ICallStackElement> resolver) throws IOException {
+        Encoder encoder = new Encoder();
+        List<List<String>> paths = new ArrayList<>();
+        List<long[]> positions = new ArrayList<>();
+        Set<List<String>> known = new HashSet<>();
+        Deque<ICallStackElement> toVisit = new ArrayDeque<>(callGraph.getElements());
+        while (!toVisit.isEmpty()) {
+            ICallStackElement element = toVisit.pop();
+            toVisit.addAll(element.getChildrenElements());
+            Collection<AggregatedCallSite> trees = callGraph.getCallingContextTree(element);
+            if (trees.isEmpty()) {
+                continue;
+            }
+            List<String> path = getPath(element);
+            if (!known.add(path) || resolver.apply(path) != element) {
+                throw new IllegalArgumentException("The element cannot be found from its name: " + path); //$NON-NLS-1$
+            }
+            paths.add(path);
+            positions.add(new long[] { encoder.fTrees.size(), trees.size() });
+            for (AggregatedCallSite tree : trees) {
+                encoder.writeTree(tree);
+            }
+        }
+
+        Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp"); //$NON-NLS-1$
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(tmpFile))) {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            byte[] identityBytes = identity.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(identityBytes.length);
+            out.write(identityBytes);
+            // The index of the elements uses strings too, intern them first
+            List<int[]> pathIds = new ArrayList<>(paths.size());
+            for (List<String> path : paths) {
+                int[] ids = new int[path.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = encoder.getStringId(path.get(i));
+                }
+                pathIds.add(ids);
+            }
+
+            Encoder tables = new Encoder();
+            tables.writeVarLong(encoder.fStrings.size());
+            for (String string : encoder.fStrings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                tables.writeVarLong(bytes.length);
+                tables.fTrees.write(bytes, 0, bytes.length);
+            }
+            tables.writeVarLong(encoder.fSymbols.size());
+            for (ICallStackSymbol symbol : encoder.fSymbols) {
+                if (symbol instanceof ResolvableSymbol) {
+                    ResolvableSymbol resolvable = (ResolvableSymbol) symbol;
+                    tables.fTrees.write(SYMBOL_RESOLVABLE);
+                    tables.writeZigZag(resolvable.getAddress());
+                    tables.writeZigZag(resolvable.getPid());
+                    tables.writeZigZag(resolvable.getTimestamp());
+                } else {
+                    tables.fTrees.write(SYMBOL_STRING);
+                    tables.writeVarLong(encoder.getStringId((String) ((StringSymbol) symbol).getSymbol()));
+                }
+            }
+            tables.writeVarLong(paths.size());
+            for (int i = 0; i < paths.size(); i++) {
+                int[] ids = pathIds.get(i);
+                tables.writeVarLong(ids.length);
+                for (int id : ids) {
+                    tables.writeVarLong(id);
+                }
+                tables.writeVarLong(positions.get(i)[0]);
+                tables.writeVarLong(positions.get(i)[1]);
+            }
+            tables.fTrees.writeTo(out);
+            encoder.fTrees.writeTo(out);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Get the names of the elements from the root element to an element
+     *
+     * @param element
+     *            The element
+     * @return The names of the elements, the root first
+     */
+    public static List<String> getPath(ICallStackElement element) {
+        List<String> path = new ArrayList<>();
+        @Nullable ICallStackElement current = element;
+        while (current != null) {
+            path.add(current.getName());
+            current = current.getParentElement();
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Encoder of the trees, that interns the strings and the symbols
+     */
+    private static class Encoder {
+        private final ByteArrayOutputStream fTrees = new ByteArrayOutputStream();
+        private final Map<String, Integer> fStringIds = new HashMap<>();
+        private final List<String> fStrings = new ArrayList<>();
+        private final Map<ICallStackSymbol, Integer> fSymbolIds = new HashMap<>();
+        private final List<ICallStackSymbol> fSymbols = new ArrayList<>();
+
+        public int getStringId(String string) {
+            Integer id = fStringIds.get(string);
+            if (id == null) {
+                id = fStrings.size();
+                fStrings.add(string);
+                fStringIds.put(string, id);
+            }
+            return id;
+        }
+
+        private int getSymbolId(ICallStackSymbol symbol) {
+            Integer id = fSymbolIds.get(symbol);
+            if (id == null) {
+                if (symbol instanceof StringSymbol) {
+                    Object value = ((StringSymbol) symbol).getSymbol();
+                    if (!(value instanceof String)) {
+                        throw new IllegalArgumentException("Unsupported symbol value: " + value.getClass().getName()); //$NON-NLS-1$
+                    }
+                    getStringId((String) value);
+                } else if (!(symbol instanceof ResolvableSymbol)) {
+                    throw new IllegalArgumentException("Unsupported symbol: " + symbol.getClass().getName()); //$NON-NLS-1$
+                }
+                id = fSymbols.size();
+                fSymbols.add(symbol);
+                fSymbolIds.put(symbol, id);
+            }
+            return id;
+        }
+
+        public void writeTree(AggregatedCallSite root) {
+            // Iterative, the call stacks may be very deep
+            Deque<Iterator<AggregatedCallSite>> stack = new ArrayDeque<>();
+            writeNode(root);
+            stack.push(root.getCallees().iterator());
+            while (!stack.isEmpty()) {
+                Iterator<AggregatedCallSite> callees = stack.peek();
+                if (!callees.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                AggregatedCallSite callee = callees.next();
+                writeNode(callee);
+                stack.push(callee.getCallees().iterator());
+            }
+        }
+
+        private void writeNode(AggregatedCallSite callsite) {
+            Class<?> type = callsite.getClass();
+            if (type == AggregatedCalledFunction.class) {
+                AggregatedCalledFunction function = (AggregatedCalledFunction) callsite;
+                fTrees.write(NODE_CALLED_FUNCTION);
+                writeVarLong(getSymbolId(function.getObject()));
+                writeZigZag(function.getDuration());
+                writeZigZag(function.getSelfTime());
+                writeZigZag(function.getCpuTime());
+                writeZigZag(function.getProcessId());
+                AggregatedCalledFunctionStatistics statistics = function.getFunctionStatistics();
+                writeStatistics(statistics.getDurationStatistics());
+                writeStatistics(statistics.getSelfTimeStatistics());
+                writeStatistics(statistics.getCpuTimesStatistics());
+                Collection<WeightedTree<ICallStackSymbol>> statuses = function.getExtraDataTrees(0);
+                writeVarLong(statuses.size());
+                for (WeightedTree<ICallStackSymbol> status : statuses) {
+                    writeVarLong(getStringId(((AggregatedThreadStatus) status).getProcessStatus().name()));
+                    writeZigZag(status.getWeight());
+                }
+            } else if (type == AggregatedStackTraces.class) {
+                fTrees.write(NODE_STACK_TRACES);
+                writeVarLong(getSymbolId(callsite.getObject()));
+                writeZigZag(callsite.getWeight());
+            } else if (type == AggregatedCallSite.class) {
+                fTrees.write(NODE_CALL_SITE);
+                writeVarLong(getSymbolId(callsite.getObject()));
+                writeZigZag(callsite.getWeight());
+            } else {
+                throw new IllegalArgumentException("Unsupported callsite: " + type.getName()); //$NON-NLS-1$
+            }
+            Collection<AggregatedCallSite> callees = callsite.getCallees();
+            if (callees.size() != callsite.getChildren().size()) {
+                throw new IllegalArgumentException("Unsupported children of callsite " + callsite); //$NON-NLS-1$
+            }
+            writeVarLong(callees.size());
+        }
+
+        private void writeStatistics(IStatistics<ICalledFunction> statistics) {
+            long nbElements = statistics.getNbElements();
+            writeVarLong(nbElements);
+            if (nbElements == 0) {
+                return;
+            }
+            writeZigZag(statistics.getMin());
+            writeZigZag(statistics.getMax());
+            writeZigZag(statistics.getTotal());
+            writeDouble(statistics.getMean());
+            writeDouble(SummaryStatistics.getSumOfSquares(statistics));
+        }
+
+        public void writeVarLong(long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                fTrees.write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            fTrees.write((int) remaining);
+        }
+
+        public void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeDouble(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            for (int i = 56; i >= 0; i -= 8) {
+                fTrees.write((int) (bits >>> i));
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Reading
+    // ------------------------------------------------------------------------
+
+    /**
+     * Read a call graph file. The file is mapped in memory and the trees of
+     * each element are decoded when they are first requested.
+     *
+     * @param file
+     *            The path of the file
+     * @param identity
+     *            The identity of the analysis reading the file
+     * @param resolver
+     *            The function to get the element from the names of the
+     *            elements from its root. It returns <code>null</code> if the
+     *            element does not exist.
+     * @return The call graph
+     * @throws IOException
+     *             If the file cannot be read, is not a valid call graph file,
+     *             was written by another analysis, or if one of its elements
+     *             does not exist
+     */
+    public static CallGraph read(Path file, String identity, Function<List<String>, @Nullable ICallStackElement> resolver) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Call graph file too large: " + channel.size()); //$NON-NLS-1$
+            }
+            // The mapping remains valid after the channel is closed
+            buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            Decoder in = new Decoder(buffer);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a call graph file or unsupported version: " + file); //$NON-NLS-1$
+            }
+            int identityLength = buffer.getInt();
+            if (identityLength < 0 || identityLength > buffer.remaining()) {
+                throw new IOException("Corrupted call graph file " + file); //$NON-NLS-1$
+            }
+            byte[] identityBytes = new byte[identityLength];
+            buffer.get(identityBytes);
+            String fileIdentity = new String(identityBytes, StandardCharsets.UTF_8);
+            if (!fileIdentity.equals(identity)) {
+                throw new IOException("The call graph file " + file + " was written by " + fileIdentity + ", not " + identity); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            }
+            String[] strings = new String[in.readCount()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.readCount()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            ICallStackSymbol[] symbols = new ICallStackSymbol[in.readCount()];
+            for (int i = 0; i < symbols.length; i++) {
+                byte type = buffer.get();
+                if (type == SYMBOL_RESOLVABLE) {
+                    long address = in.readZigZag();
+                    int pid = (int) in.readZigZag();
+                    symbols[i] = new ResolvableSymbol(address, pid, in.readZigZag());
+                } else if (type == SYMBOL_STRING) {
+                    symbols[i] = new StringSymbol(strings[in.readCount()]);
+                } else {
+                    throw new IOException("Unknown symbol type " + type + " in " + file); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            }
+            int nbElements = in.readCount();
+            Map<ICallStackElement, long[]> positions = new HashMap<>();
+            for (int i = 0; i < nbElements; i++) {
+                List<String> path = new ArrayList<>();
+                int length = in.readCount();
+                for (int j = 0; j < length; j++) {
+                    path.add(strings[in.readCount()]);
+                }
+                ICallStackElement element = resolver.apply(path);
+                if (element == null) {
+                    throw new IOException("Element " + path + " of the call graph file not found"); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+                positions.put(element, new long[] { in.readVarLong(), in.readVarLong() });
+            }
+            ByteBuffer trees = buffer.slice();
+            return new MappedCallGraph(trees, strings, symbols, positions);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupted call graph file " + file, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Decoder of the variable length values of a buffer
+     */
+    private static class Decoder {
+        private final ByteBuffer fBuffer;
+
+        public Decoder(ByteBuffer buffer) {
+            fBuffer = buffer;
+        }
+
+        public long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 63) {
+                    throw new IllegalArgumentException("Invalid variable length value"); //$NON-NLS-1$
+                }
+                b = fBuffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        public int readCount() {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid count " + value); //$NON-NLS-1$
+            }
+            return (int) value;
+        }
+
+        public long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public double readDouble() {
+            return fBuffer.getDouble();
+        }
+    }
+
+    /**
+     * A call graph whose trees are decoded from the mapped file when they are
+     * first requested for an element
+     */
+    private static class MappedCallGraph extends CallGraph {
+
+        private final ByteBuffer fTrees;
+        private final String[] fStrings;
+        private final ICallStackSymbol[] fSymbols;
+        private final Map<ICallStackElement, long[]> fPositions;
+        private final Set<ICallStackElement> fRoots = new HashSet<>();
+
+        public MappedCallGraph(ByteBuffer trees, String[] strings, ICallStackSymbol[] symbols, Map<ICallStackElement, long[]> positions) {
+            fTrees = trees;
+            fStrings = strings;
+            fSymbols = symbols;
+            fPositions = new HashMap<>(positions);
+            for (ICallStackElement element : positions.keySet()) {
+                ICallStackElement root = element;
+                ICallStackElement parent = element.getParentElement();
+                while (parent != null) {
+                    root = parent;
+                    parent = parent.getParentElement();
+                }
+                fRoots.add(root);
+            }
+        }
+
+        @Override
+        public synchronized Collection<AggregatedCallSite> getCallingContextTree(ICallStackElement element) {
+            decode(element);
+            return super.getCallingContextTree(element);
+        }
+
+        @Override
+        public synchronized void addAggregatedCallSite(ICallStackElement dstGroup, AggregatedCallSite callsite) {
+            decode(dstGroup);
+            super.addAggregatedCallSite(dstGroup, callsite);
+        }
+
+        @Override
+        public synchronized Collection<ICallStackElement> getElements() {
+            // The roots of the elements not decoded yet are not in the graph
+            Set<ICallStackElement> roots = new HashSet<>(super.getElements());
+            roots.addAll(fRoots);
+            return roots;
+        }
+
+        private void decode(ICallStackElement element) {
+            long[] position = fPositions.remove(element);
+            if (position == null) {
+                return;
+            }
+            ByteBuffer buffer = fTrees.duplicate();
+            try {
+                buffer.position((int) position[0]);
+                Decoder in = new Decoder(buffer);
+                for (long i = 0; i < position[1]; i++) {
+                    super.addAggregatedCallSite(element, readTree(in));
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                Activator.getInstance().logError("Corrupted call graph file, the call graph of " + element + " is incomplete", e); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+
+        private AggregatedCallSite readTree(Decoder in) {
+            // Iterative, the call stacks may be very deep
+            AggregatedCallSite root = readNode(in);
+            Deque<PendingNode> stack = new ArrayDeque<>();
+            stack.push(new PendingNode(root, in.readCount()));
+            while (!stack.isEmpty()) {
+                PendingNode parent = stack.peek();
+                if (parent.fRemaining == 0) {
+                    stack.pop();
+                    continue;
+                }
+                parent.fRemaining--;
+                AggregatedCallSite child = readNode(in);
+                parent.fCallSite.addChild(child);
+                stack.push(new PendingNode(child, in.readCount()));
+            }
+            return root;
+        }
+
+        private AggregatedCallSite readNode(Decoder in) {
+            byte type = in.fBuffer.get();
+            ICallStackSymbol symbol = fSymbols[in.readCount()];
+            switch (type) {
+            case NODE_CALLED_FUNCTION: {
+                long duration = in.readZigZag();
+                long selfTime = in.readZigZag();
+                long cpuTime = in.readZigZag();
+                int processId = (int) in.readZigZag();
+                AggregatedCalledFunctionStatistics statistics = new AggregatedCalledFunctionStatistics(
+                        readStatistics(in, ICalledFunction::getLength),
+                        readStatistics(in, ICalledFunction::getSelfTime),
+                        readStatistics(in, ICalledFunction::getCpuTime));
+                int nbStatuses = in.readCount();
+                List<AggregatedThreadStatus> statuses = new ArrayList<>(nbStatuses);
+                for (int i = 0; i < nbStatuses; i++) {
+                    AggregatedThreadStatus status = new AggregatedThreadStatus(ProcessStatus.valueOf(fStrings[in.readCount()]));
+                    status.addToWeight(in.readZigZag());
+                    statuses.add(status);
+                }
+                return new AggregatedCalledFunction(symbol, duration, selfTime, cpuTime, processId, statistics, statuses);
+            }
+            case NODE_STACK_TRACES: {
+                // Stack traces are created with a weight of 1
+                AggregatedStackTraces callsite = new AggregatedStackTraces(symbol);
+                callsite.addToWeight(in.readZigZag() - callsite.getWeight());
+                return callsite;
+            }
+            case NODE_CALL_SITE:
+                return new AggregatedCallSite(symbol, in.readZigZag());
+            default:
+                throw new IllegalArgumentException("Unknown callsite type " + type); //$NON-NLS-1$
+            }
+        }
+
+        private static IStatistics<ICalledFunction> readStatistics(Decoder in, ToLongFunction<ICalledFunction> mapper) {
+            long nbElements = in.readVarLong();
+            if (nbElements == 0) {
+                return new SummaryStatistics<>(mapper);
+            }
+            long min = in.readZigZag();
+            long max = in.readZigZag();
+            long total = in.readZigZag();
+            double mean = in.readDouble();
+            return new SummaryStatistics<>(mapper, nbElements, min, max, total, mean, in.readDouble());
+        }
+    }
+
+    private static class PendingNode {
+        private final AggregatedCallSite fCallSite;
+        private int fRemaining;
+
+        public PendingNode(AggregatedCallSite callSite, int remaining) {
+            fCallSite = callSite;
+            fRemaining = remaining;
+        }
+    }
+}
@@ -11,17 +11,15 @@
 
 package org.eclipse.tracecompass.incubator.internal.callstack.core.flamegraph;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableSet;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -38,7 +36,6 @@ import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLogBuilder;
-import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferWriter;
 import org.eclipse.tracecompass.incubator.analysis.core.model.IHostModel;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.AllGroupDescriptor;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IDataPalette;
@@ -51,17 +48,8 @@ import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTr
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTreeGroupBy;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.provider.FlameChartEntryModel;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.provider.FlameChartEntryModel.EntryType;
-import org.eclipse.tracecompass.internal.provisional.statesystem.core.statevalue.CustomStateValue;
 import org.eclipse.tracecompass.internal.tmf.core.model.AbstractTmfTraceDataProvider;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
-import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
-import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
-import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
-import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
-import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
-import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
-import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
-import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.dataprovider.DataProviderParameterUtils;
 import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
@@ -81,11 +69,9 @@ import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.util.Pair;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.TreeMultimap;
 
 /**
  * A data provider for flame graphs, using a {@link IWeightedTreeProvider} as
@@ -133,9 +119,6 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
      */
     private static final Logger LOGGER = TraceCompassLog.getLogger(FlameGraphDataProvider.class);
 
-    /* State System attributes for the root levels */
-    private static final String FUNCTION_LEVEL = "::Function"; //$NON-NLS-1$
-
     private final IWeightedTreeProvider<N, E, T> fWtProvider;
 
     private final String fAnalysisId;
@@ -175,47 +158,15 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
 
     /** An internal class to describe the data for an entry */
     private class WeightedTreeEntry {
-        private ITmfStateSystem fSs;
-        private Integer fQuark;
+        private final FlameGraphLayout<N> fLayout;
+        private final int fRow;
 
-        public WeightedTreeEntry(ITmfStateSystem ss, Integer quark) {
-            fSs = ss;
-            fQuark = quark;
+        public WeightedTreeEntry(FlameGraphLayout<N> layout, int row) {
+            fLayout = layout;
+            fRow = row;
         }
     }
 
-    private static class CalleeCustomValue<@NonNull N> extends CustomStateValue {
-        private WeightedTree<N> fCallSite;
-
-        public CalleeCustomValue(WeightedTree<N> rootFunction) {
-            fCallSite = rootFunction;
-        }
-
-        @Override
-        public int compareTo(ITmfStateValue o) {
-            if (!(o instanceof CalleeCustomValue)) {
-                return -1;
-            }
-            return fCallSite.compareTo(((CalleeCustomValue) o).fCallSite);
-        }
-
-        @Override
-        protected Byte getCustomTypeId() {
-            return 103;
-        }
-
-        @Override
-        protected void serializeValue(ISafeByteBufferWriter buffer) {
-            throw new UnsupportedOperationException("This state value is not meant to be written to disk"); //$NON-NLS-1$
-        }
-
-        @Override
-        protected int getSerializedValueSize() {
-            throw new UnsupportedOperationException("This state value is not meant to be written to disk"); //$NON-NLS-1$
-        }
-
-    }
-
     /**
      * Constructor
      *
@@ -365,64 +316,6 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
 
     }
 
-    private ITmfStateSystem elementToStateSystem(IWeightedTreeProvider<N, E, T> wtProvider, IWeightedTreeSet<N, Object, WeightedTree<N>> callGraph, Object element) {
-        // Create an in-memory state system for this element
-        IStateHistoryBackend backend = StateHistoryBackendFactory.createInMemoryBackend("org.eclipse.tracecompass.incubator.callgraph.ss", 0L); //$NON-NLS-1$
-        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
-
-        // Add the functions
-        List<WeightedTree<N>> rootFunctions = new ArrayList<>(callGraph.getTreesFor(element));
-        rootFunctions.sort(CCT_COMPARATOR2);
-        int quarkFct = ssb.getQuarkAbsoluteAndAdd(FUNCTION_LEVEL);
-        Deque<Long> timestampStack = new ArrayDeque<>();
-        timestampStack.push(0L);
-        for (WeightedTree<N> rootFunction : rootFunctions) {
-            recursivelyAddChildren(wtProvider, ssb, quarkFct, rootFunction, timestampStack);
-        }
-        Long endTime = timestampStack.pop();
-        ssb.closeHistory(endTime);
-
-        return ssb;
-    }
-
-    private void recursivelyAddChildren(IWeightedTreeProvider<N, E, T> wtProvider, ITmfStateSystemBuilder ssb, int quarkFct, WeightedTree<N> callSite, Deque<Long> timestampStack) {
-        Long lastEnd = timestampStack.peek();
-        if (lastEnd == null) {
-            return;
-        }
-        ssb.pushAttribute(lastEnd, new CalleeCustomValue(callSite), quarkFct);
-
-        // Push the children to the state system
-        timestampStack.push(lastEnd);
-        List<WeightedTree<N>> children = new ArrayList<>(callSite.getChildren());
-        children.sort(CCT_COMPARATOR2);
-        for (WeightedTree<N> callsite : children) {
-            recursivelyAddChildren(wtProvider, ssb, quarkFct, callsite, timestampStack);
-        }
-        timestampStack.pop();
-
-        // Add the extra sites
-        List<String> extraDataSets = wtProvider.getExtraDataSets();
-        for (int i = 0; i < extraDataSets.size(); i++) {
-            Collection<WeightedTree<@NonNull N>> extraDataTrees = callSite.getExtraDataTrees(i);
-            if (extraDataTrees.isEmpty()) {
-                continue;
-            }
-            String dataSetName = extraDataSets.get(i);
-            int quarkExtra = ssb.getQuarkAbsoluteAndAdd(dataSetName);
-            long extraStartTime = lastEnd;
-            for (WeightedTree<@NonNull N> extraTree : extraDataTrees) {
-                ssb.modifyAttribute(extraStartTime, new CalleeCustomValue(extraTree), quarkExtra);
-                extraStartTime += extraTree.getWeight();
-            }
-
-        }
-
-        long currentEnd = timestampStack.pop() + callSite.getWeight();
-        timestampStack.push(currentEnd);
-        ssb.popAttribute(currentEnd, quarkFct);
-    }
-
     /**
      * Build the entry list for one thread
      */
@@ -454,39 +347,29 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
             return;
         }
 
-        Deque<Long> timestampStack = new ArrayDeque<>();
-        timestampStack.push(0L);
-
-        // Get the state system to represent this callgraph
-        ITmfStateSystem ss = elementToStateSystem(wtProvider, callGraph, element);
-        entry.setEndTime(ss.getCurrentEndTime());
+        // Get the layout to represent this callgraph
+        List<String> extraDataSets = wtProvider.getExtraDataSets();
+        FlameGraphLayout<N> layout = FlameGraphLayout.create(rootTrees, CCT_COMPARATOR2, extraDataSets.size());
+        entry.setEndTime(layout.getEndTime());
 
         // Add entry items for the main weighted tree levels
-        int quark = ss.optQuarkAbsolute(FUNCTION_LEVEL);
-        if (quark == ITmfStateSystem.INVALID_ATTRIBUTE) {
-            return;
-        }
-        int i = 0;
-        for (Integer subQuark : ss.getSubAttributes(quark, false)) {
+        for (int i = 0; i < layout.getNbDepths(); i++) {
             FlameChartEntryModel.Builder child = new FlameChartEntryModel.Builder(ENTRY_ID.getAndIncrement(), entry.getId(), String.valueOf(i), 0, EntryType.FUNCTION, i);
-            child.setEndTime(ss.getCurrentEndTime());
+            child.setEndTime(layout.getEndTime());
             builder.add(child);
-            i++;
-            fCgEntries.put(child.getId(), new WeightedTreeEntry(ss, subQuark));
+            fCgEntries.put(child.getId(), new WeightedTreeEntry(layout, i));
         }
 
         // Add items for the extra entries
-        List<String> extraDataSets = wtProvider.getExtraDataSets();
         for (int set = 0; set < extraDataSets.size(); set++) {
-            String dataSetName = extraDataSets.get(set);
-            quark = ss.optQuarkAbsolute(dataSetName);
-            if (quark == ITmfStateSystem.INVALID_ATTRIBUTE) {
+            int row = layout.getExtraDataRow(set);
+            if (row < 0) {
                 continue;
             }
-            FlameChartEntryModel.Builder child = new FlameChartEntryModel.Builder(ENTRY_ID.getAndIncrement(), entry.getId(), dataSetName, 0, EntryType.KERNEL, -1);
-            child.setEndTime(ss.getCurrentEndTime());
+            FlameChartEntryModel.Builder child = new FlameChartEntryModel.Builder(ENTRY_ID.getAndIncrement(), entry.getId(), extraDataSets.get(set), 0, EntryType.KERNEL, -1);
+            child.setEndTime(layout.getEndTime());
             builder.add(child);
-            fCgEntries.put(child.getId(), new WeightedTreeEntry(ss, quark));
+            fCgEntries.put(child.getId(), new WeightedTreeEntry(layout, row));
         }
 
         return;
@@ -508,14 +391,11 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
             // No entry selected, assume all
             selected = fEntries.keySet();
         }
-        List<WeightedTreeEntry> selectedEntries = new ArrayList<>();
-        Multimap<WeightedTreeEntry, Pair<Integer, Long>> requested = HashMultimap.create();
-
+        Map<Long, WeightedTreeEntry> requested = new LinkedHashMap<>();
         for (Long id : selected) {
             WeightedTreeEntry entry = fCgEntries.get(id);
             if (entry != null) {
-                selectedEntries.add(entry);
-                requested.put(entry, new Pair<>(entry.fQuark, id));
+                requested.put(id, entry);
             }
         }
 
@@ -526,81 +406,42 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
             predicates.putAll(computeRegexPredicate(regexesMap));
         }
 
-        if (subMonitor.isCanceled()) {
-            return new TmfModelResponse<>(null, ITmfResponse.Status.CANCELLED, CommonStatusMessage.TASK_CANCELLED);
-        }
-
-        // For each element and callgraph, get the states
-        try {
-            for (WeightedTreeEntry element : requested.keySet()) {
-                if (subMonitor.isCanceled()) {
-                    return new TmfModelResponse<>(null, ITmfResponse.Status.CANCELLED, CommonStatusMessage.TASK_CANCELLED);
-                }
-                Collection<Pair<Integer, Long>> depths = Objects.requireNonNull(requested.get(element));
-                rowModels.addAll(getStatesForElement(times, predicates, subMonitor, element.fSs, depths));
-            }
-        } catch (StateSystemDisposedException e) {
-            // Nothing to do
+        // The states smaller than the interval between the requested times
+        // would not be visible, they are merged together
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (Long time : times) {
+            start = Math.min(start, time);
+            end = Math.max(end, time);
         }
+        long resolution = times.size() > 1 ? (end - start) / (times.size() - 1) : 0;
 
-        return new TmfModelResponse<>(new TimeGraphModel(rowModels), ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED);
-    }
-
-    private List<ITimeGraphRowModel> getStatesForElement(List<Long> times, Map<Integer, Predicate<Multimap<String, Object>>> predicates, IProgressMonitor monitor,
-            ITmfStateSystem ss, Collection<Pair<Integer, Long>> depths) throws StateSystemDisposedException {
-        List<Integer> quarks = new ArrayList<>();
-        for (Pair<Integer, Long> pair : depths) {
-            quarks.add(pair.getFirst());
-        }
-        TreeMultimap<Integer, ITmfStateInterval> intervals = TreeMultimap.create(Comparator.naturalOrder(),
-                Comparator.comparing(ITmfStateInterval::getStartTime));
-        long ssEndTime = ss.getCurrentEndTime();
-        for (ITmfStateInterval interval : ss.query2D(quarks, times)) {
-            if (monitor.isCanceled()) {
-                return Collections.emptyList();
-            }
-            // Ignore the null intervals of value 1 at the end of the state
-            // system
-            if (interval.getStartTime() == ssEndTime &&
-                    interval.getStartTime() == interval.getEndTime() &&
-                    interval.getValue() == null) {
-                continue;
-            }
-            intervals.put(interval.getAttribute(), interval);
-        }
-
-        List<ITimeGraphRowModel> rows = new ArrayList<>();
-        for (Pair<Integer, Long> pair : depths) {
-            int quark = pair.getFirst();
-            NavigableSet<ITmfStateInterval> states = intervals.get(quark);
-
-            if (monitor.isCanceled()) {
-                return Collections.emptyList();
+        // For each entry, get the states
+        for (Entry<Long, WeightedTreeEntry> entry : requested.entrySet()) {
+            if (subMonitor.isCanceled()) {
+                return new TmfModelResponse<>(null, ITmfResponse.Status.CANCELLED, CommonStatusMessage.TASK_CANCELLED);
             }
+            Long key = Objects.requireNonNull(entry.getKey());
+            WeightedTreeEntry cgEntry = entry.getValue();
             List<ITimeGraphState> eventList = new ArrayList<>();
-            Long key = Objects.requireNonNull(pair.getSecond());
-            states.forEach(i -> {
-                ITimeGraphState timegraphState = createTimeGraphState(i, ssEndTime);
-                applyFilterAndAddState(eventList, timegraphState, key, predicates, monitor);
+            cgEntry.fLayout.getStates(cgEntry.fRow, start, end, resolution, (stateStart, duration, callsite, merged) -> {
+                ITimeGraphState timegraphState = createTimeGraphState(stateStart, duration, callsite, merged);
+                applyFilterAndAddState(eventList, timegraphState, key, predicates, subMonitor);
             });
-            rows.add(new TimeGraphRowModel(key, eventList));
+            rowModels.add(new TimeGraphRowModel(key, eventList));
         }
-        return rows;
 
+        return new TmfModelResponse<>(new TimeGraphModel(rowModels), ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED);
     }
 
-    private ITimeGraphState createTimeGraphState(ITmfStateInterval interval, long ssEndTime) {
-        IWeightedTreeProvider<N, E, T> wtProvider = fWtProvider;
-        long startTime = interval.getStartTime();
-        long duration = interval.getEndTime() - startTime + (ssEndTime == interval.getEndTime() ? 0 : 1);
-        Object valueObject = interval.getValue();
-        if (valueObject instanceof CalleeCustomValue) {
-
-            WeightedTree<N> callsite = ((CalleeCustomValue) valueObject).fCallSite;
-            String displayString = wtProvider.toDisplayString((T) callsite);
-            return new TimeGraphState(startTime, duration, displayString, fWtProvider.getPalette().getStyleFor(callsite));
+    private ITimeGraphState createTimeGraphState(long startTime, long duration, @Nullable WeightedTree<N> callsite, boolean merged) {
+        if (callsite == null) {
+            return new TimeGraphState(startTime, duration, Integer.MIN_VALUE);
         }
-        return new TimeGraphState(startTime, duration, Integer.MIN_VALUE);
+        // Merged states have the style of their heaviest callsite, but no
+        // label since they contain many callsites
+        String displayString = merged ? null : fWtProvider.toDisplayString((T) callsite);
+        return new TimeGraphState(startTime, duration, displayString, fWtProvider.getPalette().getStyleFor(callsite));
     }
 
     @Override
@@ -714,17 +555,7 @@ public class FlameGraphDataProvider<@NonNull N, E, @NonNull T extends WeightedTr
 
     /** Find the callsite at the time and depth requested */
     private @Nullable WeightedTree<@NonNull N> findCallSite(WeightedTreeEntry cgEntry, Long time) {
-        try {
-            ITmfStateInterval interval = cgEntry.fSs.querySingleState(time, cgEntry.fQuark);
-
-            Object valueObject = interval.getValue();
-            if (valueObject instanceof CalleeCustomValue) {
-                return ((CalleeCustomValue) valueObject).fCallSite;
-            }
-        } catch (StateSystemDisposedException e) {
-            // Nothing to do
-        }
-        return null;
+        return cgEntry.fLayout.getNodeAt(cgEntry.fRow, time);
     }
 
     @Override
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.callstack.core.flamegraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.WeightedTree;
+
+/**
+ * The flattened layout of the flame graph of one element. Each node of the
+ * weighted trees is placed at its depth, starting where its previous sibling
+ * ends, and is stored as a (start, length, node) tuple in arrays sorted by
+ * row, then by start time. A row is a depth of the trees, followed by one row
+ * per extra data set that has data, whose trees are placed from the start of
+ * the node they belong to.
+ *
+ * The nodes of a row do not overlap, so the states of a row for a time range
+ * are found by binary search and the nodes smaller than the resolution are
+ * merged together.
+ *
+ * @param <N>
+ *            The type of objects represented by each node in the tree
+ */
+public final class FlameGraphLayout<@NonNull N> {
+
+    /**
+     * Receives the states of a row of the layout
+     *
+     * @param <N>
+     *            The type of objects represented by each node in the tree
+     */
+    @FunctionalInterface
+    public interface IStateConsumer<@NonNull N> {
+
+        /**
+         * Receive a state
+         *
+         * @param start
+         *            The start time of the state
+         * @param duration
+         *            The duration of the state
+         * @param node
+         *            The node of this state, the heaviest node if the state
+         *            merges many nodes, or <code>null</code> if there is no
+         *            node for this state
+         * @param merged
+         *            Whether this state merges many nodes and the empty space
+         *            between them
+         */
+        void accept(long start, long duration, @Nullable WeightedTree<N> node, boolean merged);
+    }
+
+    private final int fNbDepths;
+    private final int[] fRowOffsets;
+    private final int[] fExtraDataRows;
+    private final long[] fStarts;
+    private final long[] fLengths;
+    private final List<WeightedTree<N>> fNodes;
+    private final long fEndTime;
+
+    /** A row being built */
+    private static class RowBuilder<@NonNull N> {
+        private long[] fRowStarts = new long[16];
+        private long[] fRowLengths = new long[16];
+        private final List<WeightedTree<N>> fRowNodes = new ArrayList<>();
+        private long fLastEnd = 0;
+
+        public void add(long start, long length, WeightedTree<N> node) {
+            // Nodes overlapping the previous one cannot be displayed
+            if (length <= 0 || start < fLastEnd) {
+                return;
+            }
+            int size = fRowNodes.size();
+            if (size == fRowStarts.length) {
+                fRowStarts = Arrays.copyOf(fRowStarts, size * 2);
+                fRowLengths = Arrays.copyOf(fRowLengths, size * 2);
+            }
+            fRowStarts[size] = start;
+            fRowLengths[size] = length;
+            fRowNodes.add(node);
+            fLastEnd = start + length;
+        }
+    }
+
+    private FlameGraphLayout(List<RowBuilder<N>> depthRows, List<RowBuilder<N>> extraDataRows, long endTime) {
+        fNbDepths = depthRows.size();
+        fExtraDataRows = new int[extraDataRows.size()];
+        List<RowBuilder<N>> rows = new ArrayList<>(depthRows);
+        for (int i = 0; i < extraDataRows.size(); i++) {
+            RowBuilder<N> row = extraDataRows.get(i);
+            if (row.fRowNodes.isEmpty()) {
+                fExtraDataRows[i] = -1;
+            } else {
+                fExtraDataRows[i] = rows.size();
+                rows.add(row);
+            }
+        }
+        int size = 0;
+        for (RowBuilder<N> row : rows) {
+            size += row.fRowNodes.size();
+        }
+        fRowOffsets = new int[rows.size() + 1];
+        fStarts = new long[size];
+        fLengths = new long[size];
+        fNodes = new ArrayList<>(size);
+        int offset = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            RowBuilder<N> row = rows.get(i);
+            int rowSize = row.fRowNodes.size();
+            fRowOffsets[i] = offset;
+            System.arraycopy(row.fRowStarts, 0, fStarts, offset, rowSize);
+            System.arraycopy(row.fRowLengths, 0, fLengths, offset, rowSize);
+            fNodes.addAll(row.fRowNodes);
+            offset += rowSize;
+        }
+        fRowOffsets[rows.size()] = offset;
+        fEndTime = endTime;
+    }
+
+    /**
+     * Create the layout of the trees of an element
+     *
+     * @param rootTrees
+     *            The root trees of the element
+     * @param comparator
+     *            The comparator giving the order in which the siblings are
+     *            placed
+     * @param nbExtraDataSets
+     *            The number of extra data sets of the trees
+     * @return The layout
+     */
+    public static <@NonNull N> FlameGraphLayout<N> create(Collection<WeightedTree<N>> rootTrees, Comparator<WeightedTree<N>> comparator, int nbExtraDataSets) {
+        List<RowBuilder<N>> depthRows = new ArrayList<>();
+        List<RowBuilder<N>> extraDataRows = new ArrayList<>();
+        for (int i = 0; i < nbExtraDataSets; i++) {
+            extraDataRows.add(new RowBuilder<>());
+        }
+        List<WeightedTree<N>> roots = new ArrayList<>(rootTrees);
+        roots.sort(comparator);
+        long time = 0;
+        for (WeightedTree<N> root : roots) {
+            addNode(root, time, 0, comparator, depthRows, extraDataRows);
+            time += root.getWeight();
+        }
+        // Remove the depths where all nodes were empty
+        while (!depthRows.isEmpty() && depthRows.get(depthRows.size() - 1).fRowNodes.isEmpty()) {
+            depthRows.remove(depthRows.size() - 1);
+        }
+        return new FlameGraphLayout<>(depthRows, extraDataRows, time);
+    }
+
+    private static <@NonNull N> void addNode(WeightedTree<N> node, long start, int depth, Comparator<WeightedTree<N>> comparator, List<RowBuilder<N>> depthRows, List<RowBuilder<N>> extraDataRows) {
+        if (node.getWeight() <= 0) {
+            return;
+        }
+        if (depth == depthRows.size()) {
+            depthRows.add(new RowBuilder<>());
+        }
+        depthRows.get(depth).add(start, node.getWeight(), node);
+
+        // Add the extra data trees from the start of the node
+        for (int i = 0; i < extraDataRows.size(); i++) {
+            long extraStart = start;
+            for (WeightedTree<N> extraTree : node.getExtraDataTrees(i)) {
+                extraDataRows.get(i).add(extraStart, extraTree.getWeight(), extraTree);
+                extraStart += extraTree.getWeight();
+            }
+        }
+
+        // Place the children one after the other from the start of the node
+        List<WeightedTree<N>> children = new ArrayList<>(node.getChildren());
+        children.sort(comparator);
+        long childStart = start;
+        for (WeightedTree<N> child : children) {
+            addNode(child, childStart, depth + 1, comparator, depthRows, extraDataRows);
+            childStart += child.getWeight();
+        }
+    }
+
+    /**
+     * Get the number of depths of the trees, the rows for the depths are
+     * numbered from 0 to this number minus 1
+     *
+     * @return The number of depths
+     */
+    public int getNbDepths() {
+        return fNbDepths;
+    }
+
+    /**
+     * Get the row of an extra data set
+     *
+     * @param dataSet
+     *            The index of the extra data set
+     * @return The row of this data set, or -1 if there is no data for it
+     */
+    public int getExtraDataRow(int dataSet) {
+        if (dataSet < 0 || dataSet >= fExtraDataRows.length) {
+            return -1;
+        }
+        return fExtraDataRows[dataSet];
+    }
+
+    /**
+     * Get the end time of the layout, that is the total weight of the root
+     * trees. The layout starts at time 0.
+     *
+     * @return The end time
+     */
+    public long getEndTime() {
+        return fEndTime;
+    }
+
+    /**
+     * Get the node at a time in a row
+     *
+     * @param row
+     *            The row
+     * @param time
+     *            The time
+     * @return The node at this time, or <code>null</code> if there is no node
+     *         at this time
+     */
+    public @Nullable WeightedTree<N> getNodeAt(int row, long time) {
+        if (row < 0 || row >= fRowOffsets.length - 1) {
+            return null;
+        }
+        int index = firstEndingAfter(row, time);
+        if (index < fRowOffsets[row + 1] && fStarts[index] <= time) {
+            return fNodes.get(index);
+        }
+        return null;
+    }
+
+    /**
+     * Get the states of a row that intersect a time range. The states cover the
+     * row from time 0 to the end time, with empty states between the nodes.
+     * Consecutive states shorter than the resolution are merged into states of
+     * about the resolution.
+     *
+     * @param row
+     *            The row
+     * @param start
+     *            The start of the time range
+     * @param end
+     *            The end of the time range
+     * @param resolution
+     *            The resolution, states shorter than this are merged. Use 0 to
+     *            get all states.
+     * @param consumer
+     *            The consumer of the states, called in the order of the
+     *            states
+     */
+    public void getStates(int row, long start, long end, long resolution, IStateConsumer<N> consumer) {
+        if (row < 0 || row >= fRowOffsets.length - 1 || end < start || start >= fEndTime) {
+            return;
+        }
+        int rowEnd = fRowOffsets[row + 1];
+        int index = firstEndingAfter(row, start);
+        long time = index > fRowOffsets[row] ? fStarts[index - 1] + fLengths[index - 1] : 0;
+        if (index < rowEnd && fStarts[index] <= start) {
+            // The first node contains the start, skip the empty state before
+            time = fStarts[index];
+        }
+        StateMerger<N> merger = new StateMerger<>(resolution, consumer);
+        while (time <= end && time < fEndTime) {
+            if (index < rowEnd && fStarts[index] == time) {
+                merger.add(time, fLengths[index], fNodes.get(index));
+                time += fLengths[index];
+                index++;
+            } else {
+                // Empty state until the next node or the end
+                long next = index < rowEnd ? fStarts[index] : fEndTime;
+                merger.add(time, next - time, null);
+                time = next;
+            }
+        }
+        merger.flush();
+    }
+
+    /** Binary search the first node of the row that ends after the time */
+    private int firstEndingAfter(int row, long time) {
+        int low = fRowOffsets[row];
+        int high = fRowOffsets[row + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fStarts[mid] + fLengths[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Merges the consecutive states shorter than the resolution */
+    private static class StateMerger<@NonNull N> {
+        private final long fResolution;
+        private final IStateConsumer<N> fConsumer;
+        private int fCount = 0;
+        private long fStart = 0;
+        private long fEnd = 0;
+        private @Nullable WeightedTree<N> fNode = null;
+        private long fNodeLength = 0;
+
+        public StateMerger(long resolution, IStateConsumer<N> consumer) {
+            fResolution = resolution;
+            fConsumer = consumer;
+        }
+
+        public void add(long start, long length, @Nullable WeightedTree<N> node) {
+            if (length >= fResolution) {
+                flush();
+                fConsumer.accept(start, length, node, false);
+                return;
+            }
+            if (fCount == 0) {
+                fStart = start;
+            }
+            fCount++;
+            fEnd = start + length;
+            // The merged state is represented by its heaviest node
+            if (node != null && (fNode == null || length > fNodeLength)) {
+                fNode = node;
+                fNodeLength = length;
+            }
+            if (fEnd - fStart >= fResolution) {
+                flush();
+            }
+        }
+
+        public void flush() {
+            if (fCount > 0) {
+                fConsumer.accept(fStart, fEnd - fStart, fNode, fCount > 1);
+            }
+            fCount = 0;
+            fNode = null;
+            fNodeLength = 0;
+        }
+    }
+}
@@ -86,6 +86,38 @@ public class AggregatedCalledFunction extends AggregatedCallSite {
         mergeProcessStatuses(toCopy);
     }
 
+    /**
+     * Constructor with data already aggregated, for example when it is read
+     * from a file
+     *
+     * @param symbol
+     *            The symbol of the function
+     * @param duration
+     *            The total duration of the calls
+     * @param selfTime
+     *            The total self time of the calls
+     * @param cpuTime
+     *            The total CPU time of the calls, or
+     *            {@link IHostModel#TIME_UNKNOWN}
+     * @param processId
+     *            The process ID
+     * @param statistics
+     *            The statistics of the calls
+     * @param processStatuses
+     *            The aggregated process statuses during the calls
+     */
+    public AggregatedCalledFunction(ICallStackSymbol symbol, long duration, long selfTime, long cpuTime, int processId, AggregatedCalledFunctionStatistics statistics, Collection<AggregatedThreadStatus> processStatuses) {
+        super(symbol, 0);
+        fStatistics = statistics;
+        fDuration = duration;
+        fSelfTime = selfTime;
+        fCpuTime = cpuTime;
+        fProcessId = processId;
+        for (AggregatedThreadStatus status : processStatuses) {
+            fProcessStatuses.put(status.getProcessStatus(), status);
+        }
+    }
+
     @Override
     public long getWeight() {
         return fDuration;
@@ -11,15 +11,26 @@
 
 package org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.osgi.util.NLS;
@@ -39,6 +50,7 @@ import org.eclipse.tracecompass.incubator.callstack.core.instrumented.IFlameChar
 import org.eclipse.tracecompass.incubator.callstack.core.instrumented.statesystem.CallStackSeries;
 import org.eclipse.tracecompass.incubator.callstack.core.symbol.CallStackSymbolFactory;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.callstack.core.callgraph.CallGraphFile;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.InstrumentedCallStackElement;
 import org.eclipse.tracecompass.incubator.internal.callstack.core.palette.FlameWithKernelPalette;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
@@ -48,6 +60,7 @@ import org.eclipse.tracecompass.tmf.core.symbols.SymbolProviderManager;
 import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
 import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
@@ -100,10 +113,11 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
     // ------------------------------------------------------------------------
 
     private final IFlameChartProvider fCsProvider;
-    private final CallGraph fCallGraph = new CallGraph();
+    private volatile CallGraph fCallGraph = new CallGraph();
 
     private @Nullable Collection<ISymbolProvider> fSymbolProviders = null;
-    private boolean fHasKernelStatuses = false;
+    private volatile boolean fHasKernelStatuses = false;
+    private int fParallelism = Runtime.getRuntime().availableProcessors();
 
     // Keep a very small cache of selection callgraphs, to avoid having to
     // compute again
@@ -130,6 +144,23 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
         setName(NLS.bind(Messages.CallGraphAnalysis_NamePrefix, csProvider.getName()));
     }
 
+    /**
+     * Set the number of threads used to compute the call graph. The leaf
+     * elements of the call stack are independent, so each one is computed in
+     * a fork-join pool and the partial call graphs are merged afterwards. The
+     * default is the number of available processors.
+     *
+     * @param parallelism
+     *            The number of threads, 1 to compute the call graph in the
+     *            calling thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("The parallelism should be positive: " + parallelism); //$NON-NLS-1$
+        }
+        fParallelism = parallelism;
+    }
+
     @Override
     public @NonNull String getHelpText() {
         String msg = Messages.CallGraphAnalysis_Description;
@@ -158,7 +189,77 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
 
     @Override
     protected boolean executeAnalysis(@Nullable IProgressMonitor monitor) {
-        return executeForRange(fCallGraph, TmfTimeRange.ETERNITY, monitor);
+        Path file = getCallGraphFile();
+        if (file != null && monitor != null && Files.isRegularFile(file)) {
+            CallGraph callGraph = readCallGraph(file, monitor);
+            if (callGraph != null) {
+                fCallGraph = callGraph;
+                return true;
+            }
+        }
+        CallGraph callGraph = new CallGraph();
+        if (!executeForRange(callGraph, TmfTimeRange.ETERNITY, monitor)) {
+            return false;
+        }
+        fCallGraph = callGraph;
+        if (file != null) {
+            CallGraphFile.save(callGraph, file, fCsProvider.getId(), getLeafElementsByPath()::get);
+        }
+        return true;
+    }
+
+    /**
+     * Get the file of the call graph, named after the call stack analysis, as
+     * the ID of this analysis is not set by all the call stack analyses and
+     * each call stack of a trace has its own call graph
+     */
+    private @Nullable Path getCallGraphFile() {
+        ITmfTrace trace = getTrace();
+        if (trace == null) {
+            return null;
+        }
+        return Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), fCsProvider.getId() + CallGraphFile.EXTENSION);
+    }
+
+    /**
+     * Read the call graph saved by a previous execution. The elements of the
+     * file are the leaf elements of the call stack series, so the call stack
+     * analyses need to be completed.
+     */
+    private @Nullable CallGraph readCallGraph(Path file, IProgressMonitor monitor) {
+        Iterable<IAnalysisModule> dependentAnalyses = getDependentAnalyses();
+        dependentAnalyses.forEach(IAnalysisModule::schedule);
+        dependentAnalyses.forEach(t -> t.waitForCompletion(monitor));
+        Map<List<String>, ICallStackElement> elements = getLeafElementsByPath();
+        if (elements.isEmpty()) {
+            return null;
+        }
+        CallGraph callGraph = CallGraphFile.load(file, fCsProvider.getId(), elements::get);
+        if (callGraph != null) {
+            // The kernel statuses are known by the call stacks, not the file
+            for (ICallStackElement element : elements.values()) {
+                if (element instanceof InstrumentedCallStackElement && ((InstrumentedCallStackElement) element).getCallStack().hasKernelStatuses()) {
+                    fHasKernelStatuses = true;
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    private Map<List<String>, ICallStackElement> getLeafElementsByPath() {
+        CallStackSeries series = getSeries();
+        if (series == null) {
+            return Collections.emptyMap();
+        }
+        List<ICallStackElement> leafElements = new ArrayList<>();
+        for (ICallStackElement element : series.getRootElements()) {
+            addLeafElements(element, leafElements);
+        }
+        Map<List<String>, ICallStackElement> elements = new HashMap<>();
+        for (ICallStackElement element : leafElements) {
+            elements.put(CallGraphFile.getPath(element), element);
+        }
+        return elements;
     }
 
     private boolean executeForRange(CallGraph callgraph, TmfTimeRange range, @Nullable IProgressMonitor monitor) {
@@ -198,7 +299,8 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
 
     /**
      * Iterate over a callstack series. It will do a depth-first search to create
-     * the callgraph
+     * the callgraph. The leaf elements are iterated over in parallel if the
+     * parallelism is greater than 1.
      *
      * @param callstackSerie
      *            The series to iterate over
@@ -217,24 +319,65 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
     @VisibleForTesting
     protected boolean iterateOverCallstackSerie(CallStackSeries callstackSerie, IHostModel model, CallGraph callgraph, long start, long end, IProgressMonitor monitor) {
         // The root elements are the same as the one from the callstack series
-        Collection<ICallStackElement> rootElements = callstackSerie.getRootElements();
-        for (ICallStackElement element : rootElements) {
-            if (monitor.isCanceled()) {
-                return false;
+        List<ICallStackElement> leafElements = new ArrayList<>();
+        for (ICallStackElement element : callstackSerie.getRootElements()) {
+            addLeafElements(element, leafElements);
+        }
+        SubMonitor subMonitor = SubMonitor.convert(monitor, leafElements.size());
+        int parallelism = fParallelism;
+        if (parallelism <= 1 || leafElements.size() <= 1) {
+            for (ICallStackElement element : leafElements) {
+                if (subMonitor.isCanceled()) {
+                    return false;
+                }
+                iterateOverLeafElement(element, model, callgraph, start, end, monitor);
+                subMonitor.worked(1);
             }
-            iterateOverElement(element, model, callgraph, start, end, monitor);
+            return !subMonitor.isCanceled();
+        }
+
+        /*
+         * Each leaf element is aggregated in its own partial call graph. They
+         * are merged in this thread, in the order of the elements, so the
+         * progress monitor is only used from here.
+         */
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, leafElements.size()));
+        try {
+            List<ForkJoinTask<CallGraph>> tasks = new ArrayList<>(leafElements.size());
+            for (ICallStackElement element : leafElements) {
+                tasks.add(pool.submit(() -> {
+                    CallGraph partialGraph = new CallGraph();
+                    if (!monitor.isCanceled()) {
+                        iterateOverLeafElement(element, model, partialGraph, start, end, monitor);
+                    }
+                    return partialGraph;
+                }));
+            }
+            for (int i = 0; i < leafElements.size(); i++) {
+                CallGraph partialGraph = tasks.get(i).join();
+                if (subMonitor.isCanceled()) {
+                    return false;
+                }
+                ICallStackElement element = leafElements.get(i);
+                for (AggregatedCallSite callsite : partialGraph.getCallingContextTree(element)) {
+                    callgraph.addAggregatedCallSite(element, callsite);
+                }
+                subMonitor.worked(1);
+            }
+        } finally {
+            pool.shutdownNow();
         }
         return true;
     }
 
-    private void iterateOverElement(ICallStackElement element, IHostModel model, CallGraph callgraph, long start, long end, IProgressMonitor monitor) {
+    private static void addLeafElements(ICallStackElement element, List<ICallStackElement> leafElements) {
         // Iterator over the children of the element until we reach the leaves
         if (element.isLeaf()) {
-            iterateOverLeafElement(element, model, callgraph, start, end, monitor);
+            leafElements.add(element);
             return;
         }
         for (ICallStackElement child : element.getChildrenElements()) {
-            iterateOverElement(child, model, callgraph, start, end, monitor);
+            addLeafElements(child, leafElements);
         }
     }
 
@@ -249,48 +392,98 @@ public class CallGraphAnalysis extends TmfAbstractAnalysisModule implements ICal
         if (callStack.getMaxDepth() == 0) {
             return;
         }
-        fHasKernelStatuses |= callStack.hasKernelStatuses();
-        // Start with the first function
-        AbstractCalledFunction nextFunction = (AbstractCalledFunction) callStack.getNextFunction(callStack.getStartTime(), 1, null, model, start, end);
-        while (nextFunction != null) {
-            AggregatedCalledFunction aggregatedChild = createCallSite(CallStackSymbolFactory.createSymbol(nextFunction.getSymbol(), element, nextFunction.getStart()));
-            iterateOverCallstack(element, callStack, nextFunction, 2, aggregatedChild, model, start, end, monitor);
-            aggregatedChild.addFunctionCall(nextFunction);
-            // Add the kernel statuses if available
-            Iterable<ProcessStatusInterval> kernelStatuses = callStack.getKernelStatuses(nextFunction, Collections.emptyList());
-            for (ProcessStatusInterval status : kernelStatuses) {
-                aggregatedChild.addKernelStatus(status);
-            }
-            callgraph.addAggregatedCallSite(element, aggregatedChild);
-            nextFunction = (AbstractCalledFunction) callStack.getNextFunction(nextFunction.getEnd(), 1, null, model, start, end);
+        if (callStack.hasKernelStatuses()) {
+            fHasKernelStatuses = true;
         }
+        // Read all the depths at once and aggregate the functions as they are closed
+        callStack.iterateOverCallStack(start, end, model, new CallTreeAggregator(element, callStack, model, callgraph, start), monitor);
     }
 
-    private void iterateOverCallstack(ICallStackElement element, CallStack callstack, ICalledFunction function, int nextLevel, AggregatedCalledFunction aggregatedCall, IHostModel model, long start, long end, IProgressMonitor monitor) {
-        if (nextLevel > callstack.getMaxDepth()) {
-            return;
+    /**
+     * Aggregates the functions of a call stack, that are received after their
+     * callees. The aggregated data of the callers whose callees are being
+     * received are kept in a stack.
+     */
+    private class CallTreeAggregator implements Consumer<ICalledFunction> {
+
+        private final ICallStackElement fElement;
+        private final CallStack fCallStack;
+        private final IHostModel fModel;
+        private final CallGraph fCallGraph;
+        private final long fStart;
+        private final Deque<PendingCall> fPendingCalls = new ArrayDeque<>();
+
+        public CallTreeAggregator(ICallStackElement element, CallStack callStack, IHostModel model, CallGraph callgraph, long start) {
+            fElement = element;
+            fCallStack = callStack;
+            fModel = model;
+            fCallGraph = callgraph;
+            fStart = start;
         }
-        int threadId = function.getThreadId();
-        long lastSampleEnd = start;
-
-        AbstractCalledFunction nextFunction = (AbstractCalledFunction) callstack.getNextFunction(function.getStart(), nextLevel, function, model, Math.max(function.getStart(), start), Math.min(function.getEnd(), end));
-        while (nextFunction != null) {
-            // Add sampling data of the time between next function and beginning of next
-            // level
-            if (threadId > 0) {
-                Collection<AggregatedCallSite> samplingData = model.getSamplingData(threadId, lastSampleEnd, nextFunction.getStart());
-                samplingData.forEach(aggregatedCall::addChild);
-                lastSampleEnd = nextFunction.getEnd();
+
+        @Override
+        public void accept(ICalledFunction calledFunction) {
+            AbstractCalledFunction function = (AbstractCalledFunction) calledFunction;
+            PendingCall call = getPendingCall(function);
+            fPendingCalls.pop();
+            int threadId = function.getThreadId();
+            if (getDepth(function) < fCallStack.getMaxDepth() && threadId > 0) {
+                // Get the sampling to the end of the function
+                Collection<AggregatedCallSite> samplingData = fModel.getSamplingData(threadId, call.fLastSampleEnd, function.getEnd() - call.fLastSampleEnd);
+                samplingData.forEach(call.fAggregated::addChild);
+            }
+            @Nullable ICalledFunction parent = function.getParent();
+            if (!(parent instanceof AbstractCalledFunction)) {
+                call.fAggregated.addFunctionCall(function);
+                // Add the kernel statuses if available
+                Iterable<ProcessStatusInterval> kernelStatuses = fCallStack.getKernelStatuses(function, Collections.emptyList());
+                for (ProcessStatusInterval status : kernelStatuses) {
+                    call.fAggregated.addKernelStatus(status);
+                }
+                fCallGraph.addAggregatedCallSite(fElement, call.fAggregated);
+                return;
+            }
+            PendingCall parentCall = getPendingCall((AbstractCalledFunction) parent);
+            int parentThreadId = parent.getThreadId();
+            if (parentThreadId > 0) {
+                // Add sampling data of the time between this function and the
+                // previous one
+                Collection<AggregatedCallSite> samplingData = fModel.getSamplingData(parentThreadId, parentCall.fLastSampleEnd, function.getStart());
+                samplingData.forEach(parentCall.fAggregated::addChild);
+                parentCall.fLastSampleEnd = function.getEnd();
             }
-            AggregatedCalledFunction aggregatedChild = createCallSite(CallStackSymbolFactory.createSymbol(nextFunction.getSymbol(), element, nextFunction.getStart()));
-            iterateOverCallstack(element, callstack, nextFunction, nextLevel + 1, aggregatedChild, model, start, end, monitor);
-            aggregatedCall.addChild(nextFunction, aggregatedChild);
-            nextFunction = (AbstractCalledFunction) callstack.getNextFunction(nextFunction.getEnd(), nextLevel, function, model, Math.max(function.getStart(), start), Math.min(function.getEnd(), end));
+            parentCall.fAggregated.addChild(function, call.fAggregated);
         }
-        // Get the sampling to the end of the function
-        if (threadId > 0) {
-            Collection<AggregatedCallSite> samplingData = model.getSamplingData(threadId, lastSampleEnd, function.getEnd() - lastSampleEnd);
-            samplingData.forEach(aggregatedCall::addChild);
+
+        private PendingCall getPendingCall(AbstractCalledFunction function) {
+            PendingCall call = fPendingCalls.peek();
+            if (call == null || call.fFunction != function) {
+                call = new PendingCall(function, createCallSite(CallStackSymbolFactory.createSymbol(function.getSymbol(), fElement, function.getStart())), fStart);
+                fPendingCalls.push(call);
+            }
+            return call;
+        }
+
+        private int getDepth(ICalledFunction function) {
+            int depth = 1;
+            @Nullable ICalledFunction parent = function.getParent();
+            while (parent != null) {
+                depth++;
+                parent = parent.getParent();
+            }
+            return depth;
+        }
+    }
+
+    private static class PendingCall {
+        private final AbstractCalledFunction fFunction;
+        private final AggregatedCalledFunction fAggregated;
+        private long fLastSampleEnd;
+
+        public PendingCall(AbstractCalledFunction function, AggregatedCalledFunction aggregated, long lastSampleEnd) {
+            fFunction = function;
+            fAggregated = aggregated;
+            fLastSampleEnd = lastSampleEnd;
         }
     }
 
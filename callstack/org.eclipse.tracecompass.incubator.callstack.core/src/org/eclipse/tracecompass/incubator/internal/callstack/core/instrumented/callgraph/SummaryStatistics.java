@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.callstack.core.instrumented.callgraph;
+
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+
+/**
+ * Statistics that keep only the summary of the values: the number of
+ * elements, the minimum, maximum, total, mean and sum of squared differences
+ * to the mean. Unlike the core statistics, they can be restored from these
+ * values, for example when a call graph is read from a file, and they can
+ * merge any other statistics. The minimum and maximum objects are not
+ * available for restored statistics.
+ *
+ * @param <E>
+ *            The type of objects the statistics are computed on
+ */
+public class SummaryStatistics<@NonNull E> implements IStatistics<E> {
+
+    private final ToLongFunction<E> fMapper;
+
+    private long fNbElements = 0;
+    private long fMin = Long.MAX_VALUE;
+    private long fMax = Long.MIN_VALUE;
+    private long fTotal = 0;
+    private double fMean = 0.0;
+    private double fSumOfSquares = 0.0;
+    private @Nullable E fMinObject = null;
+    private @Nullable E fMaxObject = null;
+
+    /**
+     * Constructor
+     *
+     * @param mapper
+     *            The function to get the value of an object
+     */
+    public SummaryStatistics(ToLongFunction<E> mapper) {
+        fMapper = mapper;
+    }
+
+    /**
+     * Constructor with the summary of values
+     *
+     * @param mapper
+     *            The function to get the value of the objects updated later
+     * @param nbElements
+     *            The number of elements
+     * @param min
+     *            The minimum value
+     * @param max
+     *            The maximum value
+     * @param total
+     *            The sum of the values
+     * @param mean
+     *            The mean of the values
+     * @param sumOfSquares
+     *            The sum of the squared differences between the values and
+     *            the mean
+     */
+    public SummaryStatistics(ToLongFunction<E> mapper, long nbElements, long min, long max, long total, double mean, double sumOfSquares) {
+        fMapper = mapper;
+        if (nbElements > 0) {
+            fNbElements = nbElements;
+            fMin = min;
+            fMax = max;
+            fTotal = total;
+            fMean = mean;
+            fSumOfSquares = sumOfSquares;
+        }
+    }
+
+    /**
+     * Get the sum of the squared differences between the values and the mean
+     * of some statistics. It is computed from the standard deviation for
+     * statistics other than summaries, or from the minimum and maximum when
+     * there are too few elements for the standard deviation.
+     *
+     * @param statistics
+     *            The statistics
+     * @return The sum of squares
+     */
+    public static double getSumOfSquares(IStatistics<?> statistics) {
+        if (statistics instanceof SummaryStatistics) {
+            return ((SummaryStatistics<?>) statistics).fSumOfSquares;
+        }
+        long nbElements = statistics.getNbElements();
+        if (nbElements <= 1) {
+            return 0.0;
+        }
+        if (nbElements == 2) {
+            double diff = (double) statistics.getMax() - statistics.getMin();
+            return diff * diff / 2;
+        }
+        double stdDev = statistics.getStdDev();
+        return stdDev * stdDev * (nbElements - 1);
+    }
+
+    @Override
+    public long getMin() {
+        return fMin;
+    }
+
+    @Override
+    public long getMax() {
+        return fMax;
+    }
+
+    @Override
+    public @Nullable E getMinObject() {
+        return fMinObject;
+    }
+
+    @Override
+    public @Nullable E getMaxObject() {
+        return fMaxObject;
+    }
+
+    @Override
+    public long getNbElements() {
+        return fNbElements;
+    }
+
+    @Override
+    public double getMean() {
+        return fMean;
+    }
+
+    @Override
+    public double getStdDev() {
+        // Same as the core statistics, not significant with 2 elements or less
+        return fNbElements > 2 ? Math.sqrt(fSumOfSquares / (fNbElements - 1)) : Double.NaN;
+    }
+
+    @Override
+    public long getTotal() {
+        return fTotal;
+    }
+
+    @Override
+    public void update(E object) {
+        long value = fMapper.applyAsLong(object);
+        if (value < fMin) {
+            fMin = value;
+            fMinObject = object;
+        }
+        if (value > fMax) {
+            fMax = value;
+            fMaxObject = object;
+        }
+        fNbElements++;
+        fTotal += value;
+        // Welford's online algorithm
+        double delta = value - fMean;
+        fMean += delta / fNbElements;
+        fSumOfSquares += delta * (value - fMean);
+    }
+
+    @Override
+    public void merge(IStatistics<E> other) {
+        long otherNbElements = other.getNbElements();
+        if (otherNbElements == 0) {
+            return;
+        }
+        if (other.getMin() < fMin) {
+            fMin = other.getMin();
+            fMinObject = other.getMinObject();
+        }
+        if (other.getMax() > fMax) {
+            fMax = other.getMax();
+            fMaxObject = other.getMaxObject();
+        }
+        // Chan et al.'s parallel algorithm to combine the variances
+        long nbElements = fNbElements + otherNbElements;
+        double delta = other.getMean() - fMean;
+        fSumOfSquares += getSumOfSquares(other) + delta * delta * fNbElements * otherNbElements / nbElements;
+        fMean += delta * otherNbElements / nbElements;
+        fTotal += other.getTotal();
+        fNbElements = nbElements;
+    }
+
+    @Override
+    public String toString() {
+        return "Statistics: n=" + fNbElements + ", min=" + fMin + ", max=" + fMax + ", mean=" + fMean; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.callstack.core.sampled.callgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.ICallStackSymbol;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+
+/**
+ * Aggregated call trees of sampled stack traces, per bucket of consecutive
+ * samples, arranged in a segment tree. Each node of the tree keeps the
+ * aggregation of the buckets under it, so the call graph of any contiguous
+ * sequence of buckets is obtained by merging at most 2 log(n) nodes, instead
+ * of reading the samples again.
+ *
+ * A bucket never splits the samples of a same timestamp, so the time ranges of
+ * the buckets do not overlap.
+ */
+public final class CallGraphSegmentTree {
+
+    /**
+     * The default number of samples in a bucket
+     */
+    public static final int DEFAULT_BUCKET_SIZE = 10000;
+
+    private final int fNbBuckets;
+    private final long[] fStarts;
+    private final long[] fEnds;
+    /*
+     * Standard bottom-up segment tree: the buckets are the nodes [n, 2n), the
+     * node i aggregates the nodes 2i and 2i + 1 and the node 0 is not used
+     */
+    private final List<Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>>> fNodes;
+
+    /**
+     * Builder of the segment tree, to which the samples are added in time
+     * order
+     */
+    public static final class Builder {
+
+        private final int fBucketSize;
+        private final List<Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>>> fBuckets = new ArrayList<>();
+        private long[] fStarts = new long[16];
+        private long[] fEnds = new long[16];
+        private Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> fCurrent = new HashMap<>();
+        private int fCurrentSize = 0;
+        private long fCurrentStart = Long.MIN_VALUE;
+        private long fCurrentEnd = Long.MIN_VALUE;
+
+        /**
+         * Constructor
+         *
+         * @param bucketSize
+         *            The minimal number of samples in a bucket
+         */
+        public Builder(int bucketSize) {
+            if (bucketSize <= 0) {
+                throw new IllegalArgumentException("The bucket size should be positive: " + bucketSize); //$NON-NLS-1$
+            }
+            fBucketSize = bucketSize;
+        }
+
+        /**
+         * Add a sample. The builder becomes the owner of the callsite.
+         *
+         * Samples are expected in time order, but a sample older than the
+         * previous one is added to the current bucket, whose range is widened
+         * to include it.
+         *
+         * @param timestamp
+         *            The timestamp of the sample
+         * @param element
+         *            The element of the sample
+         * @param callsite
+         *            The stack trace of the sample
+         */
+        public void addSample(long timestamp, ICallStackElement element, AggregatedCallSite callsite) {
+            if (fCurrentSize >= fBucketSize && timestamp > fCurrentEnd) {
+                closeBucket();
+            }
+            if (fCurrentSize == 0) {
+                fCurrentStart = timestamp;
+                fCurrentEnd = timestamp;
+            } else if (timestamp < fCurrentStart) {
+                fCurrentStart = timestamp;
+                reopenOverlappingBuckets();
+            }
+            fCurrentEnd = Math.max(fCurrentEnd, timestamp);
+            fCurrentSize++;
+            Map<ICallStackSymbol, AggregatedCallSite> callsites = fCurrent.computeIfAbsent(element, e -> new HashMap<>());
+            AggregatedCallSite site = callsites.get(callsite.getObject());
+            if (site == null) {
+                callsites.put(callsite.getObject(), callsite);
+            } else {
+                site.merge(callsite);
+            }
+        }
+
+        /*
+         * A late sample may widen the current bucket over the previous ones, in
+         * which case they are merged back into the current bucket so that the
+         * ranges of the buckets do not overlap. A closed bucket has at least
+         * the bucket size in samples.
+         */
+        private void reopenOverlappingBuckets() {
+            int index = fBuckets.size() - 1;
+            while (index >= 0 && fEnds[index] >= fCurrentStart) {
+                mergeInto(fCurrent, fBuckets.remove(index));
+                fCurrentStart = Math.min(fCurrentStart, fStarts[index]);
+                fCurrentSize += fBucketSize;
+                index--;
+            }
+        }
+
+        private void closeBucket() {
+            int index = fBuckets.size();
+            if (index == fStarts.length) {
+                fStarts = Arrays.copyOf(fStarts, index * 2);
+                fEnds = Arrays.copyOf(fEnds, index * 2);
+            }
+            fStarts[index] = fCurrentStart;
+            fEnds[index] = fCurrentEnd;
+            fBuckets.add(fCurrent);
+            fCurrent = new HashMap<>();
+            fCurrentSize = 0;
+        }
+
+        /**
+         * Build the segment tree with the samples added so far. The builder
+         * should not be used afterwards.
+         *
+         * @return The segment tree
+         */
+        public CallGraphSegmentTree build() {
+            if (fCurrentSize > 0) {
+                closeBucket();
+            }
+            int nbBuckets = fBuckets.size();
+            return new CallGraphSegmentTree(nbBuckets, Arrays.copyOf(fStarts, nbBuckets), Arrays.copyOf(fEnds, nbBuckets), fBuckets);
+        }
+    }
+
+    private CallGraphSegmentTree(int nbBuckets, long[] starts, long[] ends, List<Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>>> buckets) {
+        fNbBuckets = nbBuckets;
+        fStarts = starts;
+        fEnds = ends;
+        List<Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>>> nodes = new ArrayList<>(2 * nbBuckets);
+        for (int i = 0; i < nbBuckets; i++) {
+            nodes.add(new HashMap<>());
+        }
+        nodes.addAll(buckets);
+        for (int i = nbBuckets - 1; i > 0; i--) {
+            Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> node = nodes.get(i);
+            mergeInto(node, nodes.get(2 * i));
+            mergeInto(node, nodes.get(2 * i + 1));
+        }
+        fNodes = nodes;
+    }
+
+    private static void mergeInto(Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> node, Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> child) {
+        for (Entry<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> entry : child.entrySet()) {
+            Map<ICallStackSymbol, AggregatedCallSite> callsites = node.computeIfAbsent(entry.getKey(), e -> new HashMap<>());
+            for (AggregatedCallSite childSite : entry.getValue().values()) {
+                AggregatedCallSite site = callsites.get(childSite.getObject());
+                if (site == null) {
+                    callsites.put(childSite.getObject(), childSite.copyOf());
+                } else {
+                    site.merge(childSite);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of buckets
+     *
+     * @return The number of buckets
+     */
+    public int getNbBuckets() {
+        return fNbBuckets;
+    }
+
+    /**
+     * Get the timestamp of the first sample of a bucket
+     *
+     * @param bucket
+     *            The index of the bucket
+     * @return The start of the bucket
+     */
+    public long getStart(int bucket) {
+        return fStarts[bucket];
+    }
+
+    /**
+     * Get the timestamp of the last sample of a bucket
+     *
+     * @param bucket
+     *            The index of the bucket
+     * @return The end of the bucket
+     */
+    public long getEnd(int bucket) {
+        return fEnds[bucket];
+    }
+
+    /**
+     * Get the first bucket that starts at or after a time
+     *
+     * @param time
+     *            The time
+     * @return The index of the bucket, or the number of buckets if there is
+     *         none
+     */
+    public int getFirstBucketAfter(long time) {
+        int low = 0;
+        int high = fNbBuckets;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fStarts[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the last bucket that ends at or before a time
+     *
+     * @param time
+     *            The time
+     * @return The index of the bucket, or -1 if there is none
+     */
+    public int getLastBucketBefore(long time) {
+        int low = 0;
+        int high = fNbBuckets;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fEnds[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Add the aggregated samples of a sequence of buckets to a call graph. The
+     * trees of this segment tree are copied, so the call graph can be modified
+     * afterwards.
+     *
+     * @param callGraph
+     *            The call graph to fill
+     * @param first
+     *            The index of the first bucket, inclusive
+     * @param last
+     *            The index of the last bucket, inclusive
+     */
+    public void addTo(CallGraph callGraph, int first, int last) {
+        int low = Math.max(first, 0) + fNbBuckets;
+        int high = Math.min(last, fNbBuckets - 1) + fNbBuckets + 1;
+        while (low < high) {
+            if ((low & 1) != 0) {
+                addNode(callGraph, fNodes.get(low++));
+            }
+            if ((high & 1) != 0) {
+                addNode(callGraph, fNodes.get(--high));
+            }
+            low >>= 1;
+            high >>= 1;
+        }
+    }
+
+    private static void addNode(CallGraph callGraph, Map<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> node) {
+        for (Entry<ICallStackElement, Map<ICallStackSymbol, AggregatedCallSite>> entry : node.entrySet()) {
+            for (AggregatedCallSite site : entry.getValue().values()) {
+                callGraph.addAggregatedCallSite(entry.getKey(), site.copyOf());
+            }
+        }
+    }
+}
@@ -47,6 +47,33 @@ public class ResolvableSymbol implements ICallStackSymbol {
         fTime = timestamp;
     }
 
+    /**
+     * Get the address of the symbol
+     *
+     * @return The address
+     */
+    public long getAddress() {
+        return fAddr;
+    }
+
+    /**
+     * Get the pid of the process containing this symbol
+     *
+     * @return The pid
+     */
+    public int getPid() {
+        return fPid;
+    }
+
+    /**
+     * Get the timestamp at which this symbol is valid
+     *
+     * @return The timestamp
+     */
+    public long getTimestamp() {
+        return fTime;
+    }
+
     @Override
     public String resolve(@NonNull Collection<@NonNull ISymbolProvider> providers) {
         return SymbolProviderUtils.getSymbolText(providers, fPid, fTime, fAddr);
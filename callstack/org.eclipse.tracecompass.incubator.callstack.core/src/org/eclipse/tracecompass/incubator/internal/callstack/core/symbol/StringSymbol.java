@@ -39,6 +39,15 @@ public class StringSymbol implements ICallStackSymbol {
         fSymbol = symbol;
     }
 
+    /**
+     * Get the object of this symbol
+     *
+     * @return The symbol object
+     */
+    public Object getSymbol() {
+        return fSymbol;
+    }
+
     @Override
     public @NonNull String resolve(Collection<ISymbolProvider> providers) {
         return String.valueOf(fSymbol);
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.ConnectionCallback;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.Response;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.DataProviderFetchExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Test the {@link DataProviderFetchExecutor}
+ */
+public class DataProviderFetchExecutorTest {
+
+    private static final String KEY = "client/uuid/output/states";
+    private static final String OTHER_CLIENT_KEY = "other/uuid/output/states";
+    private static final String CANCELLED = "cancelled";
+    private static final long TIMEOUT = 10;
+
+    private DataProviderFetchExecutor fExecutor;
+
+    /**
+     * A stub of asynchronous response that keeps the resumed response
+     */
+    private static class AsyncResponseStub implements AsyncResponse {
+        private final CountDownLatch fResumed = new CountDownLatch(1);
+        private final List<Object> fCallbacks = new ArrayList<>();
+        private Object fResponse;
+
+        public Object getResponse() throws InterruptedException {
+            assertTrue("Response not resumed", fResumed.await(TIMEOUT, TimeUnit.SECONDS));
+            return fResponse;
+        }
+
+        public void disconnect() {
+            for (Object callback : fCallbacks) {
+                if (callback instanceof ConnectionCallback) {
+                    ((ConnectionCallback) callback).onDisconnect(this);
+                }
+            }
+        }
+
+        @Override
+        public boolean resume(Object response) {
+            fResponse = response;
+            for (Object callback : fCallbacks) {
+                if (callback instanceof CompletionCallback) {
+                    ((CompletionCallback) callback).onComplete(null);
+                }
+            }
+            fResumed.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean resume(Throwable response) {
+            return resume((Object) response);
+        }
+
+        @Override
+        public boolean cancel() {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(int retryAfter) {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(Date retryAfter) {
+            return false;
+        }
+
+        @Override
+        public boolean isSuspended() {
+            return fResumed.getCount() > 0;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return fResumed.getCount() == 0;
+        }
+
+        @Override
+        public boolean setTimeout(long time, TimeUnit unit) {
+            return false;
+        }
+
+        @Override
+        public void setTimeoutHandler(TimeoutHandler handler) {
+            // Not used
+        }
+
+        @Override
+        public Collection<Class<?>> register(Class<?> callback) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Collection<Class<?>> register(Object callback) {
+            fCallbacks.add(callback);
+            return Collections.singletonList(callback.getClass());
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+            register(callback);
+            for (Object other : callbacks) {
+                register(other);
+            }
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Create the executor
+     */
+    @Before
+    public void setUp() {
+        fExecutor = new DataProviderFetchExecutor(1);
+    }
+
+    /**
+     * Dispose the executor
+     */
+    @After
+    public void tearDown() {
+        fExecutor.dispose();
+    }
+
+    /**
+     * Test that the response of a fetch resumes the asynchronous response
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testFetch() throws InterruptedException {
+        AsyncResponseStub asyncResponse = new AsyncResponseStub();
+        fExecutor.submit(asyncResponse, KEY, monitor -> Response.ok("result").build());
+        Object response = asyncResponse.getResponse();
+        assertTrue(response instanceof Response);
+        assertEquals("result", ((Response) response).getEntity());
+    }
+
+    /**
+     * Test that a newer fetch for the same key cancels the running one, but
+     * not the fetches with other keys, like the fetches of the same output by
+     * another client, or the fetches without a key
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testNewerFetchCancels() throws InterruptedException {
+        fExecutor.dispose();
+        fExecutor = new DataProviderFetchExecutor(4);
+        CountDownLatch started = new CountDownLatch(3);
+        AsyncResponseStub first = new AsyncResponseStub();
+        fExecutor.submit(first, KEY, monitor -> {
+            started.countDown();
+            return waitForCancel(monitor);
+        });
+        AsyncResponseStub otherClient = new AsyncResponseStub();
+        fExecutor.submit(otherClient, OTHER_CLIENT_KEY, monitor -> {
+            started.countDown();
+            return waitForCancel(monitor);
+        });
+        AsyncResponseStub noKey = new AsyncResponseStub();
+        fExecutor.submit(noKey, null, monitor -> {
+            started.countDown();
+            return waitForCancel(monitor);
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        // A fetch with another key does not cancel the first one
+        AsyncResponseStub other = new AsyncResponseStub();
+        fExecutor.submit(other, "client/uuid/output/arrows", monitor -> Response.ok("other").build());
+        assertEquals("other", ((Response) other.getResponse()).getEntity());
+        assertFalse(first.isDone());
+
+        // A fetch without a key does not cancel the others
+        AsyncResponseStub otherNoKey = new AsyncResponseStub();
+        fExecutor.submit(otherNoKey, null, monitor -> Response.ok("other").build());
+        assertEquals("other", ((Response) otherNoKey.getResponse()).getEntity());
+        assertFalse(noKey.isDone());
+
+        AsyncResponseStub second = new AsyncResponseStub();
+        fExecutor.submit(second, KEY, monitor -> Response.ok("second").build());
+        assertEquals(CANCELLED, ((Response) first.getResponse()).getEntity());
+        assertEquals("second", ((Response) second.getResponse()).getEntity());
+
+        // The fetches of the other client and without a key are still running
+        assertFalse(otherClient.isDone());
+        assertFalse(noKey.isDone());
+        otherClient.disconnect();
+        noKey.disconnect();
+        assertEquals(CANCELLED, ((Response) otherClient.getResponse()).getEntity());
+        assertEquals(CANCELLED, ((Response) noKey.getResponse()).getEntity());
+    }
+
+    /**
+     * Test that the fetch is cancelled when the connection callback reports
+     * that the client disconnected. The servlet container of the server only
+     * reports it when the response cannot be written, this tests the
+     * containers that report it while the fetch runs.
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testDisconnect() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        AsyncResponseStub asyncResponse = new AsyncResponseStub();
+        fExecutor.submit(asyncResponse, KEY, monitor -> {
+            started.countDown();
+            return waitForCancel(monitor);
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+        asyncResponse.disconnect();
+        Object response = asyncResponse.getResponse();
+        assertNotNull(response);
+        assertEquals(CANCELLED, ((Response) response).getEntity());
+    }
+
+    /**
+     * Test that fetches submitted together run concurrently and that their
+     * responses are combined, a failed fetch not affecting the others
+     *
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testFetchAll() throws InterruptedException {
+        fExecutor.dispose();
+        fExecutor = new DataProviderFetchExecutor(2);
+        // Both fetches must run at the same time to pass the barrier
+        CountDownLatch barrier = new CountDownLatch(2);
+        Function<IProgressMonitor, Response> concurrent = monitor -> {
+            barrier.countDown();
+            try {
+                return Response.ok(barrier.await(TIMEOUT, TimeUnit.SECONDS) ? "concurrent" : "sequential").build();
+            } catch (InterruptedException e) {
+                return Response.ok("interrupted").build();
+            }
+        };
+        Function<IProgressMonitor, Response> failing = monitor -> {
+            throw new IllegalStateException("failed");
+        };
+
+        AsyncResponseStub asyncResponse = new AsyncResponseStub();
+        fExecutor.submitAll(asyncResponse, KEY, ImmutableList.of(concurrent, failing, concurrent),
+                responses -> Response.ok(responses).build());
+        Object response = asyncResponse.getResponse();
+        assertTrue(response instanceof Response);
+        List<?> responses = (List<?>) ((Response) response).getEntity();
+        assertEquals(3, responses.size());
+        assertEquals("concurrent", ((Response) responses.get(0)).getEntity());
+        assertEquals(500, ((Response) responses.get(1)).getStatus());
+        assertEquals("concurrent", ((Response) responses.get(2)).getEntity());
+    }
+
+    private static Response waitForCancel(IProgressMonitor monitor) {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        while (!monitor.isCanceled() && System.currentTimeMillis() < end) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        return Response.ok(monitor.isCanceled() ? CANCELLED : "not cancelled").build();
+    }
+}
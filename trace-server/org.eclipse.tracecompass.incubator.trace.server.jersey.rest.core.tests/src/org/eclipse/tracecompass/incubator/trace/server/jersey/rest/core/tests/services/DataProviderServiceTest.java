@@ -13,7 +13,9 @@ package org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.s
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -23,12 +25,19 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchQueryParameters;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchQueryParameters.BatchQuery;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.QueryParameters;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.DataProviderService;
 import org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.stubs.ColumnHeaderEntryStub;
@@ -178,6 +187,204 @@ public class DataProviderServiceTest extends RestServerTest {
         }
     }
 
+    /**
+     * Test that the completed responses are cached and that the requests with
+     * the entity tag of the response get a not modified response
+     *
+     * @throws InterruptedException
+     *             Exception thrown while waiting to execute again
+     */
+    @Test
+    public void testResponseCache() throws InterruptedException {
+        long start = 1412670961211260539L;
+        long end = 1412670967217750839L;
+        try {
+            WebTarget traces = getApplicationEndpoint().path(TRACES);
+            RestServerTest.assertPost(traces, ARM_64_KERNEL_STUB);
+
+            WebTarget xyTree = getXYTreeEndpoint(ARM_64_KERNEL_UUID.toString(), XY_DATAPROVIDER_ID);
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put(DataProviderParameterUtils.REQUESTED_TIME_KEY, ImmutableList.of(start, end));
+            QueryParameters queryParameters = new QueryParameters(parameters, Collections.emptyList());
+
+            // Wait for the analysis to complete, only completed responses have
+            // an entity tag
+            Response tree = xyTree.request().post(Entity.json(queryParameters));
+            TreeOutputResponseStub responseModel = tree.readEntity(TreeOutputResponseStub.class);
+            int iteration = 0;
+            while (!responseModel.isCompleted() && iteration < MAX_ITER) {
+                assertNull("Response not completed", tree.getEntityTag());
+                tree.close();
+                Thread.sleep(100);
+                tree = xyTree.request().post(Entity.json(queryParameters));
+                responseModel = tree.readEntity(TreeOutputResponseStub.class);
+                iteration++;
+            }
+            assertTrue("The analysis did not complete", responseModel.isCompleted());
+            EntityTag tag = tree.getEntityTag();
+            assertNotNull(tag);
+            tree.close();
+
+            // The same query has the same tag
+            Response cached = xyTree.request().post(Entity.json(queryParameters));
+            assertEquals(200, cached.getStatus());
+            assertEquals(tag, cached.getEntityTag());
+            assertEquals(responseModel.getModel().getEntries(), cached.readEntity(TreeOutputResponseStub.class).getModel().getEntries());
+            cached.close();
+
+            // The client already has the response
+            Response notModified = xyTree.request().header(HttpHeaders.IF_NONE_MATCH, tag.toString()).post(Entity.json(queryParameters));
+            assertEquals(304, notModified.getStatus());
+            assertEquals(tag, notModified.getEntityTag());
+            notModified.close();
+
+            // Another query is a different response
+            parameters.put(DataProviderParameterUtils.REQUESTED_TIME_KEY, ImmutableList.of(start, start + 1));
+            Response other = xyTree.request().header(HttpHeaders.IF_NONE_MATCH, tag.toString()).post(Entity.json(queryParameters));
+            assertEquals(200, other.getStatus());
+            assertNotEquals(tag, other.getEntityTag());
+            other.close();
+
+        } catch (ProcessingException e) {
+            // The failure from this exception alone is not helpful. Use the
+            // suppressed exception's message be the failure message for more
+            // help debugging failed tests.
+            fail(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test querying several outputs in a batch
+     */
+    @Test
+    public void testBatch() {
+        long start = 1412670961211260539L;
+        long end = 1412670967217750839L;
+        try {
+            WebTarget traces = getApplicationEndpoint().path(TRACES);
+            RestServerTest.assertPost(traces, ARM_64_KERNEL_STUB);
+
+            WebTarget batch = getApplicationEndpoint().path(EXPERIMENTS)
+                    .path(ARM_64_KERNEL_UUID.toString())
+                    .path(OUTPUTS_PATH)
+                    .path("batch");
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put(DataProviderParameterUtils.REQUESTED_TIME_KEY, ImmutableList.of(start, end));
+            BatchQueryParameters batchParameters = new BatchQueryParameters("client", ImmutableList.of(
+                    new BatchQuery(XY_DATAPROVIDER_ID, "tree", parameters),
+                    new BatchQuery(CALL_STACK_DATAPROVIDER_ID, "style", parameters),
+                    new BatchQuery(XY_DATAPROVIDER_ID, "tree", parameters),
+                    new BatchQuery(XY_DATAPROVIDER_ID, "unknown", parameters)));
+
+            Response response = batch.request().post(Entity.json(batchParameters));
+            assertEquals(200, response.getStatus());
+            List<Map<String, Object>> results = response.readEntity(new GenericType<List<Map<String, Object>>>() {});
+            assertEquals(4, results.size());
+
+            // The results are in the order of the queries
+            assertEquals(XY_DATAPROVIDER_ID, results.get(0).get("outputId"));
+            assertEquals("tree", results.get(0).get("kind"));
+            assertEquals(200, results.get(0).get("status"));
+            assertNotNull(results.get(0).get("response"));
+            assertEquals(CALL_STACK_DATAPROVIDER_ID, results.get(1).get("outputId"));
+            assertEquals("style", results.get(1).get("kind"));
+
+            // The identical queries have the same result
+            assertEquals(results.get(0), results.get(2));
+
+            // An unknown kind of query does not fail the other queries
+            assertEquals("unknown", results.get(3).get("kind"));
+            assertEquals(412, results.get(3).get("status"));
+            response.close();
+
+        } catch (ProcessingException e) {
+            // The failure from this exception alone is not helpful. Use the
+            // suppressed exception's message be the failure message for more
+            // help debugging failed tests.
+            fail(e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test that concurrent batches of different clients on the same trace do
+     * not cancel each other
+     *
+     * @throws Exception
+     *             if a batch failed or the test is interrupted
+     */
+    @Test
+    public void testConcurrentBatches() throws Exception {
+        long start = 1412670961211260539L;
+        long end = 1412670967217750839L;
+        try {
+            WebTarget traces = getApplicationEndpoint().path(TRACES);
+            RestServerTest.assertPost(traces, ARM_64_KERNEL_STUB);
+
+            WebTarget batch = getApplicationEndpoint().path(EXPERIMENTS)
+                    .path(ARM_64_KERNEL_UUID.toString())
+                    .path(OUTPUTS_PATH)
+                    .path("batch");
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put(DataProviderParameterUtils.REQUESTED_TIME_KEY, ImmutableList.of(start, end));
+
+            // Get the entries of the tree, to request their series
+            WebTarget xyTree = getXYTreeEndpoint(ARM_64_KERNEL_UUID.toString(), XY_DATAPROVIDER_ID);
+            Response tree = xyTree.request().post(Entity.json(new QueryParameters(parameters, Collections.emptyList())));
+            assertEquals(200, tree.getStatus());
+            TreeOutputResponseStub responseModel = tree.readEntity(TreeOutputResponseStub.class);
+            assertNotNull(responseModel);
+            tree.close();
+            int iteration = 0;
+            while (responseModel.isRunning() && responseModel.getModel() == null && iteration < MAX_ITER) {
+                Thread.sleep(100);
+                tree = xyTree.request().post(Entity.json(new QueryParameters(parameters, Collections.emptyList())));
+                assertEquals(200, tree.getStatus());
+                responseModel = tree.readEntity(TreeOutputResponseStub.class);
+                assertNotNull(responseModel);
+                tree.close();
+                iteration++;
+            }
+            EntryModelStub model = responseModel.getModel();
+            assertNotNull(model);
+            List<Integer> items = new ArrayList<>();
+            for (EntryStub entry : model.getEntries()) {
+                items.add(entry.getId());
+            }
+            Map<String, Object> xyParameters = new HashMap<>(parameters);
+            xyParameters.put(DataProviderParameterUtils.REQUESTED_ITEMS_KEY, items);
+
+            List<BatchQuery> queries = ImmutableList.of(
+                    new BatchQuery(XY_DATAPROVIDER_ID, "tree", parameters),
+                    new BatchQuery(XY_DATAPROVIDER_ID, "xy", xyParameters));
+
+            // Send the batches of two clients, and one without a client ID, at the same time
+            List<Future<Response>> futures = new ArrayList<>();
+            futures.add(batch.request().async().post(Entity.json(new BatchQueryParameters("client1", queries))));
+            futures.add(batch.request().async().post(Entity.json(new BatchQueryParameters("client2", queries))));
+            futures.add(batch.request().async().post(Entity.json(new BatchQueryParameters(null, queries))));
+
+            for (Future<Response> future : futures) {
+                Response response = future.get(MAX_ITER, TimeUnit.SECONDS);
+                assertEquals(200, response.getStatus());
+                List<Map<String, Object>> results = response.readEntity(new GenericType<List<Map<String, Object>>>() {});
+                assertEquals(queries.size(), results.size());
+                for (Map<String, Object> result : results) {
+                    assertEquals(result.toString(), 200, result.get("status"));
+                    Object modelResponse = result.get("response");
+                    assertTrue(modelResponse instanceof Map);
+                    assertNotEquals("CANCELLED", ((Map<?, ?>) modelResponse).get("status"));
+                }
+                response.close();
+            }
+
+        } catch (ProcessingException e) {
+            // The failure from this exception alone is not helpful. Use the
+            // suppressed exception's message be the failure message for more
+            // help debugging failed tests.
+            fail(e.getCause().getMessage());
+        }
+    }
+
     /**
      * Ensure that a time graph data provider exists and returns correct data.
      * It does not test the data itself, simply that the serialized fields are
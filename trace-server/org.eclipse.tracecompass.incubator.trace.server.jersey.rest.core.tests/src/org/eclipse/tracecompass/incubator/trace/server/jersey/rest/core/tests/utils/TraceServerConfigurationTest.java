@@ -28,6 +28,8 @@ public class TraceServerConfigurationTest {
     private static final String PROPERTY_USESSL = "traceserver.useSSL"; //$NON-NLS-1$
     private static final String PROPERTY_KEYSTORE = "traceserver.keystore"; //$NON-NLS-1$
     private static final String PROPERTY_KEYSTORE_PASS = "traceserver.keystorepass"; //$NON-NLS-1$
+    private static final String PROPERTY_CACHE_SIZE = "traceserver.cachesize"; //$NON-NLS-1$
+    private static final String PROPERTY_COMPRESSION_SIZE = "traceserver.compressionsize"; //$NON-NLS-1$
 
     /**
      * Reset all properties at the end of the test
@@ -38,6 +40,8 @@ public class TraceServerConfigurationTest {
         System.setProperty(PROPERTY_USESSL, "");
         System.setProperty(PROPERTY_KEYSTORE, "");
         System.setProperty(PROPERTY_KEYSTORE_PASS, "");
+        System.setProperty(PROPERTY_CACHE_SIZE, "");
+        System.setProperty(PROPERTY_COMPRESSION_SIZE, "");
     }
 
     /**
@@ -49,6 +53,8 @@ public class TraceServerConfigurationTest {
         System.setProperty(PROPERTY_USESSL, "");
         System.setProperty(PROPERTY_KEYSTORE, "");
         System.setProperty(PROPERTY_KEYSTORE_PASS, "");
+        System.setProperty(PROPERTY_CACHE_SIZE, "");
+        System.setProperty(PROPERTY_COMPRESSION_SIZE, "");
     }
 
     /**
@@ -127,11 +133,55 @@ public class TraceServerConfigurationTest {
         assertConfiguration(new TraceServerConfiguration(8080, false, null, null), TraceServerConfiguration.create());
     }
 
+    /**
+     * Test setting the size of the response cache
+     */
+    @Test
+    public void testCacheSize() {
+        assertEquals(TraceServerConfiguration.DEFAULT_CACHE_SIZE, TraceServerConfiguration.create().getCacheSize());
+
+        System.setProperty(PROPERTY_CACHE_SIZE, "10");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null, 10 * 1024 * 1024), TraceServerConfiguration.create());
+
+        // A size of 0 disables the cache
+        System.setProperty(PROPERTY_CACHE_SIZE, "0");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null, 0), TraceServerConfiguration.create());
+
+        System.setProperty(PROPERTY_CACHE_SIZE, "-1");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null), TraceServerConfiguration.create());
+
+        System.setProperty(PROPERTY_CACHE_SIZE, String.valueOf(Long.MAX_VALUE));
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null), TraceServerConfiguration.create());
+
+        System.setProperty(PROPERTY_CACHE_SIZE, "not a number");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null), TraceServerConfiguration.create());
+    }
+
+    /**
+     * Test setting the minimum size of the compressed responses
+     */
+    @Test
+    public void testCompressionSize() {
+        assertEquals(TraceServerConfiguration.DEFAULT_COMPRESSION_SIZE, TraceServerConfiguration.create().getCompressionSize());
+
+        System.setProperty(PROPERTY_COMPRESSION_SIZE, "2048");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null, TraceServerConfiguration.DEFAULT_CACHE_SIZE, 2048), TraceServerConfiguration.create());
+
+        // A negative size disables the compression
+        System.setProperty(PROPERTY_COMPRESSION_SIZE, "-1");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null, TraceServerConfiguration.DEFAULT_CACHE_SIZE, -1), TraceServerConfiguration.create());
+
+        System.setProperty(PROPERTY_COMPRESSION_SIZE, "not a number");
+        assertConfiguration(new TraceServerConfiguration(8080, false, null, null), TraceServerConfiguration.create());
+    }
+
     private static void assertConfiguration(TraceServerConfiguration expected, TraceServerConfiguration actual) {
         assertEquals(expected.getPort(), actual.getPort());
         assertEquals(expected.getKeystore(), actual.getKeystore());
         assertEquals(expected.getKeystorePass(), actual.getKeystorePass());
         assertEquals(expected.useSSL(), actual.useSSL());
+        assertEquals(expected.getCacheSize(), actual.getCacheSize());
+        assertEquals(expected.getCompressionSize(), actual.getCompressionSize());
 
     }
 
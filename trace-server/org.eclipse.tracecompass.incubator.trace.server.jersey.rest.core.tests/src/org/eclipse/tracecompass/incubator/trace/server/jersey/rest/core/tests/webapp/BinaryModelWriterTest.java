@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.trace.server.jersey.rest.core.tests.webapp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.webapp.BinaryModelWriter;
+import org.eclipse.tracecompass.tmf.core.model.OutputElementStyle;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphRowModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphRowModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphState;
+import org.eclipse.tracecompass.tmf.core.response.ITmfResponse;
+import org.eclipse.tracecompass.tmf.core.response.TmfModelResponse;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Test the binary format of the {@link BinaryModelWriter}
+ */
+public class BinaryModelWriterTest {
+
+    private static final String LABEL = "label";
+    private static final String STYLE_KEY = "style";
+    private static final String COLOR = "color";
+    private static final String RED = "#ff0000";
+    private static final String WIDTH = "width";
+
+    /**
+     * Test writing a response without a model
+     *
+     * @throws IOException
+     *             if the response cannot be written
+     */
+    @Test
+    public void testNoModel() throws IOException {
+        DataInputStream in = write(new TmfModelResponse<>(null, ITmfResponse.Status.RUNNING, "Running"));
+        assertEquals(0, in.readByte());
+        assertEquals(0, in.available());
+    }
+
+    /**
+     * Test writing a time graph model, with the labels and styles in the
+     * dictionaries and the columns of states
+     *
+     * @throws IOException
+     *             if the model cannot be written
+     */
+    @Test
+    public void testTimeGraphModel() throws IOException {
+        OutputElementStyle style = new OutputElementStyle(STYLE_KEY, ImmutableMap.of(COLOR, RED, WIDTH, 2));
+        TimeGraphState tagged = new TimeGraphState(100, 10, LABEL, style);
+        tagged.setActiveProperties(1);
+        ITimeGraphRowModel row1 = new TimeGraphRowModel(1, ImmutableList.of(
+                tagged,
+                new TimeGraphState(110, 5, 3, LABEL),
+                new TimeGraphState(120, 20, Integer.MIN_VALUE)));
+        ITimeGraphRowModel row2 = new TimeGraphRowModel(-2, ImmutableList.of(
+                new TimeGraphState(50, 1000, LABEL, style)));
+        DataInputStream in = write(new TmfModelResponse<>(new TimeGraphModel(ImmutableList.of(row1, row2)), ITmfResponse.Status.COMPLETED, "Completed"));
+        assertEquals(1, in.readByte());
+
+        // The dictionary of strings, in order of appearance
+        List<String> strings = new ArrayList<>();
+        int nbStrings = (int) readVarint(in);
+        for (int i = 0; i < nbStrings; i++) {
+            strings.add(readString(in));
+        }
+        assertEquals(ImmutableList.of(LABEL, STYLE_KEY, COLOR, RED, WIDTH, "3"), strings);
+
+        // The dictionary of styles, the style and the style of the value 3
+        assertEquals(2, readVarint(in));
+        assertEquals(STYLE_KEY, strings.get((int) readVarint(in) - 1));
+        assertEquals(2, readVarint(in));
+        for (int i = 0; i < 2; i++) {
+            String key = strings.get((int) readVarint(in));
+            int type = in.readByte();
+            if (key.equals(COLOR)) {
+                assertEquals(0, type);
+                assertEquals(RED, strings.get((int) readVarint(in)));
+            } else {
+                assertEquals(WIDTH, key);
+                assertEquals(1, type);
+                assertEquals(2, readSignedVarint(in));
+            }
+        }
+        assertEquals("3", strings.get((int) readVarint(in) - 1));
+        assertEquals(0, readVarint(in));
+
+        // The rows
+        assertEquals(2, readVarint(in));
+        assertEquals(1, readSignedVarint(in));
+        assertEquals(3, readVarint(in));
+        assertArrayEquals(new long[] { 100, 0, 5 }, readSignedColumn(in, 3));
+        assertArrayEquals(new long[] { 10, 5, 20 }, readColumn(in, 3));
+        // The label is the first string of the dictionary
+        long labelIndex = 1;
+        assertArrayEquals(new long[] { labelIndex, labelIndex, 0 }, readColumn(in, 3));
+        assertArrayEquals(new long[] { 1, 2, 0 }, readColumn(in, 3));
+        assertArrayEquals(new long[] { 1, 0, 0 }, readColumn(in, 3));
+
+        assertEquals(-2, readSignedVarint(in));
+        assertEquals(1, readVarint(in));
+        assertArrayEquals(new long[] { 50 }, readSignedColumn(in, 1));
+        assertArrayEquals(new long[] { 1000 }, readColumn(in, 1));
+        assertArrayEquals(new long[] { labelIndex }, readColumn(in, 1));
+        assertArrayEquals(new long[] { 1 }, readColumn(in, 1));
+        assertArrayEquals(new long[] { 0 }, readColumn(in, 1));
+        assertEquals(0, in.available());
+    }
+
+    private static DataInputStream write(TmfModelResponse<?> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryModelWriter.write(response, out);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        assertEquals("TSPB", new String(magic, StandardCharsets.UTF_8));
+        assertEquals(1, in.readByte());
+        assertEquals(response.getStatus().name(), readString(in));
+        assertEquals(response.getStatusMessage(), readString(in));
+        return in;
+    }
+
+    private static long[] readColumn(DataInputStream in, int size) throws IOException {
+        long[] column = new long[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = readVarint(in);
+        }
+        return column;
+    }
+
+    private static long[] readSignedColumn(DataInputStream in, int size) throws IOException {
+        long[] column = new long[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = readSignedVarint(in);
+        }
+        return column;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readSignedVarint(DataInputStream in) throws IOException {
+        long value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
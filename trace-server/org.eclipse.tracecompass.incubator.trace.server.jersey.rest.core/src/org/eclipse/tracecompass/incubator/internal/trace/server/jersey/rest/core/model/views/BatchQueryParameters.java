@@ -0,0 +1,115 @@
+/**********************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Definition of the parameters of a batch of queries received by the server
+ * from a client, to query several outputs of a trace in one request.
+ */
+public class BatchQueryParameters {
+    private String clientId;
+    private List<BatchQuery> queries;
+
+    /**
+     * A query of an output in a batch
+     */
+    public static class BatchQuery {
+        private String outputId;
+        private String kind;
+        private Map<String, Object> parameters;
+
+        /**
+         * Constructor for Jackson
+         */
+        public BatchQuery() {
+            // Default constructor for Jackson
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param outputId
+         *            ID of the queried output
+         * @param kind
+         *            Kind of query, like "tree" or "states"
+         * @param parameters
+         *            Map of parameters
+         */
+        public BatchQuery(String outputId, String kind, Map<String, Object> parameters) {
+            this.outputId = outputId;
+            this.kind = kind;
+            this.parameters = parameters;
+        }
+
+        /**
+         * @return ID of the queried output
+         */
+        public String getOutputId() {
+            return outputId;
+        }
+
+        /**
+         * @return Kind of query
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        /**
+         * @return Map of parameters
+         */
+        public Map<String, Object> getParameters() {
+            return parameters;
+        }
+    }
+
+    /**
+     * Constructor for Jackson
+     */
+    public BatchQueryParameters() {
+        // Default constructor for Jackson
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param clientId
+     *            Identifier of the client or view sending the batch, or
+     *            <code>null</code>
+     * @param queries
+     *            List of queries
+     */
+    public BatchQueryParameters(String clientId, List<BatchQuery> queries) {
+        this.clientId = clientId;
+        this.queries = queries;
+    }
+
+    /**
+     * @return Identifier of the client or view sending the batch, a newer
+     *         batch with the same identifier for the same trace cancels the
+     *         previous one. If it is <code>null</code>, the batch runs to
+     *         completion.
+     */
+    public String getClientId() {
+        return clientId;
+    }
+
+    /**
+     * @return List of queries
+     */
+    public List<BatchQuery> getQueries() {
+        return queries;
+    }
+}
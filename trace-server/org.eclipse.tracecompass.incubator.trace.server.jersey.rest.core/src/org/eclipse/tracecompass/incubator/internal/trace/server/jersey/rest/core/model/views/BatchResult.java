@@ -0,0 +1,73 @@
+/**********************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The result of a query of a batch, sent by the server with the results of the
+ * other queries of the batch
+ */
+public class BatchResult {
+    private final String fOutputId;
+    private final String fKind;
+    private final int fStatus;
+    private final @Nullable Object fResponse;
+
+    /**
+     * Constructor.
+     *
+     * @param outputId
+     *            ID of the queried output
+     * @param kind
+     *            Kind of query
+     * @param status
+     *            HTTP status code of the result
+     * @param response
+     *            The response to the query, the model response or an error
+     *            message. A byte array is the already serialized JSON response.
+     */
+    public BatchResult(String outputId, String kind, int status, @Nullable Object response) {
+        fOutputId = outputId;
+        fKind = kind;
+        fStatus = status;
+        fResponse = response;
+    }
+
+    /**
+     * @return ID of the queried output
+     */
+    public String getOutputId() {
+        return fOutputId;
+    }
+
+    /**
+     * @return Kind of query
+     */
+    public String getKind() {
+        return fKind;
+    }
+
+    /**
+     * @return HTTP status code of the result
+     */
+    public int getStatus() {
+        return fStatus;
+    }
+
+    /**
+     * @return The response to the query
+     */
+    public @Nullable Object getResponse() {
+        return fResponse;
+    }
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.CompletionCallback;
+import javax.ws.rs.container.ConnectionCallback;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.Activator;
+import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
+import org.eclipse.tracecompass.tmf.core.response.ITmfResponse;
+import org.eclipse.tracecompass.tmf.core.response.TmfModelResponse;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executor of the data provider fetches, which runs them outside of the
+ * threads of the server and resumes their asynchronous response when they are
+ * done. The number of threads and of pending fetches are bounded, the fetches
+ * that do not fit in the queue get a <code>503 Service Unavailable</code>
+ * response.
+ *
+ * Each fetch gets a progress monitor. A fetch can have a key, identifying the
+ * client that sent it as well as the output and the type of fetch, and a newer
+ * fetch with the same key cancels it. A cancelled fetch that has not started
+ * yet is not run.
+ *
+ * The monitor is also cancelled by the {@link ConnectionCallback} of the
+ * asynchronous response, but Jersey's servlet container only calls it when
+ * writing the response fails, once the fetch is done. The fetches of a client
+ * that went away are therefore not stopped when it disconnects, only when the
+ * same client sends a newer fetch with the same key. Clients should send the
+ * <code>X-Client-Id</code> header for their stale fetches to be cancelled.
+ *
+ * Several fetches can also be submitted together, they run concurrently and
+ * their responses are combined in one response when they are all done, without
+ * blocking a thread while waiting for them.
+ */
+public class DataProviderFetchExecutor {
+
+    private static final String SERVER_BUSY = "Too many pending requests"; //$NON-NLS-1$
+    private static final int MAX_PENDING_FETCHES = 256;
+    private static final long KEEP_ALIVE_TIME = 60;
+
+    private final ThreadPoolExecutor fExecutor;
+    private final Map<String, IProgressMonitor> fRunningFetches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param nbThreads
+     *            The maximum number of fetches to run at the same time
+     */
+    public DataProviderFetchExecutor(int nbThreads) {
+        fExecutor = new ThreadPoolExecutor(nbThreads, nbThreads,
+                KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_PENDING_FETCHES),
+                new ThreadFactoryBuilder().setNameFormat("Trace server fetch %d").setDaemon(true).build()); //$NON-NLS-1$
+        fExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Dispose of this executor, cancelling the running fetches
+     */
+    public void dispose() {
+        fRunningFetches.values().forEach(monitor -> monitor.setCanceled(true));
+        fExecutor.shutdownNow();
+    }
+
+    /**
+     * Submit a fetch, whose response will resume the asynchronous response.
+     * The previous fetch with the same key, if it is still running, is
+     * cancelled.
+     *
+     * @param asyncResponse
+     *            The asynchronous response of the request
+     * @param key
+     *            The key of the fetch, identifying the client, the output and
+     *            the type of fetch, or <code>null</code> if the fetch is not
+     *            cancelled by newer fetches
+     * @param fetch
+     *            The function fetching the response with a progress monitor
+     */
+    public void submit(AsyncResponse asyncResponse, @Nullable String key, Function<IProgressMonitor, Response> fetch) {
+        IProgressMonitor monitor = start(asyncResponse, key);
+        try {
+            fExecutor.execute(() -> run(asyncResponse, monitor, fetch));
+        } catch (RejectedExecutionException e) {
+            if (key != null) {
+                fRunningFetches.remove(key, monitor);
+            }
+            asyncResponse.resume(getBusyResponse());
+        }
+    }
+
+    /**
+     * Submit fetches that run concurrently, whose responses are combined to
+     * resume the asynchronous response once they are all done. The fetches
+     * share a progress monitor, and the previous fetches with the same key, if
+     * they are still running, are cancelled.
+     *
+     * A fetch that fails or that does not fit in the queue gets an error
+     * response, the other fetches are not affected.
+     *
+     * @param asyncResponse
+     *            The asynchronous response of the request
+     * @param key
+     *            The key of the fetches, identifying the client, or
+     *            <code>null</code> if the fetches are not cancelled by newer
+     *            fetches
+     * @param fetches
+     *            The functions fetching the responses with a progress monitor
+     * @param combiner
+     *            The function combining the responses, in the order of the
+     *            fetches, in the response to the request
+     */
+    public void submitAll(AsyncResponse asyncResponse, @Nullable String key, List<Function<IProgressMonitor, Response>> fetches, Function<List<Response>, Response> combiner) {
+        if (fetches.isEmpty()) {
+            resume(asyncResponse, () -> combiner.apply(Collections.emptyList()));
+            return;
+        }
+        IProgressMonitor monitor = start(asyncResponse, key);
+        Response[] responses = new Response[fetches.size()];
+        AtomicInteger remaining = new AtomicInteger(fetches.size());
+        Runnable complete = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                resume(asyncResponse, () -> combiner.apply(Arrays.asList(responses)));
+            }
+        };
+        for (int i = 0; i < fetches.size(); i++) {
+            int index = i;
+            Function<IProgressMonitor, Response> fetch = fetches.get(i);
+            try {
+                fExecutor.execute(() -> {
+                    responses[index] = fetch(monitor, fetch);
+                    complete.run();
+                });
+            } catch (RejectedExecutionException e) {
+                responses[index] = getBusyResponse();
+                complete.run();
+            }
+        }
+    }
+
+    private IProgressMonitor start(AsyncResponse asyncResponse, @Nullable String key) {
+        IProgressMonitor monitor = new NullProgressMonitor();
+        // Only called by the containers that detect the disconnection early
+        asyncResponse.register((ConnectionCallback) disconnected -> monitor.setCanceled(true));
+        if (key != null) {
+            IProgressMonitor previous = fRunningFetches.put(key, monitor);
+            if (previous != null) {
+                previous.setCanceled(true);
+            }
+            asyncResponse.register((CompletionCallback) throwable -> fRunningFetches.remove(key, monitor));
+        }
+        return monitor;
+    }
+
+    private static void run(AsyncResponse asyncResponse, IProgressMonitor monitor, Function<IProgressMonitor, Response> fetch) {
+        if (monitor.isCanceled()) {
+            // The fetch was cancelled while it was in the queue
+            asyncResponse.resume(getCancelledResponse());
+            return;
+        }
+        resume(asyncResponse, () -> fetch.apply(monitor));
+    }
+
+    private static void resume(AsyncResponse asyncResponse, Supplier<Response> response) {
+        try {
+            asyncResponse.resume(response.get());
+        } catch (RuntimeException e) {
+            asyncResponse.resume(e);
+        }
+    }
+
+    private static Response fetch(IProgressMonitor monitor, Function<IProgressMonitor, Response> fetch) {
+        if (monitor.isCanceled()) {
+            return getCancelledResponse();
+        }
+        try {
+            return fetch.apply(monitor);
+        } catch (RuntimeException e) {
+            Activator.getInstance().logError("Failed to fetch a response", e); //$NON-NLS-1$
+            return Response.status(Status.INTERNAL_SERVER_ERROR).entity(String.valueOf(e.getMessage())).build();
+        }
+    }
+
+    private static Response getCancelledResponse() {
+        return Response.ok(new TmfModelResponse<>(null, ITmfResponse.Status.CANCELLED, CommonStatusMessage.TASK_CANCELLED)).build();
+    }
+
+    private static Response getBusyResponse() {
+        return Response.status(Status.SERVICE_UNAVAILABLE).entity(SERVER_BUSY).build();
+    }
+}
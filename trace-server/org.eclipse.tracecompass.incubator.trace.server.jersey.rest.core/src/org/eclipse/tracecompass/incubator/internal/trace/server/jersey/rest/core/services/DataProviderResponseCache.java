@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.webapp.BinaryModelWriter;
+import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.analysis.TmfAbstractAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.response.ITmfResponse;
+import org.eclipse.tracecompass.tmf.core.response.TmfModelResponse;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalHandler;
+import org.eclipse.tracecompass.tmf.core.signal.TmfSignalManager;
+import org.eclipse.tracecompass.tmf.core.signal.TmfStartAnalysisSignal;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceClosedSignal;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * Cache of the responses of the data provider fetches, keyed on the trace, the
+ * output, the type of fetch and the query parameters. The responses are kept
+ * serialized, so a cached response is sent without being serialized again, and
+ * the total size of the serialized responses is bounded.
+ *
+ * Each cached response has a strong entity tag computed from its content. A
+ * request whose <code>If-None-Match</code> header matches the tag of the
+ * response gets a <code>304 Not Modified</code> response without content.
+ *
+ * A response larger than a fraction of the cache is not cached, its
+ * serialization for the cache is stopped as soon as it is too large, and it is
+ * streamed to the client by the message body writer instead, so that the whole
+ * serialized response is never held in memory.
+ *
+ * The responses are cached per media type, either JSON or the binary format
+ * of the {@link BinaryModelWriter}.
+ *
+ * Only the completed responses are cached, the responses of an analysis that
+ * is still running are sent as is. The responses of a trace are evicted when
+ * the trace is closed or when one of its analyses is run again.
+ */
+public class DataProviderResponseCache {
+
+    private static final String ANY_ETAG = "*"; //$NON-NLS-1$
+    private static final String WEAK_ETAG_PREFIX = "W/"; //$NON-NLS-1$
+    /* The maximum size of a cached response, as a fraction of the cache size */
+    private static final int MAX_RESPONSE_FRACTION = 8;
+
+    private final ObjectWriter fWriter;
+    private final ObjectWriter fKeyWriter;
+    private final Cache<CacheKey, CachedResponse> fCache;
+    private final long fMaxResponseSize;
+    /*
+     * Incremented when responses are evicted, so that the responses fetched
+     * before the eviction are not cached after it. The check of the generation
+     * and the put of a response are done under the lock, so that an eviction
+     * cannot happen in between.
+     */
+    private final Object fLock = new Object();
+    private long fGeneration = 0;
+
+    /**
+     * Constructor
+     *
+     * @param mapper
+     *            The object mapper used to serialize the responses, it should
+     *            be the mapper used by the server
+     * @param maxSize
+     *            The maximum total size, in bytes, of the cached responses
+     */
+    public DataProviderResponseCache(ObjectMapper mapper, long maxSize) {
+        fWriter = mapper.writer();
+        fKeyWriter = mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        fCache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((CacheKey key, CachedResponse response) -> key.getSize() + response.getSize())
+                .build();
+        fMaxResponseSize = maxSize / MAX_RESPONSE_FRACTION;
+        TmfSignalManager.register(this);
+    }
+
+    /**
+     * Dispose of this cache, evicting all responses
+     */
+    public void dispose() {
+        TmfSignalManager.deregister(this);
+        synchronized (fLock) {
+            fGeneration++;
+            fCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Get the response to a fetch, from the cache if it was cached, or by
+     * fetching it otherwise. The fetched response is cached if it is
+     * successful and its model response is completed.
+     *
+     * @param uuid
+     *            The UUID of the queried trace
+     * @param outputId
+     *            The ID of the queried output
+     * @param fetchType
+     *            The type of fetch, to differentiate the fetches of a same
+     *            output, like its tree and its model
+     * @param parameters
+     *            The query parameters
+     * @param mediaType
+     *            The media type of the response, JSON or the binary format
+     * @param ifNoneMatch
+     *            The value of the <code>If-None-Match</code> header of the
+     *            request, or <code>null</code> if there is none
+     * @param fetcher
+     *            The supplier of the response if it is not in the cache
+     * @return The response to send
+     */
+    public Response getResponse(UUID uuid, String outputId, String fetchType, @Nullable Map<String, Object> parameters,
+            MediaType mediaType, @Nullable String ifNoneMatch, Supplier<Response> fetcher) {
+        @Nullable CacheKey key = createKey(uuid, outputId, fetchType, mediaType, parameters);
+        @Nullable CachedResponse cached = key == null ? null : fCache.getIfPresent(key);
+        if (key == null || cached == null) {
+            long generation;
+            synchronized (fLock) {
+                generation = fGeneration;
+            }
+            Response response = fetcher.get();
+            cached = serialize(response, mediaType);
+            if (cached == null) {
+                return response;
+            }
+            if (key != null) {
+                synchronized (fLock) {
+                    if (generation == fGeneration) {
+                        fCache.put(key, cached);
+                    }
+                }
+            }
+        }
+        EntityTag tag = cached.getTag();
+        if (matches(ifNoneMatch, tag)) {
+            return Response.notModified(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+        return Response.ok(cached.getContent(), mediaType).tag(tag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Evict the cached responses of a closed trace
+     *
+     * @param signal
+     *            the trace closed signal
+     */
+    @TmfSignalHandler
+    public void traceClosed(TmfTraceClosedSignal signal) {
+        evict(signal.getTrace());
+    }
+
+    /**
+     * Evict the cached responses of the traces of an analysis that is run
+     * again
+     *
+     * @param signal
+     *            the analysis started signal
+     */
+    @TmfSignalHandler
+    public void analysisStarted(TmfStartAnalysisSignal signal) {
+        IAnalysisModule module = signal.getAnalysisModule();
+        if (module instanceof TmfAbstractAnalysisModule) {
+            ITmfTrace trace = ((TmfAbstractAnalysisModule) module).getTrace();
+            if (trace != null) {
+                evict(trace);
+            }
+        }
+    }
+
+    private void evict(ITmfTrace trace) {
+        // Evict the responses of the trace and of the experiments containing it
+        Set<UUID> uuids = new HashSet<>();
+        uuids.add(trace.getUUID());
+        for (ITmfTrace opened : TmfTraceManager.getInstance().getOpenedTraces()) {
+            if (TmfTraceManager.getTraceSet(opened).contains(trace)) {
+                uuids.add(opened.getUUID());
+            }
+        }
+        synchronized (fLock) {
+            fGeneration++;
+            fCache.asMap().keySet().removeIf(key -> uuids.contains(key.fUuid));
+        }
+    }
+
+    private @Nullable CacheKey createKey(UUID uuid, String outputId, String fetchType, MediaType mediaType, @Nullable Map<String, Object> parameters) {
+        if (parameters == null) {
+            return null;
+        }
+        try {
+            // Serialize the parameters with sorted keys to normalize the query
+            return new CacheKey(uuid, outputId, fetchType, mediaType.toString(), fKeyWriter.writeValueAsString(parameters));
+        } catch (JsonProcessingException e) {
+            Activator.getInstance().logWarning("Failed to create the cache key of a query", e); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    private @Nullable CachedResponse serialize(Response response, MediaType mediaType) {
+        Object entity = response.getEntity();
+        if (response.getStatus() != Status.OK.getStatusCode() || !(entity instanceof TmfModelResponse<?>)
+                || ((TmfModelResponse<?>) entity).getStatus() != ITmfResponse.Status.COMPLETED) {
+            return null;
+        }
+        BoundedOutputStream out = new BoundedOutputStream(fMaxResponseSize);
+        try {
+            if (BinaryModelWriter.BINARY_MEDIA_TYPE_TYPE.isCompatible(mediaType)) {
+                BinaryModelWriter.write((TmfModelResponse<?>) entity, out);
+            } else {
+                fWriter.writeValue(out, entity);
+            }
+        } catch (IOException e) {
+            if (!out.isFull()) {
+                Activator.getInstance().logWarning("Failed to serialize a response", e); //$NON-NLS-1$
+            }
+            // The response is too large to be cached
+            return null;
+        }
+        byte[] content = out.toByteArray();
+        return new CachedResponse(content, new EntityTag(Hashing.sha256().hashBytes(content).toString()));
+    }
+
+    private static boolean matches(@Nullable String ifNoneMatch, EntityTag tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        // The If-None-Match header uses the weak comparison
+        String value = '"' + tag.getValue() + '"';
+        for (String requested : ifNoneMatch.split(",")) { //$NON-NLS-1$
+            String trimmed = requested.trim();
+            if (trimmed.startsWith(WEAK_ETAG_PREFIX)) {
+                trimmed = trimmed.substring(WEAK_ETAG_PREFIX.length());
+            }
+            if (trimmed.equals(ANY_ETAG) || trimmed.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Output stream to a byte array that fails as soon as the content exceeds
+     * a maximum size
+     */
+    private static final class BoundedOutputStream extends OutputStream {
+        private final ByteArrayOutputStream fContent = new ByteArrayOutputStream();
+        private final long fMaxSize;
+        private boolean fFull = false;
+
+        public BoundedOutputStream(long maxSize) {
+            fMaxSize = maxSize;
+        }
+
+        public boolean isFull() {
+            return fFull;
+        }
+
+        public byte[] toByteArray() {
+            return fContent.toByteArray();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkSize(1);
+            fContent.write(b);
+        }
+
+        @Override
+        public void write(byte @Nullable [] b, int off, int len) throws IOException {
+            checkSize(len);
+            fContent.write(b, off, len);
+        }
+
+        private void checkSize(int len) throws IOException {
+            if (fContent.size() + (long) len > fMaxSize) {
+                fFull = true;
+                throw new IOException("Response exceeds the size of " + fMaxSize + " bytes"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+    }
+
+    private static final class CacheKey {
+        private final UUID fUuid;
+        private final String fOutputId;
+        private final String fFetchType;
+        private final String fMediaType;
+        private final String fParameters;
+
+        public CacheKey(UUID uuid, String outputId, String fetchType, String mediaType, String parameters) {
+            fUuid = uuid;
+            fOutputId = outputId;
+            fFetchType = fetchType;
+            fMediaType = mediaType;
+            fParameters = parameters;
+        }
+
+        public int getSize() {
+            return fOutputId.length() + fFetchType.length() + fMediaType.length() + fParameters.length();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fUuid, fOutputId, fFetchType, fMediaType, fParameters);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return fUuid.equals(other.fUuid) && fOutputId.equals(other.fOutputId)
+                    && fFetchType.equals(other.fFetchType) && fMediaType.equals(other.fMediaType)
+                    && fParameters.equals(other.fParameters);
+        }
+    }
+
+    private static final class CachedResponse {
+        private final byte[] fContent;
+        private final EntityTag fTag;
+
+        public CachedResponse(byte[] content, EntityTag tag) {
+            fContent = content;
+            fTag = tag;
+        }
+
+        public byte[] getContent() {
+            return fContent;
+        }
+
+        public EntityTag getTag() {
+            return fTag;
+        }
+
+        public int getSize() {
+            return fContent.length;
+        }
+    }
+}
@@ -20,30 +20,41 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLogBuilder;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchQueryParameters;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchQueryParameters.BatchQuery;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchResult;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.GenericView;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.QueryParameters;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.TableColumnHeader;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.TreeModelWrapper;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.VirtualTableModelWrapper;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.webapp.BinaryModelWriter;
 import org.eclipse.tracecompass.internal.provisional.tmf.core.model.table.ITmfVirtualTableDataProvider;
 import org.eclipse.tracecompass.internal.provisional.tmf.core.model.table.ITmfVirtualTableModel;
 import org.eclipse.tracecompass.internal.provisional.tmf.core.model.table.IVirtualTableLine;
@@ -89,14 +100,48 @@ import com.google.common.collect.Iterables;
 @SuppressWarnings("restriction")
 @Path("/experiments/{uuid}/outputs")
 public class DataProviderService {
+    /**
+     * Header identifying the client or the view sending a request, so that its
+     * newer requests cancel its stale ones
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id"; //$NON-NLS-1$
+
     private static final String WRONG_PARAMETERS = "Wrong query parameters"; //$NON-NLS-1$
     private static final String NO_PROVIDER = "Analysis cannot run"; //$NON-NLS-1$
     private static final String NO_SUCH_TRACE = "No Such Trace"; //$NON-NLS-1$
     private static final String MISSING_OUTPUTID = "Missing parameter outputId"; //$NON-NLS-1$
+    private static final String MISSING_QUERIES = "Missing parameter queries"; //$NON-NLS-1$
+    private static final String UNKNOWN_KIND = "Unknown query kind: "; //$NON-NLS-1$
     private static final int DEFAULT_MAX_TABLE_LINE_SIZE = 100000;
+    private static final String FETCH_TREE = "tree"; //$NON-NLS-1$
+    private static final String FETCH_XY = "xy"; //$NON-NLS-1$
+    private static final String FETCH_STATES = "states"; //$NON-NLS-1$
+    private static final String FETCH_ARROWS = "arrows"; //$NON-NLS-1$
+    private static final String FETCH_LINES = "lines"; //$NON-NLS-1$
+    private static final String FETCH_STYLE = "style"; //$NON-NLS-1$
+    private static final String FETCH_BATCH = "batch"; //$NON-NLS-1$
+    /* Server side quality of the binary format, so that JSON is the default */
+    private static final String BINARY_QUALITY = ";qs=0.5"; //$NON-NLS-1$
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(DataProviderService.class);
 
     private final DataProviderManager manager = DataProviderManager.getInstance();
+    private final DataProviderResponseCache fCache;
+    private final DataProviderFetchExecutor fExecutor;
+
+    /**
+     * Constructor
+     *
+     * @param cache
+     *            The cache of the responses of the tree, XY and time graph
+     *            states fetches
+     * @param executor
+     *            The executor of the XY, time graph states and arrows and table
+     *            lines fetches
+     */
+    public DataProviderService(DataProviderResponseCache cache, DataProviderFetchExecutor executor) {
+        fCache = cache;
+        fExecutor = executor;
+    }
 
     /**
      * Getter for the list of data provider descriptions
@@ -159,6 +204,8 @@ public class DataProviderService {
      * @param queryParameters
      *            Parameters to fetch an XY tree as described by
      *            {@link QueryParameters}
+     * @param ifNoneMatch
+     *            Entity tags of the responses already received by the client
      * @return an {@link GenericView} with the results
      */
     @POST
@@ -166,8 +213,9 @@ public class DataProviderService {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     public Response getXYTree(@PathParam("uuid") UUID uuid,
-            @PathParam("outputId") String outputId, QueryParameters queryParameters) {
-        return getTree(uuid, outputId, queryParameters);
+            @PathParam("outputId") String outputId, QueryParameters queryParameters,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        return getCachedTree(uuid, outputId, queryParameters, ifNoneMatch);
     }
 
     /**
@@ -179,17 +227,43 @@ public class DataProviderService {
      *            Eclipse extension point ID for the data provider to query
      * @param queryParameters
      *            Parameters to fetch XY as described by {@link QueryParameters}
-     * @return an {@link GenericView} with the results
+     * @param ifNoneMatch
+     *            Entity tags of the responses already received by the client
+     * @param headers
+     *            Headers of the request, to negotiate the format of the
+     *            response, JSON by default or the binary format of the
+     *            {@link BinaryModelWriter}
+     * @param clientId
+     *            Identifier of the client or view sending the request, from
+     *            the {@link #CLIENT_ID_HEADER} header. A newer request of the
+     *            same client for the same output cancels this one. Without
+     *            it, the request runs to completion.
+     * @param asyncResponse
+     *            The response, resumed with an {@link GenericView} with the
+     *            results
      */
     @POST
     @Path("/XY/{outputId}/xy")
     @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getXY(@PathParam("uuid") UUID uuid,
-            @PathParam("outputId") String outputId, QueryParameters queryParameters) {
+    @Produces({ MediaType.APPLICATION_JSON, BinaryModelWriter.BINARY_MEDIA_TYPE + BINARY_QUALITY })
+    public void getXY(@PathParam("uuid") UUID uuid,
+            @PathParam("outputId") String outputId, QueryParameters queryParameters,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context HttpHeaders headers,
+            @HeaderParam(CLIENT_ID_HEADER) String clientId,
+            @Suspended AsyncResponse asyncResponse) {
         if (outputId == null) {
-            return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
+            asyncResponse.resume(Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build());
+            return;
         }
+        // Negotiate in the thread of the request, where its headers are available
+        MediaType mediaType = getMediaType(headers);
+        fExecutor.submit(asyncResponse, getFetchKey(clientId, uuid, outputId, FETCH_XY),
+                monitor -> fCache.getResponse(uuid, outputId, FETCH_XY, queryParameters.getParameters(), mediaType, ifNoneMatch,
+                        () -> fetchXY(uuid, outputId, queryParameters, monitor)));
+    }
+
+    private Response fetchXY(UUID uuid, @NonNull String outputId, QueryParameters queryParameters, IProgressMonitor monitor) {
         try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "DataProviderService#getXY") //$NON-NLS-1$
                 .setCategory(outputId).build()) {
             ITmfTrace trace = TraceManagerService.getTraceByUUID(uuid);
@@ -215,7 +289,7 @@ public class DataProviderService {
                 return Response.status(Status.UNAUTHORIZED).entity(WRONG_PARAMETERS).build();
             }
 
-            TmfModelResponse<@NonNull ITmfXyModel> response = provider.fetchXY(queryParameters.getParameters(), null);
+            TmfModelResponse<@NonNull ITmfXyModel> response = provider.fetchXY(queryParameters.getParameters(), monitor);
             return Response.ok(response).build();
         }
     }
@@ -257,6 +331,8 @@ public class DataProviderService {
      * @param queryParameters
      *            Parameters to fetch time graph tree as described by
      *            {@link QueryParameters}
+     * @param ifNoneMatch
+     *            Entity tags of the responses already received by the client
      * @return {@link GenericView} with the results
      */
     @POST
@@ -265,8 +341,9 @@ public class DataProviderService {
     @Produces(MediaType.APPLICATION_JSON)
     public Response getTimeGraphTree(@PathParam("uuid") UUID uuid,
             @PathParam("outputId") String outputId,
-            QueryParameters queryParameters) {
-        return getTree(uuid, outputId, queryParameters);
+            QueryParameters queryParameters,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        return getCachedTree(uuid, outputId, queryParameters, ifNoneMatch);
     }
 
     /**
@@ -279,18 +356,44 @@ public class DataProviderService {
      * @param queryParameters
      *            Parameters to fetch time graph states as described by
      *            {@link QueryParameters}
-     * @return {@link GenericView} with the results
+     * @param ifNoneMatch
+     *            Entity tags of the responses already received by the client
+     * @param headers
+     *            Headers of the request, to negotiate the format of the
+     *            response, JSON by default or the binary format of the
+     *            {@link BinaryModelWriter}
+     * @param clientId
+     *            Identifier of the client or view sending the request, from
+     *            the {@link #CLIENT_ID_HEADER} header. A newer request of the
+     *            same client for the same output cancels this one. Without
+     *            it, the request runs to completion.
+     * @param asyncResponse
+     *            The response, resumed with {@link GenericView} with the
+     *            results
      */
     @POST
     @Path("/timeGraph/{outputId}/states")
     @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getStates(@PathParam("uuid") UUID uuid,
+    @Produces({ MediaType.APPLICATION_JSON, BinaryModelWriter.BINARY_MEDIA_TYPE + BINARY_QUALITY })
+    public void getStates(@PathParam("uuid") UUID uuid,
             @PathParam("outputId") String outputId,
-            QueryParameters queryParameters) {
+            QueryParameters queryParameters,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context HttpHeaders headers,
+            @HeaderParam(CLIENT_ID_HEADER) String clientId,
+            @Suspended AsyncResponse asyncResponse) {
         if (outputId == null) {
-            return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
+            asyncResponse.resume(Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build());
+            return;
         }
+        // Negotiate in the thread of the request, where its headers are available
+        MediaType mediaType = getMediaType(headers);
+        fExecutor.submit(asyncResponse, getFetchKey(clientId, uuid, outputId, FETCH_STATES),
+                monitor -> fCache.getResponse(uuid, outputId, FETCH_STATES, queryParameters.getParameters(), mediaType, ifNoneMatch,
+                        () -> fetchStates(uuid, outputId, queryParameters, monitor)));
+    }
+
+    private Response fetchStates(UUID uuid, @NonNull String outputId, QueryParameters queryParameters, IProgressMonitor monitor) {
         try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "DataProviderService#getStates") //$NON-NLS-1$
                 .setCategory(outputId).build()) {
             ITmfTrace trace = TraceManagerService.getTraceByUUID(uuid);
@@ -310,7 +413,7 @@ public class DataProviderService {
                 return Response.status(Status.UNAUTHORIZED).entity(WRONG_PARAMETERS).build();
             }
 
-            TmfModelResponse<TimeGraphModel> response = provider.fetchRowModel(queryParameters.getParameters(), null);
+            TmfModelResponse<TimeGraphModel> response = provider.fetchRowModel(queryParameters.getParameters(), monitor);
             return Response.ok(response).build();
         }
     }
@@ -325,18 +428,33 @@ public class DataProviderService {
      * @param queryParameters
      *            Parameters to fetch time graph arrows as described by
      *            {@link QueryParameters}
-     * @return {@link GenericView} with the results
+     * @param clientId
+     *            Identifier of the client or view sending the request, from
+     *            the {@link #CLIENT_ID_HEADER} header. A newer request of the
+     *            same client for the same output cancels this one. Without
+     *            it, the request runs to completion.
+     * @param asyncResponse
+     *            The response, resumed with {@link GenericView} with the
+     *            results
      */
     @POST
     @Path("/timeGraph/{outputId}/arrows")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getArrows(@PathParam("uuid") UUID uuid,
+    public void getArrows(@PathParam("uuid") UUID uuid,
             @PathParam("outputId") String outputId,
-            QueryParameters queryParameters) {
+            QueryParameters queryParameters,
+            @HeaderParam(CLIENT_ID_HEADER) String clientId,
+            @Suspended AsyncResponse asyncResponse) {
         if (outputId == null) {
-            return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
+            asyncResponse.resume(Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build());
+            return;
         }
+        fExecutor.submit(asyncResponse, getFetchKey(clientId, uuid, outputId, FETCH_ARROWS),
+                monitor -> fetchArrows(uuid, outputId, queryParameters, monitor));
+    }
+
+    private Response fetchArrows(UUID uuid, @NonNull String outputId, QueryParameters queryParameters, IProgressMonitor monitor) {
         try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "DataProviderService#getArrows") //$NON-NLS-1$
                 .setCategory(outputId).build()) {
             ITmfTrace trace = TraceManagerService.getTraceByUUID(uuid);
@@ -356,7 +474,7 @@ public class DataProviderService {
                 return Response.status(Status.UNAUTHORIZED).entity(WRONG_PARAMETERS).build();
             }
 
-            TmfModelResponse<@NonNull List<@NonNull ITimeGraphArrow>> response = provider.fetchArrows(queryParameters.getParameters(), null);
+            TmfModelResponse<@NonNull List<@NonNull ITimeGraphArrow>> response = provider.fetchArrows(queryParameters.getParameters(), monitor);
             return Response.ok(response).build();
         }
     }
@@ -463,18 +581,33 @@ public class DataProviderService {
      * @param queryParameters
      *            Parameters to fetch table lines as described by
      *            {@link QueryParameters}
-     * @return {@link GenericView} with the results
+     * @param clientId
+     *            Identifier of the client or view sending the request, from
+     *            the {@link #CLIENT_ID_HEADER} header. A newer request of the
+     *            same client for the same output cancels this one. Without
+     *            it, the request runs to completion.
+     * @param asyncResponse
+     *            The response, resumed with {@link GenericView} with the
+     *            results
      */
     @POST
     @Path("/table/{outputId}/lines")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response getLines(@PathParam("uuid") UUID uuid,
+    public void getLines(@PathParam("uuid") UUID uuid,
             @PathParam("outputId") String outputId,
-            QueryParameters queryParameters) {
+            QueryParameters queryParameters,
+            @HeaderParam(CLIENT_ID_HEADER) String clientId,
+            @Suspended AsyncResponse asyncResponse) {
         if (outputId == null) {
-            return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
+            asyncResponse.resume(Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build());
+            return;
         }
+        fExecutor.submit(asyncResponse, getFetchKey(clientId, uuid, outputId, FETCH_LINES),
+                monitor -> fetchLines(uuid, outputId, queryParameters, monitor));
+    }
+
+    private Response fetchLines(UUID uuid, @NonNull String outputId, QueryParameters queryParameters, IProgressMonitor monitor) {
         try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "DataProviderService#getLines") //$NON-NLS-1$
                 .setCategory(outputId).build()) {
             ITmfTrace trace = TraceManagerService.getTraceByUUID(uuid);
@@ -494,7 +627,7 @@ public class DataProviderService {
             lineParameters.put(DataProviderParameterUtils.REQUESTED_TABLE_INDEX_KEY, parameters.containsKey("lowIndex") ? parameters.get("lowIndex") : 0); //$NON-NLS-1$ //$NON-NLS-2$
             lineParameters.put(DataProviderParameterUtils.REQUESTED_TABLE_COUNT_KEY, parameters.containsKey("size") ? parameters.get("size") : DEFAULT_MAX_TABLE_LINE_SIZE); //$NON-NLS-1$ //$NON-NLS-2$
 
-            TmfModelResponse<?> response = provider.fetchLines(lineParameters, null);
+            TmfModelResponse<?> response = provider.fetchLines(lineParameters, monitor);
             if (response.getStatus() == ITmfResponse.Status.FAILED) {
                 return Response.status(Status.UNAUTHORIZED).entity(response.getStatusMessage()).build();
             }
@@ -563,6 +696,41 @@ public class DataProviderService {
         return descriptors;
     }
 
+    /**
+     * Get the media type of the response of a model fetch, the binary format
+     * if the client prefers it to JSON, and JSON otherwise.
+     */
+    private static MediaType getMediaType(HttpHeaders headers) {
+        for (MediaType accepted : headers.getAcceptableMediaTypes()) {
+            if (accepted.isWildcardType() || accepted.isWildcardSubtype()) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+            if (BinaryModelWriter.BINARY_MEDIA_TYPE_TYPE.isCompatible(accepted)) {
+                return BinaryModelWriter.BINARY_MEDIA_TYPE_TYPE;
+            }
+            if (MediaType.APPLICATION_JSON_TYPE.isCompatible(accepted)) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    private static @Nullable String getFetchKey(@Nullable String clientId, UUID uuid, String outputId, String fetchType) {
+        if (clientId == null || clientId.isEmpty()) {
+            // Do not cancel the fetches of other clients
+            return null;
+        }
+        return clientId + "/" + uuid + "/" + outputId + "/" + fetchType; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    private Response getCachedTree(UUID uuid, String outputId, QueryParameters queryParameters, String ifNoneMatch) {
+        if (outputId == null) {
+            return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
+        }
+        return fCache.getResponse(uuid, outputId, FETCH_TREE, queryParameters.getParameters(), MediaType.APPLICATION_JSON_TYPE, ifNoneMatch,
+                () -> getTree(uuid, outputId, queryParameters));
+    }
+
     private Response getTree(UUID uuid, String outputId, QueryParameters queryParameters) {
         if (outputId == null) {
             return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
@@ -620,6 +788,10 @@ public class DataProviderService {
         if (outputId == null) {
             return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
         }
+        return fetchStyles(uuid, outputId, queryParameters);
+    }
+
+    private Response fetchStyles(UUID uuid, @NonNull String outputId, QueryParameters queryParameters) {
         try (FlowScopeLog scope = new FlowScopeLogBuilder(LOGGER, Level.FINE, "DataProviderService#getStyles") //$NON-NLS-1$
                 .setCategory(outputId).build()) {
             ITmfTrace trace = TraceManagerService.getTraceByUUID(uuid);
@@ -645,4 +817,99 @@ public class DataProviderService {
             return Response.ok(new TmfModelResponse<>(new OutputStyleModel(Collections.emptyMap()), ITmfResponse.Status.COMPLETED, CommonStatusMessage.COMPLETED)).build();
         }
     }
+
+    /**
+     * Query several outputs of a trace in one request. The queries of the
+     * batch run concurrently and their results are sent together, in the order
+     * of the queries. A query is described by the ID of its output, its kind,
+     * one of <code>tree</code>, <code>xy</code>, <code>states</code>,
+     * <code>arrows</code>, <code>lines</code> or <code>style</code>, and its
+     * parameters, as for the request of the same kind. Identical queries of
+     * the batch are run once, and the tree, XY and time graph states queries
+     * share the response cache with the other requests.
+     *
+     * A newer batch of the same client, identified by the client ID of the
+     * batch, for the same trace cancels the queries of the previous one that
+     * are still running. The batches of other clients are not cancelled.
+     *
+     * @param uuid
+     *            desired trace UUID
+     * @param batchParameters
+     *            Queries of the batch as described by
+     *            {@link BatchQueryParameters}
+     * @param asyncResponse
+     *            The response, resumed with the list of {@link BatchResult}
+     *            of the queries
+     */
+    @POST
+    @Path("/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public void getBatch(@PathParam("uuid") UUID uuid,
+            BatchQueryParameters batchParameters,
+            @Suspended AsyncResponse asyncResponse) {
+        List<BatchQuery> queries = batchParameters == null ? null : batchParameters.getQueries();
+        if (queries == null) {
+            asyncResponse.resume(Response.status(Status.PRECONDITION_FAILED).entity(MISSING_QUERIES).build());
+            return;
+        }
+        if (TraceManagerService.getTraceByUUID(uuid) == null) {
+            asyncResponse.resume(Response.status(Status.NOT_FOUND).entity(NO_SUCH_TRACE).build());
+            return;
+        }
+        // Run the identical queries once
+        List<Function<IProgressMonitor, Response>> fetches = new ArrayList<>();
+        Map<List<Object>, Integer> fetchIndexes = new HashMap<>();
+        int[] queryFetches = new int[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            BatchQuery query = queries.get(i);
+            List<Object> key = Arrays.asList(query.getOutputId(), query.getKind(), query.getParameters());
+            Integer index = fetchIndexes.get(key);
+            if (index == null) {
+                index = fetches.size();
+                fetchIndexes.put(key, index);
+                fetches.add(monitor -> fetchBatchQuery(uuid, query, monitor));
+            }
+            queryFetches[i] = index;
+        }
+        fExecutor.submitAll(asyncResponse, getFetchKey(batchParameters.getClientId(), uuid, FETCH_BATCH, FETCH_BATCH), fetches, responses -> {
+            List<BatchResult> results = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                BatchQuery query = queries.get(i);
+                Response response = responses.get(queryFetches[i]);
+                results.add(new BatchResult(query.getOutputId(), query.getKind(), response.getStatus(), response.getEntity()));
+            }
+            return Response.ok(results).build();
+        });
+    }
+
+    private Response fetchBatchQuery(UUID uuid, BatchQuery query, IProgressMonitor monitor) {
+        String outputId = query.getOutputId();
+        String kind = query.getKind();
+        if (outputId == null) {
+            return Response.status(Status.PRECONDITION_FAILED).entity(MISSING_OUTPUTID).build();
+        }
+        Map<String, Object> parameters = query.getParameters();
+        if (parameters == null) {
+            return Response.status(Status.UNAUTHORIZED).entity(WRONG_PARAMETERS).build();
+        }
+        QueryParameters queryParameters = new QueryParameters(parameters, Collections.emptyList());
+        if (FETCH_TREE.equals(kind)) {
+            return fCache.getResponse(uuid, outputId, FETCH_TREE, parameters, MediaType.APPLICATION_JSON_TYPE, null,
+                    () -> getTree(uuid, outputId, queryParameters));
+        } else if (FETCH_XY.equals(kind)) {
+            return fCache.getResponse(uuid, outputId, FETCH_XY, parameters, MediaType.APPLICATION_JSON_TYPE, null,
+                    () -> fetchXY(uuid, outputId, queryParameters, monitor));
+        } else if (FETCH_STATES.equals(kind)) {
+            return fCache.getResponse(uuid, outputId, FETCH_STATES, parameters, MediaType.APPLICATION_JSON_TYPE, null,
+                    () -> fetchStates(uuid, outputId, queryParameters, monitor));
+        } else if (FETCH_ARROWS.equals(kind)) {
+            return fetchArrows(uuid, outputId, queryParameters, monitor);
+        } else if (FETCH_LINES.equals(kind)) {
+            return fetchLines(uuid, outputId, queryParameters, monitor);
+        } else if (FETCH_STYLE.equals(kind)) {
+            return fetchStyles(uuid, outputId, queryParameters);
+        }
+        return Response.status(Status.PRECONDITION_FAILED).entity(UNKNOWN_KIND + kind).build();
+    }
 }
@@ -0,0 +1,57 @@
+/**********************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.webapp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchResult;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Serializer for the results of the queries of a batch {@link BatchResult}.
+ * The responses already serialized by the response cache are written as is.
+ */
+public class BatchResultSerializer extends StdSerializer<@NonNull BatchResult> {
+
+    /**
+     * Generated serialVersionUID
+     */
+    private static final long serialVersionUID = 5308174390267593427L;
+
+    /**
+     * Constructor.
+     */
+    protected BatchResultSerializer() {
+        super(BatchResult.class);
+    }
+
+    @Override
+    public void serialize(BatchResult value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("outputId", value.getOutputId()); //$NON-NLS-1$
+        gen.writeStringField("kind", value.getKind()); //$NON-NLS-1$
+        gen.writeNumberField("status", value.getStatus()); //$NON-NLS-1$
+        Object response = value.getResponse();
+        if (response instanceof byte[]) {
+            gen.writeFieldName("response"); //$NON-NLS-1$
+            gen.writeRawValue(new String((byte[]) response, StandardCharsets.UTF_8));
+        } else {
+            gen.writeObjectField("response", response); //$NON-NLS-1$
+        }
+        gen.writeEndObject();
+    }
+
+}
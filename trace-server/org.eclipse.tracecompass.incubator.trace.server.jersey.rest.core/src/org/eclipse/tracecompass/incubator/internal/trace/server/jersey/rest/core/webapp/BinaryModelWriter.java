@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.webapp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.model.OutputElementStyle;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphRowModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.ITimeGraphState;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphModel;
+import org.eclipse.tracecompass.tmf.core.model.timegraph.TimeGraphState;
+import org.eclipse.tracecompass.tmf.core.model.xy.ISeriesModel;
+import org.eclipse.tracecompass.tmf.core.model.xy.ITmfXyModel;
+import org.eclipse.tracecompass.tmf.core.response.TmfModelResponse;
+
+/**
+ * Writer of the time graph and XY model responses in a compact binary format,
+ * used when the client accepts the {@link #BINARY_MEDIA_TYPE} media type. JSON
+ * remains the default format.
+ *
+ * The format is columnar: the values of a same field for all the states of a
+ * row or all the points of a series are written together. Integers are written
+ * as variable length integers (varints), with zigzag encoding for signed
+ * values, and strings as a varint length followed by their UTF-8 bytes. A
+ * response is written as:
+ *
+ * <pre>
+ * magic "TSPB", version (1 byte)
+ * status, status message (strings)
+ * model type (1 byte): 0 no model, 1 time graph, 2 XY
+ * </pre>
+ *
+ * A time graph model is written as:
+ *
+ * <pre>
+ * number of strings, strings: the dictionary of the labels and style keys
+ * number of styles, styles: parent key index, number of values, values as
+ *     (key index, type, value), where the type is 0 for a string index, 1 for
+ *     an integer and 2 for a double
+ * number of rows, rows:
+ *     entry ID (signed), number of states
+ *     start of each state, as the signed difference with the end of the
+ *         previous state
+ *     duration of each state
+ *     label index + 1 of each state, 0 if there is no label
+ *     style index + 1 of each state, 0 if there is no style
+ *     tags of each state
+ * </pre>
+ *
+ * An index refers to a string or style of the dictionaries. The value of a
+ * state without a style is written as a style whose parent key is the value.
+ * An XY model is written as:
+ *
+ * <pre>
+ * title (string), number of series, series:
+ *     series ID (signed), series name (string), number of points
+ *     X values, the first one then the signed differences between values
+ *     Y values, as 8 bytes doubles
+ * </pre>
+ */
+@Provider
+@Produces(BinaryModelWriter.BINARY_MEDIA_TYPE)
+public class BinaryModelWriter implements MessageBodyWriter<TmfModelResponse<?>> {
+
+    /**
+     * The media type of the binary format
+     */
+    public static final String BINARY_MEDIA_TYPE = "application/x-tsp-binary"; //$NON-NLS-1$
+
+    /**
+     * The media type of the binary format
+     */
+    public static final MediaType BINARY_MEDIA_TYPE_TYPE = MediaType.valueOf(BINARY_MEDIA_TYPE);
+
+    private static final byte[] MAGIC = { 'T', 'S', 'P', 'B' };
+    private static final int VERSION = 1;
+    private static final int NO_MODEL = 0;
+    private static final int TIME_GRAPH_MODEL = 1;
+    private static final int XY_MODEL = 2;
+    private static final int STRING_VALUE = 0;
+    private static final int INTEGER_VALUE = 1;
+    private static final int DOUBLE_VALUE = 2;
+
+    @Override
+    public boolean isWriteable(@Nullable Class<?> type, @Nullable Type genericType, Annotation @Nullable [] annotations, @Nullable MediaType mediaType) {
+        return type != null && TmfModelResponse.class.isAssignableFrom(type) && BINARY_MEDIA_TYPE_TYPE.isCompatible(mediaType);
+    }
+
+    @Override
+    public long getSize(@Nullable TmfModelResponse<?> response, @Nullable Class<?> type, @Nullable Type genericType, Annotation @Nullable [] annotations, @Nullable MediaType mediaType) {
+        // Unknown size
+        return -1;
+    }
+
+    @Override
+    public void writeTo(@Nullable TmfModelResponse<?> response, @Nullable Class<?> type, @Nullable Type genericType, Annotation @Nullable [] annotations,
+            @Nullable MediaType mediaType, @Nullable MultivaluedMap<String, Object> httpHeaders, @Nullable OutputStream entityStream) throws IOException {
+        if (response == null || entityStream == null) {
+            return;
+        }
+        write(response, entityStream);
+    }
+
+    /**
+     * Write a model response in the binary format
+     *
+     * @param response
+     *            The response to write
+     * @param outputStream
+     *            The stream to write to, it is flushed but not closed
+     * @throws IOException
+     *             If the model is not a time graph or XY model, or if writing
+     *             to the stream failed
+     */
+    public static void write(TmfModelResponse<?> response, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        writeString(out, response.getStatus().name());
+        writeString(out, response.getStatusMessage());
+        Object model = response.getModel();
+        if (model == null) {
+            out.writeByte(NO_MODEL);
+        } else if (model instanceof TimeGraphModel) {
+            out.writeByte(TIME_GRAPH_MODEL);
+            writeTimeGraph(out, (TimeGraphModel) model);
+        } else if (model instanceof ITmfXyModel) {
+            out.writeByte(XY_MODEL);
+            writeXY(out, (ITmfXyModel) model);
+        } else {
+            throw new IOException("No binary format for model " + model.getClass().getName()); //$NON-NLS-1$
+        }
+        out.flush();
+    }
+
+    /**
+     * The dictionaries of the strings and styles of a model
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> fStringIndexes = new HashMap<>();
+        private final List<String> fStrings = new ArrayList<>();
+        private final Map<OutputElementStyle, Integer> fStyleIndexes = new HashMap<>();
+        private final List<OutputElementStyle> fStyles = new ArrayList<>();
+
+        public int getStringIndex(String string) {
+            return fStringIndexes.computeIfAbsent(string, s -> {
+                fStrings.add(s);
+                return fStrings.size() - 1;
+            });
+        }
+
+        public int getStyleIndex(OutputElementStyle style) {
+            Integer index = fStyleIndexes.get(style);
+            if (index != null) {
+                return index;
+            }
+            // Make sure the strings of the style are in the dictionary
+            String parentKey = style.getParentKey();
+            if (parentKey != null) {
+                getStringIndex(parentKey);
+            }
+            for (Entry<String, Object> value : style.getStyleValues().entrySet()) {
+                getStringIndex(value.getKey());
+                if (!(value.getValue() instanceof Number)) {
+                    getStringIndex(String.valueOf(value.getValue()));
+                }
+            }
+            fStyles.add(style);
+            fStyleIndexes.put(style, fStyles.size() - 1);
+            return fStyles.size() - 1;
+        }
+    }
+
+    private static void writeTimeGraph(DataOutputStream out, TimeGraphModel model) throws IOException {
+        // Build the dictionaries first, keeping the indexes of each state
+        Dictionary dictionary = new Dictionary();
+        Map<String, OutputElementStyle> valueStyles = new HashMap<>();
+        List<ITimeGraphRowModel> rows = model.getRows();
+        int[][] labels = new int[rows.size()][];
+        int[][] styles = new int[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            List<ITimeGraphState> states = rows.get(i).getStates();
+            labels[i] = new int[states.size()];
+            styles[i] = new int[states.size()];
+            for (int j = 0; j < states.size(); j++) {
+                ITimeGraphState state = states.get(j);
+                String label = state.getLabel();
+                labels[i][j] = label == null ? 0 : dictionary.getStringIndex(label) + 1;
+                OutputElementStyle style = getStyle(state, valueStyles);
+                styles[i][j] = style == null ? 0 : dictionary.getStyleIndex(style) + 1;
+            }
+        }
+
+        writeVarint(out, dictionary.fStrings.size());
+        for (String string : dictionary.fStrings) {
+            writeString(out, string);
+        }
+        writeVarint(out, dictionary.fStyles.size());
+        for (OutputElementStyle style : dictionary.fStyles) {
+            String parentKey = style.getParentKey();
+            writeVarint(out, parentKey == null ? 0 : dictionary.getStringIndex(parentKey) + 1);
+            Map<String, Object> values = style.getStyleValues();
+            writeVarint(out, values.size());
+            for (Entry<String, Object> value : values.entrySet()) {
+                writeVarint(out, dictionary.getStringIndex(value.getKey()));
+                writeStyleValue(out, dictionary, value.getValue());
+            }
+        }
+
+        writeVarint(out, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ITimeGraphRowModel row = rows.get(i);
+            List<ITimeGraphState> states = row.getStates();
+            writeSignedVarint(out, row.getEntryID());
+            writeVarint(out, states.size());
+            long previousEnd = 0;
+            for (ITimeGraphState state : states) {
+                writeSignedVarint(out, state.getStartTime() - previousEnd);
+                previousEnd = state.getStartTime() + state.getDuration();
+            }
+            for (ITimeGraphState state : states) {
+                writeVarint(out, state.getDuration());
+            }
+            for (int label : labels[i]) {
+                writeVarint(out, label);
+            }
+            for (int style : styles[i]) {
+                writeVarint(out, style);
+            }
+            for (ITimeGraphState state : states) {
+                writeVarint(out, state instanceof TimeGraphState ? ((TimeGraphState) state).getActiveProperties() : 0);
+            }
+        }
+    }
+
+    private static @Nullable OutputElementStyle getStyle(ITimeGraphState state, Map<String, OutputElementStyle> valueStyles) {
+        if (state instanceof TimeGraphState) {
+            OutputElementStyle style = ((TimeGraphState) state).getStyle();
+            if (style != null) {
+                return style;
+            }
+        }
+        // Transform the value to a style, like in the JSON format
+        int value = state.getValue();
+        if (value == Integer.MIN_VALUE) {
+            return null;
+        }
+        return valueStyles.computeIfAbsent(String.valueOf(value), OutputElementStyle::new);
+    }
+
+    private static void writeStyleValue(DataOutputStream out, Dictionary dictionary, Object value) throws IOException {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INTEGER_VALUE);
+            writeSignedVarint(out, ((Number) value).longValue());
+        } else if (value instanceof Number) {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else {
+            out.writeByte(STRING_VALUE);
+            writeVarint(out, dictionary.getStringIndex(String.valueOf(value)));
+        }
+    }
+
+    private static void writeXY(DataOutputStream out, ITmfXyModel model) throws IOException {
+        writeString(out, model.getTitle());
+        Collection<ISeriesModel> seriesData = model.getSeriesData();
+        writeVarint(out, seriesData.size());
+        for (ISeriesModel series : seriesData) {
+            long[] xValues = series.getXAxis();
+            double[] yValues = series.getData();
+            writeSignedVarint(out, series.getId());
+            writeString(out, series.getName());
+            writeVarint(out, xValues.length);
+            long previous = 0;
+            for (long x : xValues) {
+                writeSignedVarint(out, x - previous);
+                previous = x;
+            }
+            for (int i = 0; i < xValues.length; i++) {
+                out.writeDouble(i < yValues.length ? yValues[i] : Double.NaN);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String string) throws IOException {
+        byte[] bytes = String.valueOf(string).getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeSignedVarint(DataOutputStream out, long value) throws IOException {
+        // Zigzag encoding, so that small negative values use few bytes
+        writeVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+}
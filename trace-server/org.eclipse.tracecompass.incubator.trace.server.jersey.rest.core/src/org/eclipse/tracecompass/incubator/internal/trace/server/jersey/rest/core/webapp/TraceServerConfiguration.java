@@ -30,13 +30,26 @@ public class TraceServerConfiguration {
     private static final String PROPERTY_USESSL = "traceserver.useSSL"; //$NON-NLS-1$
     private static final String PROPERTY_KEYSTORE = "traceserver.keystore"; //$NON-NLS-1$
     private static final String PROPERTY_KEYSTORE_PASS = "traceserver.keystorepass"; //$NON-NLS-1$
+    private static final String PROPERTY_CACHE_SIZE = "traceserver.cachesize"; //$NON-NLS-1$
+    private static final String PROPERTY_COMPRESSION_SIZE = "traceserver.compressionsize"; //$NON-NLS-1$
     private static final int DEFAULT_HTTP_PORT = 8080;
     private static final int DEFAULT_SSL_PORT = 8443;
+    private static final long MEGABYTE = 1024 * 1024;
+    /**
+     * Default maximum size of the response cache, in bytes
+     */
+    public static final long DEFAULT_CACHE_SIZE = 64 * MEGABYTE;
+    /**
+     * Default minimum size of the responses to compress, in bytes
+     */
+    public static final int DEFAULT_COMPRESSION_SIZE = 1024;
 
     private final int fPort;
     private final boolean fUseSSL;
     private final @Nullable String fKeystore;
     private final @Nullable String fKeystorePass;
+    private final long fCacheSize;
+    private final int fCompressionSize;
 
     /**
      * Create the trace server configuration
@@ -67,7 +80,29 @@ public class TraceServerConfiguration {
                 Activator.getInstance().logWarning(String.format("Invalid port specified: %s. Will use default port %d", portStr, port)); //$NON-NLS-1$
             }
         }
-        return new TraceServerConfiguration(port, useSSL, keystore, keystorePass);
+        long cacheSize = DEFAULT_CACHE_SIZE;
+        String cacheSizeStr = System.getProperty(PROPERTY_CACHE_SIZE);
+        if (cacheSizeStr != null && !cacheSizeStr.isEmpty()) {
+            try {
+                long cacheSizeMb = Long.parseLong(cacheSizeStr);
+                if (cacheSizeMb < 0 || cacheSizeMb > Long.MAX_VALUE / MEGABYTE) {
+                    throw new NumberFormatException();
+                }
+                cacheSize = cacheSizeMb * MEGABYTE;
+            } catch (NumberFormatException e) {
+                Activator.getInstance().logWarning(String.format("Invalid cache size specified: %s. Will use default size of %d MB", cacheSizeStr, DEFAULT_CACHE_SIZE / MEGABYTE)); //$NON-NLS-1$
+            }
+        }
+        int compressionSize = DEFAULT_COMPRESSION_SIZE;
+        String compressionSizeStr = System.getProperty(PROPERTY_COMPRESSION_SIZE);
+        if (compressionSizeStr != null && !compressionSizeStr.isEmpty()) {
+            try {
+                compressionSize = Integer.parseInt(compressionSizeStr);
+            } catch (NumberFormatException e) {
+                Activator.getInstance().logWarning(String.format("Invalid compression size specified: %s. Will use default size of %d bytes", compressionSizeStr, DEFAULT_COMPRESSION_SIZE)); //$NON-NLS-1$
+            }
+        }
+        return new TraceServerConfiguration(port, useSSL, keystore, keystorePass, cacheSize, compressionSize);
     }
 
     /**
@@ -85,10 +120,54 @@ public class TraceServerConfiguration {
      */
     @VisibleForTesting
     public TraceServerConfiguration(int port, boolean useSSL, @Nullable String keystore, @Nullable String keystorePass) {
+        this(port, useSSL, keystore, keystorePass, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor. Use only for unit tests, other use the {@link #create()} to
+     * automatically get the configuration parameters
+     *
+     * @param keystorePass
+     *            The keystore password
+     * @param keystore
+     *            The path to the SSL keystore
+     * @param useSSL
+     *            Whether to use SSL
+     * @param port
+     *            The port to use
+     * @param cacheSize
+     *            The maximum size of the response cache, in bytes
+     */
+    @VisibleForTesting
+    public TraceServerConfiguration(int port, boolean useSSL, @Nullable String keystore, @Nullable String keystorePass, long cacheSize) {
+        this(port, useSSL, keystore, keystorePass, cacheSize, DEFAULT_COMPRESSION_SIZE);
+    }
+
+    /**
+     * Constructor. Use only for unit tests, other use the {@link #create()} to
+     * automatically get the configuration parameters
+     *
+     * @param keystorePass
+     *            The keystore password
+     * @param keystore
+     *            The path to the SSL keystore
+     * @param useSSL
+     *            Whether to use SSL
+     * @param port
+     *            The port to use
+     * @param cacheSize
+     *            The maximum size of the response cache, in bytes
+     * @param compressionSize
+     *            The minimum size of the responses to compress, in bytes
+     */
+    @VisibleForTesting
+    public TraceServerConfiguration(int port, boolean useSSL, @Nullable String keystore, @Nullable String keystorePass, long cacheSize, int compressionSize) {
         fPort = port;
         fUseSSL = useSSL;
         fKeystore = keystore;
         fKeystorePass = keystorePass;
+        fCacheSize = cacheSize;
+        fCompressionSize = compressionSize;
     }
 
     /**
@@ -132,4 +211,27 @@ public class TraceServerConfiguration {
         return fKeystorePass;
     }
 
+    /**
+     * Get the maximum size of the cache of the data provider responses. The
+     * size can be specified in megabytes using the system property
+     * {@link #PROPERTY_CACHE_SIZE}, a size of 0 disables the cache
+     *
+     * @return The maximum size of the cache, in bytes
+     */
+    public long getCacheSize() {
+        return fCacheSize;
+    }
+
+    /**
+     * Get the minimum size of the responses to compress, when the client
+     * accepts compressed responses. The size can be specified in bytes using
+     * the system property {@link #PROPERTY_COMPRESSION_SIZE}, a negative size
+     * disables the compression
+     *
+     * @return The minimum size of the responses to compress, in bytes
+     */
+    public int getCompressionSize() {
+        return fCompressionSize;
+    }
+
 }
@@ -15,14 +15,19 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.model.views.BatchResult;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.DataProviderFetchExecutor;
+import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.DataProviderResponseCache;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.DataProviderService;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.ExperimentManagerService;
 import org.eclipse.tracecompass.incubator.internal.trace.server.jersey.rest.core.services.FilterService;
@@ -59,8 +64,12 @@ public class WebApplication {
 
     private static final String CONTEXT_PATH = "/tsp/api"; //$NON-NLS-1$
     private static final String PATH_SPEC = "/*"; //$NON-NLS-1$
+    private static final String GET = "GET"; //$NON-NLS-1$
+    private static final String POST = "POST"; //$NON-NLS-1$
 
     private Server fServer;
+    private DataProviderResponseCache fCache;
+    private DataProviderFetchExecutor fExecutor;
     private final TraceServerConfiguration fConfig;
 
     /**
@@ -91,17 +100,23 @@ public class WebApplication {
         sch.setContextPath(CONTEXT_PATH);
 
         ResourceConfig rc = new ResourceConfig();
+        ObjectMapper mapper = createMapper();
+        fCache = new DataProviderResponseCache(mapper, fConfig.getCacheSize());
+        fExecutor = new DataProviderFetchExecutor(Runtime.getRuntime().availableProcessors());
 
         rc.register(TraceManagerService.class);
         rc.register(ExperimentManagerService.class);
-        rc.register(DataProviderService.class);
+        rc.register(new DataProviderService(fCache, fExecutor));
         rc.register(FilterService.class);
         rc.register(XmlManagerService.class);
         rc.register(CORSFilter.class);
-        rc.register(registerCustomMappers());
+        rc.register(BinaryModelWriter.class);
+        rc.register(registerCustomMappers(mapper));
 
         ServletContainer sc = new ServletContainer(rc);
         ServletHolder holder = new ServletHolder(sc);
+        // The data provider fetches are resumed asynchronously
+        holder.setAsyncSupported(true);
         sch.addServlet(holder, PATH_SPEC);
 
         fServer = new Server();
@@ -110,7 +125,7 @@ public class WebApplication {
         @SuppressWarnings("resource")
         ServerConnector connector = getConnector(fServer, fConfig);
         fServer.addConnector(connector);
-        fServer.setHandler(sch);
+        fServer.setHandler(getCompressionHandler(sch, fConfig));
 
         // create and open a default eclipse project.
         IProject project = ResourcesPlugin.getWorkspace().getRoot()
@@ -165,13 +180,29 @@ public class WebApplication {
         return serverConnector;
     }
 
-    private static JacksonJaxbJsonProvider registerCustomMappers() {
-        ObjectMapper mapper = new ObjectMapper();
+    private static Handler getCompressionHandler(Handler handler, TraceServerConfiguration config) {
+        int minSize = config.getCompressionSize();
+        if (minSize < 0) {
+            return handler;
+        }
+        // Compress the responses if the client accepts it
+        GzipHandler gzipHandler = new GzipHandler();
+        gzipHandler.setMinGzipSize(minSize);
+        // The data provider queries use POST
+        gzipHandler.setIncludedMethods(GET, POST);
+        gzipHandler.setHandler(handler);
+        return gzipHandler;
+    }
 
+    private static JacksonJaxbJsonProvider registerCustomMappers(ObjectMapper mapper) {
         // create JsonProvider to provide custom ObjectMapper
         JacksonJaxbJsonProvider provider = new JacksonJaxbJsonProvider();
         provider.setMapper(mapper);
+        return provider;
+    }
 
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
         SimpleModule module = new SimpleModule();
         module.addSerializer(ITmfTrace.class, new TraceSerializer());
         module.addSerializer(TmfExperiment.class, new ExperimentSerializer());
@@ -184,8 +215,9 @@ public class WebApplication {
         module.addSerializer(TmfTreeDataModel.class, new TmfTreeModelSerializer());
         module.addSerializer(OutputElementStyle.class, new OutputElementStyleSerializer());
         module.addSerializer(IVirtualTableLine.class, new VirtualTableLineSerializer());
+        module.addSerializer(BatchResult.class, new BatchResultSerializer());
         mapper.registerModule(module);
-        return provider;
+        return mapper;
     }
 
     /**
@@ -194,6 +226,8 @@ public class WebApplication {
     public void stop() {
         try {
             fServer.stop();
+            fExecutor.dispose();
+            fCache.dispose();
             ResourcesPlugin.getWorkspace().getRoot()
                     .getProject(TmfCommonConstants.DEFAULT_TRACE_PROJECT_NAME)
                     .close(null);
@@ -0,0 +1,458 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.ftrace.core.tests.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.binary.BinaryFTraceFile;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.binary.BinaryFTraceIterator;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceField;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link BinaryFTraceIterator} on a trace-cmd file written by the
+ * test, with the page layout of a 64-bit little-endian kernel
+ */
+public class BinaryFTraceIteratorTest {
+
+    private static final int PAGE_SIZE = 4096;
+    private static final int PAGE_DATA_OFFSET = 16;
+    private static final int NB_CPUS = 3;
+    private static final int NB_EVENTS = 2000;
+    private static final long TIME_OFFSET = 1000;
+
+    private static final int SCHED_SWITCH_ID = 316;
+    private static final int SCHED_PROCESS_EXEC_ID = 317;
+    private static final int SYS_EXIT_ID = 318;
+
+    private static final String HEADER_PAGE = "\tfield: u64 timestamp;\toffset:0;\tsize:8;\tsigned:0;\n" +
+            "\tfield: local_t commit;\toffset:8;\tsize:8;\tsigned:1;\n" +
+            "\tfield: int overwrite;\toffset:8;\tsize:1;\tsigned:1;\n" +
+            "\tfield: char data;\toffset:16;\tsize:4080;\tsigned:1;\n";
+    private static final String COMMON_FIELDS = "format:\n" +
+            "\tfield:unsigned short common_type;\toffset:0;\tsize:2;\tsigned:0;\n" +
+            "\tfield:unsigned char common_flags;\toffset:2;\tsize:1;\tsigned:0;\n" +
+            "\tfield:unsigned char common_preempt_count;\toffset:3;\tsize:1;\tsigned:0;\n" +
+            "\tfield:int common_pid;\toffset:4;\tsize:4;\tsigned:1;\n\n";
+    private static final String SCHED_SWITCH = "name: sched_switch\nID: " + SCHED_SWITCH_ID + "\n" + COMMON_FIELDS +
+            "\tfield:char prev_comm[16];\toffset:8;\tsize:16;\tsigned:1;\n" +
+            "\tfield:pid_t prev_pid;\toffset:24;\tsize:4;\tsigned:1;\n" +
+            "\tfield:int prev_prio;\toffset:28;\tsize:4;\tsigned:1;\n" +
+            "\tfield:long prev_state;\toffset:32;\tsize:8;\tsigned:1;\n" +
+            "\tfield:char next_comm[16];\toffset:40;\tsize:16;\tsigned:1;\n" +
+            "\tfield:pid_t next_pid;\toffset:56;\tsize:4;\tsigned:1;\n" +
+            "\tfield:int next_prio;\toffset:60;\tsize:4;\tsigned:1;\n\n" +
+            "print fmt: \"prev_comm=%s\", REC->prev_comm\n";
+    private static final String SCHED_PROCESS_EXEC = "name: sched_process_exec\nID: " + SCHED_PROCESS_EXEC_ID + "\n" + COMMON_FIELDS +
+            "\tfield:__data_loc char[] filename;\toffset:8;\tsize:4;\tsigned:1;\n" +
+            "\tfield:pid_t pid;\toffset:12;\tsize:4;\tsigned:1;\n" +
+            "\tfield:pid_t old_pid;\toffset:16;\tsize:4;\tsigned:1;\n\n" +
+            "print fmt: \"filename=%s\", __get_str(filename)\n";
+    private static final String SYS_EXIT = "name: sys_exit_read\nID: " + SYS_EXIT_ID + "\n" + COMMON_FIELDS +
+            "\tfield:int __syscall_nr;\toffset:8;\tsize:4;\tsigned:1;\n" +
+            "\tfield:long ret;\toffset:16;\tsize:8;\tsigned:1;\n\n" +
+            "print fmt: \"0x%lx\", REC->ret\n";
+
+    /**
+     * An event written in the trace
+     */
+    private static final class Event {
+        private final int fCpu;
+        private final long fTimestamp;
+        private final int fType;
+        private final int fIndex;
+
+        private Event(int cpu, long timestamp, int type, int index) {
+            fCpu = cpu;
+            fTimestamp = timestamp;
+            fType = type;
+            fIndex = index;
+        }
+
+        private String getName() {
+            switch (fType) {
+            case SCHED_SWITCH_ID:
+                return "sched_switch";
+            case SCHED_PROCESS_EXEC_ID:
+                return "sched_process_exec";
+            default:
+                return "exit_syscall";
+            }
+        }
+
+        private String getFileName() {
+            StringBuilder builder = new StringBuilder("/usr/bin/program").append(fIndex);
+            // Long enough to need a length word, in one case out of two
+            for (int i = 0; i < fIndex % 2 * 30; i++) {
+                builder.append("/x");
+            }
+            return builder.toString();
+        }
+
+        private byte[] getRecord() {
+            ByteBuffer record;
+            switch (fType) {
+            case SCHED_SWITCH_ID:
+                record = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+                putCommon(record);
+                record.put(Arrays.copyOf(("prev" + fIndex).getBytes(StandardCharsets.UTF_8), 16));
+                record.putInt(fIndex);
+                record.putInt(120);
+                record.putLong(fIndex % 3);
+                record.put(Arrays.copyOf("next".getBytes(StandardCharsets.UTF_8), 16));
+                record.putInt(fIndex + 1);
+                record.putInt(-1);
+                break;
+            case SCHED_PROCESS_EXEC_ID:
+                byte[] fileName = getFileName().getBytes(StandardCharsets.UTF_8);
+                record = ByteBuffer.allocate((20 + fileName.length + 1 + 3) & ~3).order(ByteOrder.LITTLE_ENDIAN);
+                putCommon(record);
+                record.putInt(((fileName.length + 1) << 16) | 20);
+                record.putInt(fIndex);
+                record.putInt(fIndex);
+                record.put(fileName);
+                break;
+            default:
+                record = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+                putCommon(record);
+                record.putInt(0);
+                record.putInt(0);
+                record.putLong(-fIndex);
+                break;
+            }
+            return record.array();
+        }
+
+        private void putCommon(ByteBuffer record) {
+            record.putShort((short) fType);
+            record.putShort((short) 0);
+            record.putInt(100 + fCpu);
+        }
+    }
+
+    private File fFile;
+    private List<Event> fEvents;
+
+    /**
+     * Write the trace
+     *
+     * @throws IOException
+     *             Exceptions writing the file
+     */
+    @Before
+    public void before() throws IOException {
+        fFile = File.createTempFile("binary-ftrace", ".dat");
+        Random random = new Random(42);
+        List<List<Event>> cpuEvents = new ArrayList<>();
+        for (int cpu = 0; cpu < NB_CPUS; cpu++) {
+            cpuEvents.add(new ArrayList<>());
+        }
+        long timestamp = 1L << 40;
+        int[] types = { SCHED_SWITCH_ID, SCHED_PROCESS_EXEC_ID, SYS_EXIT_ID };
+        for (int i = 0; i < NB_EVENTS; i++) {
+            // Many events at the same time, and some gaps that need a time
+            // extend
+            int gap = random.nextInt(20);
+            timestamp += gap == 0 ? (1L << 28) + random.nextInt(1000) : gap < 10 ? 0 : random.nextInt(5000);
+            int cpu = random.nextInt(NB_CPUS);
+            cpuEvents.get(cpu).add(new Event(cpu, timestamp, types[random.nextInt(types.length)], i));
+        }
+        fEvents = new ArrayList<>();
+        for (List<Event> events : cpuEvents) {
+            fEvents.addAll(events);
+        }
+        fEvents.sort(Comparator.comparingLong((Event e) -> e.fTimestamp).thenComparingInt(e -> e.fCpu));
+        Files.write(fFile.toPath(), writeTrace(cpuEvents));
+    }
+
+    /**
+     * Delete the trace
+     */
+    @After
+    public void after() {
+        fFile.delete();
+    }
+
+    /**
+     * Read all the events, merged by timestamp, and check their content
+     *
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    @Test
+    public void testRead() throws IOException {
+        try (BinaryFTraceFile file = BinaryFTraceFile.open(fFile)) {
+            assertEquals(NB_CPUS, file.getCpuCount());
+            assertEquals(PAGE_SIZE, file.getPageSize());
+            assertEquals(3, file.getFormatCount());
+            assertEquals(TIME_OFFSET, file.getTimeOffset());
+            assertEquals("global", file.getTraceClock());
+
+            BinaryFTraceIterator iterator = new BinaryFTraceIterator(file);
+            for (Event expected : fEvents) {
+                GenericFtraceField field = iterator.next();
+                assertNotNull(field);
+                assertSameEvent(expected, field);
+                String msg = "Event " + expected.fIndex;
+                switch (expected.fType) {
+                case SCHED_SWITCH_ID:
+                    assertEquals(msg, 7, field.getContent().getFields().size());
+                    assertEquals(msg, "prev" + expected.fIndex, field.getContent().getFieldValue(String.class, "prev_comm"));
+                    assertEquals(msg, Long.valueOf(expected.fIndex), field.getContent().getFieldValue(Long.class, "prev_pid"));
+                    assertEquals(msg, Long.valueOf(expected.fIndex % 3), field.getContent().getFieldValue(Long.class, "prev_state"));
+                    assertEquals(msg, "next", field.getContent().getFieldValue(String.class, "next_comm"));
+                    assertEquals(msg, Long.valueOf(-1), field.getContent().getFieldValue(Long.class, "next_prio"));
+                    break;
+                case SCHED_PROCESS_EXEC_ID:
+                    assertEquals(msg, expected.getFileName(), field.getContent().getFieldValue(String.class, "filename"));
+                    assertEquals(msg, Long.valueOf(expected.fIndex), field.getContent().getFieldValue(Long.class, "pid"));
+                    break;
+                default:
+                    assertEquals(msg, Long.valueOf(-expected.fIndex), field.getContent().getFieldValue(Long.class, "ret"));
+                    break;
+                }
+            }
+            assertNull(iterator.next());
+            assertEquals(BinaryFTraceIterator.END_LOCATION, iterator.getLocation());
+        }
+    }
+
+    /**
+     * Seek to the location of each event and check that the iterator reads
+     * the same events as when reading from the start
+     *
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    @Test
+    public void testSeekLocation() throws IOException {
+        try (BinaryFTraceFile file = BinaryFTraceFile.open(fFile)) {
+            BinaryFTraceIterator iterator = new BinaryFTraceIterator(file);
+            long[] locations = new long[fEvents.size()];
+            for (int i = 0; i < locations.length; i++) {
+                locations[i] = iterator.getLocation();
+                assertNotNull(iterator.next());
+            }
+            for (int i = locations.length - 1; i >= 0; i--) {
+                iterator.seek(locations[i]);
+                for (int j = i; j < Math.min(i + 10, fEvents.size()); j++) {
+                    assertEquals(locations[j], iterator.getLocation());
+                    GenericFtraceField field = iterator.next();
+                    assertNotNull(field);
+                    assertSameEvent(fEvents.get(j), field);
+                }
+            }
+            iterator.seek(BinaryFTraceIterator.END_LOCATION);
+            assertNull(iterator.next());
+        }
+    }
+
+    /**
+     * Seek to timestamps, between events and at events with the same
+     * timestamp
+     *
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    @Test
+    public void testSeekTimestamp() throws IOException {
+        try (BinaryFTraceFile file = BinaryFTraceFile.open(fFile)) {
+            BinaryFTraceIterator iterator = new BinaryFTraceIterator(file);
+            long[] range = iterator.getTimeRange();
+            assertNotNull(range);
+            assertArrayEquals(new long[] { fEvents.get(0).fTimestamp + TIME_OFFSET, fEvents.get(fEvents.size() - 1).fTimestamp + TIME_OFFSET }, range);
+
+            for (int i = 0; i < fEvents.size(); i += 7) {
+                long timestamp = fEvents.get(i).fTimestamp;
+                int first = i;
+                while (first > 0 && fEvents.get(first - 1).fTimestamp == timestamp) {
+                    first--;
+                }
+                iterator.seekTimestamp(timestamp + TIME_OFFSET);
+                GenericFtraceField field = iterator.next();
+                assertNotNull(field);
+                assertSameEvent(fEvents.get(first), field);
+            }
+            iterator.seekTimestamp(Long.MAX_VALUE);
+            assertNull(iterator.next());
+        }
+    }
+
+    private static void assertSameEvent(Event expected, GenericFtraceField field) {
+        String msg = "Event " + expected.fIndex;
+        assertEquals(msg, expected.getName(), field.getName());
+        assertEquals(msg, Long.valueOf(expected.fTimestamp + TIME_OFFSET), field.getTs());
+        assertEquals(msg, Integer.valueOf(expected.fCpu), field.getCpu());
+        assertEquals(msg, Integer.valueOf(100 + expected.fCpu), field.getPid());
+        assertEquals(msg, Integer.valueOf(100 + expected.fCpu), field.getTid());
+    }
+
+    // ------------------------------------------------------------------------
+    // Trace writer
+    // ------------------------------------------------------------------------
+
+    private static byte[] writeTrace(List<List<Event>> cpuEvents) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryFTraceFile.MAGIC, 0, BinaryFTraceFile.MAGIC.length);
+        writeString(out, "6");
+        out.write(0);
+        out.write(8);
+        writeInt(out, PAGE_SIZE);
+        writeString(out, "header_page");
+        writeSection(out, HEADER_PAGE);
+        writeString(out, "header_event");
+        writeSection(out, "# compressed entry header\n\ttype_len    :    5 bits\n");
+        // No ftrace formats, one system
+        writeInt(out, 0);
+        writeInt(out, 1);
+        writeString(out, "sched");
+        writeInt(out, 3);
+        writeSection(out, SCHED_SWITCH);
+        writeSection(out, SCHED_PROCESS_EXEC);
+        writeSection(out, SYS_EXIT);
+        // kallsyms, printk and cmdlines
+        writeInt(out, 0);
+        writeInt(out, 0);
+        writeLong(out, 0);
+        writeInt(out, NB_CPUS);
+        out.write("options  \0".getBytes(StandardCharsets.UTF_8), 0, 10);
+        writeOption(out, 7, String.valueOf(TIME_OFFSET));
+        writeOption(out, 4, "local [global] counter");
+        writeShort(out, 0);
+        out.write("flyrecord\0".getBytes(StandardCharsets.UTF_8), 0, 10);
+
+        List<byte[]> cpuData = new ArrayList<>();
+        for (List<Event> events : cpuEvents) {
+            cpuData.add(writePages(events));
+        }
+        long offset = out.size() + NB_CPUS * 16L;
+        offset = (offset + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+        for (byte[] data : cpuData) {
+            writeLong(out, offset);
+            writeLong(out, data.length);
+            offset += data.length;
+        }
+        while (out.size() % PAGE_SIZE != 0) {
+            out.write(0);
+        }
+        for (byte[] data : cpuData) {
+            out.write(data, 0, data.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] writePages(List<Event> events) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer page = null;
+        long timestamp = 0;
+        int count = 0;
+        for (Event event : events) {
+            byte[] record = event.getRecord();
+            // Header, time extend, length word and discarded event
+            int needed = record.length + 16 + 12;
+            if (page == null || page.position() + needed > PAGE_SIZE) {
+                if (page != null) {
+                    closePage(out, page);
+                }
+                page = ByteBuffer.allocate(PAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                timestamp = event.fTimestamp;
+                page.putLong(timestamp);
+                page.putLong(0);
+            }
+            long delta = event.fTimestamp - timestamp;
+            if (delta >= 1 << 27) {
+                page.putInt((int) ((delta & ((1 << 27) - 1)) << 5) | 30);
+                page.putInt((int) (delta >>> 27));
+                delta = 0;
+            }
+            if (count++ % 17 == 5 && delta > 0) {
+                // A discarded event, which moves the time by one
+                page.putInt((1 << 5) | 29);
+                page.putInt(12);
+                page.putLong(0);
+                delta -= 1;
+            }
+            if (record.length <= 28 * 4) {
+                page.putInt((int) (delta << 5) | (record.length / 4));
+            } else {
+                page.putInt((int) (delta << 5));
+                page.putInt(record.length + 4);
+            }
+            page.put(record);
+            timestamp = event.fTimestamp;
+        }
+        if (page != null) {
+            closePage(out, page);
+        }
+        // An empty page at the end
+        ByteBuffer empty = ByteBuffer.allocate(PAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        empty.putLong(timestamp);
+        out.write(empty.array(), 0, PAGE_SIZE);
+        return out.toByteArray();
+    }
+
+    private static void closePage(ByteArrayOutputStream out, ByteBuffer page) {
+        // Padding at the end of the data, which ends the page
+        page.putInt(29);
+        page.putLong(8, page.position() - PAGE_DATA_OFFSET);
+        out.write(page.array(), 0, PAGE_SIZE);
+    }
+
+    private static void writeSection(ByteArrayOutputStream out, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        writeLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeOption(ByteArrayOutputStream out, int option, String value) {
+        byte[] bytes = (value + '\0').getBytes(StandardCharsets.UTF_8);
+        writeShort(out, option);
+        writeInt(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+        out.write(0);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort((short) value).array(), 0, 2);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array(), 0, 4);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        out.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array(), 0, 8);
+    }
+}
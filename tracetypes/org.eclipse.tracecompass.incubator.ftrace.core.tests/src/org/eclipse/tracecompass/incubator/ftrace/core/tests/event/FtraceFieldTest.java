@@ -139,6 +139,27 @@ public class FtraceFieldTest {
         assertEquals((Long) 0xfffffffffffffff5L, field.getContent().getFieldValue(Long.class, "ret"));
     }
 
+    /**
+     * Testing of parse line with a tgid and a nanosecond timestamp
+     */
+    @Test
+    public void testParseTgidNanoseconds() {
+        String line = "    bash-42    (   40) [001] ....  100.123456789: sched_process_fork: comm=bash pid=42 child_comm=bash child_pid=43, x: 0x10";
+
+        GenericFtraceField field = GenericFtraceField.parseLine(line);
+
+        assertNotNull(field);
+        assertEquals((Integer) 1, field.getCpu());
+        assertEquals((Integer) 40, field.getPid());
+        assertEquals((Integer) 42, field.getTid());
+        assertEquals(100123456789L, (long) field.getTs());
+        assertEquals("sched_process_fork", field.getName());
+
+        assertEquals(5, field.getContent().getFields().size());
+        assertEquals((Long) 43L, field.getContent().getFieldValue(Long.class, "child_pid"));
+        assertEquals((Long) 16L, field.getContent().getFieldValue(Long.class, "x"));
+    }
+
     /**
      * Testing of parse line with Irq_raise event function using line from an ftrace
      * output
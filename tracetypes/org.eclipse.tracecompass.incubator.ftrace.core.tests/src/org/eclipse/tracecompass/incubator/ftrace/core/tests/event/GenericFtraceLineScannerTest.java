@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.ftrace.core.tests.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.eclipse.tracecompass.incubator.ftrace.core.tests.ActivatorTest;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceLineScanner;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.IGenericFtraceConstants;
+import org.junit.Test;
+
+/**
+ * Test the {@link GenericFtraceLineScanner} against the
+ * {@link IGenericFtraceConstants#FTRACE_PATTERN} it replaces
+ */
+public class GenericFtraceLineScannerTest {
+
+    private static final String TRACE_PATH = "res";
+
+    private static final List<String> LINES = Arrays.asList(
+            "kworker/0:0-9514  [000] d..4  3210.263482: sched_wakeup: comm=daemonsu pid=16620 prio=120 success=1 target_cpu=000",
+            "test/1-1316  [005] .......   713.920983: sys_recvmsg(fd: 3, msg: 7ffe3bd38070, flags: 0)",
+            "test/1-1316  [005] ....   713.920988: sys_recvmsg -> 0xfffffffffffffff5",
+            "test-1-1316  [005]   713.920983: sys_enter_recvmsg:     __syscall_nr=47 fd=3 msg=0x7ffe3bd38070 flags=0",
+            "   <idle>-0     (-----) [001] d..2  100.000001: sched_switch: prev_comm=swapper/1 prev_pid=0 ==> next_comm=bash next_pid=42",
+            "    bash-42    (   40) [001] ....  100.000002: sys_enter: NR 0 (3, 7ffd, 1)",
+            "comm with spaces [x]-42 [003] .... 1.5: event_name: a=1",
+            "name-12 [0] 1.123456789123: a_b:   x:1",
+            "name-12 [0] d... 1.1: e:x",
+            "name-12 [0] d... 1.: e: x",
+            "name-12 [0] d... 1.1: e: x) y",
+            "name-12 [0] d... 1.1: e -> ",
+            "name-12 [0] d... 1.1 e: x",
+            "name12 [0] 1.1: e: x",
+            "name-12[0] 1.1: e: x",
+            "name-12 [0] 2.5: 3.5: e: x",
+            "# tracer: nop",
+            "");
+
+    /**
+     * Test that the scanner accepts the lines of the test traces with the
+     * same groups as the pattern
+     *
+     * @throws IOException
+     *             Exceptions reading the traces
+     */
+    @Test
+    public void testTraces() throws IOException {
+        File[] traceFiles = ActivatorTest.getAbsoluteFilePath(TRACE_PATH).toFile().listFiles();
+        assertTrue(traceFiles.length > 0);
+        GenericFtraceLineScanner scanner = new GenericFtraceLineScanner();
+        for (File file : traceFiles) {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                assertSameAsPattern(scanner, line);
+            }
+        }
+    }
+
+    /**
+     * Test that the scanner and the pattern agree on edge cases
+     */
+    @Test
+    public void testLines() {
+        GenericFtraceLineScanner scanner = new GenericFtraceLineScanner();
+        for (String line : LINES) {
+            assertSameAsPattern(scanner, line);
+        }
+    }
+
+    /**
+     * Test the tgid and the nanosecond precision of the timestamps
+     */
+    @Test
+    public void testValues() {
+        GenericFtraceLineScanner scanner = new GenericFtraceLineScanner();
+        assertTrue(scanner.scan("    bash-42    (   40) [001] ....  100.000002: sys_enter: NR 0 (3, 7ffd, 1)"));
+        assertEquals(42, scanner.getPid());
+        assertEquals((Integer) 40, scanner.getTgid());
+        assertEquals(100000002000L, scanner.getTimestamp());
+
+        assertTrue(scanner.scan("   <idle>-0     (-----) [001] d..2  100.000001: sched_switch: prev_comm=swapper/1"));
+        assertNull(scanner.getTgid());
+
+        assertTrue(scanner.scan("name-12 [0] 1.123456789123: a_b:   x:1"));
+        assertEquals(1123456789L, scanner.getTimestamp());
+
+        assertTrue(scanner.scan("name-12 [0] 3210: e: x"));
+        assertEquals(3210000000000L, scanner.getTimestamp());
+
+        assertFalse(scanner.scan("name-12 [0] d... 1.: e: x"));
+    }
+
+    private static void assertSameAsPattern(GenericFtraceLineScanner scanner, String line) {
+        Matcher matcher = IGenericFtraceConstants.FTRACE_PATTERN.matcher(line);
+        boolean matches = matcher.matches();
+        assertEquals(line, matches, scanner.scan(line));
+        if (!matches) {
+            return;
+        }
+        assertEquals(line, matcher.group(IGenericFtraceConstants.FTRACE_COMM_GROUP), scanner.getComm());
+        assertEquals(line, Integer.parseInt(matcher.group(IGenericFtraceConstants.FTRACE_PID_GROUP)), scanner.getPid());
+        String tgid = matcher.group(IGenericFtraceConstants.FTRACE_TGID_GROUP);
+        assertEquals(line, tgid == null ? null : Integer.valueOf(tgid), scanner.getTgid());
+        assertEquals(line, Integer.parseInt(matcher.group(IGenericFtraceConstants.FTRACE_CPU_GROUP)), scanner.getCpu());
+        assertEquals(line, matcher.group(IGenericFtraceConstants.FTRACE_NAME_GROUP), scanner.getName());
+        assertEquals(line, matcher.group(IGenericFtraceConstants.FTRACE_SEPARATOR_GROUP).trim(), separator(scanner.getSeparator()));
+        assertEquals(line, matcher.start(IGenericFtraceConstants.FTRACE_DATA_GROUP), scanner.getDataStart());
+        assertEquals(line, matcher.end(IGenericFtraceConstants.FTRACE_DATA_GROUP), scanner.getDataEnd());
+        String timestamp = matcher.group(IGenericFtraceConstants.FTRACE_TIMESTAMP_GROUP);
+        assertEquals(line, (double) Double.parseDouble(timestamp), scanner.getTimestamp() / 1e9, 1e-6);
+    }
+
+    private static String separator(char separator) {
+        return separator == GenericFtraceLineScanner.SEPARATOR_ARROW ? "->" : String.valueOf(separator);
+    }
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.ftrace.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.trace.FtraceOffsetIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the {@link FtraceOffsetIndex}
+ */
+public class FtraceOffsetIndexTest {
+
+    private static final int NB_EVENTS = 5 * FtraceOffsetIndex.INTERVAL + 10;
+    private static final long EVENT_SIZE = 100;
+    private static final long HEADER_SIZE = 50;
+
+    private File fTraceFile;
+    private File fIndexFile;
+
+    /**
+     * Create the files
+     *
+     * @throws IOException
+     *             Exceptions creating the files
+     */
+    @Before
+    public void setUp() throws IOException {
+        fTraceFile = File.createTempFile("ftrace", ".txt");
+        Files.write(fTraceFile.toPath(), new byte[] { 'a' });
+        fIndexFile = new File(fTraceFile.getPath() + ".idx");
+    }
+
+    /**
+     * Delete the files
+     */
+    @After
+    public void tearDown() {
+        fTraceFile.delete();
+        fIndexFile.delete();
+    }
+
+    private static long offset(long rank) {
+        return HEADER_SIZE + rank * EVENT_SIZE;
+    }
+
+    private static void fill(FtraceOffsetIndex index) {
+        for (long rank = 0; rank < NB_EVENTS; rank++) {
+            index.record(rank, offset(rank));
+        }
+    }
+
+    /**
+     * Test the lookups while the index is built
+     */
+    @Test
+    public void testPartialIndex() {
+        FtraceOffsetIndex index = FtraceOffsetIndex.open(null, fTraceFile);
+        assertEquals(-1, index.findRank(0));
+        assertEquals(-1, index.findOffset(0));
+
+        fill(index);
+        assertFalse(index.isComplete());
+        assertEquals(0, index.findRank(0));
+        assertEquals(0, index.findOffset(0));
+        assertEquals(1, index.findRank(FtraceOffsetIndex.INTERVAL + 1));
+        assertEquals(offset(FtraceOffsetIndex.INTERVAL), index.getOffset(1));
+        assertEquals(2, index.findOffset(offset(2 * FtraceOffsetIndex.INTERVAL) + 1));
+        assertEquals(5, index.findRank(NB_EVENTS - 1));
+        // Past the last entry, the number of events to read is not known
+        assertEquals(-1, index.findRank(6 * FtraceOffsetIndex.INTERVAL));
+        assertEquals(-1, index.findOffset(offset(5 * FtraceOffsetIndex.INTERVAL) + 1));
+        assertEquals(5, index.findOffset(offset(5 * FtraceOffsetIndex.INTERVAL)));
+    }
+
+    /**
+     * Test that only the events read in order from the start are recorded
+     */
+    @Test
+    public void testOutOfOrder() {
+        FtraceOffsetIndex index = FtraceOffsetIndex.open(null, fTraceFile);
+        index.record(FtraceOffsetIndex.INTERVAL, 12);
+        assertEquals(-1, index.findRank(FtraceOffsetIndex.INTERVAL));
+        index.recordEnd(10);
+        assertFalse(index.isComplete());
+        fill(index);
+        // Reading again from the start does not add entries
+        index.record(0, 1);
+        assertEquals(offset(0), index.getOffset(0));
+    }
+
+    /**
+     * Test that the complete index is saved and loaded
+     */
+    @Test
+    public void testSaveLoad() {
+        FtraceOffsetIndex index = FtraceOffsetIndex.open(fIndexFile, fTraceFile);
+        fill(index);
+        index.recordEnd(NB_EVENTS);
+        assertTrue(index.isComplete());
+        assertEquals(NB_EVENTS, index.getNbEvents());
+        assertEquals(5, index.findRank(NB_EVENTS + 100));
+        assertEquals(5, index.findOffset(offset(NB_EVENTS)));
+        assertTrue(fIndexFile.exists());
+
+        FtraceOffsetIndex loaded = FtraceOffsetIndex.open(fIndexFile, fTraceFile);
+        assertTrue(loaded.isComplete());
+        assertEquals(NB_EVENTS, loaded.getNbEvents());
+        for (int entry = 0; entry <= 5; entry++) {
+            assertEquals(offset(FtraceOffsetIndex.getRank(entry)), loaded.getOffset(entry));
+        }
+    }
+
+    /**
+     * Test that the index of another version of the trace is not loaded
+     *
+     * @throws IOException
+     *             Exceptions writing the trace
+     */
+    @Test
+    public void testStaleIndex() throws IOException {
+        FtraceOffsetIndex index = FtraceOffsetIndex.open(fIndexFile, fTraceFile);
+        fill(index);
+        index.recordEnd(NB_EVENTS);
+
+        Files.write(fTraceFile.toPath(), new byte[] { 'a', 'b' });
+        FtraceOffsetIndex loaded = FtraceOffsetIndex.open(fIndexFile, fTraceFile);
+        assertFalse(loaded.isComplete());
+        assertEquals(-1, loaded.findRank(0));
+    }
+}
@@ -0,0 +1,315 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ftrace.core.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceField;
+
+/**
+ * Reader of the ring-buffer pages of one CPU. Each page starts with a header
+ * with the timestamp of the page and the size of its data, followed by events,
+ * each with a 32-bit header of a 5-bit type/length and a 27-bit time delta.
+ * The reader decodes the headers in place in the mapped pages and only decodes
+ * the content of an event when asked to.
+ */
+final class BinaryFTraceCpuReader {
+
+    private static final int TYPE_PADDING = 29;
+    private static final int TYPE_TIME_EXTEND = 30;
+    private static final int TYPE_TIME_STAMP = 31;
+    private static final int TYPE_LEN_BITS = 5;
+    private static final int TYPE_LEN_MASK = (1 << TYPE_LEN_BITS) - 1;
+    private static final int TIME_DELTA_BITS = 27;
+    private static final int TIME_DELTA_MASK = (1 << TIME_DELTA_BITS) - 1;
+    private static final int ALIGNMENT = 4;
+
+    private final BinaryFTraceFile fFile;
+    private final int fCpu;
+    private final long fPageCount;
+    private final boolean fLittleEndian;
+
+    private @Nullable ByteBuffer fWindow = null;
+    private long fWindowIndex = -1;
+    private long fPage = -1;
+    private int fPageStart;
+    private int fDataEnd;
+    private int fNext;
+    private long fTimestamp;
+
+    private boolean fHasEvent = false;
+    private int fEventStart;
+    private int fRecordStart;
+    private int fRecordLength;
+
+    /**
+     * Constructor, the reader has no event until it is positioned
+     *
+     * @param file
+     *            the trace file
+     * @param cpu
+     *            the CPU to read
+     */
+    public BinaryFTraceCpuReader(BinaryFTraceFile file, int cpu) {
+        fFile = file;
+        fCpu = cpu;
+        fPageCount = file.getPageCount(cpu);
+        fLittleEndian = file.getByteOrder() == ByteOrder.LITTLE_ENDIAN;
+    }
+
+    /**
+     * Get the CPU of this reader
+     *
+     * @return the CPU
+     */
+    public int getCpu() {
+        return fCpu;
+    }
+
+    /**
+     * Whether the reader is positioned on an event
+     *
+     * @return true if there is a current event, false at the end of the data
+     */
+    public boolean hasEvent() {
+        return fHasEvent;
+    }
+
+    /**
+     * Get the raw timestamp of the current event, without the offset of the
+     * trace
+     *
+     * @return the timestamp
+     */
+    public long getTimestamp() {
+        return fTimestamp;
+    }
+
+    /**
+     * Get the offset of the current event in the file, which identifies it
+     *
+     * @return the offset of the header of the current event
+     */
+    public long getOffset() {
+        return fFile.getCpuOffset(fCpu) + fPage * fFile.getPageSize() + (fEventStart - fPageStart);
+    }
+
+    /**
+     * Position the reader on the first event of a page, or of the following
+     * pages if this one is empty
+     *
+     * @param page
+     *            the page
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public void seekPage(long page) throws IOException {
+        loadPage(page);
+        advance();
+    }
+
+    /**
+     * Position the reader on an event
+     *
+     * @param offset
+     *            the offset of the event in the file, from
+     *            {@link #getOffset()}
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public void seekOffset(long offset) throws IOException {
+        seekPage((offset - fFile.getCpuOffset(fCpu)) / fFile.getPageSize());
+        while (fHasEvent && getOffset() < offset) {
+            advance();
+        }
+    }
+
+    /**
+     * Position the reader on the first event at or after a timestamp. The
+     * timestamps of a CPU only go forward, so the page is found with a binary
+     * search of the page timestamps, and only this page is read.
+     *
+     * @param timestamp
+     *            the raw timestamp
+     * @param after
+     *            true to skip the events at the timestamp
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public void seekTimestamp(long timestamp, boolean after) throws IOException {
+        long low = 0;
+        long high = fPageCount - 1;
+        long page = 0;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            loadPage(mid);
+            long pageTimestamp = fTimestamp;
+            if (pageTimestamp < timestamp || (after && pageTimestamp == timestamp)) {
+                page = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        seekPage(page);
+        while (fHasEvent && (fTimestamp < timestamp || (after && fTimestamp == timestamp))) {
+            advance();
+        }
+    }
+
+    /**
+     * Get the raw timestamp of the last event of this CPU
+     *
+     * @return the timestamp, or {@link Long#MIN_VALUE} if the CPU has no
+     *         events
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public long getLastTimestamp() throws IOException {
+        for (long page = fPageCount - 1; page >= 0; page--) {
+            // The following pages are empty, so this reads only this page
+            seekPage(page);
+            if (fHasEvent) {
+                long last = fTimestamp;
+                while (advance()) {
+                    last = fTimestamp;
+                }
+                return last;
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Move to the next event
+     *
+     * @return true if there is a next event, false at the end of the data
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public boolean advance() throws IOException {
+        while (true) {
+            while (fNext + Integer.BYTES > fDataEnd) {
+                if (fPage + 1 >= fPageCount) {
+                    fHasEvent = false;
+                    return false;
+                }
+                loadPage(fPage + 1);
+            }
+            ByteBuffer window = fWindow;
+            if (window == null) {
+                fHasEvent = false;
+                return false;
+            }
+            int position = fNext;
+            int header = window.getInt(position);
+            int typeLen = fLittleEndian ? header & TYPE_LEN_MASK : header >>> TIME_DELTA_BITS;
+            long delta = fLittleEndian ? header >>> TYPE_LEN_BITS : header & TIME_DELTA_MASK;
+            int length;
+            switch (typeLen) {
+            case TYPE_PADDING:
+                if (delta == 0 || position + 2 * Integer.BYTES > fDataEnd) {
+                    // The rest of the page is empty
+                    fNext = fDataEnd;
+                } else {
+                    // Discarded event, its length is in the first word
+                    fTimestamp += delta;
+                    length = window.getInt(position + Integer.BYTES);
+                    fNext = length < 0 ? fDataEnd : position + Integer.BYTES + length;
+                }
+                continue;
+            case TYPE_TIME_EXTEND:
+                fTimestamp += ((window.getInt(position + Integer.BYTES) & 0xffffffffL) << TIME_DELTA_BITS) + delta;
+                fNext = position + 2 * Integer.BYTES;
+                continue;
+            case TYPE_TIME_STAMP:
+                fTimestamp = ((window.getInt(position + Integer.BYTES) & 0xffffffffL) << TIME_DELTA_BITS) + delta;
+                fNext = position + 2 * Integer.BYTES;
+                continue;
+            case 0:
+                // Large event, its length is in the first word
+                if (position + 2 * Integer.BYTES > fDataEnd) {
+                    fNext = fDataEnd;
+                    continue;
+                }
+                length = window.getInt(position + Integer.BYTES) - Integer.BYTES;
+                length = (length + ALIGNMENT - 1) & ~(ALIGNMENT - 1);
+                fRecordStart = position + 2 * Integer.BYTES;
+                break;
+            default:
+                length = typeLen * ALIGNMENT;
+                fRecordStart = position + Integer.BYTES;
+                break;
+            }
+            if (length < 0 || fRecordStart + length > fDataEnd) {
+                // Truncated page
+                fNext = fDataEnd;
+                continue;
+            }
+            fTimestamp += delta;
+            fEventStart = position;
+            fRecordLength = length;
+            fNext = fRecordStart + length;
+            fHasEvent = true;
+            return true;
+        }
+    }
+
+    /**
+     * Decode the current event
+     *
+     * @param timeOffset
+     *            the offset to add to the timestamp
+     * @return the field of the event, or null if the trace does not describe
+     *         its format
+     */
+    public @Nullable GenericFtraceField decode(long timeOffset) {
+        ByteBuffer window = fWindow;
+        if (!fHasEvent || window == null || fFile.getTypeOffset() + fFile.getTypeSize() > fRecordLength) {
+            return null;
+        }
+        int type = (int) BinaryFTraceEventFormat.readNumber(window, fRecordStart + fFile.getTypeOffset(), fFile.getTypeSize(), false);
+        BinaryFTraceEventFormat format = fFile.getFormat(type);
+        if (format == null) {
+            return null;
+        }
+        return format.decode(window, fRecordStart, fRecordLength, fCpu, fTimestamp + timeOffset);
+    }
+
+    /**
+     * Load a page, the reader is then before its first event, with the
+     * timestamp of the page
+     */
+    private void loadPage(long page) throws IOException {
+        fHasEvent = false;
+        fPage = page;
+        if (page >= fPageCount) {
+            fNext = 0;
+            fDataEnd = 0;
+            return;
+        }
+        long windowIndex = page / fFile.getPagesPerWindow();
+        ByteBuffer window = fWindow;
+        if (window == null || windowIndex != fWindowIndex) {
+            window = fFile.getWindow(fCpu, (int) windowIndex);
+            fWindow = window;
+            fWindowIndex = windowIndex;
+        }
+        fPageStart = (int) ((page % fFile.getPagesPerWindow()) * fFile.getPageSize());
+        fTimestamp = fFile.readPageTimestamp(window, fPageStart);
+        fNext = fPageStart + fFile.getDataOffset();
+        fDataEnd = fNext + fFile.readPageDataSize(window, fPageStart);
+    }
+}
@@ -0,0 +1,467 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ftrace.core.binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceField;
+
+/**
+ * Layout of an event of a trace-cmd binary trace, parsed from the format
+ * description embedded in the trace, like the ones of
+ * <code>/sys/kernel/tracing/events/&lt;system&gt;/&lt;event&gt;/format</code>:
+ *
+ * <pre>
+ * name: sched_switch
+ * ID: 316
+ * format:
+ *     field:unsigned short common_type;  offset:0;  size:2;  signed:0;
+ *     ...
+ *     field:char prev_comm[16];  offset:8;  size:16;  signed:1;
+ * </pre>
+ *
+ * The format decodes the raw records of its event into
+ * {@link GenericFtraceField}, with the same names and values as the text
+ * parser.
+ */
+public final class BinaryFTraceEventFormat {
+
+    private static final String NAME_PREFIX = "name:"; //$NON-NLS-1$
+    private static final String ID_PREFIX = "ID:"; //$NON-NLS-1$
+    private static final String FIELD_PREFIX = "field:"; //$NON-NLS-1$
+    private static final String OFFSET_PREFIX = "offset:"; //$NON-NLS-1$
+    private static final String SIZE_PREFIX = "size:"; //$NON-NLS-1$
+    private static final String SIGNED_PREFIX = "signed:"; //$NON-NLS-1$
+    private static final String COMMON_PREFIX = "common_"; //$NON-NLS-1$
+    private static final String COMMON_PID = "common_pid"; //$NON-NLS-1$
+    private static final String COMMON_TYPE = "common_type"; //$NON-NLS-1$
+    private static final String DATA_LOC = "__data_loc"; //$NON-NLS-1$
+    private static final String REL_LOC = "__rel_loc"; //$NON-NLS-1$
+    private static final String CHAR = "char"; //$NON-NLS-1$
+
+    /*
+     * Same rename as the text parser, so that the analyses find the pid of the
+     * parent in fork events
+     */
+    private static final String SCHED_PROCESS_FORK = "sched_process_fork"; //$NON-NLS-1$
+    private static final String PARENT_PID = "parent_pid"; //$NON-NLS-1$
+    private static final String PID = "pid"; //$NON-NLS-1$
+
+    private enum Kind {
+        NUMBER, STRING, ARRAY
+    }
+
+    private enum Location {
+        FIXED, DATA_LOC, REL_LOC
+    }
+
+    /**
+     * A field of the format
+     */
+    static final class Field {
+        private final String fName;
+        private final int fOffset;
+        private final int fSize;
+        private final boolean fSigned;
+        private final Kind fKind;
+        private final Location fLocation;
+        private final int fElementSize;
+
+        private Field(String name, int offset, int size, boolean signed, Kind kind, Location location, int elementSize) {
+            fName = name;
+            fOffset = offset;
+            fSize = size;
+            fSigned = signed;
+            fKind = kind;
+            fLocation = location;
+            fElementSize = elementSize;
+        }
+
+        /**
+         * Get the offset of the field in the record
+         *
+         * @return the offset
+         */
+        int getOffset() {
+            return fOffset;
+        }
+
+        /**
+         * Get the size of the field
+         *
+         * @return the size, in bytes
+         */
+        int getSize() {
+            return fSize;
+        }
+
+        /**
+         * Read the value of a numeric field
+         *
+         * @param buffer
+         *            the buffer, in the byte order of the trace
+         * @param start
+         *            the position of the record in the buffer
+         * @return the value
+         */
+        long readNumber(ByteBuffer buffer, int start) {
+            return BinaryFTraceEventFormat.readNumber(buffer, start + fOffset, fSize, fSigned);
+        }
+
+        private @Nullable Object read(ByteBuffer buffer, int start, int length) {
+            if (fOffset + fSize > length) {
+                return null;
+            }
+            int position = fOffset;
+            int size = fSize;
+            if (fLocation != Location.FIXED) {
+                int location = buffer.getInt(start + fOffset);
+                position = location & 0xffff;
+                size = location >>> 16;
+                if (fLocation == Location.REL_LOC) {
+                    position += fOffset + fSize;
+                }
+            } else if (size == 0) {
+                // Flexible array at the end of the record
+                size = length - position;
+            }
+            size = Math.min(size, length - position);
+            if (position < 0 || size < 0) {
+                return null;
+            }
+            switch (fKind) {
+            case NUMBER:
+                return BinaryFTraceEventFormat.readNumber(buffer, start + position, size, fSigned);
+            case STRING:
+                return readString(buffer, start + position, size);
+            case ARRAY:
+                long[] array = new long[size / fElementSize];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = BinaryFTraceEventFormat.readNumber(buffer, start + position + i * fElementSize, fElementSize, fSigned);
+                }
+                return array;
+            default:
+                return null;
+            }
+        }
+    }
+
+    private final String fName;
+    private final String fEventName;
+    private final int fId;
+    private final List<Field> fFields;
+    private final List<String> fKeys;
+    private final @Nullable Field fPid;
+    private final @Nullable Field fType;
+
+    private BinaryFTraceEventFormat(String name, int id, List<Field> fields, @Nullable Field pid, @Nullable Field type) {
+        fName = name;
+        fEventName = GenericFtraceField.eventNameRewrite(name, null);
+        fId = id;
+        fPid = pid;
+        fType = type;
+        fFields = new ArrayList<>();
+        fKeys = new ArrayList<>();
+        for (Field field : fields) {
+            if (!field.fName.startsWith(COMMON_PREFIX)) {
+                fFields.add(field);
+                fKeys.add(name.equals(SCHED_PROCESS_FORK) && field.fName.equals(PARENT_PID) ? PID : field.fName);
+            }
+        }
+    }
+
+    /**
+     * Parse the format description of an event
+     *
+     * @param description
+     *            the format description
+     * @param longSize
+     *            the size of a long in the traced kernel
+     * @return the format, or null if the description has no name or ID
+     */
+    public static @Nullable BinaryFTraceEventFormat parse(String description, int longSize) {
+        String name = null;
+        int id = -1;
+        List<Field> fields = new ArrayList<>();
+        Field pid = null;
+        Field type = null;
+        for (String line : description.split("\n")) { //$NON-NLS-1$
+            line = line.trim();
+            if (line.startsWith(NAME_PREFIX)) {
+                name = line.substring(NAME_PREFIX.length()).trim();
+            } else if (line.startsWith(ID_PREFIX)) {
+                try {
+                    id = Integer.parseInt(line.substring(ID_PREFIX.length()).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            } else if (line.startsWith(FIELD_PREFIX)) {
+                Field field = parseField(line, longSize, false);
+                if (field != null) {
+                    fields.add(field);
+                    if (field.fName.equals(COMMON_PID)) {
+                        pid = field;
+                    } else if (field.fName.equals(COMMON_TYPE)) {
+                        type = field;
+                    }
+                }
+            }
+        }
+        if (name == null || id < 0) {
+            return null;
+        }
+        return new BinaryFTraceEventFormat(name, id, fields, pid, type);
+    }
+
+    /**
+     * Find a field in a format description, used for the headers of the
+     * trace, which are described like events
+     *
+     * @param description
+     *            the format description
+     * @param name
+     *            the name of the field
+     * @return the field, or null if it is not described
+     */
+    static @Nullable Field findField(String description, String name) {
+        for (String line : description.split("\n")) { //$NON-NLS-1$
+            line = line.trim();
+            if (line.startsWith(FIELD_PREFIX)) {
+                Field field = parseField(line, Long.BYTES, true);
+                if (field != null && field.fName.equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse a field line, like
+     * <code>field:__data_loc char[] name;  offset:8;  size:4;  signed:1;</code>,
+     * only keeping the offset and size if layoutOnly is set
+     */
+    private static @Nullable Field parseField(String line, int longSize, boolean layoutOnly) {
+        String[] parts = line.split(";"); //$NON-NLS-1$
+        String declaration = parts[0].substring(FIELD_PREFIX.length()).trim();
+        int offset = -1;
+        int size = -1;
+        boolean signed = false;
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].trim();
+            try {
+                if (part.startsWith(OFFSET_PREFIX)) {
+                    offset = Integer.parseInt(part.substring(OFFSET_PREFIX.length()).trim());
+                } else if (part.startsWith(SIZE_PREFIX)) {
+                    size = Integer.parseInt(part.substring(SIZE_PREFIX.length()).trim());
+                } else if (part.startsWith(SIGNED_PREFIX)) {
+                    signed = Integer.parseInt(part.substring(SIGNED_PREFIX.length()).trim()) != 0;
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        int nameStart = declaration.lastIndexOf(' ');
+        if (offset < 0 || size < 0 || nameStart < 0) {
+            return null;
+        }
+        String type = declaration.substring(0, nameStart).trim();
+        String name = declaration.substring(nameStart + 1);
+        if (layoutOnly) {
+            return new Field(name, offset, size, signed, Kind.NUMBER, Location.FIXED, size);
+        }
+        Location location = Location.FIXED;
+        if (type.startsWith(DATA_LOC)) {
+            location = Location.DATA_LOC;
+            type = type.substring(DATA_LOC.length()).trim();
+        } else if (type.startsWith(REL_LOC)) {
+            location = Location.REL_LOC;
+            type = type.substring(REL_LOC.length()).trim();
+        }
+        int count = -1;
+        int bracket = name.indexOf('[');
+        if (bracket >= 0) {
+            try {
+                count = Integer.parseInt(name.substring(bracket + 1, name.indexOf(']', bracket)).trim());
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                count = 0;
+            }
+            name = name.substring(0, bracket);
+        }
+        int typeBracket = type.indexOf('[');
+        if (typeBracket >= 0) {
+            count = 0;
+            type = type.substring(0, typeBracket).trim();
+        }
+        if (count < 0 && location == Location.FIXED) {
+            if (size != 1 && size != 2 && size != 4 && size != 8) {
+                return null;
+            }
+            return new Field(name, offset, size, signed, Kind.NUMBER, location, size);
+        }
+        if (isChar(type)) {
+            return new Field(name, offset, size, signed, Kind.STRING, location, 1);
+        }
+        int elementSize = (count > 0 && location == Location.FIXED) ? size / count : getTypeSize(type, longSize);
+        if (elementSize != 1 && elementSize != 2 && elementSize != 4 && elementSize != 8) {
+            return null;
+        }
+        return new Field(name, offset, size, signed, Kind.ARRAY, location, elementSize);
+    }
+
+    private static boolean isChar(String type) {
+        String baseType = type.replace("const ", "").replace("signed ", "").trim(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        return baseType.equals(CHAR) && !type.contains("unsigned"); //$NON-NLS-1$
+    }
+
+    private static int getTypeSize(String type, int longSize) {
+        String baseType = type.replace("const ", "").replace("unsigned ", "").replace("signed ", "").trim(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+        switch (baseType) {
+        case "char": //$NON-NLS-1$
+        case "u8": //$NON-NLS-1$
+        case "s8": //$NON-NLS-1$
+        case "__u8": //$NON-NLS-1$
+        case "bool": //$NON-NLS-1$
+            return 1;
+        case "short": //$NON-NLS-1$
+        case "u16": //$NON-NLS-1$
+        case "s16": //$NON-NLS-1$
+        case "__u16": //$NON-NLS-1$
+            return 2;
+        case "int": //$NON-NLS-1$
+        case "u32": //$NON-NLS-1$
+        case "s32": //$NON-NLS-1$
+        case "__u32": //$NON-NLS-1$
+        case "pid_t": //$NON-NLS-1$
+            return 4;
+        case "long": //$NON-NLS-1$
+            return longSize;
+        case "long long": //$NON-NLS-1$
+        case "u64": //$NON-NLS-1$
+        case "s64": //$NON-NLS-1$
+        case "__u64": //$NON-NLS-1$
+            return 8;
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Read an integer of the trace
+     *
+     * @param buffer
+     *            the buffer, in the byte order of the trace
+     * @param position
+     *            the position of the integer in the buffer
+     * @param size
+     *            the size of the integer, 1, 2, 4 or 8 bytes
+     * @param signed
+     *            whether to extend the sign of the integer
+     * @return the value
+     */
+    static long readNumber(ByteBuffer buffer, int position, int size, boolean signed) {
+        switch (size) {
+        case 1:
+            byte b = buffer.get(position);
+            return signed ? b : b & 0xffL;
+        case 2:
+            short s = buffer.getShort(position);
+            return signed ? s : s & 0xffffL;
+        case 4:
+            int i = buffer.getInt(position);
+            return signed ? i : i & 0xffffffffL;
+        case 8:
+            return buffer.getLong(position);
+        default:
+            return 0;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int position, int maxSize) {
+        int length = 0;
+        while (length < maxSize && buffer.get(position + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the name of the event, as written in the format description
+     *
+     * @return the name
+     */
+    public String getName() {
+        return fName;
+    }
+
+    /**
+     * Get the ID of the event, the value of the common_type field of its
+     * records
+     *
+     * @return the ID
+     */
+    public int getId() {
+        return fId;
+    }
+
+    /**
+     * Get the common_type field, which gives the format of the records
+     *
+     * @return the common_type field, or null if the format does not describe
+     *         it
+     */
+    @Nullable Field getTypeField() {
+        return fType;
+    }
+
+    /**
+     * Decode a record of this event
+     *
+     * @param buffer
+     *            the buffer containing the record, in the byte order of the
+     *            trace
+     * @param start
+     *            the position of the record in the buffer
+     * @param length
+     *            the length of the record
+     * @param cpu
+     *            the CPU of the record
+     * @param timestamp
+     *            the timestamp of the record, in nanoseconds
+     * @return the field of the event
+     */
+    public GenericFtraceField decode(ByteBuffer buffer, int start, int length, int cpu, long timestamp) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < fFields.size(); i++) {
+            Object value = fFields.get(i).read(buffer, start, length);
+            if (value != null) {
+                fields.put(fKeys.get(i), value);
+            }
+        }
+        Field pidField = fPid;
+        Integer pid = null;
+        if (pidField != null && pidField.fOffset + pidField.fSize <= length) {
+            pid = (int) pidField.readNumber(buffer, start);
+        }
+        return new GenericFtraceField(fEventName, cpu, timestamp, pid, pid, fields);
+    }
+}
@@ -0,0 +1,536 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ftrace.core.binary;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A trace-cmd binary trace (trace.dat), version 6 of the format.
+ *
+ * The headers of the file, with the page layout and the formats of the events,
+ * are read when the file is opened. The per-CPU ring-buffer pages that follow
+ * are memory-mapped, in windows of many pages, and read by
+ * {@link BinaryFTraceIterator}.
+ */
+public final class BinaryFTraceFile implements AutoCloseable {
+
+    /**
+     * trace-cmd magic number
+     */
+    public static final byte[] MAGIC = { 0x17, 0x08, 0x44, 't', 'r', 'a', 'c', 'i', 'n', 'g' };
+
+    /**
+     * Version of the format that can be read
+     */
+    public static final int SUPPORTED_VERSION = 6;
+
+    private static final String HEADER_PAGE = "header_page"; //$NON-NLS-1$
+    private static final String HEADER_EVENT = "header_event"; //$NON-NLS-1$
+    private static final String OPTIONS = "options"; //$NON-NLS-1$
+    private static final String FLYRECORD = "flyrecord"; //$NON-NLS-1$
+    private static final int SECTION_LABEL_LENGTH = 10;
+
+    private static final int OPTION_DONE = 0;
+    private static final int OPTION_TRACECLOCK = 4;
+    private static final int OPTION_OFFSET = 7;
+
+    private static final String PAGE_TIMESTAMP = "timestamp"; //$NON-NLS-1$
+    private static final String PAGE_COMMIT = "commit"; //$NON-NLS-1$
+    private static final String PAGE_DATA = "data"; //$NON-NLS-1$
+
+    /**
+     * Maximum size of a memory-mapped window of pages
+     */
+    private static final long MAX_WINDOW_SIZE = 1L << 28;
+
+    /**
+     * The upper bits of the commit field of a page are flags for missed events
+     */
+    private static final long COMMIT_MASK = (1 << 27) - 1;
+
+    private final File fFile;
+    private final FileChannel fChannel;
+    private final ByteOrder fOrder;
+    private final int fLongSize;
+    private final int fPageSize;
+    private final Map<Integer, BinaryFTraceEventFormat> fFormats;
+    private final int fTypeOffset;
+    private final int fTypeSize;
+    private final int fTimestampOffset;
+    private final int fCommitOffset;
+    private final int fCommitSize;
+    private final int fDataOffset;
+    private final long[] fCpuOffsets;
+    private final long[] fCpuSizes;
+    private final long fTimeOffset;
+    private final @Nullable String fTraceClock;
+    private final long fPagesPerWindow;
+    private final ByteBuffer[][] fWindows;
+
+    private BinaryFTraceFile(File file, FileChannel channel, Header header) {
+        fFile = file;
+        fChannel = channel;
+        fOrder = header.fOrder;
+        fLongSize = header.fLongSize;
+        fPageSize = header.fPageSize;
+        fFormats = header.fFormats;
+        fTypeOffset = header.fTypeOffset;
+        fTypeSize = header.fTypeSize;
+        fTimestampOffset = header.fTimestampOffset;
+        fCommitOffset = header.fCommitOffset;
+        fCommitSize = header.fCommitSize;
+        fDataOffset = header.fDataOffset;
+        fCpuOffsets = header.fCpuOffsets;
+        fCpuSizes = header.fCpuSizes;
+        fTimeOffset = header.fTimeOffset;
+        fTraceClock = header.fTraceClock;
+        fPagesPerWindow = Math.max(1, MAX_WINDOW_SIZE / fPageSize);
+        fWindows = new ByteBuffer[fCpuOffsets.length][];
+        for (int cpu = 0; cpu < fCpuOffsets.length; cpu++) {
+            fWindows[cpu] = new ByteBuffer[(int) ((getPageCount(cpu) + fPagesPerWindow - 1) / fPagesPerWindow)];
+        }
+    }
+
+    /**
+     * Open a trace-cmd binary trace and read its headers
+     *
+     * @param file
+     *            the trace file
+     * @return the opened file
+     * @throws IOException
+     *             Exceptions reading the file, or if it is not a trace-cmd
+     *             trace of a supported version
+     */
+    public static BinaryFTraceFile open(File file) throws IOException {
+        Header header;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            header = new Header(in);
+        } catch (EOFException e) {
+            throw new IOException("Truncated trace-cmd file " + file, e); //$NON-NLS-1$
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        for (int cpu = 0; cpu < header.fCpuOffsets.length; cpu++) {
+            if (header.fCpuOffsets[cpu] < 0 || header.fCpuSizes[cpu] < 0 || header.fCpuOffsets[cpu] + header.fCpuSizes[cpu] > channel.size()) {
+                channel.close();
+                throw new IOException("Data of CPU " + cpu + " is outside of the file " + file); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+        return new BinaryFTraceFile(file, channel, header);
+    }
+
+    @Override
+    public void close() throws IOException {
+        fChannel.close();
+    }
+
+    /**
+     * Get the trace file
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return fFile;
+    }
+
+    /**
+     * Get the number of CPUs of the trace
+     *
+     * @return the number of CPUs
+     */
+    public int getCpuCount() {
+        return fCpuOffsets.length;
+    }
+
+    /**
+     * Get the size of the ring-buffer pages
+     *
+     * @return the page size, in bytes
+     */
+    public int getPageSize() {
+        return fPageSize;
+    }
+
+    /**
+     * Get the byte order of the traced machine
+     *
+     * @return the byte order
+     */
+    public ByteOrder getByteOrder() {
+        return fOrder;
+    }
+
+    /**
+     * Get the size of a long in the traced kernel
+     *
+     * @return the size of a long, in bytes
+     */
+    public int getLongSize() {
+        return fLongSize;
+    }
+
+    /**
+     * Get the offset to add to the timestamps of the events, given by the
+     * trace-cmd options
+     *
+     * @return the offset in nanoseconds
+     */
+    public long getTimeOffset() {
+        return fTimeOffset;
+    }
+
+    /**
+     * Get the clock used by the trace
+     *
+     * @return the name of the clock, or null if the trace does not say
+     */
+    public @Nullable String getTraceClock() {
+        return fTraceClock;
+    }
+
+    /**
+     * Get the format of an event
+     *
+     * @param id
+     *            the ID of the event, its common_type field
+     * @return the format of the event, or null if the trace does not describe
+     *         it
+     */
+    public @Nullable BinaryFTraceEventFormat getFormat(int id) {
+        return fFormats.get(id);
+    }
+
+    /**
+     * Get the number of event formats
+     *
+     * @return the number of formats
+     */
+    public int getFormatCount() {
+        return fFormats.size();
+    }
+
+    /**
+     * Get the CPU whose data contains an offset of the file
+     *
+     * @param offset
+     *            the offset in the file
+     * @return the CPU, or -1 if the offset is not in the data of a CPU
+     */
+    public int getCpu(long offset) {
+        for (int cpu = 0; cpu < fCpuOffsets.length; cpu++) {
+            if (offset >= fCpuOffsets[cpu] && offset < fCpuOffsets[cpu] + fCpuSizes[cpu]) {
+                return cpu;
+            }
+        }
+        return -1;
+    }
+
+    long getCpuOffset(int cpu) {
+        return fCpuOffsets[cpu];
+    }
+
+    long getPageCount(int cpu) {
+        return fCpuSizes[cpu] / fPageSize;
+    }
+
+    long getPagesPerWindow() {
+        return fPagesPerWindow;
+    }
+
+    int getTypeOffset() {
+        return fTypeOffset;
+    }
+
+    int getTypeSize() {
+        return fTypeSize;
+    }
+
+    int getDataOffset() {
+        return fDataOffset;
+    }
+
+    /**
+     * Get a window of pages of a CPU, mapping it the first time
+     *
+     * @param cpu
+     *            the CPU
+     * @param window
+     *            the index of the window, the page divided by
+     *            {@link #getPagesPerWindow()}
+     * @return a buffer of the window, in the byte order of the trace
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    synchronized ByteBuffer getWindow(int cpu, int window) throws IOException {
+        ByteBuffer buffer = fWindows[cpu][window];
+        if (buffer == null) {
+            long start = window * fPagesPerWindow * fPageSize;
+            long size = Math.min(fPagesPerWindow, getPageCount(cpu) - window * fPagesPerWindow) * fPageSize;
+            buffer = fChannel.map(FileChannel.MapMode.READ_ONLY, fCpuOffsets[cpu] + start, size);
+            fWindows[cpu][window] = buffer;
+        }
+        // Each reader needs its own position and byte order
+        return buffer.duplicate().order(fOrder);
+    }
+
+    /**
+     * Headers of the file, read in the order in which they are written
+     */
+    private static final class Header {
+        private final ByteOrder fOrder;
+        private final int fLongSize;
+        private final int fPageSize;
+        private final Map<Integer, BinaryFTraceEventFormat> fFormats = new HashMap<>();
+        private int fTypeOffset = 0;
+        private int fTypeSize = Short.BYTES;
+        private int fTimestampOffset = 0;
+        private int fCommitOffset = Long.BYTES;
+        private int fCommitSize;
+        private int fDataOffset;
+        private long[] fCpuOffsets;
+        private long[] fCpuSizes;
+        private long fTimeOffset = 0;
+        private @Nullable String fTraceClock = null;
+
+        public Header(DataInputStream in) throws IOException {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new IOException("Not a trace-cmd file"); //$NON-NLS-1$
+            }
+            String version = readString(in);
+            if (!version.equals(String.valueOf(SUPPORTED_VERSION))) {
+                throw new IOException("Unsupported trace-cmd file version " + version); //$NON-NLS-1$
+            }
+            fOrder = in.readByte() == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            fLongSize = in.readUnsignedByte();
+            fPageSize = readInt(in);
+            if (fPageSize <= 0) {
+                throw new IOException("Invalid page size " + fPageSize); //$NON-NLS-1$
+            }
+            fCommitSize = fLongSize;
+            fDataOffset = Long.BYTES + fLongSize;
+
+            readHeaderPage(in);
+            expectLabel(in, HEADER_EVENT);
+            skipFully(in, readLong(in));
+
+            int nbFtraceFormats = readInt(in);
+            for (int i = 0; i < nbFtraceFormats; i++) {
+                readFormat(in);
+            }
+            int nbSystems = readInt(in);
+            for (int i = 0; i < nbSystems; i++) {
+                readString(in);
+                int nbFormats = readInt(in);
+                for (int j = 0; j < nbFormats; j++) {
+                    readFormat(in);
+                }
+            }
+
+            // kallsyms, printk formats and saved command lines
+            skipFully(in, readInt(in) & 0xffffffffL);
+            skipFully(in, readInt(in) & 0xffffffffL);
+            skipFully(in, readLong(in));
+
+            int nbCpus = readInt(in);
+            String section = readSectionLabel(in);
+            if (section.equals(OPTIONS)) {
+                readOptions(in);
+                section = readSectionLabel(in);
+            }
+            if (!section.equals(FLYRECORD)) {
+                throw new IOException("Unsupported trace-cmd data section " + section); //$NON-NLS-1$
+            }
+            fCpuOffsets = new long[nbCpus];
+            fCpuSizes = new long[nbCpus];
+            for (int cpu = 0; cpu < nbCpus; cpu++) {
+                fCpuOffsets[cpu] = readLong(in);
+                fCpuSizes[cpu] = readLong(in);
+            }
+        }
+
+        private void readHeaderPage(DataInputStream in) throws IOException {
+            expectLabel(in, HEADER_PAGE);
+            String description = new String(readBytes(in, readLong(in)), StandardCharsets.UTF_8);
+            BinaryFTraceEventFormat.Field timestamp = BinaryFTraceEventFormat.findField(description, PAGE_TIMESTAMP);
+            if (timestamp != null) {
+                fTimestampOffset = timestamp.getOffset();
+            }
+            BinaryFTraceEventFormat.Field commit = BinaryFTraceEventFormat.findField(description, PAGE_COMMIT);
+            if (commit != null) {
+                fCommitOffset = commit.getOffset();
+                fCommitSize = commit.getSize();
+            }
+            BinaryFTraceEventFormat.Field data = BinaryFTraceEventFormat.findField(description, PAGE_DATA);
+            if (data != null) {
+                fDataOffset = data.getOffset();
+            }
+        }
+
+        private void readFormat(DataInputStream in) throws IOException {
+            String description = new String(readBytes(in, readLong(in)), StandardCharsets.UTF_8);
+            BinaryFTraceEventFormat format = BinaryFTraceEventFormat.parse(description, fLongSize);
+            if (format != null) {
+                fFormats.put(format.getId(), format);
+                BinaryFTraceEventFormat.Field type = format.getTypeField();
+                if (type != null) {
+                    fTypeOffset = type.getOffset();
+                    fTypeSize = type.getSize();
+                }
+            }
+        }
+
+        private void readOptions(DataInputStream in) throws IOException {
+            int option = readShort(in);
+            while (option != OPTION_DONE) {
+                byte[] data = readBytes(in, readInt(in) & 0xffffffffL);
+                switch (option) {
+                case OPTION_OFFSET:
+                    try {
+                        fTimeOffset += Long.decode(toString(data));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Invalid time offset option " + toString(data), e); //$NON-NLS-1$
+                    }
+                    break;
+                case OPTION_TRACECLOCK:
+                    // The clocks available, the one in use is in brackets
+                    String clocks = toString(data);
+                    int start = clocks.indexOf('[');
+                    int end = clocks.indexOf(']', start);
+                    fTraceClock = (start >= 0 && end > start) ? clocks.substring(start + 1, end) : clocks;
+                    break;
+                default:
+                    // Options without effect on the events
+                    break;
+                }
+                option = readShort(in);
+            }
+        }
+
+        private int readShort(DataInputStream in) throws IOException {
+            short value = in.readShort();
+            return (fOrder == ByteOrder.LITTLE_ENDIAN ? Short.reverseBytes(value) : value) & 0xffff;
+        }
+
+        private int readInt(DataInputStream in) throws IOException {
+            int value = in.readInt();
+            return fOrder == ByteOrder.LITTLE_ENDIAN ? Integer.reverseBytes(value) : value;
+        }
+
+        private long readLong(DataInputStream in) throws IOException {
+            long value = in.readLong();
+            return fOrder == ByteOrder.LITTLE_ENDIAN ? Long.reverseBytes(value) : value;
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte b = in.readByte();
+            while (b != 0) {
+                bytes.write(b);
+                b = in.readByte();
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private static String readSectionLabel(DataInputStream in) throws IOException {
+            byte[] label = new byte[SECTION_LABEL_LENGTH];
+            in.readFully(label);
+            return toString(label).trim();
+        }
+
+        private static void expectLabel(DataInputStream in, String label) throws IOException {
+            String read = readString(in);
+            if (!read.equals(label)) {
+                throw new IOException("Expected " + label + " but found " + read); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+
+        private static byte[] readBytes(DataInputStream in, long size) throws IOException {
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid section size " + size); //$NON-NLS-1$
+            }
+            byte[] bytes = new byte[(int) size];
+            in.readFully(bytes);
+            return bytes;
+        }
+
+        private static void skipFully(DataInputStream in, long size) throws IOException {
+            if (size < 0) {
+                throw new IOException("Invalid section size " + size); //$NON-NLS-1$
+            }
+            long remaining = size;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    // Either the end of the file or a stream that cannot skip
+                    in.readByte();
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+
+        /**
+         * Convert a null-terminated string of an option or section label
+         */
+        private static String toString(byte[] data) {
+            int length = 0;
+            while (length < data.length && data[length] != 0) {
+                length++;
+            }
+            return new String(data, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Get the timestamp of a page, the base of the time deltas of its events
+     *
+     * @param buffer
+     *            the window of the page
+     * @param pageStart
+     *            the position of the page in the window
+     * @return the page timestamp
+     */
+    long readPageTimestamp(ByteBuffer buffer, int pageStart) {
+        return buffer.getLong(pageStart + fTimestampOffset);
+    }
+
+    /**
+     * Get the size of the data of a page, from its commit field
+     *
+     * @param buffer
+     *            the window of the page
+     * @param pageStart
+     *            the position of the page in the window
+     * @return the size of the data in the page
+     */
+    int readPageDataSize(ByteBuffer buffer, int pageStart) {
+        int commit = (int) (BinaryFTraceEventFormat.readNumber(buffer, pageStart + fCommitOffset, fCommitSize, false) & COMMIT_MASK);
+        return Math.min(commit, fPageSize - fDataOffset);
+    }
+}
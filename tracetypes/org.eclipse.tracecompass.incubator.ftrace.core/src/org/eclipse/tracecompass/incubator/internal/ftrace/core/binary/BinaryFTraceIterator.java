@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ftrace.core.binary;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceField;
+
+/**
+ * Iterator over the events of a trace-cmd binary trace, merging the events of
+ * the CPUs by timestamp. Events with the same timestamp are read in the order
+ * of their CPU.
+ *
+ * The location of an event is its offset in the file. Since the timestamps of
+ * each CPU only go forward and the ties are broken by CPU, the position of
+ * the other CPUs when this event is read is found from its timestamp alone, so
+ * seeking to a location gives exactly the same events as reading the trace from
+ * the start.
+ */
+public final class BinaryFTraceIterator {
+
+    /**
+     * Location after the last event
+     */
+    public static final long END_LOCATION = Long.MAX_VALUE;
+
+    private static final Comparator<BinaryFTraceCpuReader> COMPARATOR = Comparator.comparingLong(BinaryFTraceCpuReader::getTimestamp)
+            .thenComparingInt(BinaryFTraceCpuReader::getCpu);
+
+    private final BinaryFTraceFile fFile;
+    private final BinaryFTraceCpuReader[] fReaders;
+    private final PriorityQueue<BinaryFTraceCpuReader> fQueue;
+
+    /**
+     * Constructor, the iterator is positioned on the first event
+     *
+     * @param file
+     *            the trace file
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public BinaryFTraceIterator(BinaryFTraceFile file) throws IOException {
+        fFile = file;
+        fReaders = new BinaryFTraceCpuReader[file.getCpuCount()];
+        for (int cpu = 0; cpu < fReaders.length; cpu++) {
+            fReaders[cpu] = new BinaryFTraceCpuReader(file, cpu);
+        }
+        fQueue = new PriorityQueue<>(Math.max(1, fReaders.length), COMPARATOR);
+        seekStart();
+    }
+
+    /**
+     * Position the iterator on the first event
+     *
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public void seekStart() throws IOException {
+        for (BinaryFTraceCpuReader reader : fReaders) {
+            reader.seekPage(0);
+        }
+        fillQueue();
+    }
+
+    /**
+     * Position the iterator on an event
+     *
+     * @param location
+     *            the location of the event, from {@link #getLocation()}
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public void seek(long location) throws IOException {
+        int cpu = fFile.getCpu(location);
+        if (cpu < 0) {
+            fQueue.clear();
+            return;
+        }
+        BinaryFTraceCpuReader reader = fReaders[cpu];
+        reader.seekOffset(location);
+        long timestamp = reader.hasEvent() ? reader.getTimestamp() : Long.MAX_VALUE;
+        for (BinaryFTraceCpuReader other : fReaders) {
+            if (other != reader) {
+                // Events of the previous CPUs at the same timestamp were read
+                other.seekTimestamp(timestamp, other.getCpu() < cpu);
+            }
+        }
+        fillQueue();
+    }
+
+    /**
+     * Position the iterator on the first event at or after a timestamp
+     *
+     * @param timestamp
+     *            the timestamp, in nanoseconds
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public void seekTimestamp(long timestamp) throws IOException {
+        long rawTimestamp = timestamp - fFile.getTimeOffset();
+        for (BinaryFTraceCpuReader reader : fReaders) {
+            reader.seekTimestamp(rawTimestamp, false);
+        }
+        fillQueue();
+    }
+
+    /**
+     * Get the location of the current event
+     *
+     * @return the location, or {@link #END_LOCATION} after the last event
+     */
+    public long getLocation() {
+        BinaryFTraceCpuReader reader = fQueue.peek();
+        return reader == null ? END_LOCATION : reader.getOffset();
+    }
+
+    /**
+     * Get the timestamp of the current event
+     *
+     * @return the timestamp in nanoseconds, or {@link Long#MAX_VALUE} after the
+     *         last event
+     */
+    public long getTimestamp() {
+        BinaryFTraceCpuReader reader = fQueue.peek();
+        return reader == null ? Long.MAX_VALUE : reader.getTimestamp() + fFile.getTimeOffset();
+    }
+
+    /**
+     * Read the current event and move to the next one. Events whose format is
+     * not in the trace are skipped.
+     *
+     * @return the field of the event, or null after the last event
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public @Nullable GenericFtraceField next() throws IOException {
+        BinaryFTraceCpuReader reader = fQueue.poll();
+        while (reader != null) {
+            GenericFtraceField field = reader.decode(fFile.getTimeOffset());
+            if (reader.advance()) {
+                fQueue.add(reader);
+            }
+            if (field != null) {
+                return field;
+            }
+            reader = fQueue.poll();
+        }
+        return null;
+    }
+
+    /**
+     * Get the timestamps of the first and last events of the trace. This
+     * moves the iterator to the first event.
+     *
+     * @return the first and last timestamps in nanoseconds, or null if the
+     *         trace has no events
+     * @throws IOException
+     *             Exceptions mapping the file
+     */
+    public long @Nullable [] getTimeRange() throws IOException {
+        long end = Long.MIN_VALUE;
+        for (BinaryFTraceCpuReader reader : fReaders) {
+            end = Math.max(end, reader.getLastTimestamp());
+        }
+        seekStart();
+        if (fQueue.isEmpty()) {
+            return null;
+        }
+        return new long[] { getTimestamp(), end + fFile.getTimeOffset() };
+    }
+
+    private void fillQueue() {
+        fQueue.clear();
+        for (BinaryFTraceCpuReader reader : fReaders) {
+            if (reader.hasEvent()) {
+                fQueue.add(reader);
+            }
+        }
+    }
+}
@@ -22,8 +22,6 @@ import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Ftrace field class
@@ -37,11 +35,6 @@ import java.util.regex.Pattern;
 @NonNullByDefault
 public class GenericFtraceField {
 
-    private static final Pattern KEYVAL_PATTERN = Pattern.compile("(?<key>[^\\s=\\[\\],]+)(=|:)\\s*(?<val>[^\\s=\\[\\],]+)"); //$NON-NLS-1$
-    private static final String KEYVAL_KEY_GROUP = "key"; //$NON-NLS-1$
-    private static final String KEYVAL_VAL_GROUP = "val"; //$NON-NLS-1$
-
-    private static final double SECONDS_TO_NANO = 1000000000.0;
     private static final Map<Character, @NonNull Long> PREV_STATE_LUT;
 
     static {
@@ -96,68 +89,40 @@ public class GenericFtraceField {
      * @return An event field
      */
     public static @Nullable GenericFtraceField parseLine(String line) {
-        Matcher matcher = IGenericFtraceConstants.FTRACE_PATTERN.matcher(line);
-        if (matcher.matches()) {
-            Integer pid = Integer.parseInt(matcher.group(IGenericFtraceConstants.FTRACE_PID_GROUP));
+        GenericFtraceLineScanner scanner = new GenericFtraceLineScanner();
+        if (scanner.scan(line)) {
+            Integer pid = scanner.getPid();
             Integer tid = pid;
-            Integer cpu = Integer.parseInt(matcher.group(IGenericFtraceConstants.FTRACE_CPU_GROUP));
-            Double timestampInSec = Double.parseDouble(matcher.group(IGenericFtraceConstants.FTRACE_TIMESTAMP_GROUP));
-            Long timestampInNano = (long) (timestampInSec * SECONDS_TO_NANO);
-
-            String name = matcher.group(IGenericFtraceConstants.FTRACE_NAME_GROUP);
-            name = name.trim();
-
-            String separator = matcher.group(IGenericFtraceConstants.FTRACE_SEPARATOR_GROUP);
-            separator = separator.trim();
+            Integer cpu = scanner.getCpu();
+            Long timestampInNano = scanner.getTimestamp();
 
-            String attributes = matcher.group(IGenericFtraceConstants.FTRACE_DATA_GROUP);
-
-            name = eventNameRewrite(name, separator);
+            String name = eventNameRewrite(scanner.getName(), getSeparator(scanner.getSeparator()));
 
             /*
              * There's no distinction between pid and tid in scheduling events. However,when there's a mismatch
              * between the tgid and the pid, we know the event happened on a thread and that
              * the tgid is the actual pid, and the pid the tid.
              */
-            String tgid = matcher.group(IGenericFtraceConstants.FTRACE_TGID_GROUP);
-            if (tgid != null) {
-                Integer tgidNumeric = Integer.parseInt(tgid);
-                if (!tgidNumeric.equals(pid)) {
-                    pid = tgidNumeric;
-                }
+            Integer tgid = scanner.getTgid();
+            if (tgid != null && !tgid.equals(pid)) {
+                pid = tgid;
             }
 
             Map<@NonNull String, @NonNull Object> fields = new HashMap<>();
-
-            Matcher keyvalMatcher = KEYVAL_PATTERN.matcher(attributes);
-            while (keyvalMatcher.find()) {
-                String key = keyvalMatcher.group(KEYVAL_KEY_GROUP);
-                String value = keyvalMatcher.group(KEYVAL_VAL_GROUP);
-                if (value != null) {
-                    // This is a temporary solution. Refactor suggestions are welcome.
-                    if (key.equals("prev_state")) { //$NON-NLS-1$
-                        fields.put(key, parsePrevStateValue(value));
-                    } else if (StringUtils.isNumeric(value)) {
-                        if (key.equals("parent_pid") && name.equals("sched_process_fork")) {//$NON-NLS-1$ //$NON-NLS-2$
-                            key = "pid"; //$NON-NLS-1$
-                        }
-                        fields.put(key, Long.parseUnsignedLong(value));
-                    } else {
-                        fields.put(key, decodeString(value));
-                    }
-                }
-            }
+            int dataStart = scanner.getDataStart();
+            int dataEnd = scanner.getDataEnd();
+            parseAttributes(line, dataStart, dataEnd, name, fields);
 
             /*
              * If anything else fails, but we have discovered sort of a valid event
              * attributes lets just add the unparsed attributes with key "data".
              */
-            if (fields.isEmpty() && attributes != null && !attributes.isEmpty()) {
+            if (fields.isEmpty() && dataStart < dataEnd) {
                 String key = "data"; //$NON-NLS-1$
                 if (name.equals(IGenericFtraceConstants.FTRACE_EXIT_SYSCALL)) {
                     key = "ret"; //$NON-NLS-1$
                 }
-                fields.put(key, decodeString(attributes));
+                fields.put(key, decodeString(line.substring(dataStart, dataEnd)));
             }
 
             return new GenericFtraceField(name, cpu, timestampInNano, pid, tid, fields);
@@ -165,6 +130,90 @@ public class GenericFtraceField {
         return null;
     }
 
+    private static String getSeparator(char separator) {
+        switch (separator) {
+        case GenericFtraceLineScanner.SEPARATOR_ARROW:
+            return IGenericFtraceConstants.FTRACE_EXIT_SYSCALL_SEPARATOR;
+        case GenericFtraceLineScanner.SEPARATOR_PARENTHESIS:
+            return "("; //$NON-NLS-1$
+        default:
+            return ":"; //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Find the "key=value" and "key: value" pairs in the data of an event. Keys
+     * and values are made of any characters but whitespace, '=', '[', ']' and
+     * ','. A key ends at the first '=' or, failing that, at the last ':'
+     * followed by a value.
+     */
+    private static void parseAttributes(String line, int start, int end, String name, Map<String, Object> fields) {
+        int i = start;
+        while (i < end) {
+            if (!isKeyValueChar(line.charAt(i))) {
+                i++;
+                continue;
+            }
+            int keyStart = i;
+            int keyEnd = i;
+            while (keyEnd < end && isKeyValueChar(line.charAt(keyEnd))) {
+                keyEnd++;
+            }
+            int runEnd = keyEnd;
+            int valueStart = keyEnd;
+            int valueEnd = keyEnd;
+            if (keyEnd < end && line.charAt(keyEnd) == '=') {
+                valueStart = skipWhitespace(line, keyEnd + 1, end);
+                valueEnd = skipValue(line, valueStart, end);
+            }
+            for (int colon = runEnd - 1; valueStart == valueEnd && colon > keyStart; colon--) {
+                if (line.charAt(colon) == ':') {
+                    keyEnd = colon;
+                    valueStart = skipWhitespace(line, colon + 1, end);
+                    valueEnd = skipValue(line, valueStart, end);
+                }
+            }
+            if (valueStart == valueEnd) {
+                i = runEnd;
+                continue;
+            }
+            String key = line.substring(keyStart, keyEnd);
+            String value = line.substring(valueStart, valueEnd);
+            // This is a temporary solution. Refactor suggestions are welcome.
+            if (key.equals("prev_state")) { //$NON-NLS-1$
+                fields.put(key, parsePrevStateValue(value));
+            } else if (StringUtils.isNumeric(value)) {
+                if (key.equals("parent_pid") && name.equals("sched_process_fork")) {//$NON-NLS-1$ //$NON-NLS-2$
+                    key = "pid"; //$NON-NLS-1$
+                }
+                fields.put(key, Long.parseUnsignedLong(value));
+            } else {
+                fields.put(key, decodeString(value));
+            }
+            i = valueEnd;
+        }
+    }
+
+    private static boolean isKeyValueChar(char c) {
+        return !GenericFtraceLineScanner.isWhitespace(c) && c != '=' && c != '[' && c != ']' && c != ',';
+    }
+
+    private static int skipWhitespace(String line, int start, int end) {
+        int i = start;
+        while (i < end && GenericFtraceLineScanner.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipValue(String line, int start, int end) {
+        int i = start;
+        while (i < end && isKeyValueChar(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
     private static Object decodeString(String val) {
         try {
             if (val.startsWith("0x") || val.startsWith("0X")) { //$NON-NLS-1$ //$NON-NLS-2$
@@ -290,10 +339,14 @@ public class GenericFtraceField {
     /**
      * Searches for certain event names and rewrites them in order for different analysis to work.
      *
-     *
+     * @param name
+     *            the event name
+     * @param separator
+     *            the separator between the name and the data in text traces,
+     *            or null if there is none
      * @return the new or original event name
      */
-    private static String eventNameRewrite(@Nullable String name, @Nullable String separator) {
+    public static String eventNameRewrite(@Nullable String name, @Nullable String separator) {
         if (name == null) {
             return ""; //$NON-NLS-1$
         }
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ftrace.core.event;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Single-pass scanner of the lines of an ftrace text trace, like:
+ *
+ * <pre>
+ * kworker/u16:6-214   [002] d...   149.136514: sched_switch: prev_comm=kworker/u16:6 prev_pid=214 ...
+ * </pre>
+ *
+ * It accepts the same lines as {@link IGenericFtraceConstants#FTRACE_PATTERN}
+ * and finds the same groups, without backtracking and without allocating
+ * anything but the strings that are asked for. The timestamp is parsed as
+ * integer seconds and nanoseconds.
+ *
+ * A scanner can be reused for many lines, the results are those of the last
+ * line scanned.
+ */
+@NonNullByDefault
+public final class GenericFtraceLineScanner {
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final int NANO_DIGITS = 9;
+
+    /** Separator of the event name and its data, ": " */
+    public static final char SEPARATOR_COLON = ':';
+    /** Separator of a function name and its arguments, "(" */
+    public static final char SEPARATOR_PARENTHESIS = '(';
+    /** Separator of a function name and its return value, " -> " */
+    public static final char SEPARATOR_ARROW = '>';
+
+    private String fLine = ""; //$NON-NLS-1$
+    private int fCommStart;
+    private int fCommEnd;
+    private int fPid;
+    private int fTgid;
+    private boolean fHasTgid;
+    private int fCpu;
+    private long fTimestamp;
+    private int fNameStart;
+    private int fNameEnd;
+    private char fSeparator;
+    private int fDataStart;
+    private int fDataEnd;
+
+    /**
+     * Scan a line
+     *
+     * @param line
+     *            the line
+     * @return true if the line is an ftrace event, false otherwise
+     * @throws NumberFormatException
+     *             if the pid, tgid or CPU does not fit in an integer, like
+     *             {@link Integer#parseInt(String)}
+     */
+    public boolean scan(String line) {
+        fLine = line;
+        int length = line.length();
+        int start = skipWhitespace(line, 0, length);
+        // The comm can contain anything, find the CPU and go back to the pid
+        int bracket = line.indexOf('[', start);
+        while (bracket >= 0) {
+            if (bracket > start && isWhitespace(line.charAt(bracket - 1)) && scanPids(line, start, bracket) && scanFromCpu(line, bracket)) {
+                return true;
+            }
+            bracket = line.indexOf('[', bracket + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Scan "comm-pid (tgid)" before the CPU, the tgid is optional
+     */
+    private boolean scanPids(String line, int start, int bracket) {
+        int end = bracket - 1;
+        while (end >= start && isWhitespace(line.charAt(end))) {
+            end--;
+        }
+        fHasTgid = false;
+        if (end >= start && line.charAt(end) == ')') {
+            int open = line.lastIndexOf('(', end);
+            if (open > start && isWhitespace(line.charAt(open - 1))) {
+                // Anything but digits, then the optional tgid
+                int i = open + 1;
+                while (i < end && !isDigit(line.charAt(i))) {
+                    i++;
+                }
+                int tgidStart = i;
+                while (i < end && isDigit(line.charAt(i))) {
+                    i++;
+                }
+                if (i == end) {
+                    int pidEnd = open - 1;
+                    while (pidEnd >= start && isWhitespace(line.charAt(pidEnd))) {
+                        pidEnd--;
+                    }
+                    if (scanPid(line, start, pidEnd)) {
+                        fHasTgid = tgidStart < end;
+                        fTgid = fHasTgid ? parseInt(line, tgidStart, end) : 0;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        return scanPid(line, start, end);
+    }
+
+    private boolean scanPid(String line, int start, int last) {
+        int i = last;
+        while (i >= start && isDigit(line.charAt(i))) {
+            i--;
+        }
+        if (i == last || i < start || line.charAt(i) != '-') {
+            return false;
+        }
+        fCommStart = start;
+        fCommEnd = i;
+        fPid = parseInt(line, i + 1, last + 1);
+        return true;
+    }
+
+    /**
+     * Scan "[cpu] flags timestamp: name: data", the flags are optional
+     */
+    private boolean scanFromCpu(String line, int bracket) {
+        int length = line.length();
+        int i = bracket + 1;
+        int cpuStart = i;
+        while (i < length && isDigit(line.charAt(i))) {
+            i++;
+        }
+        if (i == cpuStart || i >= length || line.charAt(i) != ']') {
+            return false;
+        }
+        int cpuEnd = i;
+        i++;
+        if (i >= length || !isWhitespace(line.charAt(i))) {
+            return false;
+        }
+        i = skipWhitespace(line, i, length);
+        if (scanFromTimestamp(line, i)) {
+            fCpu = parseInt(line, cpuStart, cpuEnd);
+            return true;
+        }
+        // The first token was the flags
+        while (i < length && !isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        if (i >= length) {
+            return false;
+        }
+        if (scanFromTimestamp(line, skipWhitespace(line, i, length))) {
+            fCpu = parseInt(line, cpuStart, cpuEnd);
+            return true;
+        }
+        return false;
+    }
+
+    private boolean scanFromTimestamp(String line, int start) {
+        int length = line.length();
+        int i = start;
+        long seconds = 0;
+        while (i < length && isDigit(line.charAt(i))) {
+            seconds = seconds * 10 + (line.charAt(i) - '0');
+            i++;
+        }
+        if (i == start) {
+            return false;
+        }
+        long nanos = 0;
+        if (i < length && line.charAt(i) == '.') {
+            i++;
+            int fractionStart = i;
+            int digits = 0;
+            while (i < length && isDigit(line.charAt(i))) {
+                if (digits < NANO_DIGITS) {
+                    nanos = nanos * 10 + (line.charAt(i) - '0');
+                    digits++;
+                }
+                i++;
+            }
+            if (i == fractionStart) {
+                return false;
+            }
+            for (; digits < NANO_DIGITS; digits++) {
+                nanos *= 10;
+            }
+        }
+        if (i + 1 >= length || line.charAt(i) != ':' || line.charAt(i + 1) != ' ') {
+            return false;
+        }
+        i += 2;
+        int nameStart = i;
+        while (i < length && isWordChar(line.charAt(i))) {
+            i++;
+        }
+        if (i == nameStart || i >= length) {
+            return false;
+        }
+        int nameEnd = i;
+        char c = line.charAt(i);
+        char separator;
+        if (c == ':') {
+            i++;
+            if (i >= length || !isWhitespace(line.charAt(i))) {
+                return false;
+            }
+            i = skipWhitespace(line, i, length);
+            separator = SEPARATOR_COLON;
+        } else if (c == '(') {
+            i++;
+            separator = SEPARATOR_PARENTHESIS;
+        } else if (isWhitespace(c)) {
+            i = skipWhitespace(line, i, length);
+            if (i + 2 >= length || line.charAt(i) != '-' || line.charAt(i + 1) != '>' || !isWhitespace(line.charAt(i + 2))) {
+                return false;
+            }
+            i = skipWhitespace(line, i + 2, length);
+            separator = SEPARATOR_ARROW;
+        } else {
+            return false;
+        }
+        // The data ends at the first parenthesis, which must end the line
+        int dataEnd = line.indexOf(')', i);
+        if (dataEnd < 0) {
+            dataEnd = length;
+        } else if (dataEnd != length - 1) {
+            return false;
+        }
+        fTimestamp = seconds * NANOS_PER_SECOND + nanos;
+        fNameStart = nameStart;
+        fNameEnd = nameEnd;
+        fSeparator = separator;
+        fDataStart = i;
+        fDataEnd = dataEnd;
+        return true;
+    }
+
+    /**
+     * Get the comm of the last line scanned
+     *
+     * @return the comm
+     */
+    public String getComm() {
+        return fLine.substring(fCommStart, fCommEnd);
+    }
+
+    /**
+     * Get the pid of the last line scanned
+     *
+     * @return the pid
+     */
+    public int getPid() {
+        return fPid;
+    }
+
+    /**
+     * Get the tgid of the last line scanned
+     *
+     * @return the tgid, or null if the line does not have one
+     */
+    public @Nullable Integer getTgid() {
+        return fHasTgid ? fTgid : null;
+    }
+
+    /**
+     * Get the CPU of the last line scanned
+     *
+     * @return the CPU
+     */
+    public int getCpu() {
+        return fCpu;
+    }
+
+    /**
+     * Get the timestamp of the last line scanned
+     *
+     * @return the timestamp in nanoseconds
+     */
+    public long getTimestamp() {
+        return fTimestamp;
+    }
+
+    /**
+     * Get the event name of the last line scanned
+     *
+     * @return the name
+     */
+    public String getName() {
+        return fLine.substring(fNameStart, fNameEnd);
+    }
+
+    /**
+     * Get the separator between the name and the data of the last line
+     * scanned
+     *
+     * @return {@link #SEPARATOR_COLON}, {@link #SEPARATOR_PARENTHESIS} or
+     *         {@link #SEPARATOR_ARROW}
+     */
+    public char getSeparator() {
+        return fSeparator;
+    }
+
+    /**
+     * Get the start of the data of the last line scanned
+     *
+     * @return the index of the data in the line
+     */
+    public int getDataStart() {
+        return fDataStart;
+    }
+
+    /**
+     * Get the end of the data of the last line scanned
+     *
+     * @return the index after the data in the line
+     */
+    public int getDataEnd() {
+        return fDataEnd;
+    }
+
+    /**
+     * Whether a character is whitespace, as \s in a regex
+     *
+     * @param c
+     *            the character
+     * @return true if the character is whitespace
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private static int skipWhitespace(String line, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseInt(String line, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (line.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("For input string: \"" + line.substring(start, end) + '"'); //$NON-NLS-1$
+            }
+        }
+        return (int) value;
+    }
+}
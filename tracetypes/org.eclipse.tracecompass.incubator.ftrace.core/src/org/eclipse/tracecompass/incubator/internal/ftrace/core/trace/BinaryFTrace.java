@@ -11,12 +11,9 @@
 
 package org.eclipse.tracecompass.incubator.internal.ftrace.core.trace;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -26,26 +23,41 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.ftrace.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.binary.BinaryFTraceFile;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.binary.BinaryFTraceIterator;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceEvent;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceField;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.project.model.ITmfPropertiesProvider;
-import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
+import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
+import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
 
 /**
  * Helper to open fTrace traces
  *
+ * The trace-cmd binary file is read directly, see {@link BinaryFTraceFile}.
+ * The location of an event is its offset in the file, given by
+ * {@link BinaryFTraceIterator}.
+ *
  * @author Matthew Khouzam
  *
  */
 public class BinaryFTrace extends GenericFtrace implements ITmfPropertiesProvider {
 
-    private static final String TRACE_CMD = "trace-cmd"; //$NON-NLS-1$
-    private static final String REPORT = "report"; //$NON-NLS-1$
     private final @NonNull Map<@NonNull String, @NonNull String> fProperties = new LinkedHashMap<>();
 
+    private @Nullable BinaryFTraceFile fBinaryFile;
+    private @Nullable BinaryFTraceIterator fIterator;
+    private long fStartTime = 0;
+    private long fEndTime = 0;
+
     @Override
     public IStatus validate(IProject project, String path) {
         File file = new File(path);
@@ -64,29 +76,19 @@ public class BinaryFTrace extends GenericFtrace implements ITmfPropertiesProvide
                         byte[] start = new byte[magicLength];
                         int read = fis.read(start);
                         if (read == magicLength && Arrays.equals(TRACE_CMD_DAT_MAGIC, start)) {
-                            ProcessBuilder pb = new ProcessBuilder(TRACE_CMD);
-                            Process traceCmd = pb.start();
-                            try (BufferedReader br = new BufferedReader(new InputStreamReader(traceCmd.getInputStream(), Charset.forName("UTF-8")));) { //$NON-NLS-1$
-                                String line = br.readLine();
-                                while (line != null) {
-                                    if (line.contains(REPORT)) {
-                                        return new TraceValidationStatus(confidence, Activator.PLUGIN_ID);
-                                    }
-                                    line = br.readLine();
+                            try (BinaryFTraceFile binaryFile = BinaryFTraceFile.open(file)) {
+                                if (binaryFile.getCpuCount() > 0) {
+                                    return new TraceValidationStatus(confidence, Activator.PLUGIN_ID);
                                 }
                             }
+                            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "No CPU in trace-cmd file " + path); //$NON-NLS-1$
                         }
                     }
                     return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Magic mismatch"); //$NON-NLS-1$
                 }
             }
         } catch (IOException e) {
-            Activator.getInstance().logError("Error validating file: " + path, e); //$NON-NLS-1$
-            if (e.getMessage().startsWith("Cannot run program: \"" + TRACE_CMD + "\": error=2,")) { //$NON-NLS-1$ //$NON-NLS-2$
-                return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "It appears trace-cmd is not available on your machine. Please install it to use the binary ftrace parser. (sudo apt install trace-cmd)", e); //$NON-NLS-1$
-            }
-
-            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "IOException validating file: " + path, e); //$NON-NLS-1$
+            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Cannot read trace-cmd file " + path + ": " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
         }
         return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "Not an FTrace bin"); //$NON-NLS-1$
     }
@@ -96,28 +98,115 @@ public class BinaryFTrace extends GenericFtrace implements ITmfPropertiesProvide
 
         super.initTrace(resource, path, type, name, traceTypeId);
         fProperties.put("Type", "Trace-Event"); //$NON-NLS-1$ //$NON-NLS-2$
-        String dir = TmfTraceManager.getSupplementaryFileDir(this);
-        if (!new File(dir).exists()) {
-            throw new TmfTraceException("Could not create temporary folder " + dir); //$NON-NLS-1$
+        try {
+            BinaryFTraceFile binaryFile = BinaryFTraceFile.open(new File(path));
+            fBinaryFile = binaryFile;
+            BinaryFTraceIterator iterator = new BinaryFTraceIterator(binaryFile);
+            fIterator = iterator;
+            long[] timeRange = iterator.getTimeRange();
+            if (timeRange != null) {
+                fStartTime = timeRange[0];
+                fEndTime = timeRange[1];
+            }
+            fProperties.put("CPUs", String.valueOf(binaryFile.getCpuCount())); //$NON-NLS-1$
+            fProperties.put("Page size", String.valueOf(binaryFile.getPageSize())); //$NON-NLS-1$
+            String clock = binaryFile.getTraceClock();
+            if (clock != null) {
+                fProperties.put("Trace clock", clock); //$NON-NLS-1$
+            }
+        } catch (IOException e) {
+            throw new TmfTraceException(e.getMessage(), e);
         }
-        File file = new File(dir + new File(path).getName());
-        if (!file.exists()) {
+    }
 
-            ProcessBuilder pb = new ProcessBuilder(TRACE_CMD, "report", "-i", path, "-R"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-            pb.redirectOutput(file);
+    @Override
+    public synchronized void dispose() {
+        BinaryFTraceFile binaryFile = fBinaryFile;
+        if (binaryFile != null) {
             try {
-                pb.start().waitFor();
-            } catch (IOException | InterruptedException e) {
-                throw new TmfTraceException(e.getMessage(), e);
+                binaryFile.close();
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error disposing trace. File: " + getPath(), e); //$NON-NLS-1$
             }
-            if (!file.exists()) {
-                throw new TmfTraceException("Could not create temporary file " + file.getAbsolutePath()); //$NON-NLS-1$
+        }
+        fBinaryFile = null;
+        fIterator = null;
+        super.dispose();
+    }
+
+    @Override
+    public synchronized ITmfContext seekEvent(@Nullable ITmfLocation location) {
+        BinaryFTraceIterator iterator = fIterator;
+        if (iterator == null) {
+            return new TmfContext(new TmfLongLocation(BinaryFTraceIterator.END_LOCATION), ITmfContext.UNKNOWN_RANK);
+        }
+        if (location == null || !(location.getLocationInfo() instanceof Long) || (Long) location.getLocationInfo() < 0) {
+            try {
+                iterator.seekStart();
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error seeking event. File: " + getPath(), e); //$NON-NLS-1$
+            }
+            return new TmfContext(new TmfLongLocation(iterator.getLocation()), 0);
+        }
+        // The iterator is moved to the location when the event is read
+        return new TmfContext(new TmfLongLocation((Long) location.getLocationInfo()), ITmfContext.UNKNOWN_RANK);
+    }
+
+    @Override
+    public synchronized ITmfContext seekEvent(double ratio) {
+        BinaryFTraceIterator iterator = fIterator;
+        if (iterator == null) {
+            return new TmfContext(new TmfLongLocation(BinaryFTraceIterator.END_LOCATION), ITmfContext.UNKNOWN_RANK);
+        }
+        try {
+            iterator.seekTimestamp(fStartTime + Math.round(ratio * (fEndTime - fStartTime)));
+        } catch (IOException e) {
+            Activator.getInstance().logError("Error seeking event. File: " + getPath(), e); //$NON-NLS-1$
+        }
+        return new TmfContext(new TmfLongLocation(iterator.getLocation()), ITmfContext.UNKNOWN_RANK);
+    }
+
+    @Override
+    public synchronized double getLocationRatio(@Nullable ITmfLocation location) {
+        BinaryFTraceIterator iterator = fIterator;
+        if (iterator == null || location == null || !(location.getLocationInfo() instanceof Long) || fEndTime <= fStartTime) {
+            return 0;
+        }
+        try {
+            iterator.seek((Long) location.getLocationInfo());
+        } catch (IOException e) {
+            Activator.getInstance().logError("Error seeking event. File: " + getPath(), e); //$NON-NLS-1$
+            return 0;
+        }
+        long timestamp = Math.min(iterator.getTimestamp(), fEndTime);
+        return (double) (timestamp - fStartTime) / (fEndTime - fStartTime);
+    }
+
+    @Override
+    public synchronized @Nullable ITmfEvent parseEvent(@Nullable ITmfContext context) {
+        BinaryFTraceIterator iterator = fIterator;
+        if (iterator == null || context == null || !(context.getLocation() instanceof TmfLongLocation)) {
+            return null;
+        }
+        long location = ((TmfLongLocation) context.getLocation()).getLocationInfo();
+        try {
+            if (location != iterator.getLocation()) {
+                iterator.seek(location);
             }
-            if (file.length() <= 0) {
-                throw new TmfTraceException("Empty temporary file " + file.getAbsolutePath()); //$NON-NLS-1$
+            GenericFtraceField field = iterator.next();
+            if (field != null) {
+                return new GenericFtraceEvent(this, context.getRank(), field);
             }
+        } catch (IOException e) {
+            Activator.getInstance().logError("Error parsing event", e); //$NON-NLS-1$
         }
-        setFile(file);
+        return null;
+    }
+
+    @Override
+    public synchronized ITmfLocation getCurrentLocation() {
+        BinaryFTraceIterator iterator = fIterator;
+        return new TmfLongLocation(iterator == null ? BinaryFTraceIterator.END_LOCATION : iterator.getLocation());
     }
 
     @Override
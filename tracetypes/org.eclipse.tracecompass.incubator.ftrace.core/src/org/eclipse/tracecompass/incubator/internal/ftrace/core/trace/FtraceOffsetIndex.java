@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.ftrace.core.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.Activator;
+
+/**
+ * Sparse index of the byte offsets of the events of a text ftrace, saved in
+ * the supplementary directory. Every {@link #INTERVAL} events, it keeps the
+ * offset of the location of the event, so the event of a rank or of an offset
+ * is found with a lookup or a binary search, followed by reading at most one
+ * interval of lines.
+ *
+ * The index is filled as the events are read in order from the start of the
+ * trace, which the first indexing pass does, and is saved once the end of the
+ * trace is reached. The file contains a header, to check that it matches the
+ * trace file, followed by the offsets.
+ */
+public final class FtraceOffsetIndex {
+
+    /**
+     * Number of events between the entries of the index
+     */
+    public static final int INTERVAL = 1024;
+
+    private static final long MAGIC = 0x4654494e44455831L; // "FTINDEX1"
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final @Nullable File fFile;
+    private final File fTraceFile;
+    private long[] fOffsets;
+    private int fSize;
+    private long fNextRank;
+    private long fNbEvents = -1;
+
+    private FtraceOffsetIndex(@Nullable File file, File traceFile, long[] offsets, int size, long nbEvents) {
+        fFile = file;
+        fTraceFile = traceFile;
+        fOffsets = offsets;
+        fSize = size;
+        fNbEvents = nbEvents;
+        fNextRank = nbEvents >= 0 ? nbEvents : 0;
+    }
+
+    /**
+     * Open the index of a trace file. If the index file does not exist or is
+     * not the index of this trace file, the index starts empty.
+     *
+     * @param file
+     *            the index file, or null to keep the index in memory only
+     * @param traceFile
+     *            the trace file
+     * @return the index
+     */
+    public static FtraceOffsetIndex open(@Nullable File file, File traceFile) {
+        if (file != null && file.exists()) {
+            try {
+                FtraceOffsetIndex index = load(file, traceFile);
+                if (index != null) {
+                    return index;
+                }
+            } catch (IOException e) {
+                // Build it again
+            }
+        }
+        return new FtraceOffsetIndex(file, traceFile, new long[INITIAL_CAPACITY], 0, -1);
+    }
+
+    /**
+     * Record the location of an event that was read. Only the events read in
+     * order from the start of the trace are added.
+     *
+     * @param rank
+     *            the rank of the event
+     * @param offset
+     *            the offset of the location of the event
+     */
+    public synchronized void record(long rank, long offset) {
+        if (rank != fNextRank || isComplete()) {
+            return;
+        }
+        if (rank % INTERVAL == 0) {
+            if (fSize == fOffsets.length) {
+                fOffsets = Arrays.copyOf(fOffsets, fSize * 2);
+            }
+            fOffsets[fSize++] = offset;
+        }
+        fNextRank++;
+    }
+
+    /**
+     * Record the end of the trace, saving the index if all the events before
+     * were recorded
+     *
+     * @param rank
+     *            the rank after the last event
+     */
+    public synchronized void recordEnd(long rank) {
+        if (rank != fNextRank || isComplete()) {
+            return;
+        }
+        fNbEvents = rank;
+        File file = fFile;
+        if (file != null) {
+            try {
+                save(file);
+            } catch (IOException e) {
+                // The index is still valid in memory
+                Activator.getInstance().logWarning("Error saving the ftrace index " + file, e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Whether the index has all the events of the trace
+     *
+     * @return true if the end of the trace was recorded
+     */
+    public synchronized boolean isComplete() {
+        return fNbEvents >= 0;
+    }
+
+    /**
+     * Get the number of events of the trace
+     *
+     * @return the number of events, or -1 if the index is not complete
+     */
+    public synchronized long getNbEvents() {
+        return fNbEvents;
+    }
+
+    /**
+     * Find the entry to read from to reach the event of a rank
+     *
+     * @param rank
+     *            the rank
+     * @return the entry, or -1 if the rank is not covered by the index yet
+     */
+    public synchronized int findRank(long rank) {
+        if (fSize == 0 || rank < 0) {
+            return -1;
+        }
+        long entry = rank / INTERVAL;
+        if (entry < fSize) {
+            return (int) entry;
+        }
+        // Past the end of the trace
+        return isComplete() ? fSize - 1 : -1;
+    }
+
+    /**
+     * Find the entry to read from to reach the first event at or after an
+     * offset
+     *
+     * @param offset
+     *            the offset in the trace file
+     * @return the entry, or -1 if the offset is not covered by the index yet
+     */
+    public synchronized int findOffset(long offset) {
+        int entry = Arrays.binarySearch(fOffsets, 0, fSize, offset);
+        if (entry >= 0) {
+            return entry;
+        }
+        // The last entry before the offset
+        entry = -entry - 2;
+        if (entry < 0) {
+            return fSize > 0 ? 0 : -1;
+        }
+        return (entry < fSize - 1 || isComplete()) ? entry : -1;
+    }
+
+    /**
+     * Get the offset of an entry
+     *
+     * @param entry
+     *            the entry
+     * @return the offset of the location of its event
+     */
+    public synchronized long getOffset(int entry) {
+        return fOffsets[entry];
+    }
+
+    /**
+     * Get the rank of the event of an entry
+     *
+     * @param entry
+     *            the entry
+     * @return the rank
+     */
+    public static long getRank(int entry) {
+        return (long) entry * INTERVAL;
+    }
+
+    private void save(File file) throws IOException {
+        File tmpFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeLong(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(INTERVAL);
+                out.writeLong(fTraceFile.length());
+                out.writeLong(fTraceFile.lastModified());
+                out.writeLong(fNbEvents);
+                out.writeInt(fSize);
+                for (int i = 0; i < fSize; i++) {
+                    out.writeLong(fOffsets[i]);
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Do not leave a partial file in the supplementary directory
+            try {
+                Files.deleteIfExists(tmpFile.toPath());
+            } catch (IOException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw e;
+        }
+    }
+
+    private static @Nullable FtraceOffsetIndex load(File file, File traceFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION || in.readInt() != INTERVAL) {
+                return null;
+            }
+            if (in.readLong() != traceFile.length() || in.readLong() != traceFile.lastModified()) {
+                return null;
+            }
+            long nbEvents = in.readLong();
+            int size = in.readInt();
+            if (nbEvents < 0 || size < 0 || size != (nbEvents + INTERVAL - 1) / INTERVAL) {
+                return null;
+            }
+            long[] offsets = new long[Math.max(size, 1)];
+            for (int i = 0; i < size; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new FtraceOffsetIndex(file, traceFile, offsets, size, nbEvents);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
@@ -57,8 +57,7 @@ public class FtraceTrace extends GenericFtrace {
                         byte[] start = new byte[magicLength];
                         int read = fis.read(start);
                         if (read == magicLength && Arrays.equals(TRACE_CMD_DAT_MAGIC, start)) {
-                            // TODO: offer to do this programatically
-                            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "This file looks like a binary trace-cmd, try running 'trace-cmd report -R' on it."); //$NON-NLS-1$
+                            return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "This file looks like a binary trace-cmd, open it with the binary ftrace trace type."); //$NON-NLS-1$
                         }
                     }
                 }
@@ -19,6 +19,7 @@ import org.eclipse.tracecompass.incubator.internal.ftrace.core.Activator;
 import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceAspects;
 import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceEvent;
 import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceField;
+import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.GenericFtraceLineScanner;
 import org.eclipse.tracecompass.incubator.internal.ftrace.core.event.IGenericFtraceConstants;
 import org.eclipse.tracecompass.incubator.internal.ftrace.core.layout.GenericFtraceEventLayout;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
@@ -28,6 +29,7 @@ import org.eclipse.tracecompass.tmf.core.io.BufferedRandomAccessFile;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
 
@@ -35,7 +37,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.util.regex.Matcher;
+import java.util.Objects;
 
 /**
  * Generic Ftrace trace.
@@ -52,7 +54,7 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
      */
     protected static final byte[] TRACE_CMD_DAT_MAGIC = { 0x17, 0x08, 0x44, 't', 'r', 'a', 'c', 'i', 'n', 'g' };
 
-    private static final int ESTIMATED_EVENT_SIZE = 90;
+    private static final String OFFSET_INDEX_FILE_NAME = "ftrace-offsets.idx"; //$NON-NLS-1$
     private static final TmfLongLocation NULL_LOCATION = new TmfLongLocation(-1L);
     private static final TmfContext INVALID_CONTEXT = new TmfContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
 
@@ -63,6 +65,8 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
 
     private RandomAccessFile fFileInput;
 
+    private @Nullable FtraceOffsetIndex fOffsetIndex;
+
     /**
      * @param line
      *            Trace line to be parsed. This method can be overridden by
@@ -85,6 +89,7 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
         } catch (IOException e) {
             throw new TmfTraceException(e.getMessage(), e);
         }
+        fOffsetIndex = FtraceOffsetIndex.open(new File(TmfTraceManager.getSupplementaryFileDir(this) + OFFSET_INDEX_FILE_NAME), fFile);
     }
 
     @Override
@@ -96,7 +101,7 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
 
     @Override
     public double getLocationRatio(ITmfLocation location) {
-        return ((Long) getCurrentLocation().getLocationInfo()).doubleValue() / getFile().length();
+        return ((Long) location.getLocationInfo()).doubleValue() / getFile().length();
     }
 
     @Override
@@ -141,24 +146,38 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
             if (line == null) {
                 return context;
             }
-            Matcher matcher = IGenericFtraceConstants.FTRACE_PATTERN.matcher(line);
-            while (!matcher.matches()) {
+            GenericFtraceLineScanner scanner = new GenericFtraceLineScanner();
+            while (!scanner.scan(line)) {
                 lineStartOffset = fileInput.getFilePointer();
                 line = fileInput.readLine();
                 if (line == null) {
                     break;
                 }
-                matcher = IGenericFtraceConstants.FTRACE_PATTERN.matcher(line);
             }
             fileInput.seek(lineStartOffset);
+            context.setRank(0);
         } else if (location.getLocationInfo() instanceof Long) {
             fileInput.seek((Long) location.getLocationInfo());
+            context.setRank(getRank(fileInput.getFilePointer()));
         }
         context.setLocation(new TmfLongLocation(fileInput.getFilePointer()));
-        context.setRank(0);
         return context;
     }
 
+    /**
+     * Get the rank of the event at a location, if it is in the offset index
+     */
+    private long getRank(long offset) {
+        FtraceOffsetIndex index = fOffsetIndex;
+        if (index != null) {
+            int entry = index.findOffset(offset);
+            if (entry >= 0 && index.getOffset(entry) == offset) {
+                return FtraceOffsetIndex.getRank(entry);
+            }
+        }
+        return ITmfContext.UNKNOWN_RANK;
+    }
+
     @Override
     public ITmfEvent parseEvent(ITmfContext context) {
         ITmfLocation location = context.getLocation();
@@ -200,8 +219,18 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
                     nextLine = fileInput.readLine();
                 } while (nextLine != null && nextLine.startsWith(IGenericFtraceConstants.FTRACE_COMMENT_CHAR));
 
+                FtraceOffsetIndex index = fOffsetIndex;
+                if (nextLine == null) {
+                    if (index != null) {
+                        index.recordEnd(rank);
+                    }
+                    return null;
+                }
                 GenericFtraceField field = parseLine(nextLine);
                 if (field != null) {
+                    if (index != null) {
+                        index.record(rank, locationInfo);
+                    }
                     return new GenericFtraceEvent(this, rank, field);
                 }
             } catch (IOException e) {
@@ -223,14 +252,71 @@ public abstract class GenericFtrace extends TmfTrace implements IKernelTrace {
     }
 
     @Override
-    public ITmfContext seekEvent(double ratio) {
+    public synchronized ITmfContext seekEvent(double ratio) {
         File file = getFile();
         if (file == null) {
             return INVALID_CONTEXT;
         }
-        long filePos = (long) (file.length() * ratio);
-        long estimatedRank = filePos / ESTIMATED_EVENT_SIZE;
-        return seekEvent(new TmfLongLocation(estimatedRank));
+        long offset = Math.max(0L, Math.min(file.length(), Math.round(file.length() * ratio)));
+        if (offset == 0) {
+            return seekEvent((ITmfLocation) null);
+        }
+        FtraceOffsetIndex index = fOffsetIndex;
+        int entry = index == null ? -1 : index.findOffset(offset);
+        try {
+            RandomAccessFile fileInput = getFileInput();
+            if (entry >= 0) {
+                return skipEvents(fileInput, entry, Long.MAX_VALUE, offset);
+            }
+            // Not indexed yet, start at the next line, its rank is unknown
+            fileInput.seek(offset - 1);
+            if (fileInput.read() != '\n') {
+                fileInput.readLine();
+            }
+            return new TmfContext(new TmfLongLocation(fileInput.getFilePointer()), ITmfContext.UNKNOWN_RANK);
+        } catch (IOException e) {
+            Activator.getInstance().logError("Error seeking event. File: " + getPath(), e); //$NON-NLS-1$
+            return new TmfContext(NULL_LOCATION, ITmfContext.UNKNOWN_RANK);
+        }
+    }
+
+    @Override
+    public synchronized ITmfContext seekEvent(long rank) {
+        FtraceOffsetIndex index = fOffsetIndex;
+        int entry = index == null ? -1 : index.findRank(rank);
+        if (entry >= 0 && getFile() != null) {
+            try {
+                return skipEvents(getFileInput(), entry, rank, Long.MAX_VALUE);
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error seeking event. File: " + getPath(), e); //$NON-NLS-1$
+            }
+        }
+        return super.seekEvent(rank);
+    }
+
+    /**
+     * Read the lines from an entry of the offset index until the event of a
+     * rank or the first event at or after an offset. The events of the index
+     * were all parsed, so the lines are counted without parsing them again.
+     */
+    private TmfContext skipEvents(RandomAccessFile fileInput, int entry, long rank, long offset) throws IOException {
+        FtraceOffsetIndex index = Objects.requireNonNull(fOffsetIndex);
+        long location = index.getOffset(entry);
+        long current = FtraceOffsetIndex.getRank(entry);
+        fileInput.seek(location);
+        while (current < rank && location < offset) {
+            String line;
+            do {
+                line = fileInput.readLine();
+            } while (line != null && line.startsWith(IGenericFtraceConstants.FTRACE_COMMENT_CHAR));
+            if (line == null) {
+                break;
+            }
+            location = fileInput.getFilePointer();
+            current++;
+        }
+        fileInput.seek(location);
+        return new TmfContext(new TmfLongLocation(location), current);
     }
 
     @Override
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.opentracing.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingProcessesReader;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingProcessesReader.TraceProcesses;
+import org.junit.Test;
+
+/**
+ * Test the streaming extraction of the processes of Jaeger exports
+ */
+public class OpenTracingProcessesReaderTest {
+
+    /**
+     * Test the processes of the test traces
+     *
+     * @throws IOException
+     *             Exceptions reading the traces
+     */
+    @Test
+    public void testTraces() throws IOException {
+        List<TraceProcesses> traces = OpenTracingProcessesReader.read("traces/simple.json");
+        assertEquals(1, traces.size());
+        assertEquals("cf46871fbf4f262b", traces.get(0).getTraceId());
+        assertEquals(1, traces.get(0).getProcesses().size());
+        assertEquals("hello-world", traces.get(0).getProcesses().getAsJsonObject("p1").get("serviceName").getAsString());
+
+        traces = OpenTracingProcessesReader.read("traces/multiple_services.json");
+        assertEquals(1, traces.size());
+        assertEquals(3, traces.get(0).getProcesses().size());
+    }
+
+    /**
+     * Test an export with many traces, some without processes or trace ID
+     *
+     * @throws IOException
+     *             Exceptions reading the trace
+     */
+    @Test
+    public void testMultipleTraces() throws IOException {
+        File file = File.createTempFile("jaeger", ".json");
+        try {
+            String json = "{\"total\":3,\"data\":["
+                    + "{\"traceID\":\"t1\",\"spans\":[{\"traceID\":\"t1\",\"spanID\":\"s1\",\"tags\":[{\"key\":\"k\",\"value\":[1,{\"a\":null}]}],\"processID\":\"p1\"}],"
+                    + "\"processes\":{\"p1\":{\"serviceName\":\"one\",\"tags\":[]}},\"warnings\":null},"
+                    + "{\"spans\":[],\"processes\":{\"p1\":{\"serviceName\":\"two\"},\"p2\":{\"serviceName\":\"three\"}}},"
+                    + "{\"traceID\":\"t3\",\"spans\":[]},"
+                    + "null],\"errors\":null}";
+            Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+            List<TraceProcesses> traces = OpenTracingProcessesReader.read(file.getAbsolutePath());
+            assertEquals(2, traces.size());
+            assertEquals("t1", traces.get(0).getTraceId());
+            assertEquals("one", traces.get(0).getProcesses().getAsJsonObject("p1").get("serviceName").getAsString());
+            assertNull(traces.get(1).getTraceId());
+            assertEquals(2, traces.get(1).getProcesses().size());
+            assertEquals("three", traces.get(1).getProcesses().getAsJsonObject("p2").get("serviceName").getAsString());
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -60,6 +60,34 @@ public class OpenTracingField {
         return process == null ? "" : process; //$NON-NLS-1$
     }
 
+    /**
+     * Get the key of the process of an event, with its trace id, since the
+     * process ids are only unique within a trace
+     *
+     * @param eventString
+     *            the event string
+     * @return the process key
+     */
+    public static String getProcessKey(String eventString) {
+        @Nullable
+        JsonObject root = G_SON.fromJson(eventString, JsonObject.class);
+        String process = optString(root, IOpenTracingConstants.PROCESS_ID);
+        return getProcessKey(optString(root, IOpenTracingConstants.TRACE_ID), process == null ? "" : process); //$NON-NLS-1$
+    }
+
+    /**
+     * Get the key of a process of a trace
+     *
+     * @param traceId
+     *            the trace id, or null if there is none
+     * @param processId
+     *            the process id
+     * @return the process key
+     */
+    public static String getProcessKey(@Nullable String traceId, String processId) {
+        return traceId == null ? processId : traceId + '/' + processId;
+    }
+
     /**
      * Parse a JSON string
      *
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.opentracing.core.trace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.IOpenTracingConstants;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reader of the processes of the traces of a Jaeger JSON export, like:
+ *
+ * <pre>
+ * {"data":[{"traceID":"...","spans":[...],"processes":{"p1":{...}}}, ...]}
+ * </pre>
+ *
+ * The document is read as a stream, the spans are skipped without being
+ * loaded, so only the processes are kept in memory, whatever the size of the
+ * trace.
+ */
+public final class OpenTracingProcessesReader {
+
+    private static final String DATA = "data"; //$NON-NLS-1$
+    private static final String PROCESSES = "processes"; //$NON-NLS-1$
+
+    /**
+     * The processes of one trace of the export
+     */
+    public static final class TraceProcesses {
+        private final @Nullable String fTraceId;
+        private final JsonObject fProcesses;
+
+        private TraceProcesses(@Nullable String traceId, JsonObject processes) {
+            fTraceId = traceId;
+            fProcesses = processes;
+        }
+
+        /**
+         * Get the ID of the trace
+         *
+         * @return the trace ID, or null if the trace does not have one
+         */
+        public @Nullable String getTraceId() {
+            return fTraceId;
+        }
+
+        /**
+         * Get the processes of the trace
+         *
+         * @return the processes, by process ID
+         */
+        public JsonObject getProcesses() {
+            return fProcesses;
+        }
+    }
+
+    private OpenTracingProcessesReader() {
+        // Do nothing
+    }
+
+    /**
+     * Read the processes of the traces of an export
+     *
+     * @param path
+     *            the path of the export
+     * @return the processes of each trace that has some, in the order of the
+     *         traces
+     * @throws IOException
+     *             Exceptions reading the file, or if it is not valid JSON
+     */
+    public static List<TraceProcesses> read(String path) throws IOException {
+        List<TraceProcesses> traces = new ArrayList<>();
+        try (BufferedReader fileReader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+                JsonReader reader = new JsonReader(fileReader)) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return traces;
+            }
+            Gson gson = new Gson();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(DATA) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readTrace(reader, gson, traces);
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (IllegalStateException | JsonParseException e) {
+            throw new IOException("Invalid trace " + path, e); //$NON-NLS-1$
+        }
+        return traces;
+    }
+
+    private static void readTrace(JsonReader reader, Gson gson, List<TraceProcesses> traces) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        String traceId = null;
+        JsonObject processes = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals(IOpenTracingConstants.TRACE_ID) && reader.peek() == JsonToken.STRING) {
+                traceId = reader.nextString();
+            } else if (name.equals(PROCESSES) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                processes = gson.fromJson(reader, JsonObject.class);
+            } else {
+                // The spans are skipped here, without being loaded
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (processes != null) {
+            traces.add(new TraceProcesses(traceId, processes));
+        }
+    }
+}
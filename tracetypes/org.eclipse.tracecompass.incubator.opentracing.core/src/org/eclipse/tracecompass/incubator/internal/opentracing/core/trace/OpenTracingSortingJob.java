@@ -12,18 +12,15 @@
 package org.eclipse.tracecompass.incubator.internal.opentracing.core.trace;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 
-import org.eclipse.tracecompass.internal.jsontrace.core.job.SortingJob;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.sorting.ParallelSortingJob;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingProcessesReader.TraceProcesses;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.stream.JsonReader;
 
 /**
  * Sorting job particular to open tracing that has a list of processes after the
@@ -32,7 +29,7 @@ import com.google.gson.stream.JsonReader;
  * @author Katherine Nadeau
  *
  */
-public class OpenTracingSortingJob extends SortingJob {
+public class OpenTracingSortingJob extends ParallelSortingJob {
 
     /**
      * Constructor
@@ -48,21 +45,17 @@ public class OpenTracingSortingJob extends SortingJob {
 
     @Override
     protected void processMetadata(ITmfTrace trace, String dir) throws IOException {
-        try (FileReader fileReader = new FileReader(getPath())) {
-            try (JsonReader reader = new JsonReader(fileReader);) {
-                Gson gson = new Gson();
-                JsonObject object = gson.fromJson(reader, JsonObject.class);
-                JsonElement jsonTrace = object.get("data").getAsJsonArray().get(0); //$NON-NLS-1$
-                JsonObject jsonProcesses = jsonTrace.getAsJsonObject().get("processes").getAsJsonObject(); //$NON-NLS-1$
-                JsonArray processes = new JsonArray();
-                processes.add(jsonProcesses);
+        try {
+            JsonArray processes = new JsonArray();
+            for (TraceProcesses traceProcesses : OpenTracingProcessesReader.read(getPath())) {
+                processes.add(traceProcesses.getProcesses());
+            }
 
-                String filePath = trace.getPath().replaceAll(".json", "Processes.json"); //$NON-NLS-1$//$NON-NLS-2$
-                File processFile = new File(dir + File.separator + new File(filePath).getName());
-                processFile.createNewFile();
-                try (PrintWriter tempWriter = new PrintWriter(processFile)) {
-                    tempWriter.println(gson.toJson(processes));
-                }
+            String filePath = trace.getPath().replaceAll(".json", "Processes.json"); //$NON-NLS-1$//$NON-NLS-2$
+            File processFile = new File(dir + File.separator + new File(filePath).getName());
+            processFile.createNewFile();
+            try (PrintWriter tempWriter = new PrintWriter(processFile)) {
+                tempWriter.println(new Gson().toJson(processes));
             }
         } catch (IOException e) {
             // Nothing
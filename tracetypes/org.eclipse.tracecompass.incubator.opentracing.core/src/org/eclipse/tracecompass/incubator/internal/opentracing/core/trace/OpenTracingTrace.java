@@ -12,12 +12,12 @@
 package org.eclipse.tracecompass.incubator.internal.opentracing.core.trace;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
@@ -32,6 +32,7 @@ import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.IOpenT
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingAspects;
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingEvent;
 import org.eclipse.tracecompass.incubator.internal.opentracing.core.event.OpenTracingField;
+import org.eclipse.tracecompass.incubator.internal.opentracing.core.trace.OpenTracingProcessesReader.TraceProcesses;
 import org.eclipse.tracecompass.internal.provisional.jsontrace.core.trace.JsonTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfLostEvent;
@@ -50,8 +51,6 @@ import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
 import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.stream.JsonReader;
 
 /**
  * Open Tracing trace. Can read jaeger unsorted or sorted JSON traces.
@@ -110,16 +109,19 @@ public class OpenTracingTrace extends JsonTrace {
      *            trace file path
      */
     public void registerProcesses(String path) {
-        try (FileReader fileReader = new FileReader(path)) {
-            try (JsonReader reader = new JsonReader(fileReader);) {
-                Gson gson = new Gson();
-                JsonObject object = gson.fromJson(reader, JsonObject.class);
-                JsonElement trace = object.get("data").getAsJsonArray().get(0); //$NON-NLS-1$
-                JsonObject processes = trace.getAsJsonObject().get("processes").getAsJsonObject(); //$NON-NLS-1$
-                for (int i = 1; i <= processes.size(); i++) {
-                    String processName = "p" + i; //$NON-NLS-1$
-                    fProcesses.put(processName, gson.toJson(processes.get(processName)));
+        try {
+            Gson gson = new Gson();
+            boolean first = true;
+            for (TraceProcesses traceProcesses : OpenTracingProcessesReader.read(path)) {
+                for (Entry<String, JsonElement> process : traceProcesses.getProcesses().entrySet()) {
+                    String json = gson.toJson(process.getValue());
+                    fProcesses.put(OpenTracingField.getProcessKey(traceProcesses.getTraceId(), process.getKey()), json);
+                    if (first) {
+                        // For the spans without a trace ID
+                        fProcesses.put(process.getKey(), json);
+                    }
                 }
+                first = false;
             }
         } catch (IOException e) {
             // Nothing
@@ -232,7 +234,10 @@ public class OpenTracingTrace extends JsonTrace {
                 }
                 String nextJson = readNextEventString(() -> fFileInput.read());
                 if (nextJson != null) {
-                    String process = fProcesses.get(OpenTracingField.getProcess(nextJson));
+                    String process = fProcesses.get(OpenTracingField.getProcessKey(nextJson));
+                    if (process == null) {
+                        process = fProcesses.get(OpenTracingField.getProcess(nextJson));
+                    }
                     OpenTracingField field = OpenTracingField.parseJson(nextJson, process);
                     if (field == null) {
                         return null;
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.perf.profiling.core.tests.perf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
+import org.eclipse.tracecompass.incubator.callstack.core.callgraph.CallGraph;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.callgraph.PerfCallchainAnalysisModule;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventType;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.util.Pair;
+import org.eclipse.tracecompass.tmf.tests.stubs.trace.xml.TmfXmlTraceStubNs;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Benchmarks the aggregation of the perf callchain samples of many threads by
+ * the {@link PerfCallchainAnalysisModule}. The synthetic samples are created
+ * in memory, so only the processing of the samples is measured, not the
+ * reading of a trace.
+ */
+public class PerfCallchainBenchmark {
+
+    /**
+     * Test test ID for perf callchain benchmarks
+     */
+    public static final String TEST_ID = "org.eclipse.tracecompass.incubator#PerfCallchain#";
+    private static final String TEST_CALLCHAINS = "Sampled call graph, %d samples, %d threads";
+
+    private static final long SEED = 9784529384L;
+    private static final int NB_SAMPLES = 10000000;
+    private static final int NB_EVENTS = 100000;
+    private static final int NB_PROCESSES = 100;
+    private static final int NB_THREADS = 4000;
+    private static final int NB_ADDRESSES = 2000;
+    private static final int MAX_DEPTH = 30;
+    private static final int LOOP_COUNT = 5;
+
+    private static final String EVENT_NAME = "cycles";
+    private static final String FIELD_CALLCHAIN = "perf_callchain";
+    private static final String FIELD_PID = "perf_pid";
+    private static final String FIELD_TID = "perf_tid";
+
+    private static @Nullable ITmfTrace sfTrace = null;
+    private static List<ITmfEvent> sfEvents = new ArrayList<>();
+
+    /**
+     * The analysis, to process the samples directly
+     */
+    private static class BenchmarkModule extends PerfCallchainAnalysisModule {
+        public void processSample(ITmfEvent event, CallGraph callGraph) {
+            Pair<ICallStackElement, AggregatedCallSite> stackTrace = getProfiledStackTrace(event);
+            assertNotNull(stackTrace);
+            callGraph.addAggregatedCallSite(stackTrace.getFirst(), stackTrace.getSecond());
+        }
+    }
+
+    /**
+     * Generate the synthetic samples. The samples are cycled through to get
+     * the total number of samples.
+     */
+    @BeforeClass
+    public static void generateSamples() {
+        Random random = new Random(SEED);
+        ITmfTrace trace = new TmfXmlTraceStubNs();
+        TmfEventType type = new TmfEventType(EVENT_NAME, null);
+        List<ITmfEvent> events = new ArrayList<>(NB_EVENTS);
+        for (int i = 0; i < NB_EVENTS; i++) {
+            int tid = random.nextInt(NB_THREADS);
+            long[] callchain = new long[1 + random.nextInt(MAX_DEPTH)];
+            for (int j = 0; j < callchain.length; j++) {
+                // Few distinct addresses at the bottom of the stacks
+                callchain[j] = 0x400000L + random.nextInt(1 + NB_ADDRESSES * (callchain.length - j) / callchain.length);
+            }
+            ITmfEventField[] fields = new ITmfEventField[] {
+                    new TmfEventField(FIELD_CALLCHAIN, callchain, null),
+                    new TmfEventField(FIELD_PID, (long) (tid % NB_PROCESSES), null),
+                    new TmfEventField(FIELD_TID, (long) tid, null)
+            };
+            ITmfEventField content = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, null, fields);
+            events.add(new TmfEvent(trace, i, TmfTimestamp.fromNanos(i * 1000L), type, content));
+        }
+        sfTrace = trace;
+        sfEvents = events;
+    }
+
+    /**
+     * Dispose of the samples
+     */
+    @AfterClass
+    public static void disposeSamples() {
+        sfEvents = new ArrayList<>();
+        ITmfTrace trace = sfTrace;
+        if (trace != null) {
+            trace.dispose();
+        }
+    }
+
+    /**
+     * Benchmark the aggregation of the samples
+     */
+    @Test
+    public void benchmarkCallchains() {
+        List<ITmfEvent> events = sfEvents;
+        ITmfEventField callchainField = events.get(0).getContent().getField(FIELD_CALLCHAIN);
+        assertNotNull(callchainField);
+        long[] firstCallchain = ((long[]) callchainField.getValue()).clone();
+
+        String testName = String.format(TEST_CALLCHAINS, NB_SAMPLES, NB_THREADS);
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + testName));
+        perf.tagAsSummary(pm, testName, Dimension.CPU_TIME);
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            BenchmarkModule module = new BenchmarkModule();
+            try {
+                CallGraph callGraph = new CallGraph();
+                pm.start();
+                for (int sample = 0; sample < NB_SAMPLES; sample++) {
+                    module.processSample(events.get(sample % NB_EVENTS), callGraph);
+                }
+                pm.stop();
+                assertEquals(NB_PROCESSES, callGraph.getElements().size());
+            } finally {
+                module.dispose();
+            }
+        }
+        pm.commit();
+        // The callchains of the events are not modified
+        assertArrayEquals(firstCallchain, (long[]) callchainField.getValue());
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.perf.profiling.core.tests.callgraph;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.callgraph.PerfSampleIndex;
+import org.junit.Test;
+
+/**
+ * Test the {@link PerfSampleIndex}
+ */
+public class PerfSampleIndexTest {
+
+    private static List<long[]> query(PerfSampleIndex index, int tid, long start, long end) {
+        List<long[]> samples = new ArrayList<>();
+        index.forEachSample(tid, start, end, (pid, timestamp, callchainId) -> samples.add(new long[] { pid, timestamp, callchainId }));
+        return samples;
+    }
+
+    /**
+     * Test that the callchains are interned and not kept from the caller
+     */
+    @Test
+    public void testCallchains() {
+        PerfSampleIndex index = new PerfSampleIndex();
+        long[] callchain = { 1, 2, 3 };
+        index.addSample(1, 2, 10, callchain);
+        callchain[2] = 4;
+        index.addSample(1, 3, 11, callchain);
+        index.addSample(1, 2, 12, new long[] { 1, 2, 3 });
+        index.close();
+
+        assertEquals(3, index.getNbSamples());
+        assertEquals(2, index.getNbCallchains());
+        List<long[]> samples = query(index, 2, 0, 100);
+        assertEquals(2, samples.size());
+        assertEquals(samples.get(0)[2], samples.get(1)[2]);
+        assertArrayEquals(new long[] { 1, 2, 3 }, index.getCallchain((int) samples.get(0)[2]));
+        samples = query(index, 3, 0, 100);
+        assertEquals(1, samples.size());
+        assertArrayEquals(new long[] { 1, 2, 4 }, index.getCallchain((int) samples.get(0)[2]));
+    }
+
+    /**
+     * Test the time range queries
+     */
+    @Test
+    public void testRanges() {
+        PerfSampleIndex index = new PerfSampleIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.addSample(1, i % 2, i * 10L, new long[] { i % 7 });
+        }
+        index.close();
+
+        // Bounds are inclusive
+        List<long[]> samples = query(index, 0, 100, 200);
+        assertEquals(6, samples.size());
+        assertEquals(100, samples.get(0)[1]);
+        assertEquals(200, samples.get(5)[1]);
+        samples = query(index, 1, 100, 200);
+        assertEquals(5, samples.size());
+        assertEquals(110, samples.get(0)[1]);
+        assertEquals(190, samples.get(4)[1]);
+
+        assertEquals(500, query(index, 0, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertEquals(0, query(index, 0, 10001, 20000).size());
+        assertEquals(0, query(index, 0, 200, 100).size());
+        assertEquals(0, query(index, 2, 0, 20000).size());
+    }
+
+    /**
+     * Test that samples added out of order are sorted
+     */
+    @Test
+    public void testOutOfOrder() {
+        PerfSampleIndex index = new PerfSampleIndex();
+        index.addSample(4, 1, 30, new long[] { 3 });
+        index.addSample(4, 1, 10, new long[] { 1 });
+        index.addSample(5, 1, 20, new long[] { 2 });
+        index.close();
+
+        List<long[]> samples = query(index, 1, 0, 100);
+        assertEquals(3, samples.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals((i + 1) * 10L, samples.get(i)[1]);
+            assertArrayEquals(new long[] { i + 1 }, index.getCallchain((int) samples.get(i)[2]));
+        }
+        assertEquals(5, samples.get(1)[0]);
+    }
+
+    /**
+     * Test the samples of a thread that outgrow the initial capacity
+     */
+    @Test
+    public void testGrowth() {
+        PerfSampleIndex index = new PerfSampleIndex();
+        for (int i = 0; i < 100000; i++) {
+            index.addSample(1, 1, i, new long[] { 1, i % 100 });
+        }
+        index.close();
+        assertEquals(100, index.getNbCallchains());
+        List<long[]> samples = query(index, 1, 500, 599);
+        assertEquals(100, samples.size());
+        assertArrayEquals(new long[] { 1, 0 }, index.getCallchain((int) samples.get(0)[2]));
+    }
+}
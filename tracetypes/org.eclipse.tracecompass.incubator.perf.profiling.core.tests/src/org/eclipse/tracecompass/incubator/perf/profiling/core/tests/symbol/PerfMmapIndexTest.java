@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.perf.profiling.core.tests.symbol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Region;
+import org.junit.Test;
+
+/**
+ * Test the {@link PerfMmapIndex}
+ */
+public class PerfMmapIndexTest {
+
+    private static final String LIBC = "/lib/libc.so";
+    private static final String LIBM = "/lib/libm.so";
+    private static final String APP = "/usr/bin/app";
+
+    private static PerfMmapIndex createIndex() {
+        return new PerfMmapIndex.Builder()
+                // Added out of order on purpose
+                .addRegion(1, 0x7000, 100, Long.MAX_VALUE, LIBC)
+                .addRegion(1, 0x1000, 10, Long.MAX_VALUE, APP)
+                .addRegion(1, 0x8000, 200, 299, LIBM)
+                .addRegion(1, 0x8000, 300, Long.MAX_VALUE, LIBC)
+                .addRegion(2, 0x1000, 10, Long.MAX_VALUE, LIBM)
+                .build();
+    }
+
+    private static Region getRegion(PerfMmapIndex index, int pid, long timestamp, long address) {
+        Region region = index.getRegion(pid, timestamp, address);
+        assertNotNull(region);
+        return region;
+    }
+
+    /**
+     * Test the region of addresses
+     */
+    @Test
+    public void testRegions() {
+        PerfMmapIndex index = createIndex();
+
+        assertEquals(APP, getRegion(index, 1, 150, 0x1000).getFilename());
+        assertEquals(APP, getRegion(index, 1, 150, 0x6fff).getFilename());
+        Region region = getRegion(index, 1, 150, 0x9000);
+        assertEquals(LIBC, region.getFilename());
+        assertEquals(0x7000, region.getBaseAddress());
+
+        region = getRegion(index, 1, 250, 0x9000);
+        assertEquals(LIBM, region.getFilename());
+        assertEquals(0x8000, region.getBaseAddress());
+        region = getRegion(index, 1, 350, 0x9000);
+        assertEquals(LIBC, region.getFilename());
+        assertEquals(0x8000, region.getBaseAddress());
+
+        assertEquals(LIBM, getRegion(index, 2, 150, 0x9000).getFilename());
+
+        // Before the first mapping, below the first address or unknown process
+        assertNull(index.getRegion(1, 5, 0x9000));
+        assertNull(index.getRegion(1, 150, 0x500));
+        assertNull(index.getRegion(3, 150, 0x9000));
+    }
+
+    /**
+     * Test the time range during which a region is the one of an address
+     */
+    @Test
+    public void testValidity() {
+        PerfMmapIndex index = createIndex();
+
+        Region region = getRegion(index, 1, 50, 0x9000);
+        assertEquals(APP, region.getFilename());
+        assertEquals(10, region.getValidFrom());
+        assertEquals(99, region.getValidTo());
+
+        // libc at 0x7000 is shadowed by the mappings at 0x8000 from 200
+        region = getRegion(index, 1, 150, 0x9000);
+        assertEquals(100, region.getValidFrom());
+        assertEquals(199, region.getValidTo());
+
+        region = getRegion(index, 1, 250, 0x9000);
+        assertEquals(200, region.getValidFrom());
+        assertEquals(299, region.getValidTo());
+
+        region = getRegion(index, 1, 150, 0x7fff);
+        assertEquals(100, region.getValidFrom());
+        assertEquals(Long.MAX_VALUE, region.getValidTo());
+    }
+}
@@ -14,19 +14,24 @@ package org.eclipse.tracecompass.incubator.internal.perf.profiling.core.callgrap
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Map.Entry;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.analysis.core.concepts.AggregatedCallSite;
+import org.eclipse.tracecompass.incubator.analysis.core.concepts.ICallStackSymbol;
 import org.eclipse.tracecompass.incubator.analysis.core.concepts.ISamplingDataProvider;
 import org.eclipse.tracecompass.incubator.analysis.core.weighted.tree.IWeightedTreeGroupDescriptor;
 import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackElement;
 import org.eclipse.tracecompass.incubator.callstack.core.base.CallStackGroupDescriptor;
 import org.eclipse.tracecompass.incubator.callstack.core.base.ICallStackElement;
 import org.eclipse.tracecompass.incubator.callstack.core.sampled.callgraph.ProfilingCallGraphAnalysisModule;
+import org.eclipse.tracecompass.incubator.callstack.core.symbol.CallStackSymbolFactory;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.Activator;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
@@ -60,6 +65,10 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
 
     private final CallStackGroupDescriptor fThreadDescriptor;
     private final CallStackGroupDescriptor fProcessDescriptor;
+    private @Nullable PerfSampleIndex fSampleIndex = null;
+    /* The elements of the processes by pid, and of the threads by pid and tid */
+    private final Map<Integer, ICallStackElement> fProcessElements = new HashMap<>();
+    private final Map<Long, ICallStackElement> fThreadElements = new HashMap<>();
     // private final ProfilingGroup fGroupNode = new ProfilingGroup("Data",
     // CallGraphAllGroupDescriptor.getInstance());
 
@@ -78,67 +87,89 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
             return null;
         }
         // Get the callchain if available
-        ITmfEventField field = event.getContent().getField(FIELD_PERF_CALLCHAIN);
-        if (field == null) {
+        ITmfEventField content = event.getContent();
+        Object value = content.getFieldValue(Object.class, FIELD_PERF_CALLCHAIN);
+        if (!(value instanceof long[]) || ((long[]) value).length == 0) {
             return null;
         }
-        long[] value = (long[]) field.getValue();
-        int size = value.length;
-        long tmp;
-        // Reverse the stack so that element at position 0 is the bottom
-        for (int i = 0, mid = size >> 1, j = size - 1; i < mid; i++, j--) {
-            tmp = value[i];
-            value[i] = value[j];
-            value[j] = tmp;
+        Long pidField = content.getFieldValue(Long.class, FIELD_PERF_PID);
+        Long tidField = content.getFieldValue(Long.class, FIELD_PERF_TID);
+        ICallStackElement element = getElement(pidField == null ? -1 : pidField.intValue(), tidField == null ? -1 : tidField.intValue());
+        return new Pair<>(element, getCallSiteFromCallchain(element, (long[]) value, event.getTimestamp().getValue()));
+    }
+
+    /**
+     * Get the callsite of a perf callchain, where the symbol at position 0 is
+     * the top of the stack. The callchain is read in place, from the bottom of
+     * the stack, without being copied nor modified.
+     *
+     * @param element
+     *            The element of the callchain
+     * @param callchain
+     *            The callchain, with at least one symbol
+     * @param ts
+     *            The timestamp of the callchain
+     * @return The callsite of the bottom of the stack
+     */
+    private AggregatedCallSite getCallSiteFromCallchain(ICallStackElement element, long[] callchain, long ts) {
+        AggregatedCallSite prevCallsite = createCallSite(CallStackSymbolFactory.createSymbol(callchain[0], element, ts));
+        for (int i = 1; i < callchain.length; i++) {
+            AggregatedCallSite callsite = createCallSite(CallStackSymbolFactory.createSymbol(callchain[i], element, ts));
+            callsite.addChild(prevCallsite);
+            prevCallsite = callsite;
         }
-        ICallStackElement element = getElement(event);
-        return new Pair<>(element, getCallSite(element, value, event.getTimestamp().getValue()));
+        return prevCallsite;
     }
 
     /**
-     * @param event
+     * Get the element of a thread, creating it and its process element if
+     * needed
+     *
+     * @param pid
+     *            The ID of the process
+     * @param tid
+     *            The ID of the thread
      */
-    private ICallStackElement getElement(ITmfEvent event) {
-        // Find a root elements with the same PID
-        Collection<ICallStackElement> rootElements = getRootElements();
-        Long pidField = event.getContent().getFieldValue(Long.class, FIELD_PERF_PID);
-        Long pid = pidField == null ? -1 : pidField;
-        Long tidField = event.getContent().getFieldValue(Long.class, FIELD_PERF_TID);
-        Long tid = tidField == null ? -1 : tidField;
-        Optional<ICallStackElement> process = rootElements.stream()
-                .filter(e -> e.getName().equals(String.valueOf(pid)))
-                .findFirst();
-        if (!process.isPresent()) {
-            // Process is null, create both process and thread elements and return
-            ICallStackElement processEl = new CallStackElement(String.valueOf(pid), fProcessDescriptor, fThreadDescriptor, null) {
+    private synchronized ICallStackElement getElement(int pid, int tid) {
+        long key = ((long) pid << 32) | (tid & 0xffffffffL);
+        ICallStackElement threadEl = fThreadElements.get(key);
+        if (threadEl != null) {
+            return threadEl;
+        }
+        ICallStackElement processEl = fProcessElements.get(pid);
+        if (processEl == null) {
+            // Process is null, create the process element
+            processEl = new CallStackElement(String.valueOf(pid), fProcessDescriptor, fThreadDescriptor, null) {
 
                 @Override
                 protected int retrieveSymbolKeyAt(long time) {
-                    return pid.intValue();
+                    return pid;
                 }
 
             };
-            ICallStackElement threadEl = new CallStackElement(String.valueOf(tid), fThreadDescriptor, null, processEl);
             processEl.setSymbolKeyElement(processEl);
-            threadEl.setSymbolKeyElement(processEl);
-            processEl.addChild(threadEl);
             addRootElement(processEl);
-            return threadEl;
-        }
-        ICallStackElement processEl = process.get();
-
-        // Process exists, find a thread element under it or create it
-        Optional<ICallStackElement> thread = processEl.getChildrenElements().stream()
-                .filter(e -> e.getName().equals(String.valueOf(tid)))
-                .findFirst();
-
-        if (thread.isPresent()) {
-            return thread.get();
+            fProcessElements.put(pid, processEl);
         }
-        ICallStackElement threadEl = new CallStackElement(String.valueOf(tid), fThreadDescriptor, null, processEl);
+        // Create the thread element under the process
+        threadEl = new CallStackElement(String.valueOf(tid), fThreadDescriptor, null, processEl);
+        threadEl.setSymbolKeyElement(processEl);
         processEl.addChild(threadEl);
+        fThreadElements.put(key, threadEl);
         return threadEl;
+    }
 
+    @Override
+    protected @Nullable ICallStackElement restoreElement(List<String> path) {
+        // The elements are the threads, under their process
+        if (path.size() != 2) {
+            return null;
+        }
+        try {
+            return getElement(Integer.parseInt(path.get(0)), Integer.parseInt(path.get(1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     @Override
@@ -168,19 +199,72 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
 
     @Override
     public Collection<AggregatedCallSite> getSamplingData(int tid, long start, long end) {
+        PerfSampleIndex index = getSampleIndex();
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        // Count the samples of each callchain and process in the range
+        Map<Long, long[]> counts = new LinkedHashMap<>();
+        index.forEachSample(tid, start, end, (pid, timestamp, callchainId) -> {
+            long[] count = counts.computeIfAbsent(((long) callchainId << 32) | (pid & 0xffffffffL), k -> new long[] { 0, timestamp });
+            count[0]++;
+        });
+        Map<ICallStackSymbol, AggregatedCallSite> callsites = new LinkedHashMap<>();
+        for (Entry<Long, long[]> entry : counts.entrySet()) {
+            long key = entry.getKey();
+            long[] count = entry.getValue();
+            long[] callchain = index.getCallchain((int) (key >>> 32));
+            ICallStackElement element = getElement((int) key, tid);
+            AggregatedCallSite callsite = getCallSiteFromCallchain(element, callchain, count[1]);
+            // The callsite is a single branch, each frame has the same weight
+            AggregatedCallSite frame = callsite;
+            while (frame != null) {
+                frame.addToWeight(count[0] - 1);
+                Collection<AggregatedCallSite> callees = frame.getCallees();
+                frame = callees.isEmpty() ? null : callees.iterator().next();
+            }
+            AggregatedCallSite site = callsites.get(callsite.getObject());
+            if (site == null) {
+                callsites.put(callsite.getObject(), callsite);
+            } else {
+                site.merge(callsite);
+            }
+        }
+        return new ArrayList<>(callsites.values());
+    }
+
+    /**
+     * Get the index of the samples of the trace, reading the trace to build it
+     * the first time it is requested
+     *
+     * @return The sample index, or <code>null</code> if the trace is not set or
+     *         reading it was cancelled
+     */
+    private synchronized @Nullable PerfSampleIndex getSampleIndex() {
+        PerfSampleIndex index = fSampleIndex;
+        if (index != null) {
+            return index;
+        }
         ITmfTrace trace = getTrace();
         if (trace == null) {
-            return Collections.emptyList();
+            return null;
         }
-        List<AggregatedCallSite> callsites = new ArrayList<>();
-        TmfEventRequest request = new PerfProfilingEventRequest(trace, start, end, tid, callsites);
+        index = new PerfSampleIndex();
+        TmfEventRequest request = new PerfSampleIndexRequest(trace, index);
         trace.sendRequest(request);
         try {
             request.waitForCompletion();
         } catch (InterruptedException e) {
-
+            Activator.getInstance().logError("Perf sample index request interrupted", e); //$NON-NLS-1$
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (!request.isCompleted() || request.isCancelled() || request.isFailed()) {
+            return null;
         }
-        return callsites;
+        index.close();
+        fSampleIndex = index;
+        return index;
     }
 
     @Override
@@ -192,35 +276,27 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
         return Collections.singleton(trace.getHostId());
     }
 
-    private class PerfProfilingEventRequest extends TmfEventRequest {
+    private static class PerfSampleIndexRequest extends TmfEventRequest {
 
-        private final int fTid;
         private final ITmfTrace fTrace;
-        private final List<AggregatedCallSite> fSites;
+        private final PerfSampleIndex fIndex;
 
         /**
          * Constructor
          *
          * @param trace
          *            The trace
-         * @param start
-         *            The start time of the request
-         * @param end
-         *            The end time of the request
-         * @param tid
-         *            The tid for which to get the samples
-         * @param callsites
-         *            A list of callsites to fill
+         * @param index
+         *            The index to fill with the samples of the trace
          */
-        public PerfProfilingEventRequest(ITmfTrace trace, long start, long end, int tid, List<AggregatedCallSite> callsites) {
+        public PerfSampleIndexRequest(ITmfTrace trace, PerfSampleIndex index) {
             super(TmfEvent.class,
-                    new TmfTimeRange(TmfTimestamp.fromNanos(start), TmfTimestamp.fromNanos(end)),
+                    TmfTimeRange.ETERNITY,
                     0,
                     ITmfEventRequest.ALL_DATA,
                     ITmfEventRequest.ExecutionType.BACKGROUND);
-            fTid = tid;
             fTrace = trace;
-            fSites = callsites;
+            fIndex = index;
         }
 
         @Override
@@ -242,23 +318,18 @@ public class PerfCallchainAnalysisModule extends ProfilingCallGraphAnalysisModul
         }
 
         private void handleEvent(ITmfEvent event) {
-            Long tidField = event.getContent().getFieldValue(Long.class, FIELD_PERF_TID);
-            Long tid = tidField == null ? -1 : tidField;
-            if (tid.intValue() != fTid) {
+            if (!event.getName().startsWith(EVENT_SAMPLING)) {
                 return;
             }
-            Pair<ICallStackElement, AggregatedCallSite> stackTrace = getProfiledStackTrace(event);
-            if (stackTrace == null) {
+            Object value = event.getContent().getFieldValue(Object.class, FIELD_PERF_CALLCHAIN);
+            if (!(value instanceof long[]) || ((long[]) value).length == 0) {
                 return;
             }
-            AggregatedCallSite perfCallSite = stackTrace.getSecond();
-            for (AggregatedCallSite site : fSites) {
-                if (site.getObject().equals(perfCallSite.getObject())) {
-                    site.merge(perfCallSite);
-                    return;
-                }
-            }
-            fSites.add(perfCallSite);
+            Long pidField = event.getContent().getFieldValue(Long.class, FIELD_PERF_PID);
+            Long tidField = event.getContent().getFieldValue(Long.class, FIELD_PERF_TID);
+            int pid = pidField == null ? -1 : pidField.intValue();
+            int tid = tidField == null ? -1 : tidField.intValue();
+            fIndex.addSample(pid, tid, event.getTimestamp().getValue(), (long[]) value);
         }
     }
 
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.perf.profiling.core.callgraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * An index of the sampled callchains of a trace, per thread. Each distinct
+ * callchain is kept only once and identified by an integer, and the samples of
+ * each thread are kept in time-ordered primitive arrays, so that the samples
+ * of a thread in a time range are found with a binary search and read
+ * contiguously.
+ *
+ * The index is filled with {@link #addSample(int, int, long, long[])} and must
+ * be closed with {@link #close()} before it is queried.
+ */
+public final class PerfSampleIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Consumer of the samples of a thread
+     */
+    @FunctionalInterface
+    public interface ISampleConsumer {
+        /**
+         * Consume a sample
+         *
+         * @param pid
+         *            The ID of the process of the sample
+         * @param timestamp
+         *            The timestamp of the sample
+         * @param callchainId
+         *            The ID of the callchain of the sample, see
+         *            {@link PerfSampleIndex#getCallchain(int)}
+         */
+        void accept(int pid, long timestamp, int callchainId);
+    }
+
+    private static final class Callchain {
+        private final long[] fAddresses;
+        private final int fHash;
+
+        public Callchain(long[] addresses) {
+            fAddresses = addresses;
+            fHash = Arrays.hashCode(addresses);
+        }
+
+        @Override
+        public int hashCode() {
+            return fHash;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof Callchain)) {
+                return false;
+            }
+            Callchain other = (Callchain) obj;
+            return fHash == other.fHash && Arrays.equals(fAddresses, other.fAddresses);
+        }
+    }
+
+    private static final class ThreadSamples {
+        private long[] fTimestamps = new long[INITIAL_CAPACITY];
+        private int[] fPids = new int[INITIAL_CAPACITY];
+        private int[] fCallchains = new int[INITIAL_CAPACITY];
+        private int fSize = 0;
+        private boolean fSorted = true;
+
+        public void add(int pid, long timestamp, int callchainId) {
+            if (fSize == fTimestamps.length) {
+                int capacity = fSize + (fSize >> 1);
+                fTimestamps = Arrays.copyOf(fTimestamps, capacity);
+                fPids = Arrays.copyOf(fPids, capacity);
+                fCallchains = Arrays.copyOf(fCallchains, capacity);
+            }
+            if (fSize > 0 && timestamp < fTimestamps[fSize - 1]) {
+                fSorted = false;
+            }
+            fTimestamps[fSize] = timestamp;
+            fPids[fSize] = pid;
+            fCallchains[fSize] = callchainId;
+            fSize++;
+        }
+
+        public void close() {
+            if (!fSorted) {
+                sort();
+            }
+            fTimestamps = Arrays.copyOf(fTimestamps, fSize);
+            fPids = Arrays.copyOf(fPids, fSize);
+            fCallchains = Arrays.copyOf(fCallchains, fSize);
+        }
+
+        private void sort() {
+            Integer[] order = new Integer[fSize];
+            for (int i = 0; i < fSize; i++) {
+                order[i] = i;
+            }
+            // Stable sort, samples with the same timestamp keep their order
+            Arrays.sort(order, (a, b) -> Long.compare(fTimestamps[a], fTimestamps[b]));
+            long[] timestamps = new long[fSize];
+            int[] pids = new int[fSize];
+            int[] callchains = new int[fSize];
+            for (int i = 0; i < fSize; i++) {
+                int from = order[i];
+                timestamps[i] = fTimestamps[from];
+                pids[i] = fPids[from];
+                callchains[i] = fCallchains[from];
+            }
+            fTimestamps = timestamps;
+            fPids = pids;
+            fCallchains = callchains;
+            fSorted = true;
+        }
+
+        /**
+         * Get the position of the first sample at or after a timestamp
+         */
+        public int lowerBound(long timestamp) {
+            int low = 0;
+            int high = fSize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (fTimestamps[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final Map<Callchain, Integer> fCallchainIds = new HashMap<>();
+    private final List<long[]> fCallchains = new ArrayList<>();
+    private final Map<Integer, ThreadSamples> fThreads = new HashMap<>();
+    private long fNbSamples = 0;
+    private boolean fClosed = false;
+
+    /**
+     * Add a sample to the index. The samples of a thread are expected to be
+     * added in time order, but they are sorted when the index is closed if
+     * they are not.
+     *
+     * @param pid
+     *            The ID of the process of the sample
+     * @param tid
+     *            The ID of the thread of the sample
+     * @param timestamp
+     *            The timestamp of the sample
+     * @param callchain
+     *            The callchain of the sample. The array is not kept by the
+     *            index, so the caller may reuse it
+     */
+    public void addSample(int pid, int tid, long timestamp, long[] callchain) {
+        if (fClosed) {
+            throw new IllegalStateException("Cannot add samples to a closed index"); //$NON-NLS-1$
+        }
+        ThreadSamples samples = fThreads.computeIfAbsent(tid, t -> new ThreadSamples());
+        samples.add(pid, timestamp, intern(callchain));
+        fNbSamples++;
+    }
+
+    private int intern(long[] callchain) {
+        Integer id = fCallchainIds.get(new Callchain(callchain));
+        if (id != null) {
+            return id;
+        }
+        long[] copy = Arrays.copyOf(callchain, callchain.length);
+        int newId = fCallchains.size();
+        fCallchains.add(copy);
+        fCallchainIds.put(new Callchain(copy), newId);
+        return newId;
+    }
+
+    /**
+     * Close the index, after which no sample can be added and it can be
+     * queried. The interning table is released at this point.
+     */
+    public void close() {
+        if (fClosed) {
+            return;
+        }
+        for (ThreadSamples samples : fThreads.values()) {
+            samples.close();
+        }
+        fCallchainIds.clear();
+        fClosed = true;
+    }
+
+    /**
+     * Get whether this index is closed
+     *
+     * @return Whether the index is closed and can be queried
+     */
+    public boolean isClosed() {
+        return fClosed;
+    }
+
+    /**
+     * Visit the samples of a thread in a time range, in time order
+     *
+     * @param tid
+     *            The ID of the thread
+     * @param start
+     *            The start of the range, inclusive
+     * @param end
+     *            The end of the range, inclusive
+     * @param consumer
+     *            The consumer of the samples
+     */
+    public void forEachSample(int tid, long start, long end, ISampleConsumer consumer) {
+        if (!fClosed) {
+            throw new IllegalStateException("The index is not closed yet"); //$NON-NLS-1$
+        }
+        ThreadSamples samples = fThreads.get(tid);
+        if (samples == null || start > end) {
+            return;
+        }
+        long[] timestamps = samples.fTimestamps;
+        for (int i = samples.lowerBound(start); i < samples.fSize && timestamps[i] <= end; i++) {
+            consumer.accept(samples.fPids[i], timestamps[i], samples.fCallchains[i]);
+        }
+    }
+
+    /**
+     * Get a callchain from its ID. The returned array must not be modified.
+     *
+     * @param callchainId
+     *            The ID of the callchain
+     * @return The callchain, as it was added to the index
+     */
+    public long[] getCallchain(int callchainId) {
+        return fCallchains.get(callchainId);
+    }
+
+    /**
+     * Get the number of distinct callchains in this index
+     *
+     * @return The number of callchains
+     */
+    public int getNbCallchains() {
+        return fCallchains.size();
+    }
+
+    /**
+     * Get the number of samples in this index
+     *
+     * @return The number of samples
+     */
+    public long getNbSamples() {
+        return fNbSamples;
+    }
+}
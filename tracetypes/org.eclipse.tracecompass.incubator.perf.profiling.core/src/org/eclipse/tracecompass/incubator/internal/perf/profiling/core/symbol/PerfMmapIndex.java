@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * An index of the memory mapped regions of the processes, as saved by the
+ * {@link PerfMmapAnalysisModule}. The regions of each process are kept in
+ * primitive arrays sorted by base address, so the region of an address at a
+ * given time is found by a binary search.
+ */
+public final class PerfMmapIndex {
+
+    private final Map<Integer, ProcessRegions> fProcesses;
+    private final List<String> fFiles;
+
+    /**
+     * The region of a process that contains an address at some time, with the
+     * time range during which it is the region of this address
+     */
+    public static final class Region {
+        private final long fBaseAddress;
+        private final long fValidFrom;
+        private final long fValidTo;
+        private final String fFilename;
+
+        private Region(long baseAddress, long validFrom, long validTo, String filename) {
+            fBaseAddress = baseAddress;
+            fValidFrom = validFrom;
+            fValidTo = validTo;
+            fFilename = filename;
+        }
+
+        /**
+         * Get the base address of the region
+         *
+         * @return The base address
+         */
+        public long getBaseAddress() {
+            return fBaseAddress;
+        }
+
+        /**
+         * Get the time from which this region is the one of the address. It
+         * may be later than the start of the mapping, if another region
+         * closer to the address was mapped before.
+         *
+         * @return The start of the validity of the region, inclusive
+         */
+        public long getValidFrom() {
+            return fValidFrom;
+        }
+
+        /**
+         * Get the time until which this region is the one of the address. It
+         * may be earlier than the end of the mapping, if another region closer
+         * to the address is mapped after.
+         *
+         * @return The end of the validity of the region, inclusive
+         */
+        public long getValidTo() {
+            return fValidTo;
+        }
+
+        /**
+         * Get the file mapped in this region
+         *
+         * @return The file name
+         */
+        public String getFilename() {
+            return fFilename;
+        }
+    }
+
+    /**
+     * Builder of the index, the regions may be added in any order
+     */
+    public static final class Builder {
+        private final Map<Integer, List<long[]>> fRegions = new HashMap<>();
+        private final Map<String, Integer> fFileIds = new HashMap<>();
+        private final List<String> fFiles = new ArrayList<>();
+
+        /**
+         * Add a mapped region
+         *
+         * @param pid
+         *            The ID of the process
+         * @param baseAddress
+         *            The address at which the file is mapped
+         * @param validFrom
+         *            The time from which the file is mapped, inclusive
+         * @param validTo
+         *            The time until which the file is mapped, inclusive
+         * @param filename
+         *            The file mapped
+         * @return This builder
+         */
+        public Builder addRegion(int pid, long baseAddress, long validFrom, long validTo, String filename) {
+            Integer fileId = fFileIds.get(filename);
+            if (fileId == null) {
+                fileId = fFiles.size();
+                fFiles.add(filename);
+                fFileIds.put(filename, fileId);
+            }
+            fRegions.computeIfAbsent(pid, p -> new ArrayList<>()).add(new long[] { baseAddress, validFrom, validTo, fileId });
+            return this;
+        }
+
+        /**
+         * Build the index
+         *
+         * @return The index
+         */
+        public PerfMmapIndex build() {
+            Map<Integer, ProcessRegions> processes = new HashMap<>();
+            for (Entry<Integer, List<long[]>> entry : fRegions.entrySet()) {
+                processes.put(entry.getKey(), new ProcessRegions(entry.getValue()));
+            }
+            return new PerfMmapIndex(processes, new ArrayList<>(fFiles));
+        }
+    }
+
+    private static final class ProcessRegions {
+        private final long[] fBaseAddresses;
+        private final long[] fValidFrom;
+        private final long[] fValidTo;
+        private final int[] fFileIds;
+
+        public ProcessRegions(List<long[]> regions) {
+            // Sort by base address, then by time
+            regions.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            int size = regions.size();
+            fBaseAddresses = new long[size];
+            fValidFrom = new long[size];
+            fValidTo = new long[size];
+            fFileIds = new int[size];
+            for (int i = 0; i < size; i++) {
+                long[] region = regions.get(i);
+                fBaseAddresses[i] = region[0];
+                fValidFrom[i] = region[1];
+                fValidTo[i] = region[2];
+                fFileIds[i] = (int) region[3];
+            }
+        }
+
+        /**
+         * Get the position of the last region with a base address lower or
+         * equal to the address
+         */
+        public int floor(long address) {
+            int low = 0;
+            int high = fBaseAddresses.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (fBaseAddresses[mid] <= address) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+
+    private PerfMmapIndex(Map<Integer, ProcessRegions> processes, List<String> files) {
+        fProcesses = processes;
+        fFiles = files;
+    }
+
+    /**
+     * Build the index from the state system of the {@link PerfMmapAnalysisModule}.
+     * The attributes are the process IDs, with the base addresses as
+     * sub-attributes, whose value is the name of the mapped file.
+     *
+     * @param stateSystem
+     *            The state system, which should be completely built
+     * @return The index
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed while reading it
+     */
+    public static PerfMmapIndex create(ITmfStateSystem stateSystem) throws StateSystemDisposedException {
+        Builder builder = new Builder();
+        Map<Integer, long[]> baddrQuarks = new HashMap<>();
+        for (int pidQuark : stateSystem.getSubAttributes(ITmfStateSystem.ROOT_ATTRIBUTE, false)) {
+            Integer pid = parseInt(stateSystem.getAttributeName(pidQuark));
+            if (pid == null) {
+                continue;
+            }
+            for (int baddrQuark : stateSystem.getSubAttributes(pidQuark, false)) {
+                try {
+                    baddrQuarks.put(baddrQuark, new long[] { pid, Long.parseLong(stateSystem.getAttributeName(baddrQuark)) });
+                } catch (NumberFormatException e) {
+                    // Not a base address, ignore
+                }
+            }
+        }
+        if (baddrQuarks.isEmpty()) {
+            return builder.build();
+        }
+        for (ITmfStateInterval interval : stateSystem.query2D(baddrQuarks.keySet(), stateSystem.getStartTime(), stateSystem.getCurrentEndTime())) {
+            Object value = interval.getValue();
+            long[] region = baddrQuarks.get(interval.getAttribute());
+            if (value == null || region == null) {
+                continue;
+            }
+            builder.addRegion((int) region[0], region[1], interval.getStartTime(), interval.getEndTime(), String.valueOf(value));
+        }
+        return builder.build();
+    }
+
+    private static @Nullable Integer parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the region containing an address of a process at a given time. It
+     * is the mapped region with the highest base address that is lower or
+     * equal to the address.
+     *
+     * @param pid
+     *            The ID of the process
+     * @param timestamp
+     *            The time
+     * @param address
+     *            The address to look up
+     * @return The region, or <code>null</code> if no region is mapped below the
+     *         address at this time
+     */
+    public @Nullable Region getRegion(int pid, long timestamp, long address) {
+        ProcessRegions regions = fProcesses.get(pid);
+        if (regions == null) {
+            return null;
+        }
+        /*
+         * Walk down from the closest base address to the first one mapped at
+         * that time. The regions skipped on the way bound the time during
+         * which the region found is the one of the address.
+         */
+        long validFrom = Long.MIN_VALUE;
+        long validTo = Long.MAX_VALUE;
+        for (int i = regions.floor(address); i >= 0; i--) {
+            long from = regions.fValidFrom[i];
+            long to = regions.fValidTo[i];
+            if (from <= timestamp && timestamp <= to) {
+                return new Region(regions.fBaseAddresses[i], Math.max(from, validFrom), Math.min(to, validTo), fFiles.get(regions.fFileIds[i]));
+            }
+            if (to < timestamp) {
+                validFrom = Math.max(validFrom, to + 1);
+            } else {
+                validTo = Math.min(validTo, from - 1);
+            }
+        }
+        return null;
+    }
+}
@@ -16,6 +16,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,6 +28,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.Activator;
+import org.eclipse.tracecompass.incubator.internal.perf.profiling.core.symbol.PerfMmapIndex.Region;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
@@ -41,9 +43,57 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
  */
 public class PerfMmapSymbolProvider implements ISymbolProvider {
 
+    private static final int CACHE_SIZE = 65536;
+
     private final PerfMmapAnalysisModule fMmapModule;
     private final ITmfTrace fTrace;
     private final Map<String, IMappingFile> fSymbolMapping = new HashMap<>();
+    private volatile @Nullable PerfMmapIndex fIndex = null;
+    /* Least recently used symbols, by process and address */
+    private final Map<SymbolKey, CachedSymbol> fCache = new LinkedHashMap<SymbolKey, CachedSymbol>(CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(@Nullable Entry<SymbolKey, CachedSymbol> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static final class SymbolKey {
+        private final int fPid;
+        private final long fAddress;
+
+        public SymbolKey(int pid, long address) {
+            fPid = pid;
+            fAddress = address;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fPid + Long.hashCode(fAddress);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof SymbolKey)) {
+                return false;
+            }
+            SymbolKey other = (SymbolKey) obj;
+            return fPid == other.fPid && fAddress == other.fAddress;
+        }
+    }
+
+    private static final class CachedSymbol {
+        private final long fValidFrom;
+        private final long fValidTo;
+        private final TmfResolvedSymbol fSymbol;
+
+        public CachedSymbol(long validFrom, long validTo, TmfResolvedSymbol symbol) {
+            fValidFrom = validFrom;
+            fValidTo = validTo;
+            fSymbol = symbol;
+        }
+    }
 
     /**
      * Constructor
@@ -66,6 +116,65 @@ public class PerfMmapSymbolProvider implements ISymbolProvider {
 
     @Override
     public @Nullable TmfResolvedSymbol getSymbol(int pid, long timestamp, long address) {
+        PerfMmapIndex index = getIndex();
+        if (index == null) {
+            // The mmap analysis is not done yet, query the state system
+            return querySymbol(pid, timestamp, address);
+        }
+        SymbolKey key = new SymbolKey(pid, address);
+        synchronized (fCache) {
+            CachedSymbol cached = fCache.get(key);
+            if (cached != null && cached.fValidFrom <= timestamp && timestamp <= cached.fValidTo) {
+                return cached.fSymbol;
+            }
+        }
+        Region region = index.getRegion(pid, timestamp, address);
+        if (region == null) {
+            return null;
+        }
+        String filename = region.getFilename();
+        TmfResolvedSymbol symbol = getSymbolInFile(pid, filename, address, region.getBaseAddress());
+        if (symbol == null) {
+            symbol = new TmfResolvedSymbol(region.getBaseAddress(), filename);
+        }
+        synchronized (fCache) {
+            fCache.put(key, new CachedSymbol(region.getValidFrom(), region.getValidTo(), symbol));
+        }
+        return symbol;
+    }
+
+    /**
+     * Get the index of the mapped regions, building it from the state system
+     * the first time it is requested once the mmap analysis is done
+     *
+     * @return The index, or <code>null</code> if the state system is not
+     *         completely built
+     */
+    private @Nullable PerfMmapIndex getIndex() {
+        PerfMmapIndex index = fIndex;
+        if (index != null) {
+            return index;
+        }
+        ITmfStateSystem stateSystem = fMmapModule.getStateSystem();
+        if (stateSystem == null || !stateSystem.waitUntilBuilt(0)) {
+            return null;
+        }
+        synchronized (this) {
+            index = fIndex;
+            if (index == null) {
+                try {
+                    index = PerfMmapIndex.create(stateSystem);
+                } catch (StateSystemDisposedException e) {
+                    Activator.getInstance().logWarning("Exceptions while indexing perf mmap regions", e); //$NON-NLS-1$
+                    return null;
+                }
+                fIndex = index;
+            }
+            return index;
+        }
+    }
+
+    private @Nullable TmfResolvedSymbol querySymbol(int pid, long timestamp, long address) {
         PerfMmapAnalysisModule mmapModule = fMmapModule;
         ITmfStateSystem stateSystem = mmapModule.getStateSystem();
         if (stateSystem == null) {
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.traceevent.core.tests.perf;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.analysis.callstack.TraceEventCallStackProvider;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.analysis.callstack.TraceEventCallstackAnalysis;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.trace.TraceEventTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.tests.shared.TmfTestHelper;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Benchmarks the build of the call stack of a trace with many threads of
+ * complete ("X") events, where the {@link TraceEventCallStackProvider} has to
+ * close the events of all the threads as the trace goes.
+ */
+public class TraceEventCallStackBenchmark {
+
+    /**
+     * Test test ID for trace event call stack benchmarks
+     */
+    public static final String TEST_ID = "org.eclipse.tracecompass.incubator#TraceEvent#";
+    private static final String TEST_CALLSTACK = "Call stack of complete events, %d threads";
+
+    private static final long SEED = 473892745896L;
+    private static final int NB_EVENTS = 500000;
+    private static final int NB_THREADS = 4000;
+    private static final int MAX_DEPTH = 4;
+    private static final int LOOP_COUNT = 5;
+
+    private static @Nullable File sfTrace = null;
+
+    /**
+     * Generate the synthetic trace. Each thread has a stack of nested complete
+     * events, the events of all the threads are interleaved in timestamp
+     * order.
+     *
+     * @throws IOException
+     *             Exceptions writing the trace
+     */
+    @BeforeClass
+    public static void generateTrace() throws IOException {
+        File trace = File.createTempFile("traceEventCallStackBenchmark", ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        Random random = new Random(SEED);
+        // The end of the innermost open event of each thread and its depth
+        long[][] ends = new long[NB_THREADS][MAX_DEPTH];
+        int[] depths = new int[NB_THREADS];
+        try (BufferedWriter writer = Files.newBufferedWriter(trace.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("[\n"); //$NON-NLS-1$
+            long ts = 1000000;
+            for (int i = 0; i < NB_EVENTS; i++) {
+                ts += 1 + random.nextInt(10);
+                int tid = random.nextInt(NB_THREADS);
+                long[] threadEnds = ends[tid];
+                int depth = depths[tid];
+                while (depth > 0 && threadEnds[depth - 1] <= ts) {
+                    depth--;
+                }
+                long limit = depth > 0 ? threadEnds[depth - 1] - ts : 100000;
+                long duration = depth < MAX_DEPTH && limit > 1 ? 1 + random.nextInt((int) Math.min(limit - 1, Integer.MAX_VALUE)) : 0;
+                if (duration > 0) {
+                    threadEnds[depth++] = ts + duration;
+                }
+                depths[tid] = depth;
+                writer.write(String.format("{\"cat\":\"category\",\"pid\":%d,\"tid\":%d,\"ts\":%d,\"ph\":\"X\",\"name\":\"function%d\",\"dur\":%d}", //$NON-NLS-1$
+                        tid / 100, tid, ts, depth, duration));
+                writer.write(i < NB_EVENTS - 1 ? ",\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            writer.write("]\n"); //$NON-NLS-1$
+        }
+        sfTrace = trace;
+    }
+
+    /**
+     * Delete the synthetic trace
+     */
+    @AfterClass
+    public static void deleteTrace() {
+        File trace = sfTrace;
+        if (trace != null) {
+            trace.delete();
+        }
+    }
+
+    /**
+     * Benchmark the call stack analysis
+     *
+     * @throws TmfTraceException
+     *             Exceptions opening the trace
+     * @throws TmfAnalysisException
+     *             Exceptions setting the trace of the analysis
+     */
+    @Test
+    public void benchmarkCallStack() throws TmfTraceException, TmfAnalysisException {
+        File traceFile = Objects.requireNonNull(sfTrace);
+        String testName = String.format(TEST_CALLSTACK, NB_THREADS);
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + testName));
+        perf.tagAsSummary(pm, testName, Dimension.CPU_TIME);
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            TraceEventTrace trace = new TraceEventTrace();
+            TraceEventCallstackAnalysis module = new TraceEventCallstackAnalysis();
+            try {
+                trace.initTrace(null, traceFile.getAbsolutePath(), ITmfEvent.class);
+                assertTrue(module.setTrace(trace));
+                pm.start();
+                assertTrue(TmfTestHelper.executeAnalysis(module));
+                pm.stop();
+                assertNotNull(module.getStateSystem());
+            } finally {
+                module.dispose();
+                TmfTraceManager.deleteSupplementaryFiles(trace);
+                trace.dispose();
+            }
+        }
+        pm.commit();
+    }
+}
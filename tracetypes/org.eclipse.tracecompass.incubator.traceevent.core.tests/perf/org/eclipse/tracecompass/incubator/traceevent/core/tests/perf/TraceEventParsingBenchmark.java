@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.traceevent.core.tests.perf;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventField;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventScanner;
+import org.eclipse.tracecompass.internal.provisional.jsontrace.core.trace.JsonTrace;
+import org.eclipse.tracecompass.tmf.core.io.BufferedRandomAccessFile;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Benchmarks the parsing of trace event files, comparing the Gson parsing of
+ * {@link TraceEventField#parseJson(String)} with the streaming
+ * {@link TraceEventScanner}, on a large synthetic trace.
+ */
+public class TraceEventParsingBenchmark {
+
+    /**
+     * Test test ID for trace event parsing benchmarks
+     */
+    public static final String TEST_ID = "org.eclipse.tracecompass.incubator#TraceEvent#";
+    private static final String TEST_PARSE_GSON = "Parse with Gson";
+    private static final String TEST_PARSE_SCANNER = "Parse with scanner";
+    private static final String TEST_PARSE_SCANNER_ARGS = "Parse with scanner and arguments";
+
+    private static final long SEED = 473892745896L;
+    private static final int NB_EVENTS = 1000000;
+    private static final int NB_THREADS = 64;
+    private static final int LOOP_COUNT = 5;
+    private static final String[] PHASES = { "B", "E", "X", "i", "C" };
+
+    private static @Nullable File sfTrace = null;
+
+    /**
+     * Generate the synthetic trace
+     *
+     * @throws IOException
+     *             Exceptions writing the trace
+     */
+    @BeforeClass
+    public static void generateTrace() throws IOException {
+        File trace = File.createTempFile("traceEventBenchmark", ".json"); //$NON-NLS-1$ //$NON-NLS-2$
+        Random random = new Random(SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(trace.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("[\n"); //$NON-NLS-1$
+            long ts = 1000000;
+            for (int i = 0; i < NB_EVENTS; i++) {
+                ts += random.nextInt(1000);
+                int tid = random.nextInt(NB_THREADS);
+                String phase = PHASES[random.nextInt(PHASES.length)];
+                writer.write(String.format("{\"cat\":\"category%d\",\"pid\":%d,\"tid\":%d,\"ts\":%d.%03d,\"ph\":\"%s\",\"name\":\"function%d\",\"dur\":%d,\"id\":\"0x%x\",\"args\":{\"value\":%d,\"text\":\"some argument\",\"nested\":{\"a\":[1,2,3]}}}", //$NON-NLS-1$
+                        tid % 4, tid / 8, tid, ts, random.nextInt(1000), phase, random.nextInt(500), random.nextInt(1000), i, random.nextInt()));
+                writer.write(i < NB_EVENTS - 1 ? ",\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            writer.write("]\n"); //$NON-NLS-1$
+        }
+        sfTrace = trace;
+    }
+
+    /**
+     * Delete the synthetic trace
+     */
+    @AfterClass
+    public static void deleteTrace() {
+        File trace = sfTrace;
+        if (trace != null) {
+            trace.delete();
+        }
+    }
+
+    /**
+     * Benchmark the Gson parsing path, reading the file one byte at a time
+     *
+     * @throws IOException
+     *             Exceptions reading the trace
+     */
+    @SuppressWarnings("restriction")
+    @Test
+    public void benchmarkGson() throws IOException {
+        File trace = Objects.requireNonNull(sfTrace);
+        PerformanceMeter pm = getMeter(TEST_PARSE_GSON);
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            pm.start();
+            long count = 0;
+            try (BufferedRandomAccessFile rafile = new BufferedRandomAccessFile(trace, "r")) { //$NON-NLS-1$
+                String json = JsonTrace.readNextEventString(() -> rafile.read());
+                while (json != null) {
+                    TraceEventField field = TraceEventField.parseJson(json);
+                    if (field != null) {
+                        count++;
+                    }
+                    json = JsonTrace.readNextEventString(() -> rafile.read());
+                }
+            }
+            pm.stop();
+            assertEquals(NB_EVENTS, count);
+        }
+        pm.commit();
+    }
+
+    /**
+     * Benchmark the streaming scanner, without reading the arguments
+     *
+     * @throws IOException
+     *             Exceptions reading the trace
+     */
+    @Test
+    public void benchmarkScanner() throws IOException {
+        benchmarkScanner(TEST_PARSE_SCANNER, false);
+    }
+
+    /**
+     * Benchmark the streaming scanner, when the arguments of every event are
+     * requested
+     *
+     * @throws IOException
+     *             Exceptions reading the trace
+     */
+    @Test
+    public void benchmarkScannerWithArgs() throws IOException {
+        benchmarkScanner(TEST_PARSE_SCANNER_ARGS, true);
+    }
+
+    private static void benchmarkScanner(String testName, boolean readArgs) throws IOException {
+        File trace = Objects.requireNonNull(sfTrace);
+        PerformanceMeter pm = getMeter(testName);
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            pm.start();
+            long count = 0;
+            try (TraceEventScanner scanner = new TraceEventScanner(trace)) {
+                TraceEventField field = scanner.next();
+                while (field != null) {
+                    if (readArgs) {
+                        field.getArgs();
+                    }
+                    count++;
+                    field = scanner.next();
+                }
+            }
+            pm.stop();
+            assertEquals(NB_EVENTS, count);
+        }
+        pm.commit();
+    }
+
+    private static PerformanceMeter getMeter(String testName) {
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = Objects.requireNonNull(perf.createPerformanceMeter(TEST_ID + testName));
+        perf.tagAsSummary(pm, testName, Dimension.CPU_TIME);
+        return pm;
+    }
+
+}
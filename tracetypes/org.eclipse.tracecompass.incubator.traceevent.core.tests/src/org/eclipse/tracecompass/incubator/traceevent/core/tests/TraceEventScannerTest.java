@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.traceevent.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventField;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventScanner;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.trace.TraceEventTrace;
+import org.eclipse.tracecompass.internal.provisional.jsontrace.core.trace.JsonTrace;
+import org.eclipse.tracecompass.tmf.core.io.BufferedRandomAccessFile;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Test that the {@link TraceEventScanner} reads the same events as the Gson
+ * parser of {@link TraceEventField#parseJson(String)}
+ */
+@RunWith(Parameterized.class)
+public class TraceEventScannerTest {
+
+    private final String fPath;
+
+    /**
+     * Get the traces to test
+     *
+     * @return The arrays of parameters
+     */
+    @Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> getParameters() {
+        return Arrays.asList(new Object[][] {
+                { "traces/simple-in-order.json" },
+                { "traces/big_trace.json" },
+                { "traces/empty_event.json" },
+                { "traces/flow_simple.json" },
+                { "traces/chromeos_system_trace.json" },
+                { "traces/nestable_async_annotation.json" },
+                { "traces/object_alloc.json" },
+                { "traces/instant_events.json" },
+                { "traces/x_event_trace.json" },
+        });
+    }
+
+    /**
+     * Constructor
+     *
+     * @param path
+     *            The path of the trace to test
+     */
+    public TraceEventScannerTest(String path) {
+        fPath = path;
+    }
+
+    /**
+     * Read the whole trace with both parsers and compare the fields
+     *
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    @SuppressWarnings("restriction")
+    @Test
+    public void testSameFields() throws IOException {
+        try (BufferedRandomAccessFile rafile = new BufferedRandomAccessFile(fPath, "r");
+                TraceEventScanner scanner = new TraceEventScanner(new File(fPath))) {
+            TraceEventTraceStub.findStart(rafile);
+            scanner.seek(rafile.getFilePointer());
+            int count = 0;
+            String json = JsonTrace.readNextEventString(() -> rafile.read());
+            while (json != null) {
+                TraceEventField expected = TraceEventField.parseJson(json);
+                if (expected != null) {
+                    TraceEventField actual = scanner.next();
+                    assertNotNull("Event " + count, actual);
+                    assertSameField("Event " + count, expected, actual);
+                    count++;
+                }
+                json = JsonTrace.readNextEventString(() -> rafile.read());
+            }
+            assertNull(scanner.next());
+        }
+    }
+
+    /**
+     * Test seeking the scanner back to a previous position
+     *
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    @Test
+    public void testSeek() throws IOException {
+        try (RandomAccessFile rafile = new RandomAccessFile(fPath, "r");
+                TraceEventScanner scanner = new TraceEventScanner(new File(fPath))) {
+            TraceEventTraceStub.findStart(rafile);
+            long start = rafile.getFilePointer();
+            scanner.seek(start);
+            TraceEventField first = scanner.next();
+            assertNotNull(first);
+            long second = scanner.getPosition();
+            TraceEventField secondField = scanner.next();
+
+            scanner.seek(start);
+            TraceEventField field = scanner.next();
+            assertNotNull(field);
+            assertSameField("First event", first, field);
+            assertEquals(second, scanner.getPosition());
+            field = scanner.next();
+            if (secondField == null) {
+                assertNull(field);
+            } else {
+                assertNotNull(field);
+                assertSameField("Second event", secondField, field);
+            }
+        }
+    }
+
+    private static void assertSameField(String msg, TraceEventField expected, TraceEventField actual) {
+        assertEquals(msg, expected.getTs(), actual.getTs());
+        assertEquals(msg, expected.getPhase(), actual.getPhase());
+        assertEquals(msg, expected.getName(), actual.getName());
+        assertEquals(msg, String.valueOf(expected.getPid()), String.valueOf(actual.getPid()));
+        assertEquals(msg, expected.getTid(), actual.getTid());
+        assertEquals(msg, expected.getCategory(), actual.getCategory());
+        assertEquals(msg, expected.getId(), actual.getId());
+        assertEquals(msg, expected.getDuration(), actual.getDuration());
+        assertEquals(msg, expected.getArgs(), actual.getArgs());
+        assertEquals(msg, expected.getContent().toString(), actual.getContent().toString());
+    }
+
+    private static class TraceEventTraceStub extends TraceEventTrace {
+
+        public static void findStart(RandomAccessFile file) throws IOException {
+            TraceEventTrace.goToCorrectStart(file);
+        }
+
+    }
+}
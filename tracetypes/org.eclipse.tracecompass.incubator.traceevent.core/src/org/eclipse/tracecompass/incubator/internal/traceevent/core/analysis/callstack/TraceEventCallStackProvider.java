@@ -17,9 +17,8 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.TreeMap;
+import java.util.PriorityQueue;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
@@ -74,9 +73,17 @@ public class TraceEventCallStackProvider extends CallStackStateProvider {
     private ITmfTimestamp fSafeTime;
 
     /**
-     * A map of tid/stacks of timestamps
+     * A map of callstack quark/stacks of end timestamps of complete events
      */
-    private final Map<Integer, Deque<Long>> fStack = new TreeMap<>();
+    private final Map<Integer, Deque<Long>> fStack = new HashMap<>();
+
+    /**
+     * The end timestamp at the top of each stack of {@link #fStack}, so that
+     * an event only looks at the stacks that have something to close. Entries
+     * whose timestamp is no longer at the top of their stack are stale and
+     * skipped.
+     */
+    private final PriorityQueue<CloseCandidate> fCloseCandidates = new PriorityQueue<>();
 
     private final ITmfEventAspect<?> fIdAspect;
 
@@ -95,6 +102,22 @@ public class TraceEventCallStackProvider extends CallStackStateProvider {
      */
     private final Map<EventTreeKey, Integer> fIdCache = new HashMap<>();
 
+    private static final class CloseCandidate implements Comparable<CloseCandidate> {
+        private final long fEnd;
+        private final int fQuark;
+
+        public CloseCandidate(long end, int quark) {
+            fEnd = end;
+            fQuark = quark;
+        }
+
+        @Override
+        public int compareTo(CloseCandidate other) {
+            int compare = Long.compare(fEnd, other.fEnd);
+            return compare != 0 ? compare : Integer.compare(fQuark, other.fQuark);
+        }
+    }
+
     private static class EventTreeKey {
         private final String fCategory;
         private final String fId;
@@ -302,18 +325,21 @@ public class TraceEventCallStackProvider extends CallStackStateProvider {
     }
 
     private void updateCloseCandidates(ITmfStateSystemBuilder ss, long timestamp) {
-        for (Entry<Integer, Deque<Long>> stackEntry : fStack.entrySet()) {
-            Deque<Long> stack = stackEntry.getValue();
-            if (!stack.isEmpty()) {
-                Long closeCandidate = stack.pop();
-                while (closeCandidate != null && closeCandidate < timestamp) {
-                    ss.popAttribute(closeCandidate, stackEntry.getKey());
-                    closeCandidate = (stack.isEmpty()) ? null : stack.pop();
-                }
-                if (closeCandidate != null) {
-                    stack.push(closeCandidate);
+        CloseCandidate candidate = fCloseCandidates.peek();
+        while (candidate != null && candidate.fEnd < timestamp) {
+            fCloseCandidates.poll();
+            Deque<Long> stack = fStack.get(candidate.fQuark);
+            Long top = (stack == null) ? null : stack.peek();
+            // Only the top of a stack can be closed, other entries are stale
+            if (stack != null && top != null && top == candidate.fEnd) {
+                stack.pop();
+                ss.popAttribute(candidate.fEnd, candidate.fQuark);
+                Long next = stack.peek();
+                if (next != null) {
+                    fCloseCandidates.add(new CloseCandidate(next, candidate.fQuark));
                 }
             }
+            candidate = fCloseCandidates.peek();
         }
     }
 
@@ -599,6 +625,7 @@ public class TraceEventCallStackProvider extends CallStackStateProvider {
         ss.pushAttribute(startTime, event.getName(), callStackQuark);
         Deque<Long> stack = fStack.computeIfAbsent(callStackQuark, ArrayDeque::new);
         stack.push(end);
+        fCloseCandidates.add(new CloseCandidate(end, callStackQuark));
     }
 
 }
@@ -58,7 +58,11 @@ public class TraceEventEvent extends TmfEvent implements ITmfSourceLookup {
      *            the event field, contains all the needed data
      */
     public TraceEventEvent(ITmfTrace trace, long rank, TraceEventField field) {
-        super(trace, rank, trace.createTimestamp(field.getTs()), TraceEventLookup.get(field.getPhase()), field.getContent());
+        /*
+         * The content is not passed to the parent, it is resolved lazily from
+         * the field in getContent()
+         */
+        super(trace, rank, trace.createTimestamp(field.getTs()), TraceEventLookup.get(field.getPhase()), null);
         fField = field;
         fName = field.getName();
         fLogLevel = Level.INFO;
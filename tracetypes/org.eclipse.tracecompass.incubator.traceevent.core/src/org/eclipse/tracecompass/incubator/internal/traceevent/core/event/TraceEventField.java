@@ -11,6 +11,7 @@
 
 package org.eclipse.tracecompass.incubator.internal.traceevent.core.event;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -49,8 +50,14 @@ public class TraceEventField {
     private final long fTs;
     private final char fPhase;
     private final String fName;
-    private ITmfEventField fContent;
-    private final @Nullable Map<String, Object> fArgs;
+    private @Nullable ITmfEventField fContent;
+    private @Nullable Map<String, Object> fArgs;
+    /**
+     * The raw JSON of the event, kept until the content and arguments are
+     * requested. Events read through the {@link TraceEventScanner} only have
+     * their main fields decoded, the rest is parsed on demand.
+     */
+    private volatile byte @Nullable [] fRawJson;
     private final @Nullable Integer fTid;
     private final @Nullable String fCategory;
     private final @Nullable String fId;
@@ -190,14 +197,54 @@ public class TraceEventField {
         fTid = tid;
         fCategory = category;
         fId = id;
+        fTs = ts;
+        fDuration = duration == null ? null : Double.isFinite(duration) ? duration.longValue() : null;
+        fPhase = phase.charAt(0);
+        fRawJson = null;
+        initContent(fields);
+    }
+
+    /**
+     * Constructor for a field whose content and arguments will be parsed
+     * lazily from the raw JSON of the event
+     *
+     * @param name
+     *            event name
+     * @param ts
+     *            the timestamp in ns
+     * @param phase
+     *            the phase of the event
+     * @param pid
+     *            the process id
+     * @param tid
+     *            the threadId
+     * @param category
+     *            the category
+     * @param id
+     *            the ID of the event stream
+     * @param duration
+     *            the duration in ns
+     * @param rawJson
+     *            the UTF-8 bytes of the JSON object of this event
+     */
+    TraceEventField(String name, long ts, char phase, @Nullable Object pid, @Nullable Integer tid, @Nullable String category, @Nullable String id, @Nullable Long duration, byte[] rawJson) {
+        fName = name;
+        fPid = pid;
+        fTid = tid;
+        fCategory = category;
+        fId = id;
+        fTs = ts;
+        fDuration = duration;
+        fPhase = phase;
+        fRawJson = rawJson;
+    }
+
+    private void initContent(Map<String, Object> fields) {
         ITmfEventField[] array = fields.entrySet().stream()
                 .map(entry -> new TmfEventField(entry.getKey(), entry.getValue(), null))
                 .toArray(ITmfEventField[]::new);
         fContent = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, fields, array);
-        fields.put(ITraceEventConstants.TIMESTAMP, ts / MICRO_TO_NANO);
-        fTs = ts;
-        fDuration = duration == null ? null : Double.isFinite(duration) ? duration.longValue() : null;
-        fPhase = phase.charAt(0);
+        fields.put(ITraceEventConstants.TIMESTAMP, fTs / MICRO_TO_NANO);
         @SuppressWarnings("null")
         Map<@NonNull String, @NonNull Object> args = fields.entrySet().stream()
                 .filter(entry -> {
@@ -205,7 +252,30 @@ public class TraceEventField {
                 })
                 .collect(Collectors.toMap(entry -> entry.getKey().substring(5), Entry::getValue));
         fArgs = args.isEmpty() ? null : args;
+    }
 
+    /**
+     * Parse the raw JSON of this event, if it was not done yet, to get the
+     * full content and arguments.
+     */
+    private void ensureContent() {
+        if (fRawJson == null) {
+            return;
+        }
+        synchronized (this) {
+            byte[] rawJson = fRawJson;
+            if (rawJson == null) {
+                return;
+            }
+            TraceEventField field = parseJson(new String(rawJson, StandardCharsets.UTF_8));
+            if (field != null) {
+                fContent = field.fContent;
+                fArgs = field.fArgs;
+            } else {
+                initContent(new HashMap<>());
+            }
+            fRawJson = null;
+        }
     }
 
     /**
@@ -223,7 +293,8 @@ public class TraceEventField {
      * @return the event content
      */
     public ITmfEventField getContent() {
-        return fContent;
+        ensureContent();
+        return Objects.requireNonNull(fContent);
     }
 
     /**
@@ -298,6 +369,7 @@ public class TraceEventField {
      */
     @Nullable
     public Map<String, Object> getArgs() {
+        ensureContent();
         return fArgs;
     }
 }
@@ -0,0 +1,571 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.traceevent.core.event;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Streaming reader for trace event JSON files. Events are read through a
+ * reusable byte buffer and the main fields ({@code ts}, {@code ph},
+ * {@code pid}, {@code tid}, {@code name}, {@code cat}, {@code id} and
+ * {@code dur}) are decoded directly from the bytes, without building a JSON
+ * tree. The other fields and the arguments are only parsed when the content
+ * of the {@link TraceEventField} is requested.
+ *
+ * Events with unusual values (escaped strings in the main fields, null values,
+ * etc) are parsed with {@link TraceEventField#parseJson(String)}, so both
+ * paths give the same results.
+ *
+ * This class is not thread-safe.
+ */
+@NonNullByDefault
+public class TraceEventScanner implements AutoCloseable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final double MICRO_TO_NANO = 1000.0;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /* Powers of ten that are exactly representable as doubles */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /* Index of the fields decoded by the scanner */
+    private static final int TS = 0;
+    private static final int PHASE = 1;
+    private static final int PID = 2;
+    private static final int TID = 3;
+    private static final int NAME = 4;
+    private static final int CATEGORY = 5;
+    private static final int ID = 6;
+    private static final int DURATION = 7;
+    private static final byte[][] KEYS = {
+            bytes(ITraceEventConstants.TIMESTAMP),
+            bytes(ITraceEventConstants.PHASE),
+            bytes(ITraceEventConstants.PID),
+            bytes(ITraceEventConstants.TID),
+            bytes(ITraceEventConstants.NAME),
+            bytes(ITraceEventConstants.CATEGORY),
+            bytes(ITraceEventConstants.ID),
+            bytes(ITraceEventConstants.DURATION) };
+
+    /* Types of values */
+    private static final byte NONE = 0;
+    private static final byte STRING = 1;
+    private static final byte LITERAL = 2;
+
+    private final FileChannel fChannel;
+    private byte[] fBuffer = new byte[DEFAULT_BUFFER_SIZE];
+    /* Offset in the file of the first byte of the buffer */
+    private long fBufferOffset = 0;
+    /* Number of valid bytes in the buffer */
+    private int fLimit = 0;
+    /* Current position in the buffer */
+    private int fPos = 0;
+
+    /* Position of the values of the current event */
+    private final int[] fValueStart = new int[KEYS.length];
+    private final int[] fValueEnd = new int[KEYS.length];
+    private final byte[] fValueType = new byte[KEYS.length];
+
+    /* Most process IDs are repeated, keep the last one */
+    private byte[] fLastPidBytes = new byte[0];
+    private @Nullable Object fLastPid = null;
+
+    /**
+     * Constructor
+     *
+     * @param file
+     *            The trace event file to read
+     * @throws IOException
+     *             Exceptions opening the file
+     */
+    public TraceEventScanner(File file) throws IOException {
+        fChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the position in the file of the next byte to read
+     *
+     * @return The position in the file
+     */
+    public long getPosition() {
+        return fBufferOffset + fPos;
+    }
+
+    /**
+     * Move the scanner to a position in the file. If the position is in the
+     * current buffer, no data is read again.
+     *
+     * @param position
+     *            The position in the file
+     */
+    public void seek(long position) {
+        if (position >= fBufferOffset && position <= fBufferOffset + fLimit) {
+            fPos = (int) (position - fBufferOffset);
+            return;
+        }
+        fBufferOffset = position;
+        fLimit = 0;
+        fPos = 0;
+    }
+
+    /**
+     * Read the next event from the current position. Empty objects and objects
+     * without a timestamp are skipped, like with
+     * {@link TraceEventField#parseJson(String)}.
+     *
+     * @return The field of the next event, or <code>null</code> if there are no
+     *         more events
+     * @throws IOException
+     *             Exceptions reading the file
+     */
+    public @Nullable TraceEventField next() throws IOException {
+        int start = nextObject();
+        while (start >= 0) {
+            TraceEventField field = parseObject(start, fPos);
+            if (field != null) {
+                return field;
+            }
+            start = nextObject();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fChannel.close();
+    }
+
+    // ------------------------------------------------------------------------
+    // Buffer management
+    // ------------------------------------------------------------------------
+
+    /**
+     * Read more data from the file, discarding the bytes of the buffer before
+     * <code>keepFrom</code>. The positions in the buffer are shifted
+     * accordingly.
+     */
+    private boolean fill(int keepFrom) throws IOException {
+        if (keepFrom > 0) {
+            System.arraycopy(fBuffer, keepFrom, fBuffer, 0, fLimit - keepFrom);
+            fBufferOffset += keepFrom;
+            fLimit -= keepFrom;
+            fPos -= keepFrom;
+        }
+        if (fLimit == fBuffer.length) {
+            // An event is larger than the buffer
+            fBuffer = Arrays.copyOf(fBuffer, fBuffer.length * 2);
+        }
+        int read = fChannel.read(ByteBuffer.wrap(fBuffer, fLimit, fBuffer.length - fLimit), fBufferOffset + fLimit);
+        if (read <= 0) {
+            return false;
+        }
+        fLimit += read;
+        return true;
+    }
+
+    /**
+     * Find the next top level object, with the same rules as
+     * JsonTrace#readNextEventString: a closing bracket outside of any object
+     * ends the events list.
+     *
+     * @return The start of the object in the buffer, the end being the current
+     *         position, or -1 if there are no more objects
+     */
+    private int nextObject() throws IOException {
+        boolean inQuotes = false;
+        boolean escaped = false;
+        int arrayScope = 0;
+        int depth = 0;
+        int start = -1;
+        while (true) {
+            if (fPos >= fLimit) {
+                if (!fill(start >= 0 ? start : fPos)) {
+                    return -1;
+                }
+                if (start >= 0) {
+                    start = 0;
+                }
+            }
+            byte b = fBuffer[fPos++];
+            if (inQuotes) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inQuotes = false;
+                }
+                continue;
+            }
+            switch (b) {
+            case '"':
+                inQuotes = true;
+                break;
+            case '{':
+                if (depth == 0) {
+                    start = fPos - 1;
+                }
+                depth++;
+                break;
+            case '}':
+                if (depth == 0) {
+                    return -1;
+                }
+                depth--;
+                if (depth == 0) {
+                    return start;
+                }
+                break;
+            case '[':
+                if (depth == 0) {
+                    arrayScope++;
+                }
+                break;
+            case ']':
+                if (depth == 0) {
+                    if (arrayScope == 0) {
+                        return -1;
+                    }
+                    arrayScope--;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Event parsing
+    // ------------------------------------------------------------------------
+
+    /**
+     * Parse the object between start (the opening brace) and end (after the
+     * closing brace)
+     */
+    private @Nullable TraceEventField parseObject(int start, int end) {
+        byte[] buffer = fBuffer;
+        Arrays.fill(fValueType, NONE);
+        int nbKeys = 0;
+        int i = skipWhitespace(start + 1, end);
+        while (i < end && buffer[i] != '}') {
+            // Key
+            if (buffer[i] != '"') {
+                return parseSlow(start, end);
+            }
+            int keyStart = i + 1;
+            int keyEnd = keyStart;
+            while (keyEnd < end && buffer[keyEnd] != '"') {
+                if (buffer[keyEnd] == '\\') {
+                    return parseSlow(start, end);
+                }
+                keyEnd++;
+            }
+            i = skipWhitespace(keyEnd + 1, end);
+            if (i >= end || buffer[i] != ':') {
+                return parseSlow(start, end);
+            }
+            i = skipWhitespace(i + 1, end);
+            if (i >= end) {
+                return parseSlow(start, end);
+            }
+
+            // Value
+            int key = findKey(keyStart, keyEnd);
+            byte b = buffer[i];
+            if (b == '"') {
+                int valueStart = i + 1;
+                int valueEnd = valueStart;
+                while (valueEnd < end && buffer[valueEnd] != '"') {
+                    if (buffer[valueEnd] == '\\') {
+                        if (key >= 0) {
+                            return parseSlow(start, end);
+                        }
+                        valueEnd++;
+                    }
+                    valueEnd++;
+                }
+                setValue(key, STRING, valueStart, valueEnd);
+                i = valueEnd + 1;
+            } else if (b == '{' || b == '[') {
+                if (key >= 0) {
+                    return parseSlow(start, end);
+                }
+                i = skipComposite(i, end);
+            } else {
+                int valueStart = i;
+                while (i < end && !isEndOfLiteral(buffer[i])) {
+                    i++;
+                }
+                if (i == valueStart || (key >= 0 && b == 'n')) {
+                    // Empty or null value
+                    return parseSlow(start, end);
+                }
+                setValue(key, LITERAL, valueStart, i);
+            }
+            nbKeys++;
+
+            i = skipWhitespace(i, end);
+            if (i < end && buffer[i] == ',') {
+                i = skipWhitespace(i + 1, end);
+            } else if (i >= end || buffer[i] != '}') {
+                return parseSlow(start, end);
+            }
+        }
+        if (nbKeys == 0 || fValueType[TS] == NONE) {
+            return null;
+        }
+        return createField(start, end);
+    }
+
+    private @Nullable TraceEventField createField(int start, int end) {
+        double tso = parseDouble(TS);
+        long ts = Double.isFinite(tso) ? (long) (tso * MICRO_TO_NANO) : 0;
+
+        char phase = 'I';
+        boolean durationEnd = false;
+        if (fValueType[PHASE] != NONE) {
+            int phaseStart = fValueStart[PHASE];
+            int phaseLength = fValueEnd[PHASE] - phaseStart;
+            if (phaseLength == 0 || fBuffer[phaseStart] < 0) {
+                return parseSlow(start, end);
+            }
+            phase = (char) fBuffer[phaseStart];
+            durationEnd = phaseLength == 1 && TraceEventPhases.DURATION_END.charAt(0) == phase;
+        }
+        String name = getString(NAME);
+        if (name == null) {
+            // We differentiate between the duration exit and the other exits
+            name = durationEnd ? TraceEventField.UNKNOWN_DURATION_EXIT_EVENT : TraceEventField.UNKNOWN_EXIT_EVENT;
+        }
+        Integer tid = null;
+        if (fValueType[TID] != NONE) {
+            int value = parseInt(TID);
+            tid = value == Integer.MIN_VALUE ? null : value;
+        }
+        Long duration = null;
+        if (fValueType[DURATION] != NONE) {
+            double dur = parseDouble(DURATION);
+            duration = Double.isFinite(dur) ? (long) (dur * MICRO_TO_NANO) : null;
+        }
+        return new TraceEventField(name, ts, phase, getPid(), tid, getString(CATEGORY), getString(ID), duration, Arrays.copyOfRange(fBuffer, start, end));
+    }
+
+    private @Nullable TraceEventField parseSlow(int start, int end) {
+        return TraceEventField.parseJson(new String(fBuffer, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    // ------------------------------------------------------------------------
+    // Value decoding
+    // ------------------------------------------------------------------------
+
+    private void setValue(int key, byte type, int start, int end) {
+        if (key < 0) {
+            return;
+        }
+        fValueType[key] = type;
+        fValueStart[key] = start;
+        fValueEnd[key] = end;
+    }
+
+    private int findKey(int start, int end) {
+        int length = end - start;
+        for (int key = 0; key < KEYS.length; key++) {
+            byte[] keyBytes = KEYS[key];
+            if (keyBytes.length == length && regionEquals(keyBytes, start)) {
+                return key;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionEquals(byte[] bytes, int start) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (fBuffer[start + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private @Nullable String getString(int key) {
+        if (fValueType[key] == NONE) {
+            return null;
+        }
+        return new String(fBuffer, fValueStart[key], fValueEnd[key] - fValueStart[key], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the process ID. Like with Gson, numbers are lazily parsed numbers and
+     * strings are kept as is.
+     */
+    private @Nullable Object getPid() {
+        if (fValueType[PID] == NONE) {
+            return null;
+        }
+        int start = fValueStart[PID];
+        int length = fValueEnd[PID] - start;
+        if (fValueType[PID] == LITERAL) {
+            byte first = fBuffer[start];
+            if (first != '-' && (first < '0' || first > '9')) {
+                // Booleans are not valid process IDs
+                return null;
+            }
+            if (fLastPid != null && fLastPidBytes.length == length && regionEquals(fLastPidBytes, start)) {
+                return fLastPid;
+            }
+            fLastPidBytes = Arrays.copyOfRange(fBuffer, start, start + length);
+            Number pid = new JsonPrimitive(new String(fLastPidBytes, StandardCharsets.ISO_8859_1)).getAsNumber();
+            fLastPid = pid;
+            return pid;
+        }
+        return getString(PID);
+    }
+
+    private double parseDouble(int key) {
+        int start = fValueStart[key];
+        int end = fValueEnd[key];
+        int i = start;
+        boolean negative = false;
+        if (i < end && fBuffer[i] == '-') {
+            negative = true;
+            i++;
+        }
+        long mantissa = 0;
+        int nbDigits = 0;
+        int nbDecimals = 0;
+        boolean decimal = false;
+        for (; i < end; i++) {
+            byte b = fBuffer[i];
+            if (b >= '0' && b <= '9') {
+                if (nbDigits == 18) {
+                    return parseDoubleSlow(start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                nbDigits++;
+                if (decimal) {
+                    nbDecimals++;
+                }
+            } else if (b == '.' && !decimal) {
+                decimal = true;
+            } else {
+                return parseDoubleSlow(start, end);
+            }
+        }
+        if (nbDigits == 0 || mantissa > MAX_EXACT_MANTISSA || nbDecimals >= POWERS_OF_TEN.length) {
+            return parseDoubleSlow(start, end);
+        }
+        /*
+         * Both the mantissa and the power of ten are exact, so the division is
+         * correctly rounded and gives the same value as Double.parseDouble
+         */
+        double value = nbDecimals == 0 ? mantissa : mantissa / POWERS_OF_TEN[nbDecimals];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int start, int end) {
+        return Double.parseDouble(new String(fBuffer, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+    private int parseInt(int key) {
+        int start = fValueStart[key];
+        int end = fValueEnd[key];
+        int i = start;
+        boolean negative = false;
+        if (i < end && fBuffer[i] == '-') {
+            negative = true;
+            i++;
+        }
+        int value = 0;
+        int nbDigits = i < end ? 0 : -1;
+        for (; i < end && nbDigits >= 0; i++) {
+            byte b = fBuffer[i];
+            if (b < '0' || b > '9' || nbDigits == 9) {
+                nbDigits = -1;
+            } else {
+                value = value * 10 + (b - '0');
+                nbDigits++;
+            }
+        }
+        if (nbDigits > 0) {
+            return negative ? -value : value;
+        }
+        // Same behavior as Gson's getAsInt
+        String text = new String(fBuffer, start, end - start, StandardCharsets.UTF_8);
+        if (fValueType[key] == LITERAL) {
+            return new JsonPrimitive(text).getAsNumber().intValue();
+        }
+        return Integer.parseInt(text);
+    }
+
+    // ------------------------------------------------------------------------
+    // Syntax helpers
+    // ------------------------------------------------------------------------
+
+    private int skipWhitespace(int from, int end) {
+        int i = from;
+        while (i < end && isWhitespace(fBuffer[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipComposite(int from, int end) {
+        int depth = 0;
+        boolean inQuotes = false;
+        for (int i = from; i < end; i++) {
+            byte b = fBuffer[i];
+            if (inQuotes) {
+                if (b == '\\') {
+                    i++;
+                } else if (b == '"') {
+                    inQuotes = false;
+                }
+            } else if (b == '"') {
+                inQuotes = true;
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static boolean isEndOfLiteral(byte b) {
+        return b == ',' || b == '}' || isWhitespace(b);
+    }
+
+}
@@ -11,18 +11,38 @@
 
 package org.eclipse.tracecompass.incubator.internal.traceevent.core.trace;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 
-import org.eclipse.tracecompass.internal.jsontrace.core.job.SortingJob;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.sorting.ParallelSortingJob;
+import org.eclipse.tracecompass.incubator.internal.analysis.core.sorting.ParallelSortingJob.EventsOrder;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 /**
- * Sorting job particular to trace event traces
+ * Sorting job particular to trace event traces. Many tracers already write
+ * their events in timestamp order, so the trace is first checked: sorted traces
+ * are read in place and nearly sorted ones are sorted in a single pass.
  *
  * @author Katherine Nadeau
  *
  */
-public class TraceEventSortingJob extends SortingJob {
+public class TraceEventSortingJob extends ParallelSortingJob {
+
+    private static final String TS_KEY = "\"ts\":"; //$NON-NLS-1$
+    private static final String ORDERED_SUFFIX = ".ordered"; //$NON-NLS-1$
+    /**
+     * Number of events that can be out of order and still be sorted in one
+     * pass
+     */
+    private static final int WINDOW = 65536;
+
+    private final ITmfTrace fTrace;
 
     /**
      * Constructor
@@ -33,7 +53,63 @@ public class TraceEventSortingJob extends SortingJob {
      *            the path to the trace file
      */
     public TraceEventSortingJob(ITmfTrace trace, String path) {
-        super(trace, path, "\"ts\":", 1); //$NON-NLS-1$
+        super(trace, path, TS_KEY, 1);
+        fTrace = trace;
+    }
+
+    /**
+     * Get the file marking that the trace is sorted and can be read in place,
+     * instead of from a sorted copy
+     *
+     * @param dir
+     *            the supplementary directory of the trace
+     * @param trace
+     *            the trace
+     * @return The marker file, it exists only if the trace is sorted
+     */
+    public static File getOrderedMarker(String dir, ITmfTrace trace) {
+        return new File(dir + new File(trace.getPath()).getName() + ORDERED_SUFFIX);
+    }
+
+    @Override
+    protected IStatus sortEvents(File input, File output, IProgressMonitor monitor) throws IOException {
+        SubMonitor subMonitor = SubMonitor.convert(monitor, 2);
+        byte[] tsKey = TS_KEY.getBytes(StandardCharsets.UTF_8);
+        EventsOrder order = checkOrder(input, tsKey, 1, WINDOW, subMonitor.split(1));
+        if (order == null) {
+            return Status.CANCEL_STATUS;
+        }
+        switch (order) {
+        case SORTED:
+            if (isReadableInPlace(input)) {
+                File marker = getOrderedMarker(output.getParent() + File.separator, fTrace);
+                if (!marker.createNewFile() && !marker.exists()) {
+                    throw new IOException("Cannot create file " + marker); //$NON-NLS-1$
+                }
+                return Status.OK_STATUS;
+            }
+            return sortWindow(input, output, tsKey, 1, WINDOW, subMonitor.split(1));
+        case NEARLY_SORTED:
+            return sortWindow(input, output, tsKey, 1, WINDOW, subMonitor.split(1));
+        case UNSORTED:
+        default:
+            return super.sortEvents(input, output, subMonitor.split(1));
+        }
+    }
+
+    /**
+     * Whether the trace reader finds the events array where the sort would, ie
+     * the file starts with the events array or a "traceEvents" key
+     */
+    private static boolean isReadableInPlace(File input) throws IOException {
+        try (RandomAccessFile rafile = new RandomAccessFile(input, "r")) { //$NON-NLS-1$
+            TraceEventTrace.goToCorrectStart(rafile);
+            int val = rafile.read();
+            while (val != -1 && Character.isWhitespace(val)) {
+                val = rafile.read();
+            }
+            return val == '[';
+        }
     }
 
     @Override
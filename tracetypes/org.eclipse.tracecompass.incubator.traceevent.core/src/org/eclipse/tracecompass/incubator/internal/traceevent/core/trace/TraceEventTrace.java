@@ -33,6 +33,7 @@ import org.eclipse.tracecompass.incubator.internal.traceevent.core.Activator;
 import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventAspects;
 import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventEvent;
 import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventField;
+import org.eclipse.tracecompass.incubator.internal.traceevent.core.event.TraceEventScanner;
 import org.eclipse.tracecompass.internal.provisional.jsontrace.core.trace.JsonTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.aspect.ITmfEventAspect;
@@ -104,6 +105,7 @@ public class TraceEventTrace extends JsonTrace {
     private final @NonNull Map<Object, String> fPidNames = new HashMap<>();
     private final @NonNull NavigableMap<Integer, String> fTidNames = new TreeMap<>();
     private final @NonNull Iterable<@NonNull ITmfEventAspect<?>> fEventAspects;
+    private @Nullable TraceEventScanner fScanner;
 
     /**
      * Constructor
@@ -167,8 +169,9 @@ public class TraceEventTrace extends JsonTrace {
         super.initTrace(resource, path, type);
         fProperties.put("Type", "Trace-Event"); //$NON-NLS-1$ //$NON-NLS-2$
         String dir = TmfTraceManager.getSupplementaryFileDir(this);
-        fFile = new File(dir + new File(path).getName());
-        if (!fFile.exists()) {
+        File sortedFile = new File(dir + new File(path).getName());
+        File orderedMarker = TraceEventSortingJob.getOrderedMarker(dir, this);
+        if (!sortedFile.exists() && !orderedMarker.exists()) {
             Job sortJob = new TraceEventSortingJob(this, path);
             sortJob.schedule();
             while (sortJob.getResult() == null) {
@@ -183,9 +186,14 @@ public class TraceEventTrace extends JsonTrace {
                 throw new TmfTraceException("Job failed " + result.getMessage()); //$NON-NLS-1$
             }
         }
+        // Events that are already sorted are read from the trace itself
+        fFile = orderedMarker.exists() ? new File(path) : sortedFile;
         try {
             fFileInput = new BufferedRandomAccessFile(fFile, "r"); //$NON-NLS-1$
             goToCorrectStart(fFileInput);
+            TraceEventScanner scanner = new TraceEventScanner(fFile);
+            scanner.seek(fFileInput.getFilePointer());
+            fScanner = scanner;
             /* Set the start and (current) end times for this trace */
             ITmfContext ctx = seekEvent(0L);
             if (ctx == null) {
@@ -250,7 +258,8 @@ public class TraceEventTrace extends JsonTrace {
     public ITmfEvent parseEvent(ITmfContext context) {
         @Nullable
         ITmfLocation location = context.getLocation();
-        if (location instanceof TmfLongLocation) {
+        TraceEventScanner scanner = fScanner;
+        if (location instanceof TmfLongLocation && scanner != null) {
             TmfLongLocation tmfLongLocation = (TmfLongLocation) location;
             Long locationInfo = tmfLongLocation.getLocationInfo();
             if (location.equals(NULL_LOCATION)) {
@@ -258,21 +267,16 @@ public class TraceEventTrace extends JsonTrace {
             }
             if (locationInfo != null) {
                 try {
-                    if (!locationInfo.equals(fFileInput.getFilePointer())) {
-                        fFileInput.seek(locationInfo);
+                    if (locationInfo != scanner.getPosition()) {
+                        scanner.seek(locationInfo);
                     }
-                    String nextJson = readNextEventString(() -> fFileInput.read());
-                    while (nextJson != null) {
-                        TraceEventField field = TraceEventField.parseJson(nextJson);
-                        if (field == null) {
-                            nextJson = readNextEventString(() -> fFileInput.read());
-                            continue;
-                        }
+                    TraceEventField field = scanner.next();
+                    while (field != null) {
                         if (field.getPhase() != 'M') {
                             return new TraceEventEvent(this, context.getRank(), field);
                         }
                         parseMetadata(field);
-                        nextJson = readNextEventString(() -> fFileInput.read());
+                        field = scanner.next();
                     }
                 } catch (IOException e) {
                     Activator.getInstance().logError("Error parsing event", e); //$NON-NLS-1$
@@ -282,6 +286,29 @@ public class TraceEventTrace extends JsonTrace {
         return null;
     }
 
+    @Override
+    public ITmfLocation getCurrentLocation() {
+        TraceEventScanner scanner = fScanner;
+        if (scanner == null) {
+            return super.getCurrentLocation();
+        }
+        return new TmfLongLocation(scanner.getPosition());
+    }
+
+    @Override
+    public synchronized void dispose() {
+        TraceEventScanner scanner = fScanner;
+        if (scanner != null) {
+            try {
+                scanner.close();
+            } catch (IOException e) {
+                Activator.getInstance().logError("Error closing file " + fFile, e); //$NON-NLS-1$
+            }
+            fScanner = null;
+        }
+        super.dispose();
+    }
+
     private void parseMetadata(TraceEventField field) {
         Map<@NonNull String, @NonNull Object> args = field.getArgs();
         String name = field.getName();
@@ -12,11 +12,18 @@
 package org.eclipse.tracecompass.incubator.uftrace.core.tests.trace;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.tracecompass.incubator.internal.uftrace.core.trace.DatEvent;
 import org.eclipse.tracecompass.incubator.internal.uftrace.core.trace.Uftrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.junit.Test;
 
 /**
@@ -44,4 +51,45 @@ public class IntegrationTest {
         assertEquals("event count", 113751, cnt);
     }
 
+    /**
+     * Seek at locations of the trace, the events read after the seek must be
+     * the ones read from the start of the trace
+     *
+     * @throws TmfTraceException
+     *             something went wrong
+     */
+    @Test
+    public void seekTrace() throws TmfTraceException {
+        Uftrace uft = new Uftrace();
+        uft.initTrace(null, "res/uftrace-ls", TmfEvent.class);
+        try {
+            List<ITmfLocation> locations = new ArrayList<>();
+            List<ITmfEvent> events = new ArrayList<>();
+            ITmfContext ctx = uft.seekEvent(0);
+            locations.add(ctx.getLocation());
+            ITmfEvent event = uft.getNext(ctx);
+            while (event != null) {
+                events.add(event);
+                locations.add(ctx.getLocation());
+                event = uft.getNext(ctx);
+            }
+
+            int[] ranks = { 0, 1, 4095, 4096, 4097, 50000, events.size() - 1 };
+            for (int rank : ranks) {
+                ctx = uft.seekEvent(locations.get(rank));
+                assertEquals("rank", rank, ctx.getRank());
+                event = uft.getNext(ctx);
+                assertNotNull(event);
+                ITmfEvent expected = events.get(rank);
+                assertEquals("timestamp at " + rank, expected.getTimestamp(), event.getTimestamp());
+                DatEvent expectedDat = (DatEvent) expected.getContent().getValue();
+                DatEvent dat = (DatEvent) event.getContent().getValue();
+                assertEquals("address at " + rank, expectedDat.getAddress(), dat.getAddress());
+                assertEquals("type at " + rank, expectedDat.getType(), dat.getType());
+            }
+        } finally {
+            uft.dispose();
+        }
+    }
+
 }
@@ -13,12 +13,15 @@ package org.eclipse.tracecompass.incubator.internal.uftrace.core.trace;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
 import java.util.NoSuchElementException;
 
 import org.apache.commons.lang3.math.NumberUtils;
+import org.eclipse.jdt.annotation.Nullable;
 
 import com.google.common.collect.PeekingIterator;
 
@@ -47,6 +50,8 @@ public class DatParser implements Iterable<DatEvent> {
 
     private final File fFile;
     private final long fStart;
+    private final int fTid;
+    private volatile @Nullable ByteBuffer fBuffer = null;
 
     /**
      * Data event parser
@@ -69,50 +74,159 @@ public class DatParser implements Iterable<DatEvent> {
     public DatParser(File file, long start) {
         fFile = file;
         fStart = start;
+        fTid = NumberUtils.toInt(file.getName().substring(0, file.getName().length() - 4));
     }
 
     @Override
     public PeekingIterator<DatEvent> iterator() {
+        return iterator(fStart);
+    }
 
-        try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
-            MappedByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, fStart, fc.size());
-            if (bb == null) {
-                throw new IllegalStateException("cannot create a byte buffer!"); //$NON-NLS-1$
-            }
-            return new PeekingIterator<DatEvent>() {
-
-                DatEvent fCurrent = null;
+    /**
+     * Get an iterator starting at an offset of the file. All the iterators
+     * share the mapping of the file.
+     *
+     * @param offset
+     *            the offset of the first event to read, must be the start of
+     *            an event
+     * @return the iterator
+     */
+    DatIterator iterator(long offset) {
+        ByteBuffer bb = getBuffer().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        bb.position((int) Math.min(offset, bb.limit()));
+        return new DatIterator(bb, fTid);
+    }
 
-                @Override
-                public DatEvent next() {
-                    if (!hasNext()) {
-                        throw new NoSuchElementException("no more data"); //$NON-NLS-1$
+    private ByteBuffer getBuffer() {
+        ByteBuffer buffer = fBuffer;
+        if (buffer == null) {
+            synchronized (this) {
+                buffer = fBuffer;
+                if (buffer == null) {
+                    try (FileChannel fc = FileChannel.open(fFile.toPath(), StandardOpenOption.READ)) {
+                        MappedByteBuffer bb = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+                        if (bb == null) {
+                            throw new IllegalStateException("cannot create a byte buffer!"); //$NON-NLS-1$
+                        }
+                        buffer = bb;
+                        fBuffer = bb;
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
                     }
-                    fCurrent = DatEvent.create(bb,
-                            NumberUtils.toInt(fFile.getName().substring(0, fFile.getName().length() - 4)));
-                    return fCurrent;
                 }
+            }
+        }
+        return buffer;
+    }
 
-                @Override
-                public boolean hasNext() {
-                    return bb.remaining() > Long.BYTES * 2;
-                }
+    /**
+     * Get the data file
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return fFile;
+    }
 
-                @Override
-                public DatEvent peek() {
-                    if (fCurrent == null && hasNext()) {
-                        return next();
-                    }
-                    return fCurrent;
-                }
+    /**
+     * Get the TID of the task of this data file
+     *
+     * @return the TID
+     */
+    public int getTid() {
+        return fTid;
+    }
 
-                @Override
-                public void remove() {
-                    throw new UnsupportedOperationException("can't"); //$NON-NLS-1$
-                }
-            };
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
+    /**
+     * Iterator on the events of a data file, that knows the offset of the next
+     * event in the file. The merge of the data files only reads the timestamp
+     * of the next event, a {@link DatEvent} is created only when the event is
+     * returned by {@link #next()} or {@link #peek()}.
+     */
+    static final class DatIterator implements PeekingIterator<DatEvent> {
+
+        private final ByteBuffer fBuffer;
+        private final int fTid;
+        /* The next event, read from the buffer */
+        private boolean fPeeked = false;
+        private long fTime;
+        private long fPayload;
+
+        private DatIterator(ByteBuffer buffer, int tid) {
+            fBuffer = buffer;
+            fTid = tid;
+        }
+
+        @Override
+        public DatEvent next() {
+            advance();
+            return DatEvent.create(fTime, fPayload, fTid);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return fPeeked || fBuffer.remaining() > Long.BYTES * 2;
+        }
+
+        @Override
+        public DatEvent peek() {
+            return DatEvent.create(peekTime(), fPayload, fTid);
+        }
+
+        /**
+         * Get the timestamp of the next event, without creating it
+         *
+         * @return the timestamp
+         */
+        public long peekTime() {
+            if (!fPeeked) {
+                read();
+                fPeeked = true;
+            }
+            return fTime;
+        }
+
+        /**
+         * Move past the next event, without creating it
+         */
+        public void advance() {
+            if (fPeeked) {
+                fPeeked = false;
+            } else {
+                read();
+            }
+        }
+
+        private void read() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("no more data"); //$NON-NLS-1$
+            }
+            fTime = fBuffer.getLong();
+            fPayload = fBuffer.getLong();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("can't"); //$NON-NLS-1$
+        }
+
+        /**
+         * Get the TID of the data file
+         *
+         * @return the TID
+         */
+        public int getTid() {
+            return fTid;
+        }
+
+        /**
+         * Get the offset in the file of the next event returned by
+         * {@link #next()}
+         *
+         * @return the offset
+         */
+        public long getOffset() {
+            return fBuffer.position() - (fPeeked ? Long.BYTES * 2 : 0);
         }
     }
 }
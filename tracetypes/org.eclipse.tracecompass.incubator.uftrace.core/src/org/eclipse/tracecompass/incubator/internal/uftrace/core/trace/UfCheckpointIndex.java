@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 École Polytechnique de Montréal
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.incubator.internal.uftrace.core.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+
+/**
+ * Checkpoint index of a uftrace, saved in the supplementary directory. Every
+ * {@link #getInterval()} events of the merged data files, a checkpoint saves
+ * the offset of the next event to read in each data file. A {@link UfContext}
+ * restored from a checkpoint reads the same events as one that read the trace
+ * from the start, so a seek reads at most one interval of events, whatever the
+ * size of the trace.
+ *
+ * The file contains a header, to check that it matches the data files, followed
+ * by the checkpoints, each an array of one offset per data file.
+ */
+public final class UfCheckpointIndex {
+
+    private static final long MAGIC = 0x5546494e44455831L; // "UFINDEX1"
+    private static final int VERSION = 1;
+    /**
+     * Minimum number of events between checkpoints
+     */
+    private static final int MIN_INTERVAL = 4096;
+    /**
+     * Events between checkpoints for each data file, to keep the index small
+     * for traces with many threads
+     */
+    private static final int INTERVAL_PER_FILE = 64;
+
+    private final int fInterval;
+    private final int fNbDats;
+    private final LongBuffer fCheckpoints;
+
+    private UfCheckpointIndex(int interval, int nbDats, LongBuffer checkpoints) {
+        fInterval = interval;
+        fNbDats = nbDats;
+        fCheckpoints = checkpoints;
+    }
+
+    /**
+     * Open the index of the data files, building it if the file does not exist
+     * or is not the index of these data files
+     *
+     * @param file
+     *            the index file
+     * @param dats
+     *            the data files, in the order of the contexts
+     * @param trace
+     *            the trace
+     * @return the index
+     * @throws IOException
+     *             Exceptions reading or writing the index
+     */
+    public static UfCheckpointIndex open(File file, List<DatParser> dats, ITmfTrace trace) throws IOException {
+        if (file.exists()) {
+            UfCheckpointIndex index = load(file, dats);
+            if (index != null) {
+                return index;
+            }
+        }
+        build(file, dats, trace);
+        UfCheckpointIndex index = load(file, dats);
+        if (index == null) {
+            throw new IOException("Invalid index file " + file); //$NON-NLS-1$
+        }
+        return index;
+    }
+
+    /**
+     * Get the number of events between checkpoints
+     *
+     * @return the interval
+     */
+    public int getInterval() {
+        return fInterval;
+    }
+
+    /**
+     * Get the number of checkpoints
+     *
+     * @return the number of checkpoints
+     */
+    public int size() {
+        return fCheckpoints.limit() / Math.max(1, fNbDats);
+    }
+
+    /**
+     * Get the offsets of the data files at a checkpoint
+     *
+     * @param checkpoint
+     *            the checkpoint, the one of rank checkpoint * interval
+     * @return the offset of the next event in each data file
+     */
+    public long[] getOffsets(int checkpoint) {
+        long[] offsets = new long[fNbDats];
+        LongBuffer checkpoints = fCheckpoints.duplicate();
+        checkpoints.position(checkpoint * fNbDats);
+        checkpoints.get(offsets);
+        return offsets;
+    }
+
+    private static void build(File file, List<DatParser> dats, ITmfTrace trace) throws IOException {
+        int interval = Math.max(MIN_INTERVAL, dats.size() * INTERVAL_PER_FILE);
+        File tmpFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            writeHeader(out, interval, dats);
+            UfContext context = new UfContext(dats, trace);
+            do {
+                for (long offset : context.getOffsets()) {
+                    out.writeLong(offset);
+                }
+            } while (context.skip(interval) == interval);
+        }
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeHeader(DataOutputStream out, int interval, List<DatParser> dats) throws IOException {
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(interval);
+        out.writeInt(dats.size());
+        for (DatParser dat : dats) {
+            out.writeUTF(dat.getFile().getName());
+            out.writeLong(dat.getFile().length());
+        }
+    }
+
+    private static @Nullable UfCheckpointIndex load(File file, List<DatParser> dats) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Not buffered, so that the channel position is the end of the header
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            if (in.readLong() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int interval = in.readInt();
+            if (interval <= 0 || in.readInt() != dats.size()) {
+                return null;
+            }
+            for (DatParser dat : dats) {
+                if (!in.readUTF().equals(dat.getFile().getName()) || in.readLong() != dat.getFile().length()) {
+                    return null;
+                }
+            }
+            long headerSize = channel.position();
+            long size = channel.size() - headerSize;
+            if (size % ((long) Long.BYTES * Math.max(1, dats.size())) != 0) {
+                return null;
+            }
+            LongBuffer checkpoints = channel.map(FileChannel.MapMode.READ_ONLY, headerSize, size).asLongBuffer();
+            return new UfCheckpointIndex(interval, dats.size(), checkpoints);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
@@ -11,9 +11,12 @@
 
 package org.eclipse.tracecompass.incubator.internal.uftrace.core.trace;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.incubator.internal.uftrace.core.trace.DatParser.DatIterator;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.TmfEvent;
@@ -22,18 +25,30 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
 
-import com.google.common.collect.PeekingIterator;
-
 /**
- * Naive context
+ * Context merging the events of the data files by timestamp. Events with the
+ * same timestamp are ordered by TID, so that the merge only depends on the
+ * offsets in the data files, which can be saved in a
+ * {@link UfCheckpointIndex} and restored.
+ *
+ * The location of the context is the position of the next event to read in
+ * the merged events, ie its rank times the size of an event.
  *
  * @author Matthew Khouzam
  *
  */
 public class UfContext extends TmfContext {
 
-    private PriorityQueue<PeekingIterator<DatEvent>> fQueue = new PriorityQueue<>(
-            (o1, o2) -> Long.compare(o1.peek().getTime(), o2.peek().getTime()));
+    /**
+     * Size of an event in the data files
+     */
+    static final long EVENT_SIZE = Long.BYTES * 2;
+
+    private static final Comparator<DatIterator> COMPARATOR = Comparator.comparingLong(DatIterator::peekTime)
+            .thenComparingInt(DatIterator::getTid);
+
+    private final PriorityQueue<DatIterator> fQueue = new PriorityQueue<>(COMPARATOR);
+    private final DatIterator[] fIterators;
     private ITmfTrace fTrace;
 
     /**
@@ -44,10 +59,29 @@ public class UfContext extends TmfContext {
      * @param trace
      *            trace
      */
-    public UfContext(Iterable<DatParser> dats, ITmfTrace trace) {
+    public UfContext(List<DatParser> dats, ITmfTrace trace) {
+        this(dats, new long[dats.size()], 0L, trace);
+    }
+
+    /**
+     * Constructor from a saved position in the data files
+     *
+     * @param dats
+     *            data streams
+     * @param offsets
+     *            offset of the next event to read in each data stream
+     * @param rank
+     *            rank of the next event to read
+     * @param trace
+     *            trace
+     */
+    public UfContext(List<DatParser> dats, long[] offsets, long rank, ITmfTrace trace) {
+        super(new TmfLongLocation(rank * EVENT_SIZE), rank);
         fTrace = trace;
-        for (DatParser dp : dats) {
-            PeekingIterator<DatEvent> iterator = dp.iterator();
+        fIterators = new DatIterator[dats.size()];
+        for (int i = 0; i < fIterators.length; i++) {
+            DatIterator iterator = dats.get(i).iterator(offsets[i]);
+            fIterators[i] = iterator;
             if (iterator.hasNext()) {
                 fQueue.add(iterator);
             }
@@ -60,29 +94,66 @@ public class UfContext extends TmfContext {
     }
 
     /**
-     * Get next event, like an iterator
+     * Get next event, like an iterator. The location and rank of the context
+     * are not updated, the trace updates them.
      *
      * @return the next event or null
      */
-    public ITmfEvent getNext() {
-        PeekingIterator<DatEvent> eventSource = fQueue.poll();
+    public @Nullable ITmfEvent getNext() {
+        DatIterator eventSource = fQueue.poll();
         if (eventSource != null) {
             DatEvent event = eventSource.next();
             if (eventSource.hasNext()) {
                 fQueue.add(eventSource);
             }
-            TmfEvent tmfEvent = new TmfEvent(fTrace, getRank(), fTrace.createTimestamp(event.getTime()),
+            return new TmfEvent(fTrace, getRank(), fTrace.createTimestamp(event.getTime()),
                     UfEventType.lookup(event.getType()),
                     new TmfEventField(ITmfEventField.ROOT_FIELD_ID, event, null));
-            TmfLongLocation location = getLocation();
-            if (location != null) {
-                setLocation(new TmfLongLocation(location.getLocationInfo() + Long.BYTES * 2));
-            } else {
-                setLocation(new TmfLongLocation(Long.BYTES * 2));
-            }
-            return tmfEvent;
         }
         return null;
     }
 
+    /**
+     * Skip events, updating the location and rank of the context. The events
+     * are not created.
+     *
+     * @param nbEvents
+     *            the number of events to skip
+     * @return the number of events skipped, less than nbEvents at the end of
+     *         the trace
+     */
+    public long skip(long nbEvents) {
+        long skipped = 0;
+        while (skipped < nbEvents) {
+            DatIterator eventSource = fQueue.poll();
+            if (eventSource == null) {
+                break;
+            }
+            eventSource.advance();
+            if (eventSource.hasNext()) {
+                fQueue.add(eventSource);
+            }
+            skipped++;
+        }
+        if (skipped > 0) {
+            setRank(getRank() + skipped);
+            setLocation(new TmfLongLocation(getRank() * EVENT_SIZE));
+        }
+        return skipped;
+    }
+
+    /**
+     * Get the offset of the next event to read in each data stream, in the
+     * order of the data streams of the constructor
+     *
+     * @return the offsets
+     */
+    public long[] getOffsets() {
+        long[] offsets = new long[fIterators.length];
+        for (int i = 0; i < fIterators.length; i++) {
+            offsets[i] = fIterators[i].getOffset();
+        }
+        return offsets;
+    }
+
 }
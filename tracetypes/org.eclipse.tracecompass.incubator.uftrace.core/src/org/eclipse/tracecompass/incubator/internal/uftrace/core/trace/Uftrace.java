@@ -16,14 +16,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.io.FilenameUtils;
@@ -53,6 +52,7 @@ import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceKnownSize;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTraceWithPreDefinedEvents;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TraceValidationStatus;
 import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
 import org.eclipse.tracecompass.tmf.core.trace.location.TmfLongLocation;
@@ -79,12 +79,15 @@ import com.google.common.collect.Iterables;
 public class Uftrace extends TmfTrace implements ITmfPropertiesProvider,
         ITmfTraceKnownSize, ITmfTraceWithPreDefinedEvents {
 
-    private Collection<DatParser> fDats = new ArrayList<>();
+    private static final String INDEX_FILE_NAME = "uftrace.idx"; //$NON-NLS-1$
+
+    private List<DatParser> fDats = new ArrayList<>();
     private Map<Long, MapParser> fMap = new HashMap<>();
     private Map<String, SymParser> fSyms = new HashMap<>();
     private TaskParser fTasks;
     private TmfLongLocation fCurrentLoc = new TmfLongLocation(0L);
     private InfoParser fInfo;
+    private @Nullable UfCheckpointIndex fIndex;
 
     private long fSize;
 
@@ -245,6 +248,15 @@ public class Uftrace extends TmfTrace implements ITmfPropertiesProvider,
                 throw new TmfTraceException(e.getMessage(), e);
             }
         }
+        // The contexts and the index need the data files in a stable order
+        fDats.sort(Comparator.comparing(dat -> dat.getFile().getName()));
+        try {
+            File indexFile = new File(TmfTraceManager.getSupplementaryFileDir(this) + INDEX_FILE_NAME);
+            fIndex = UfCheckpointIndex.open(indexFile, fDats, this);
+        } catch (IOException e) {
+            // Seeks will read the trace from the start
+            Activator.getInstance().logWarning("Cannot open the checkpoint index of trace " + path, e); //$NON-NLS-1$
+        }
     }
 
     @Override
@@ -254,34 +266,34 @@ public class Uftrace extends TmfTrace implements ITmfPropertiesProvider,
 
     @Override
     public double getLocationRatio(ITmfLocation location) {
-        return (long) location.getLocationInfo() / fSize;
+        return (double) (long) location.getLocationInfo() / fSize;
     }
 
     @Override
     public ITmfContext seekEvent(ITmfLocation location) {
-        UfContext context = new UfContext(fDats, this);
-        if (location == null) {
-            return context;
-        }
+        long rank = 0;
         if (location instanceof TmfLongLocation) {
-            TmfLongLocation longLocation = (TmfLongLocation) location;
-            if (longLocation.getLocationInfo().longValue() == 0) {
-                return context;
-            }
-            while (context.getLocation() != null && Long.compare(longLocation.getLocationInfo(), Objects.requireNonNull(context.getLocation()).getLocationInfo()) >= 0) {
-                ITmfEvent next = context.getNext();
-                if (next == null) {
-                    break;
-                }
-                updateAttributes(context, next);
-                if (context.getLocation() == null) {
-                    return context;
-                }
-            }
+            rank = ((TmfLongLocation) location).getLocationInfo() / UfContext.EVENT_SIZE;
+        }
+        UfCheckpointIndex index = fIndex;
+        if (rank == 0 || index == null || index.size() == 0) {
+            UfContext context = new UfContext(fDats, this);
+            skip(context, rank);
+            return context;
         }
+        // Restore the merge from the closest checkpoint, then read the rest
+        int checkpoint = (int) Math.min(rank / index.getInterval(), index.size() - 1L);
+        UfContext context = new UfContext(fDats, index.getOffsets(checkpoint), (long) checkpoint * index.getInterval(), this);
+        skip(context, rank);
         return context;
     }
 
+    private static void skip(UfContext context, long rank) {
+        if (context.getRank() < rank) {
+            context.skip(rank - context.getRank());
+        }
+    }
+
     @Override
     public ITmfContext seekEvent(double ratio) {
         return seekEvent(new TmfLongLocation((long) (ratio * fSize)));
@@ -293,13 +305,13 @@ public class Uftrace extends TmfTrace implements ITmfPropertiesProvider,
         if (context == null) {
             context = seekEvent(0);
         }
-        if (ctx instanceof UfContext) {
-            UfContext ufContext = (UfContext) ctx;
+        if (context instanceof UfContext) {
+            UfContext ufContext = (UfContext) context;
             ITmfEvent tmfEvent = ufContext.getNext();
             if (tmfEvent != null) {
-                fCurrentLoc = new TmfLongLocation(fCurrentLoc.getLocationInfo() + Long.BYTES * 2);
-                ctx.setLocation(fCurrentLoc);
-                updateAttributes(context, tmfEvent);
+                // The location of the next event, the caller updates the context
+                TmfLongLocation location = ufContext.getLocation();
+                fCurrentLoc = new TmfLongLocation((location != null ? location.getLocationInfo() : 0L) + UfContext.EVENT_SIZE);
                 return tmfEvent;
             }
         }